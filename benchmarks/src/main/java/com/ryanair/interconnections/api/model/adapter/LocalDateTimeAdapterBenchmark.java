@@ -0,0 +1,49 @@
+package com.ryanair.interconnections.api.model.adapter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marshalling of the date times of the flights in the data grid with the LocalDateTimeAdapter.
+ * It is in the package of the adapter to call its package private methods
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalDateTimeAdapterBenchmark {
+
+    private LocalDateTimeAdapter adapter;
+    private LocalDateTime localDateTime;
+    private String text;
+
+    @Setup
+    public void setup() {
+        adapter = new LocalDateTimeAdapter();
+        localDateTime = LocalDateTime.parse("2020-09-25T06:05");
+        text = adapter.text(localDateTime);
+    }
+
+    @Benchmark
+    public String marshall() {
+        return adapter.text(localDateTime);
+    }
+
+    @Benchmark
+    public LocalDateTime unmarshall() {
+        return adapter.create(text);
+    }
+}
@@ -0,0 +1,75 @@
+package com.ryanair.interconnections.api.service;
+
+import com.ryanair.interconnections.api.metrics.SearchMetrics;
+import com.ryanair.interconnections.api.model.airport.RouteNetwork;
+import com.ryanair.interconnections.api.model.explore.DestinationSummary;
+import com.ryanair.interconnections.api.model.plan.FetchPlan;
+import com.ryanair.interconnections.api.model.route.Route;
+import com.ryanair.interconnections.api.model.schedule.ConnectionRules;
+import com.ryanair.interconnections.api.model.schedule.LegTimetable;
+import com.ryanair.interconnections.benchmark.RecordedFixtures;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules logic of a search over the recorded responses of the Schedules API: <br/>
+ * * getFlightsForARoute: the conversion of the schedule of a route to a leg timetable <br/>
+ * * oneStopJoin: the join of the legs of every one stop route of MAD-DUB in a month (getOneStopFlights),
+ * reading the legs from a fetch plan that has them already, with no maximum layover (0) or with a maximum layover
+ * It is in the package of the services to call their protected methods
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulesServiceBenchmark {
+
+    private static final LocalDateTime DEPARTURE_DATE_TIME = RecordedFixtures.MONTH;
+    private static final LocalDateTime ARRIVAL_DATE_TIME = LocalDateTime.parse("2020-09-30T23:59");
+
+    @Param({"0", "360"})
+    private int maxLayoverMinutes;
+
+    private SchedulesOneStopService schedulesOneStopService;
+    private Route route;
+    private List<List<Route>> oneStopRoutes;
+    private FetchPlan<LegTimetable> fetchPlan;
+
+    @Setup
+    public void setup() {
+        schedulesOneStopService = new SchedulesOneStopService(RecordedFixtures.schedulesClient(), Runnable::run, new SearchMetrics(new SimpleMeterRegistry()), ConnectionRules.of(120, "", maxLayoverMinutes));
+        RouteNetwork routeNetwork = new RouteNetwork(RecordedFixtures.routes());
+        route = routeNetwork.getDirectRoute("MAD", "DUB");
+        oneStopRoutes = routeNetwork.getInterconnectedRoutes("MAD", "DUB");
+
+        fetchPlan = schedulesOneStopService.newFetchPlan();
+        schedulesOneStopService.planFlights(fetchPlan, oneStopRoutes, null, DEPARTURE_DATE_TIME, ARRIVAL_DATE_TIME);
+        fetchPlan.await();
+    }
+
+    @Benchmark
+    public LegTimetable getFlightsForARoute() {
+        return schedulesOneStopService.getFlightsForARoute(route, DEPARTURE_DATE_TIME);
+    }
+
+    @Benchmark
+    public DestinationSummary oneStopJoin() {
+        return schedulesOneStopService.getDestinationSummary(oneStopRoutes, null, "DUB", DEPARTURE_DATE_TIME, ARRIVAL_DATE_TIME, fetchPlan);
+    }
+}
@@ -0,0 +1,101 @@
+package com.ryanair.interconnections.benchmark;
+
+import com.ryanair.interconnections.api.concurrent.BoundedVirtualThreadExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparison of the platform and the virtual thread execution modes of the API, with a burst of concurrent
+ * requests that block in the upstream APIs like a search does: one Routes API call, and a fan-out of
+ * Schedules API calls through the schedules executor. <br/>
+ * The platform mode has the 200 threads of Tomcat by default and a fixed pool of schedules threads,
+ * the virtual mode has a virtual thread per request and per fetch, with the same bound of concurrent fetches
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final long ROUTES_LATENCY_MILLIS = 20;
+    private static final long SCHEDULES_LATENCY_MILLIS = 10;
+    private static final int TIMETABLES_PER_REQUEST = 8;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"1000"})
+    private int requests;
+
+    @Param({"16", "256", "4096"})
+    private int schedulesConcurrency;
+
+    private ExecutorService requestExecutor;
+    private ExecutorService schedulesExecutor;
+
+    @Setup
+    public void setup() {
+        if (mode.equals("virtual")) {
+            requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            schedulesExecutor = new BoundedVirtualThreadExecutor("schedulesExecutor", schedulesConcurrency);
+        } else {
+            requestExecutor = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+            schedulesExecutor = Executors.newFixedThreadPool(schedulesConcurrency);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        requestExecutor.shutdownNow();
+        schedulesExecutor.shutdownNow();
+    }
+
+    private static void callUpstream(long latencyMillis) {
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handleRequest() {
+        callUpstream(ROUTES_LATENCY_MILLIS);
+        List<CompletableFuture<Void>> timetables = new ArrayList<>();
+        for (int i = 0; i < TIMETABLES_PER_REQUEST; i++) {
+            timetables.add(CompletableFuture.runAsync(() -> callUpstream(SCHEDULES_LATENCY_MILLIS), schedulesExecutor));
+        }
+        CompletableFuture.allOf(timetables.toArray(new CompletableFuture[0])).join();
+    }
+
+    /**
+     * @return the time to handle a burst of concurrent requests
+     */
+    @Benchmark
+    public void burst() {
+        List<CompletableFuture<Void>> responses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            responses.add(CompletableFuture.runAsync(this::handleRequest, requestExecutor));
+        }
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).join();
+    }
+}
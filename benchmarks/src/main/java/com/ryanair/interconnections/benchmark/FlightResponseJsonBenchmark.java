@@ -0,0 +1,87 @@
+package com.ryanair.interconnections.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ryanair.interconnections.api.converter.FlightResponseJsonWriter;
+import com.ryanair.interconnections.api.model.response.FlightLegResponse;
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparison of the JSON serialization of the interconnections response, between the Jackson
+ * path of Spring MVC and the FlightResponseJsonWriter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlightResponseJsonBenchmark {
+
+    private static final String[] HUBS = {"STN", "BGY", "CRL", "BCN", "DUB", "LPA", "PMI", "AGP"};
+
+    @Param({"10", "1000"})
+    private int flights;
+
+    private List<FlightResponse> flightList;
+    private ObjectWriter jacksonWriter;
+    private FlightResponseJsonWriter flightResponseJsonWriter;
+    private ByteArrayOutputStream outputStream;
+
+    @Setup
+    public void setup() {
+        flightList = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.parse("2020-09-25T06:05");
+        for (int i = 0; i < flights; i++) {
+            LocalDateTime departure = start.plusMinutes(37L * i);
+            if (i % 4 == 0) {
+                flightList.add(new FlightResponse(0, Collections.singletonList(
+                        new FlightLegResponse("MAD", "DUB", departure, departure.plusMinutes(150)))));
+            } else {
+                String hub = HUBS[i % HUBS.length];
+                flightList.add(new FlightResponse(1, Arrays.asList(
+                        new FlightLegResponse("MAD", hub, departure, departure.plusMinutes(140)),
+                        new FlightLegResponse(hub, "DUB", departure.plusMinutes(260), departure.plusMinutes(330)))));
+            }
+        }
+        // Same object mapper that Spring Boot configures for the Jackson message converter
+        jacksonWriter = Jackson2ObjectMapperBuilder.json().build().writerFor(new TypeReference<List<FlightResponse>>() {});
+        flightResponseJsonWriter = new FlightResponseJsonWriter();
+        outputStream = new ByteArrayOutputStream(flights * 256);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream jackson() throws IOException {
+        outputStream.reset();
+        jacksonWriter.writeValue(outputStream, flightList);
+        return outputStream;
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream flightResponseJsonWriter() throws IOException {
+        outputStream.reset();
+        flightResponseJsonWriter.write(flightList, outputStream);
+        return outputStream;
+    }
+}
@@ -0,0 +1,107 @@
+package com.ryanair.interconnections.benchmark;
+
+import com.ryanair.interconnections.api.model.response.FlightLegResponse;
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+import com.ryanair.interconnections.api.model.response.InterconnectionResponse;
+import com.ryanair.interconnections.api.model.schedule.Day;
+import com.ryanair.interconnections.api.model.schedule.Flight;
+import com.ryanair.interconnections.api.model.schedule.Schedule;
+import com.ryanair.interconnections.cache.schema.InterconnectionsSchemaBuilderImpl;
+import org.infinispan.protostream.GeneratedSchema;
+import org.infinispan.protostream.ProtobufUtil;
+import org.infinispan.protostream.SerializationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Protostream encoding and decoding of the InterconnectionResponse stored in the data grid, with the flights of
+ * the first week of the MAD-DUB search of the recorded responses: the direct flights, and the one stop flights
+ * of the same day with a layover of 2 hours or more
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterconnectionResponseProtostreamBenchmark {
+
+    private static final int DAYS = 7;
+    private static final int MIN_LAYOVER_MINUTES = 120;
+
+    private SerializationContext serializationContext;
+    private InterconnectionResponse interconnectionResponse;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        GeneratedSchema schema = new InterconnectionsSchemaBuilderImpl();
+        serializationContext = ProtobufUtil.newSerializationContext();
+        schema.registerSchema(serializationContext);
+        schema.registerMarshallers(serializationContext);
+
+        Map<String, Schedule> schedules = RecordedFixtures.schedules();
+        List<FlightResponse> flights = new ArrayList<>();
+        for (FlightLegResponse leg : legs(schedules.get("MAD-DUB"), "MAD", "DUB")) {
+            flights.add(new FlightResponse(0, Collections.singletonList(leg)));
+        }
+        for (Map.Entry<String, Schedule> firstLegSchedule : schedules.entrySet()) {
+            String hub = firstLegSchedule.getKey().substring(4);
+            Schedule secondLegSchedule = schedules.get(hub + "-DUB");
+            if (!firstLegSchedule.getKey().startsWith("MAD-") || hub.equals("DUB") || secondLegSchedule == null) {
+                continue;
+            }
+            for (FlightLegResponse firstLeg : legs(firstLegSchedule.getValue(), "MAD", hub)) {
+                for (FlightLegResponse secondLeg : legs(secondLegSchedule, hub, "DUB")) {
+                    if (firstLeg.getDepartureDateTime().toLocalDate().equals(secondLeg.getDepartureDateTime().toLocalDate())
+                            && !firstLeg.getArrivalDateTime().plusMinutes(MIN_LAYOVER_MINUTES).isAfter(secondLeg.getDepartureDateTime())) {
+                        flights.add(new FlightResponse(1, Arrays.asList(firstLeg, secondLeg)));
+                    }
+                }
+            }
+        }
+        interconnectionResponse = new InterconnectionResponse(flights);
+        encoded = ProtobufUtil.toWrappedByteArray(serializationContext, interconnectionResponse);
+    }
+
+    private static List<FlightLegResponse> legs(Schedule schedule, String departure, String arrival) {
+        List<FlightLegResponse> legs = new ArrayList<>();
+        for (Day day : schedule.getDays()) {
+            if (day.getDay() > DAYS) {
+                continue;
+            }
+            LocalDateTime date = RecordedFixtures.MONTH.withDayOfMonth(day.getDay());
+            for (Flight flight : day.getFlights()) {
+                legs.add(new FlightLegResponse(departure, arrival, date.with(flight.getDepartureTime()), date.with(flight.getArrivalTime())));
+            }
+        }
+        return legs;
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return ProtobufUtil.toWrappedByteArray(serializationContext, interconnectionResponse);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return ProtobufUtil.fromWrappedByteArray(serializationContext, encoded);
+    }
+}
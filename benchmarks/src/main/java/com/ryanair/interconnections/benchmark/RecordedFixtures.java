@@ -0,0 +1,78 @@
+package com.ryanair.interconnections.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ryanair.interconnections.api.client.SchedulesClient;
+import com.ryanair.interconnections.api.model.route.Route;
+import com.ryanair.interconnections.api.model.schedule.Schedule;
+import com.ryanair.interconnections.api.snapshot.WarmCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Responses of the Routes and Schedules APIs stored as fixtures, so the benchmarks do not depend on the network: <br/>
+ * * fixtures/routes.json: the response of the Routes API <br/>
+ * * fixtures/schedules-2020-09.json: the responses of the Schedules API for September 2020 of every route
+ * that departs from MAD or arrives to DUB, with the route as key (MAD-STN)
+ */
+public final class RecordedFixtures {
+
+    public static final LocalDateTime MONTH = LocalDateTime.parse("2020-09-01T00:00");
+
+    private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private RecordedFixtures() {
+    }
+
+    /**
+     * @return the routes of the Routes API
+     */
+    public static List<Route> routes() {
+        return read("fixtures/routes.json", new TypeReference<List<Route>>() {});
+    }
+
+    /**
+     * @return the schedules of the Schedules API, with the route as key
+     */
+    public static Map<String, Schedule> schedules() {
+        return read("fixtures/schedules-2020-09.json", new TypeReference<Map<String, Schedule>>() {});
+    }
+
+    /**
+     * Build a Schedules API client that answers with the recorded schedules, without requests
+     * @return the client of the recorded schedules. A route without a recorded schedule has no flights
+     */
+    public static SchedulesClient schedulesClient() {
+        Map<String, Schedule> schedules = schedules();
+        Schedule emptySchedule = new Schedule();
+        emptySchedule.setMonth(MONTH.getMonthValue());
+        emptySchedule.setDays(Collections.emptyList());
+
+        return new SchedulesClient(new SimpleMeterRegistry(), 0.1, null, WarmCache.disabled()) {
+            @Override
+            public Schedule getSchedule(Route route, LocalDateTime dateTime, Duration timeout) {
+                return schedules.getOrDefault(route.getAirportFrom() + "-" + route.getAirportTo(), emptySchedule);
+            }
+        };
+    }
+
+    private static <T> T read(String fixture, TypeReference<T> type) {
+        try (InputStream inputStream = RecordedFixtures.class.getClassLoader().getResourceAsStream(fixture)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Missing fixture " + fixture);
+            }
+            return OBJECT_MAPPER.readValue(inputStream, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
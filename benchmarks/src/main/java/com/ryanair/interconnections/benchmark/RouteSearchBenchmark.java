@@ -0,0 +1,63 @@
+package com.ryanair.interconnections.benchmark;
+
+import com.ryanair.interconnections.api.model.airport.RouteNetwork;
+import com.ryanair.interconnections.api.model.route.Route;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search of the one stop routes between two airports with Airport.findInterconnectedRoutes,
+ * over the recorded response of the Routes API
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteSearchBenchmark {
+
+    @Param({"MAD-DUB", "KRK-SNN"})
+    private String search;
+
+    private List<Route> routes;
+    private RouteNetwork routeNetwork;
+    private String departure;
+    private String arrival;
+
+    @Setup
+    public void setup() {
+        routes = RecordedFixtures.routes();
+        routeNetwork = new RouteNetwork(routes);
+        departure = search.substring(0, 3);
+        arrival = search.substring(4);
+    }
+
+    /**
+     * @return the one stop routes of the search, from Airport.findInterconnectedRoutes of the departure airport
+     */
+    @Benchmark
+    public List<List<Route>> findInterconnectedRoutes() {
+        return routeNetwork.getInterconnectedRoutes(departure, arrival);
+    }
+
+    /**
+     * @return the network of routes, built as a search does for every download of the Routes API
+     */
+    @Benchmark
+    public RouteNetwork buildRouteNetwork() {
+        return new RouteNetwork(routes);
+    }
+}
@@ -0,0 +1,186 @@
+package com.ryanair.interconnections.loadtest;
+
+import com.ryanair.interconnections.api.model.route.Route;
+import com.ryanair.interconnections.benchmark.RecordedFixtures;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Closed loop load generator of the /interconnections endpoint: every client sends a search, waits for the response
+ * and sends the next one, during the given duration. <br/>
+ * The searches are a mix of: <br/>
+ * * hot searches, the same few routes and dates repeated, that are answered from the data grid <br/>
+ * * cold searches, random routes of the fixtures and random days of the month, that query the Schedules API <br/>
+ * At the end it reports the throughput, the latency percentiles and the number of responses of every status code.
+ */
+public class LoadGenerator {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+    private static final int HOT_SEARCHES = 8;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final double hotRatio;
+    private final List<String> hotSearches;
+    private final List<Route> routes;
+
+    public LoadGenerator(String baseUrl, double hotRatio) {
+        this.baseUrl = baseUrl;
+        this.hotRatio = hotRatio;
+        this.routes = RecordedFixtures.routes().stream()
+                .filter(route -> route.getConnectingAirport() == null)
+                .collect(Collectors.toList());
+        Random random = new Random(0);
+        this.hotSearches = new ArrayList<>();
+        for (int i = 0; i < HOT_SEARCHES; i++) {
+            hotSearches.add(randomSearch(random));
+        }
+    }
+
+    /**
+     * Run the clients during the duration
+     * @param clients number of concurrent clients
+     * @param duration time to send searches
+     * @return the result of every search
+     */
+    public Report run(int clients, Duration duration) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        long endNanos = System.nanoTime() + duration.toNanos();
+        List<Future<Report>> futures = new ArrayList<>();
+        for (int client = 0; client < clients; client++) {
+            Random random = new Random(client + 1L);
+            String clientId = "load-" + client;
+            futures.add(executor.submit(() -> runClient(clientId, random, endNanos)));
+        }
+
+        Report report = new Report();
+        for (Future<Report> future : futures) {
+            report.merge(future.get());
+        }
+        executor.shutdown();
+        report.elapsedNanos = duration.toNanos();
+        return report;
+    }
+
+    private Report runClient(String clientId, Random random, long endNanos) {
+        Report report = new Report();
+        while (System.nanoTime() < endNanos) {
+            String search = random.nextDouble() < hotRatio ? hotSearches.get(random.nextInt(hotSearches.size())) : randomSearch(random);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/interconnections?" + search))
+                    .header("X-Client-Id", clientId)
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception e) {
+                status = -1;
+            }
+            report.add(status, System.nanoTime() - start);
+        }
+        return report;
+    }
+
+    /**
+     * Build the query of a search of a random route of the fixtures in a random day of the recorded month
+     */
+    private String randomSearch(Random random) {
+        Route route = routes.get(random.nextInt(routes.size()));
+        LocalDateTime departureDateTime = RecordedFixtures.MONTH.plusDays(random.nextInt(28)).withHour(6);
+        return "departure=" + route.getAirportFrom()
+                + "&arrival=" + route.getAirportTo()
+                + "&departureDateTime=" + departureDateTime.format(DATE_TIME_FORMATTER)
+                + "&arrivalDateTime=" + departureDateTime.withHour(23).format(DATE_TIME_FORMATTER);
+    }
+
+    /**
+     * Latencies and status codes of the searches
+     */
+    public static class Report {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long elapsedNanos;
+        private final Map<Integer, Integer> statusCodes = new TreeMap<>();
+
+        void add(int status, long latencyNanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            statusCodes.merge(status, 1, Integer::sum);
+        }
+
+        void merge(Report report) {
+            latencies = Arrays.copyOf(latencies, Math.max(latencies.length, count + report.count));
+            System.arraycopy(report.latencies, 0, latencies, count, report.count);
+            count += report.count;
+            report.statusCodes.forEach((status, responses) -> statusCodes.merge(status, responses, Integer::sum));
+        }
+
+        /**
+         * Get the latency of a percentile, in milliseconds
+         * @param percentile from 0 to 100
+         */
+        public double getPercentileMillis(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(count - 1, Math.ceil(percentile / 100 * count) - 1);
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        public double getThroughput() {
+            return count / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public Map<Integer, Integer> getStatusCodes() {
+            return statusCodes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("requests: %d%nthroughput: %.1f req/s%nlatency ms: p50 %.1f, p90 %.1f, p99 %.1f, max %.1f%nstatus codes: %s",
+                    count, getThroughput(), getPercentileMillis(50), getPercentileMillis(90), getPercentileMillis(99),
+                    getPercentileMillis(100), statusCodes);
+        }
+    }
+
+    /**
+     * Run the load generator and print the report.
+     * Arguments: [base url] [clients] [duration seconds] [hot ratio],
+     * by default http://localhost:8080/ryanair-interconnections-api 16 60 0.8
+     * A status code -1 is a request that failed without response
+     */
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080/ryanair-interconnections-api";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 60);
+        double hotRatio = args.length > 3 ? Double.parseDouble(args[3]) : 0.8;
+
+        System.out.println(new LoadGenerator(baseUrl, hotRatio).run(clients, duration));
+    }
+}
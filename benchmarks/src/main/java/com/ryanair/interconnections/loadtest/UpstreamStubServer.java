@@ -0,0 +1,181 @@
+package com.ryanair.interconnections.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ryanair.interconnections.api.model.schedule.Day;
+import com.ryanair.interconnections.api.model.schedule.Flight;
+import com.ryanair.interconnections.api.model.schedule.Schedule;
+import com.ryanair.interconnections.benchmark.RecordedFixtures;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in of the Routes and Schedules APIs, to run the API and the load generator without the real network: <br/>
+ * * GET /locate/3/routes: the recorded routes of the fixtures <br/>
+ * * GET /timtbl/3/schedules/{from}/{to}/years/{year}/months/{month}: the recorded schedule of the route if there is
+ * one for the month, or a schedule generated from the route and the month, always the same for the same request <br/>
+ * Every response waits the latency plus a random jitter, and fails with 503 with the error rate. <br/>
+ * To use it, start the API with ryanair.api.routes.url and ryanair.api.schedules.url set to the URLs printed at start
+ */
+public class UpstreamStubServer {
+
+    public static final String ROUTES_PATH = "/locate/3/routes";
+    public static final String SCHEDULES_PATH = "/timtbl/3/schedules/";
+
+    private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+    private final byte[] routes;
+    private final Map<String, Schedule> recordedSchedules;
+    private final Map<String, byte[]> schedules = new ConcurrentHashMap<>();
+    private HttpServer server;
+
+    public UpstreamStubServer(long latencyMillis, long jitterMillis, double errorRate) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.errorRate = errorRate;
+        this.routes = OBJECT_MAPPER.writeValueAsBytes(RecordedFixtures.routes());
+        this.recordedSchedules = RecordedFixtures.schedules();
+    }
+
+    /**
+     * Start to serve the routes and the schedules
+     * @param port the port of the server, or 0 for any free port
+     */
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext(ROUTES_PATH, exchange -> respond(exchange, routes));
+        server.createContext(SCHEDULES_PATH, exchange -> {
+            // {from}/{to}/years/{year}/months/{month}
+            String[] path = exchange.getRequestURI().getPath().substring(SCHEDULES_PATH.length()).split("/");
+            if (path.length != 6) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            String key = path[0] + "-" + path[1] + "-" + path[3] + "-" + path[5];
+            respond(exchange, schedules.computeIfAbsent(key, k -> schedule(path[0], path[1], Integer.parseInt(path[3]), Integer.parseInt(path[5]))));
+        });
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return the value of ryanair.api.routes.url to use this server
+     */
+    public String getRoutesUrl() {
+        return "http://127.0.0.1:" + getPort() + ROUTES_PATH;
+    }
+
+    /**
+     * @return the value of ryanair.api.schedules.url to use this server
+     */
+    public String getSchedulesUrl() {
+        return "http://127.0.0.1:" + getPort() + SCHEDULES_PATH + "%s/%s/years/%s/months/%s";
+    }
+
+    private void respond(HttpExchange exchange, byte[] body) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMillis + (jitterMillis > 0 ? random.nextLong(jitterMillis + 1) : 0);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (random.nextDouble() < errorRate) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+
+    /**
+     * Get the schedule of a route in a month, the recorded one if there is one, or a generated one otherwise
+     * @return the serialized schedule
+     */
+    private byte[] schedule(String from, String to, int year, int month) {
+        Schedule schedule = recordedSchedules.get(from + "-" + to);
+        if (schedule == null || year != RecordedFixtures.MONTH.getYear() || month != RecordedFixtures.MONTH.getMonthValue()) {
+            schedule = generateSchedule(from, to, year, month);
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(schedule);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Generate from 1 to 3 flights every day, with the route and the month as seed
+     */
+    private static Schedule generateSchedule(String from, String to, int year, int month) {
+        Random random = new Random((from + to + year + month).hashCode());
+        List<Day> days = new ArrayList<>();
+        for (int dayOfMonth = 1; dayOfMonth <= YearMonth.of(year, month).lengthOfMonth(); dayOfMonth++) {
+            List<Flight> flights = new ArrayList<>();
+            int flightsOfDay = 1 + random.nextInt(3);
+            for (int i = 0; i < flightsOfDay; i++) {
+                int departureMinute = 6 * 60 + 5 * random.nextInt(16 * 12);
+                int arrivalMinute = Math.min(departureMinute + 90 + 5 * random.nextInt(18), 23 * 60 + 55);
+                Flight flight = new Flight();
+                flight.setNumber(Integer.toString(1000 + random.nextInt(9000)));
+                flight.setDepartureTime(LocalTime.of(departureMinute / 60, departureMinute % 60));
+                flight.setArrivalTime(LocalTime.of(arrivalMinute / 60, arrivalMinute % 60));
+                flights.add(flight);
+            }
+            flights.sort((first, second) -> first.getDepartureTime().compareTo(second.getDepartureTime()));
+            Day day = new Day();
+            day.setDay(dayOfMonth);
+            day.setFlights(flights);
+            days.add(day);
+        }
+        Schedule schedule = new Schedule();
+        schedule.setMonth(month);
+        schedule.setDays(days);
+        return schedule;
+    }
+
+    /**
+     * Start the stub server until the process is stopped.
+     * Arguments: [port] [latency millis] [jitter millis] [error rate], by default 8089 30 20 0
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        UpstreamStubServer server = new UpstreamStubServer(
+                args.length > 1 ? Long.parseLong(args[1]) : 30,
+                args.length > 2 ? Long.parseLong(args[2]) : 20,
+                args.length > 3 ? Double.parseDouble(args[3]) : 0);
+        server.start(port);
+        System.out.println("ryanair.api.routes.url = " + server.getRoutesUrl());
+        System.out.println("ryanair.api.schedules.url = " + server.getSchedulesUrl());
+    }
+}
@@ -0,0 +1,146 @@
+package com.ryanair.interconnections.api.admission;
+
+import com.ryanair.interconnections.api.exception.ClientQuotaExceededException;
+import com.ryanair.interconnections.api.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service that admits the searches that are not stored in the data grid (cold searches). <br/>
+ * A cold search waits in a queue for one of the in-flight permits. If it waits more than the maximum queueing delay,
+ * it is shed with 503 and Retry-After, so the requests fail fast instead of queueing in Tomcat. <br/>
+ * The searches stored in the data grid do not need a permit, so they keep being fast when the cold searches spike. <br/>
+ * A client identified by the X-Client-Id header can have a limited number of cold searches in flight
+ */
+@Service
+public class AdmissionControl {
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private final Semaphore inFlightPermits;
+    private final long maxQueueDelayMillis;
+    private final int clientMaxInFlight;
+    private final long retryAfterSeconds;
+    private final Map<String, Integer> clientInFlight = new ConcurrentHashMap<>();
+    private final Timer queueDelay;
+    private final Counter rejectedByOverload;
+    private final Counter rejectedByQuota;
+
+    public AdmissionControl(@Value("${interconnections.admission.max-in-flight}") int maxInFlight,
+                            @Value("${interconnections.admission.max-queue-delay-millis}") long maxQueueDelayMillis,
+                            @Value("${interconnections.admission.client-max-in-flight}") int clientMaxInFlight,
+                            @Value("${interconnections.admission.retry-after-seconds}") long retryAfterSeconds,
+                            MeterRegistry meterRegistry) {
+        this.inFlightPermits = new Semaphore(maxInFlight, true);
+        this.maxQueueDelayMillis = maxQueueDelayMillis;
+        this.clientMaxInFlight = clientMaxInFlight;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        Gauge.builder("interconnections.admission.in-flight", inFlightPermits, permits -> maxInFlight - permits.availablePermits())
+                .description("Cold searches in flight")
+                .register(meterRegistry);
+        Gauge.builder("interconnections.admission.queued", inFlightPermits, Semaphore::getQueueLength)
+                .description("Cold searches waiting for a permit")
+                .register(meterRegistry);
+        this.queueDelay = Timer.builder("interconnections.admission.queue-delay")
+                .description("Time that the cold searches wait for a permit")
+                .register(meterRegistry);
+        this.rejectedByOverload = rejectedCounter(meterRegistry, "overload");
+        this.rejectedByQuota = rejectedCounter(meterRegistry, "quota");
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("interconnections.admission.rejected")
+                .description("Cold searches rejected by the admission control")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admit a cold search, waiting for a permit up to the maximum queueing delay
+     * @param clientId the client that makes the search, or null if it is not identified
+     * @return the permit of the search, that has to be closed when the search finishes
+     * @throws ClientQuotaExceededException with too many requests code (429) if the client has too many searches in flight
+     * @throws ServiceOverloadedException with service unavailable code (503) if there is no permit before the maximum queueing delay
+     */
+    public Permit admit(String clientId) throws ClientQuotaExceededException, ServiceOverloadedException {
+        if (clientId != null && !acquireClient(clientId)) {
+            rejectedByQuota.increment();
+            throw new ClientQuotaExceededException(clientMaxInFlight, retryAfterSeconds);
+        }
+
+        long start = System.nanoTime();
+        boolean admitted;
+        try {
+            admitted = inFlightPermits.tryAcquire(maxQueueDelayMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        queueDelay.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (!admitted) {
+            if (clientId != null) {
+                releaseClient(clientId);
+            }
+            rejectedByOverload.increment();
+            throw new ServiceOverloadedException(retryAfterSeconds);
+        }
+        return new Permit(clientId);
+    }
+
+    private boolean acquireClient(String clientId) {
+        boolean[] acquired = new boolean[1];
+        clientInFlight.compute(clientId, (id, inFlight) -> {
+            int current = inFlight == null ? 0 : inFlight;
+            if (current >= clientMaxInFlight) {
+                return inFlight;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+
+    private void releaseClient(String clientId) {
+        // The entry of a client is removed when it has no searches in flight
+        clientInFlight.computeIfPresent(clientId, (id, inFlight) -> inFlight > 1 ? inFlight - 1 : null);
+    }
+
+    /**
+     * Permit of an admitted cold search
+     */
+    public class Permit implements AutoCloseable {
+
+        private final String clientId;
+        private boolean closed;
+
+        private Permit(String clientId) {
+            this.clientId = clientId;
+        }
+
+        /**
+         * Release the permit when the search finishes
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            inFlightPermits.release();
+            if (clientId != null) {
+                releaseClient(clientId);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ryanair.interconnections.api.client;
+
+/**
+ * Budget of hedged requests, as a bucket of tokens. Every request adds a fraction of a token, up to a maximum,
+ * and every hedged request takes a whole token. <br/>
+ * So the hedged requests are never more than that fraction of the requests, with small bursts allowed
+ */
+public class HedgeBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+    private double tokens;
+
+    public HedgeBudget(double ratio, double maxTokens) {
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+    }
+
+    /**
+     * Add the fraction of a token of a new request
+     */
+    public synchronized void onRequest() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+     * Take a token for a hedged request
+     * @return a boolean result that determines if there was a token for the hedged request
+     */
+    public synchronized boolean tryAcquire() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
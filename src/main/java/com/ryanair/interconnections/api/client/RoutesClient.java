@@ -1,15 +1,29 @@
 package com.ryanair.interconnections.api.client;
 
+import com.ryanair.interconnections.api.client.guard.UpstreamGuard;
+import com.ryanair.interconnections.api.config.InterconnectionsApiConfig;
+import com.ryanair.interconnections.api.exception.UpstreamUnavailableException;
+import com.ryanair.interconnections.api.jfr.RoutesRequestEvent;
 import com.ryanair.interconnections.api.model.route.Route;
+import com.ryanair.interconnections.api.snapshot.WarmCache;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Class that represents the Routes API, using WebClient to communicate with the API
+ * Class that represents the Routes API, using WebClient to communicate with the API. <br/>
+ * The requests go through the guard of the Routes API. If the guard rejects a request,
+ * the routes of the last successful request are returned. <br/>
+ * The routes kept in the warm cache are returned without a request. <br/>
+ * Every request is recorded as a Flight Recorder event with the size of the response and the number of routes
  */
 @Service
 public class RoutesClient {
@@ -17,18 +31,71 @@ public class RoutesClient {
     @Value("${ryanair.api.routes.url}")
     private String routeUrl;
 
+    private final UpstreamGuard guard;
+    private final WarmCache warmCache;
+    private final AtomicReference<List<Route>> lastRoutes = new AtomicReference<>();
+
+    public RoutesClient(@Qualifier(InterconnectionsApiConfig.ROUTES_GUARD) UpstreamGuard guard, WarmCache warmCache) {
+        this.guard = guard;
+        this.warmCache = warmCache;
+    }
+
     /**
      * Make a REST API request to Routes API and stores the result as a list of routes
      * @return the list of routes
      */
     public List<Route> getRoutes() {
-        return WebClient
+        return getRoutes(null);
+    }
+
+    /**
+     * Make a REST API request to Routes API and stores the result as a list of routes,
+     * cancelling the request if it does not finish in time
+     * @param timeout the maximum time to wait for the response, or null to wait without limit
+     * @return the list of routes
+     */
+    public List<Route> getRoutes(Duration timeout) {
+        List<Route> cachedRoutes = warmCache.getRoutes();
+        return cachedRoutes != null ? cachedRoutes : refreshRoutes(timeout);
+    }
+
+    /**
+     * Make a REST API request to Routes API even if the routes are in the warm cache, and keep the result in the cache
+     * @param timeout the maximum time to wait for the response, or null to wait without limit
+     * @return the list of routes
+     */
+    public List<Route> refreshRoutes(Duration timeout) {
+        RoutesRequestEvent event = new RoutesRequestEvent();
+        event.begin();
+        Mono<List<Route>> routes = WebClient
                 .create(routeUrl)
                 .get()
                 .accept(MediaType.APPLICATION_JSON)
                 .retrieve()
-                .bodyToFlux(Route.class)
-                .collectList()
-                .block();
+                .toEntityList(Route.class)
+                .doOnNext(response -> event.setPayloadBytes(response.getHeaders().getContentLength()))
+                .map(response -> response.getBody() == null ? Collections.<Route>emptyList() : response.getBody());
+        routes = guard.guard(routes, true);
+        try {
+            List<Route> result = timeout == null ? routes.block() : routes.block(timeout);
+            lastRoutes.set(result);
+            warmCache.putRoutes(result);
+            event.setRoutes(result == null ? 0 : result.size());
+            return result;
+        } catch (UpstreamUnavailableException e) {
+            List<Route> cachedRoutes = lastRoutes.get();
+            event.setError(e);
+            if (cachedRoutes == null) {
+                throw e;
+            }
+            event.setFallback(true);
+            event.setRoutes(cachedRoutes.size());
+            return cachedRoutes;
+        } catch (RuntimeException e) {
+            event.setError(e);
+            throw e;
+        } finally {
+            event.commit();
+        }
     }
 }
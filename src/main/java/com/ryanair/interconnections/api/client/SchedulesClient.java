@@ -1,23 +1,88 @@
 package com.ryanair.interconnections.api.client;
 
+import com.ryanair.interconnections.api.client.guard.UpstreamGuard;
+import com.ryanair.interconnections.api.config.InterconnectionsApiConfig;
+import com.ryanair.interconnections.api.jfr.SchedulesRequestEvent;
+import com.ryanair.interconnections.api.jfr.UpstreamRequestEvent;
 import com.ryanair.interconnections.api.model.route.Route;
 import com.ryanair.interconnections.api.model.schedule.Schedule;
+import com.ryanair.interconnections.api.snapshot.WarmCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Class that represents the Routes API, using WebClient to communicate with the API
+ * Class that represents the Schedules API, using WebClient to communicate with the API. <br/>
+ * With hedging, if a request has not returned by the p95 latency of the API, a duplicate request is made
+ * and the first response wins. The duplicate requests are limited by a HedgeBudget. <br/>
+ * The requests go through the guard of the Schedules API. A hedged request does not wait for a permit of the guard. <br/>
+ * A schedule kept in the warm cache is returned without a request. <br/>
+ * Every request is recorded as a Flight Recorder event with the route, the month, the size of the response and its flights
  */
 @Service
 public class SchedulesClient {
 
+    private static final double HEDGE_PERCENTILE = 0.95;
+    private static final double MAX_HEDGE_BURST = 10;
+
     @Value("${ryanair.api.schedules.url}")
     private String scheduleUrl;
 
+    @Value("${ryanair.api.schedules.hedging.enabled}")
+    private boolean hedgingEnabled;
+
+    @Value("${ryanair.api.schedules.hedging.min-delay-millis}")
+    private long minHedgeDelayMillis;
+
+    @Value("${ryanair.api.schedules.hedging.min-samples}")
+    private long minHedgeSamples;
+
+    private final Timer latency;
+    private final Counter hedgesFired;
+    private final Counter hedgesWon;
+    private final Counter hedgesRejected;
+    private final HedgeBudget hedgeBudget;
+    private final UpstreamGuard guard;
+    private final WarmCache warmCache;
+
+    @Autowired
+    public SchedulesClient(MeterRegistry meterRegistry,
+                           @Value("${ryanair.api.schedules.hedging.budget-ratio}") double hedgeBudgetRatio,
+                           @Qualifier(InterconnectionsApiConfig.SCHEDULES_GUARD) UpstreamGuard guard,
+                           WarmCache warmCache) {
+        this.latency = Timer.builder("ryanair.api.schedules.requests")
+                .description("Latency of the requests to the Schedules API")
+                .publishPercentiles(HEDGE_PERCENTILE)
+                .register(meterRegistry);
+        this.hedgesFired = hedgeCounter(meterRegistry, "fired");
+        this.hedgesWon = hedgeCounter(meterRegistry, "won");
+        this.hedgesRejected = hedgeCounter(meterRegistry, "rejected");
+        this.hedgeBudget = new HedgeBudget(hedgeBudgetRatio, MAX_HEDGE_BURST);
+        this.guard = guard;
+        this.warmCache = warmCache;
+    }
+
+    private static Counter hedgeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("ryanair.api.schedules.hedges")
+                .description("Hedged requests to the Schedules API that are fired, that win, or that are rejected by the budget")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
     /**
      * Make a REST API request to Schedules API and stores the result as a Schedule object
      * @param route the route that contains departure and arrival airport
@@ -25,17 +90,113 @@ public class SchedulesClient {
      * @return a Schedule object representing the result of the Schedules API
      */
     public Schedule getSchedule(Route route, LocalDateTime dateTime) {
-        return WebClient
-                .create(String.format(
-                        scheduleUrl,
-                        route.getAirportFrom(),
-                        route.getAirportTo(),
-                        dateTime.getYear(),
-                        dateTime.getMonthValue()))
-                .get()
-                .accept(MediaType.APPLICATION_JSON)
-                .retrieve()
-                .bodyToMono(Schedule.class)
-                .block();
+        return getSchedule(route, dateTime, null);
+    }
+
+    /**
+     * Make a REST API request to Schedules API and stores the result as a Schedule object,
+     * cancelling the request if it does not finish in time
+     * @param route the route that contains departure and arrival airport
+     * @param dateTime time to search the schedules
+     * @param timeout the maximum time to wait for the response, or null to wait without limit
+     * @return a Schedule object representing the result of the Schedules API
+     */
+    public Schedule getSchedule(Route route, LocalDateTime dateTime, Duration timeout) {
+        Schedule cachedSchedule = warmCache.getSchedule(route, dateTime);
+        return cachedSchedule != null ? cachedSchedule : refreshSchedule(route, dateTime, timeout);
+    }
+
+    /**
+     * Make a REST API request to Schedules API even if the schedule is in the warm cache, and keep the result in the cache
+     * @param route the route that contains departure and arrival airport
+     * @param dateTime time to search the schedules
+     * @param timeout the maximum time to wait for the response, or null to wait without limit
+     * @return a Schedule object representing the result of the Schedules API
+     */
+    public Schedule refreshSchedule(Route route, LocalDateTime dateTime, Duration timeout) {
+        hedgeBudget.onRequest();
+        Mono<Schedule> schedule = guard.guard(request(route, dateTime, false), true);
+
+        Duration hedgeDelay = getHedgeDelay();
+        if (hedgeDelay != null) {
+            // The first response wins and the other request is cancelled. A failed hedged request never wins
+            Mono<Schedule> hedgedSchedule = Mono.delay(hedgeDelay)
+                    .then(Mono.defer(() -> {
+                        if (!hedgeBudget.tryAcquire()) {
+                            hedgesRejected.increment();
+                            return Mono.never();
+                        }
+                        hedgesFired.increment();
+                        return guard.guard(request(route, dateTime, true), false)
+                                .doOnNext(response -> hedgesWon.increment())
+                                .onErrorResume(e -> Mono.never());
+                    }));
+            schedule = Mono.firstWithSignal(schedule, hedgedSchedule);
+        }
+        Schedule result = timeout == null ? schedule.block() : schedule.block(timeout);
+        warmCache.putSchedule(route, dateTime, result);
+        return result;
+    }
+
+    /**
+     * Get the time to wait before a hedged request: the p95 latency of the Schedules API
+     * @return the delay of the hedged request, or null if hedging is disabled or there are not enough requests to know the p95
+     */
+    private Duration getHedgeDelay() {
+        if (!hedgingEnabled || latency.count() < minHedgeSamples) {
+            return null;
+        }
+        for (ValueAtPercentile percentile : latency.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == HEDGE_PERCENTILE) {
+                return Duration.ofMillis(Math.max(minHedgeDelayMillis, (long) percentile.value(TimeUnit.MILLISECONDS)));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Build a request to the Schedules API, that records its latency when it returns
+     * @param route the route that contains departure and arrival airport
+     * @param dateTime time to search the schedules
+     * @param hedged true if it is the duplicate request of a hedged request
+     * @return the pending Schedule object
+     */
+    private Mono<Schedule> request(Route route, LocalDateTime dateTime, boolean hedged) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            SchedulesRequestEvent event = new SchedulesRequestEvent(
+                    route.getAirportFrom() + "-" + route.getAirportTo(),
+                    YearMonth.from(dateTime).toString(),
+                    hedged);
+            event.begin();
+            return WebClient
+                    .create(String.format(
+                            scheduleUrl,
+                            route.getAirportFrom(),
+                            route.getAirportTo(),
+                            dateTime.getYear(),
+                            dateTime.getMonthValue()))
+                    .get()
+                    .accept(MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .toEntity(Schedule.class)
+                    .doOnSuccess(response -> {
+                        latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        if (response != null) {
+                            event.setPayloadBytes(response.getHeaders().getContentLength());
+                            if (response.getBody() != null && response.getBody().getDays() != null) {
+                                event.setFlights(response.getBody().getDays().stream().mapToInt(day -> day.getFlights() == null ? 0 : day.getFlights().size()).sum());
+                            }
+                        }
+                    })
+                    .doOnError(event::setError)
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            event.setOutcome(UpstreamRequestEvent.CANCELLED_OUTCOME);
+                        }
+                        event.commit();
+                    })
+                    .flatMap(response -> Mono.justOrEmpty(response.getBody()));
+        });
     }
 }
@@ -0,0 +1,116 @@
+package com.ryanair.interconnections.api.client.guard;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limit of concurrent requests to an upstream API, adapted with AIMD (additive increase, multiplicative decrease): <br/>
+ * * A request faster than the latency threshold increases the limit by 1/limit, while the limit is being used <br/>
+ * * A request slower than the latency threshold, or a failed request, multiplies the limit by the backoff ratio <br/>
+ * The requests over the limit wait for a permit
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(int minLimit, int maxLimit, int initialLimit, Duration latencyThreshold, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+    }
+
+    /**
+     * Take a permit for a request, waiting for it if the limit is reached
+     * @param maxWait the maximum time to wait for the permit, zero to not wait
+     * @return a boolean result that determines if the permit was taken
+     */
+    public boolean acquire(Duration maxWait) {
+        long remainingNanos = maxWait.toNanos();
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = permitReleased.awaitNanos(remainingNanos);
+            }
+            inFlight++;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release the permit of a request that returned
+     * @param latencyNanos the latency of the request
+     */
+    public void onSuccess(long latencyNanos) {
+        lock.lock();
+        try {
+            if (latencyNanos > latencyThresholdNanos) {
+                decrease();
+            } else if (inFlight * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            release();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release the permit of a request that failed
+     */
+    public void onDropped() {
+        lock.lock();
+        try {
+            decrease();
+            release();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release the permit of a request that was cancelled, without changing the limit
+     */
+    public void onIgnored() {
+        lock.lock();
+        try {
+            release();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decrease() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+
+    private void release() {
+        inFlight--;
+        permitReleased.signalAll();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+}
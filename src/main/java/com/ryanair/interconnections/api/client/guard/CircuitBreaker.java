@@ -0,0 +1,106 @@
+package com.ryanair.interconnections.api.client.guard;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker of an upstream API, over a window with the result of the last requests: <br/>
+ * * CLOSED: the requests are made. When the failure rate of a full window reaches the threshold, it opens <br/>
+ * * OPEN: the requests fail fast. After the open time, it lets one trial request through <br/>
+ * * HALF_OPEN: the trial request closes the circuit if it succeeds, or opens it again if it fails
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final double failureRateThreshold;
+    private final boolean[] window;
+    private final long openNanos;
+    private State state = State.CLOSED;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(double failureRateThreshold, int windowSize, Duration openTime) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[windowSize];
+        this.openNanos = openTime.toNanos();
+    }
+
+    /**
+     * Check if a request can be made
+     * @return a boolean result that determines if the request can be made, false if it has to fail fast
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Record the result of a request
+     * @param failed true if the request failed because of the upstream API
+     */
+    public synchronized void onResult(boolean failed) {
+        if (state == State.HALF_OPEN) {
+            if (failed) {
+                open();
+            } else {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+
+        // Replace the oldest result of the window
+        int slot = calls % window.length;
+        if (calls >= window.length && window[slot]) {
+            failures--;
+        }
+        window[slot] = failed;
+        if (failed) {
+            failures++;
+        }
+        calls++;
+        if (calls >= window.length && failures >= failureRateThreshold * window.length) {
+            open();
+        }
+    }
+
+    /**
+     * Release the trial request of a half open circuit that was cancelled, without a result
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        calls = 0;
+        failures = 0;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
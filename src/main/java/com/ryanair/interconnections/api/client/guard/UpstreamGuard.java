@@ -0,0 +1,126 @@
+package com.ryanair.interconnections.api.client.guard;
+
+import com.ryanair.interconnections.api.exception.UpstreamUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Guard of the requests to an upstream API, with an adaptive concurrency limit and a circuit breaker.
+ * Their state and the errors of the API are published as metrics tagged with the name of the API
+ */
+public class UpstreamGuard {
+
+    private final String api;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final CircuitBreaker circuitBreaker;
+    private final Duration maxWait;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejectedByCircuitBreaker;
+    private final Counter rejectedByLimiter;
+
+    public UpstreamGuard(String api, AdaptiveConcurrencyLimiter limiter, CircuitBreaker circuitBreaker,
+                         Duration maxWait, MeterRegistry meterRegistry) {
+        this.api = api;
+        this.limiter = limiter;
+        this.circuitBreaker = circuitBreaker;
+        this.maxWait = maxWait;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("ryanair.api.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Adaptive limit of concurrent requests to the upstream API")
+                .tag("api", api)
+                .register(meterRegistry);
+        Gauge.builder("ryanair.api.limiter.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Concurrent requests to the upstream API")
+                .tag("api", api)
+                .register(meterRegistry);
+        Gauge.builder("ryanair.api.circuit-breaker.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("State of the circuit breaker of the upstream API: 0 closed, 1 open, 2 half open")
+                .tag("api", api)
+                .register(meterRegistry);
+        this.rejectedByCircuitBreaker = rejectedCounter(meterRegistry, "circuit-breaker");
+        this.rejectedByLimiter = rejectedCounter(meterRegistry, "limiter");
+    }
+
+    private Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("ryanair.api.rejected")
+                .description("Requests to the upstream API rejected before they are made")
+                .tag("api", api)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Guard a request to the upstream API. The request waits for a permit of the concurrency limit,
+     * and fails fast if the circuit is open or there is no permit in time. <br/>
+     * A request that does not wait never blocks, so it can be made from a thread of Reactor
+     * @param request the request to the upstream API
+     * @param wait true to wait for a permit up to the maximum wait, false to fail fast if there is no permit
+     * @return the guarded request, that fails with an UpstreamUnavailableException if it is rejected
+     */
+    public <T> Mono<T> guard(Mono<T> request, boolean wait) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                rejectedByCircuitBreaker.increment();
+                return Mono.error(new UpstreamUnavailableException(api));
+            }
+            if (!limiter.acquire(wait ? maxWait : Duration.ZERO)) {
+                circuitBreaker.onIgnored();
+                rejectedByLimiter.increment();
+                return Mono.error(new UpstreamUnavailableException(api));
+            }
+
+            long start = System.nanoTime();
+            AtomicBoolean failed = new AtomicBoolean();
+            return request
+                    .doOnError(e -> {
+                        failed.set(isUpstreamFailure(e));
+                        countError(e);
+                    })
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            limiter.onIgnored();
+                            circuitBreaker.onIgnored();
+                        } else if (failed.get()) {
+                            limiter.onDropped();
+                            circuitBreaker.onResult(true);
+                        } else {
+                            limiter.onSuccess(System.nanoTime() - start);
+                            circuitBreaker.onResult(false);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Count an error of a request to the upstream API, tagged with the HTTP status or the type of the error
+     * @param e the error of the request
+     */
+    private void countError(Throwable e) {
+        String error = e instanceof WebClientResponseException ?
+                Integer.toString(((WebClientResponseException) e).getRawStatusCode()) :
+                e.getClass().getSimpleName();
+        Counter.builder("ryanair.api.errors")
+                .description("Requests to the upstream API that failed")
+                .tag("api", api)
+                .tag("error", error)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Check if an error is a failure of the upstream API. A client error (4XX) means that the API is working
+     * @param e the error of the request
+     * @return a boolean result that determines if the error counts as a failure of the API
+     */
+    private boolean isUpstreamFailure(Throwable e) {
+        return !(e instanceof WebClientResponseException && ((WebClientResponseException) e).getStatusCode().is4xxClientError());
+    }
+}
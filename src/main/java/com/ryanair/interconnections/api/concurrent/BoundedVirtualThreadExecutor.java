@@ -0,0 +1,60 @@
+package com.ryanair.interconnections.api.concurrent;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor that runs every task in a new virtual thread, with a limit of tasks running at the same time. <br/>
+ * The tasks over the limit wait parked in their virtual threads, instead of waiting in a queue for a pool thread
+ */
+public class BoundedVirtualThreadExecutor extends AbstractExecutorService {
+
+    private final ExecutorService virtualThreads;
+    private final Semaphore permits;
+
+    public BoundedVirtualThreadExecutor(String name, int maxConcurrency) {
+        this.virtualThreads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        virtualThreads.execute(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                command.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    @Override
+    public void shutdown() {
+        virtualThreads.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return virtualThreads.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return virtualThreads.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return virtualThreads.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return virtualThreads.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,154 @@
+package com.ryanair.interconnections.api.config;
+
+import com.ryanair.interconnections.api.client.guard.AdaptiveConcurrencyLimiter;
+import com.ryanair.interconnections.api.client.guard.CircuitBreaker;
+import com.ryanair.interconnections.api.client.guard.UpstreamGuard;
+import com.ryanair.interconnections.api.concurrent.BoundedVirtualThreadExecutor;
+import com.ryanair.interconnections.api.model.schedule.ConnectionRules;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class InterconnectionsApiConfig {
+
+    public static final String SCHEDULES_EXECUTOR = "schedulesExecutor";
+    public static final String SEARCH_EXECUTOR = "searchExecutor";
+    public static final String VIRTUAL_THREADS_PROPERTY = "interconnections.virtual-threads.enabled";
+    public static final String ROUTES_GUARD = "routesGuard";
+    public static final String SCHEDULES_GUARD = "schedulesGuard";
+
+    @Value("${ryanair.api.schedules.concurrency}")
+    private int schedulesConcurrency;
+
+    @Value("${" + VIRTUAL_THREADS_PROPERTY + "}")
+    private boolean virtualThreads;
+
+    @Value("${ryanair.api.limiter.min-limit}")
+    private int minLimit;
+
+    @Value("${ryanair.api.limiter.max-limit}")
+    private int maxLimit;
+
+    @Value("${ryanair.api.limiter.initial-limit}")
+    private int initialLimit;
+
+    @Value("${ryanair.api.limiter.latency-threshold-millis}")
+    private long latencyThresholdMillis;
+
+    @Value("${ryanair.api.limiter.backoff-ratio}")
+    private double backoffRatio;
+
+    @Value("${ryanair.api.limiter.max-wait-millis}")
+    private long maxWaitMillis;
+
+    @Value("${ryanair.api.circuit-breaker.failure-rate-threshold}")
+    private double failureRateThreshold;
+
+    @Value("${ryanair.api.circuit-breaker.window-size}")
+    private int windowSize;
+
+    @Value("${ryanair.api.circuit-breaker.open-millis}")
+    private long openMillis;
+
+    @Value("${interconnections.connection.min-minutes}")
+    private int minConnectionMinutes;
+
+    @Value("${interconnections.connection.hub-min-minutes}")
+    private String hubMinConnectionMinutes;
+
+    @Value("${interconnections.connection.max-layover-minutes}")
+    private int maxLayoverMinutes;
+
+    /**
+     * Pool of threads that fetch the timetables of the Schedules API. It bounds the number of
+     * concurrent requests to the Schedules API of the whole application. <br/>
+     * With virtual threads, every fetch has its own virtual thread, and the bound is kept with a semaphore
+     * @return the executor of the timetable fetches
+     */
+    @Bean(name = SCHEDULES_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService schedulesExecutor() {
+        if (virtualThreads) {
+            return new BoundedVirtualThreadExecutor(SCHEDULES_EXECUTOR, schedulesConcurrency);
+        }
+        return Executors.newFixedThreadPool(schedulesConcurrency);
+    }
+
+    /**
+     * Threads that make the searches of a request that run concurrently with the thread of the request,
+     * as the outbound search of a round trip. They wait for the timetables fetched by the schedules executor,
+     * so they never run in it, nor in the common pool. The searches are bounded by the admission control. <br/>
+     * With virtual threads, every search has its own virtual thread
+     * @return the executor of the concurrent searches
+     */
+    @Bean(name = SEARCH_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService searchExecutor() {
+        if (virtualThreads) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, SEARCH_EXECUTOR + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Handle every request of Tomcat in a new virtual thread, instead of in the pool of platform threads,
+     * so a request blocked in the Routes or Schedules API does not hold a platform thread
+     * @return the customizer of the Tomcat protocol handler
+     */
+    @Bean
+    @ConditionalOnProperty(VIRTUAL_THREADS_PROPERTY)
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Concurrency limit and circuit breaker of the requests to the Routes API
+     * @param meterRegistry the registry of the metrics of the guard
+     * @return the guard of the Routes API
+     */
+    @Bean(name = ROUTES_GUARD)
+    public UpstreamGuard routesGuard(MeterRegistry meterRegistry) {
+        return newUpstreamGuard("routes", meterRegistry);
+    }
+
+    /**
+     * Concurrency limit and circuit breaker of the requests to the Schedules API
+     * @param meterRegistry the registry of the metrics of the guard
+     * @return the guard of the Schedules API
+     */
+    @Bean(name = SCHEDULES_GUARD)
+    public UpstreamGuard schedulesGuard(MeterRegistry meterRegistry) {
+        return newUpstreamGuard("schedules", meterRegistry);
+    }
+
+    /**
+     * Minimum connection time of every connecting airport, and maximum layover of every search
+     * @return the connection rules of the one stop flights and the connection scan
+     */
+    @Bean
+    public ConnectionRules connectionRules() {
+        return ConnectionRules.of(minConnectionMinutes, hubMinConnectionMinutes, maxLayoverMinutes);
+    }
+
+    private UpstreamGuard newUpstreamGuard(String api, MeterRegistry meterRegistry) {
+        return new UpstreamGuard(
+                api,
+                new AdaptiveConcurrencyLimiter(minLimit, maxLimit, initialLimit, Duration.ofMillis(latencyThresholdMillis), backoffRatio),
+                new CircuitBreaker(failureRateThreshold, windowSize, Duration.ofMillis(openMillis)),
+                Duration.ofMillis(maxWaitMillis),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.ryanair.interconnections.api.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.ryanair.interconnections.api.converter.FlightResponseJsonHttpMessageConverter;
+import com.ryanair.interconnections.api.converter.ProtostreamHttpMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Response formats negotiated with the Accept header. The flights are written as JSON by a
+ * {@link FlightResponseJsonHttpMessageConverter}, and they can be written also as: <br/>
+ * * application/x-protobuf, with the flight.proto schema of the data grid <br/>
+ * * application/x-jackson-smile and application/cbor, binary forms of the same JSON document
+ */
+@Configuration
+public class InterconnectionsWebConfig {
+
+    @Bean
+    public FlightResponseJsonHttpMessageConverter flightResponseJsonHttpMessageConverter() {
+        return new FlightResponseJsonHttpMessageConverter();
+    }
+
+    @Bean
+    public ProtostreamHttpMessageConverter protostreamHttpMessageConverter() {
+        return new ProtostreamHttpMessageConverter();
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
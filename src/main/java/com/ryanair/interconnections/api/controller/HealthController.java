@@ -1,18 +1,33 @@
 package com.ryanair.interconnections.api.controller;
 
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+/**
+ * Handle the /health endpoint of the API, that reports only the liveness of the application. <br/>
+ * The readiness, with the health of the data grid, is reported in /actuator/health/readiness
+ */
 @RestController
 @RequestMapping("/health")
 @CrossOrigin(origins = "*")
 public class HealthController {
-    
+
+    private final ApplicationAvailability applicationAvailability;
+
+    public HealthController(ApplicationAvailability applicationAvailability) {
+        this.applicationAvailability = applicationAvailability;
+    }
+
     @GetMapping
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void health() {}
+    public ResponseEntity<Void> health() {
+        return ResponseEntity.status(applicationAvailability.getLivenessState() == LivenessState.CORRECT
+                ? HttpStatus.NO_CONTENT
+                : HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
 }
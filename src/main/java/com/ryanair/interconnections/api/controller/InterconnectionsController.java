@@ -1,11 +1,25 @@
 package com.ryanair.interconnections.api.controller;
 
+import com.ryanair.interconnections.api.admission.AdmissionControl;
+import com.ryanair.interconnections.api.model.batch.InterconnectionQuery;
+import com.ryanair.interconnections.api.model.batch.InterconnectionQueryResult;
+import com.ryanair.interconnections.api.model.calendar.CalendarDay;
+import com.ryanair.interconnections.api.model.explain.SearchExplanation;
+import com.ryanair.interconnections.api.model.explore.DestinationSummary;
 import com.ryanair.interconnections.api.model.response.FlightResponse;
+import com.ryanair.interconnections.api.model.roundtrip.RoundTripResponse;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -13,10 +27,77 @@ import java.util.List;
  * Interface to build an interconnections controller
  */
 public interface InterconnectionsController {
+    String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    String TIMEOUT_HEADER = "X-Request-Timeout";
+    String INCOMPLETE_HEADER = "X-Incomplete-Results";
+
     @GetMapping
     @ResponseBody
-    List<FlightResponse> handleInterconnections(@RequestParam String departure,
-                                                @RequestParam String arrival,
-                                                @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime departureDateTime,
-                                                @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime arrivalDateTime);
+    ResponseEntity<byte[]> handleInterconnections(@RequestParam String departure,
+                                                  @RequestParam String arrival,
+                                                  @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime departureDateTime,
+                                                  @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime arrivalDateTime,
+                                                  @RequestParam(required = false) String sort,
+                                                  @RequestParam(required = false) Integer limit,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer maxLayover,
+                                                  @RequestParam(defaultValue = "false") boolean partial,
+                                                  @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                  @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeout,
+                                                  @RequestHeader(value = AdmissionControl.CLIENT_ID_HEADER, required = false) String clientId) throws HttpMediaTypeNotAcceptableException;
+
+    @PostMapping("/batch")
+    @ResponseBody
+    List<InterconnectionQueryResult> handleBatchInterconnections(@RequestBody List<InterconnectionQuery> queries,
+                                                                 @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeout,
+                                                                 @RequestHeader(value = AdmissionControl.CLIENT_ID_HEADER, required = false) String clientId);
+
+    @GetMapping("/explore")
+    @ResponseBody
+    List<DestinationSummary> handleExplore(@RequestParam String departure,
+                                           @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime departureDateTime,
+                                           @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime arrivalDateTime,
+                                           @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeout,
+                                           @RequestHeader(value = AdmissionControl.CLIENT_ID_HEADER, required = false) String clientId);
+
+    @GetMapping("/calendar")
+    @ResponseBody
+    List<CalendarDay> handleCalendar(@RequestParam String departure,
+                                     @RequestParam String arrival,
+                                     @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+                                     @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+                                     @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeout,
+                                     @RequestHeader(value = AdmissionControl.CLIENT_ID_HEADER, required = false) String clientId);
+
+    @GetMapping("/roundtrip")
+    @ResponseBody
+    RoundTripResponse handleRoundTrip(@RequestParam String departure,
+                                      @RequestParam String arrival,
+                                      @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime departureDateTime,
+                                      @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime arrivalDateTime,
+                                      @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime returnDepartureDateTime,
+                                      @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime returnArrivalDateTime,
+                                      @RequestParam(defaultValue = "false") boolean paired,
+                                      @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeout,
+                                      @RequestHeader(value = AdmissionControl.CLIENT_ID_HEADER, required = false) String clientId);
+
+    @GetMapping("/explain")
+    @ResponseBody
+    SearchExplanation handleExplain(@RequestParam String departure,
+                                    @RequestParam String arrival,
+                                    @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime departureDateTime,
+                                    @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime arrivalDateTime,
+                                    @RequestParam(defaultValue = "false") boolean partial,
+                                    @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeout,
+                                    @RequestHeader(value = AdmissionControl.CLIENT_ID_HEADER, required = false) String clientId);
+
+    @GetMapping("/earliest")
+    @ResponseBody
+    FlightResponse handleEarliestArrival(@RequestParam String departure,
+                                         @RequestParam String arrival,
+                                         @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime departureDateTime,
+                                         @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime arrivalDateTime,
+                                         @RequestParam(required = false) Integer maxStops,
+                                         @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeout,
+                                         @RequestHeader(value = AdmissionControl.CLIENT_ID_HEADER, required = false) String clientId);
 }
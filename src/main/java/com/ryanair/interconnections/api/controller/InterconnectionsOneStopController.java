@@ -1,10 +1,27 @@
 package com.ryanair.interconnections.api.controller;
 
+import com.ryanair.interconnections.api.admission.AdmissionControl;
+import com.ryanair.interconnections.api.model.batch.InterconnectionQuery;
+import com.ryanair.interconnections.api.model.batch.InterconnectionQueryResult;
+import com.ryanair.interconnections.api.model.calendar.CalendarDay;
+import com.ryanair.interconnections.api.model.explain.SearchExplanation;
+import com.ryanair.interconnections.api.model.explore.DestinationSummary;
+import com.ryanair.interconnections.api.model.roundtrip.RoundTripResponse;
+import com.ryanair.interconnections.api.model.page.FlightPageRequest;
+import com.ryanair.interconnections.api.model.plan.Deadline;
 import com.ryanair.interconnections.api.model.response.FlightResponse;
+import com.ryanair.interconnections.api.model.response.SerializedResponse;
+import com.ryanair.interconnections.api.service.InterconnectionsConnectionScanService;
 import com.ryanair.interconnections.api.service.InterconnectionsOneStopService;
+import com.ryanair.interconnections.api.service.SerializedResponseService;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -13,13 +30,22 @@ import java.util.List;
  */
 @RestController
 @RequestMapping("/interconnections")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {InterconnectionsController.NEXT_CURSOR_HEADER, InterconnectionsController.INCOMPLETE_HEADER, HttpHeaders.ETAG, HttpHeaders.RETRY_AFTER})
 public class InterconnectionsOneStopController implements InterconnectionsController {
 
     private final InterconnectionsOneStopService interconnectionsOneStopService;
+    private final InterconnectionsConnectionScanService interconnectionsConnectionScanService;
+    private final SerializedResponseService serializedResponseService;
+    private final AdmissionControl admissionControl;
 
-    public InterconnectionsOneStopController(InterconnectionsOneStopService interconnectionsOneStopService) {
+    public InterconnectionsOneStopController(InterconnectionsOneStopService interconnectionsOneStopService,
+                                             InterconnectionsConnectionScanService interconnectionsConnectionScanService,
+                                             SerializedResponseService serializedResponseService,
+                                             AdmissionControl admissionControl) {
         this.interconnectionsOneStopService = interconnectionsOneStopService;
+        this.interconnectionsConnectionScanService = interconnectionsConnectionScanService;
+        this.serializedResponseService = serializedResponseService;
+        this.admissionControl = admissionControl;
     }
 
     /**
@@ -28,17 +54,202 @@ public class InterconnectionsOneStopController implements InterconnectionsContro
      * @param arrival arrival airport IATA code for flight search
      * @param departureDateTime time that starts the flight search
      * @param arrivalDateTime time that finishes the flight search
-     * @return a list of flights showing all the schedules of the search
+     * @param sort optional criteria to sort the flights: departure, arrival, duration or layover
+     * @param limit optional maximum number of flights to return
+     * @param cursor optional cursor returned in the X-Next-Cursor header of the previous page
+     * @param maxLayover optional maximum minutes between the legs of a one stop flight
+     * @param partial true to return the flights found before the deadline, instead of a 504 error,
+     *                marked with the X-Incomplete-Results header
+     * @param accept the media types accepted by the client: JSON, protobuf, Smile or CBOR
+     * @param timeout optional deadline of the request in milliseconds, instead of the default one
+     * @param clientId optional identifier of the client, to apply its quota of searches in flight
+     * @return a list of flights showing all the schedules of the search, with the cursor of the next page as a header.
+     * The hash of the body is sent as ETag, and a request with the same ETag in If-None-Match gets a 304 without body
+     * A search that is not stored in the data grid can be rejected with 503 or 429 and a Retry-After header
+     * @throws HttpMediaTypeNotAcceptableException with not acceptable code (406) if no accepted media type is producible
      */
     @GetMapping
     @ResponseBody
     @Override
-    public List<FlightResponse> handleInterconnections(@RequestParam String departure,
-                                                       @RequestParam String arrival,
-                                                       @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime departureDateTime,
-                                                       @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime arrivalDateTime) {
+    public ResponseEntity<byte[]> handleInterconnections(@RequestParam String departure,
+                                                         @RequestParam String arrival,
+                                                         @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime departureDateTime,
+                                                         @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime arrivalDateTime,
+                                                         @RequestParam(required = false) String sort,
+                                                         @RequestParam(required = false) Integer limit,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer maxLayover,
+                                                         @RequestParam(defaultValue = "false") boolean partial,
+                                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                         @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeout,
+                                                         @RequestHeader(value = AdmissionControl.CLIENT_ID_HEADER, required = false) String clientId) throws HttpMediaTypeNotAcceptableException {
 
-        return interconnectionsOneStopService.getInterconnections(departure, arrival, departureDateTime, arrivalDateTime);
+        MediaType mediaType = serializedResponseService.negotiate(accept);
+        FlightPageRequest pageRequest = FlightPageRequest.of(sort, limit, cursor, maxLayover);
+        Deadline deadline = interconnectionsOneStopService.newDeadline(timeout, partial);
+        SerializedResponse response = serializedResponseService.getInterconnections(departure, arrival, departureDateTime, arrivalDateTime, pageRequest, mediaType, deadline, clientId);
+
+        // Spring MVC answers 304 Not Modified by itself when the ETag matches the If-None-Match header
+        ResponseEntity.BodyBuilder responseEntity = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(response.getMediaType()))
+                .eTag(response.getContentHash())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (response.getNextCursor() != null) {
+            responseEntity.header(NEXT_CURSOR_HEADER, response.getNextCursor());
+        }
+        if (response.isIncomplete()) {
+            responseEntity.header(INCOMPLETE_HEADER, Boolean.TRUE.toString());
+        }
+        return responseEntity.body(response.getPayload());
+    }
+
+    /**
+     * Map the /interconnections/batch POST operation
+     * @param queries the searches to make, each one with the same fields of the /interconnections GET operation
+     * @param timeout optional deadline of the whole batch in milliseconds, instead of the default one
+     * @param clientId optional identifier of the client, to apply its quota of searches in flight
+     * @return the result of every search, in the same order of the queries
+     */
+    @PostMapping("/batch")
+    @ResponseBody
+    @Override
+    public List<InterconnectionQueryResult> handleBatchInterconnections(@RequestBody List<InterconnectionQuery> queries,
+                                                                        @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeout,
+                                                                        @RequestHeader(value = AdmissionControl.CLIENT_ID_HEADER, required = false) String clientId) {
+        try (AdmissionControl.Permit permit = admissionControl.admit(clientId)) {
+            return interconnectionsOneStopService.getBatchInterconnections(queries, interconnectionsOneStopService.newDeadline(timeout, false));
+        }
+    }
+
+    /**
+     * Map the /interconnections/explore GET operation
+     * @param departure departure airport IATA code for the destinations search
+     * @param departureDateTime time that starts the destinations search
+     * @param arrivalDateTime time that finishes the destinations search
+     * @param timeout optional deadline of the request in milliseconds, instead of the default one
+     * @param clientId optional identifier of the client, to apply its quota of searches in flight
+     * @return a summary of the flights of every destination reachable direct or with one stop, sorted by the earliest arrival
+     */
+    @GetMapping("/explore")
+    @ResponseBody
+    @Override
+    public List<DestinationSummary> handleExplore(@RequestParam String departure,
+                                                  @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime departureDateTime,
+                                                  @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime arrivalDateTime,
+                                                  @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeout,
+                                                  @RequestHeader(value = AdmissionControl.CLIENT_ID_HEADER, required = false) String clientId) {
+        try (AdmissionControl.Permit permit = admissionControl.admit(clientId)) {
+            return interconnectionsOneStopService.getDestinations(departure, departureDateTime, arrivalDateTime, interconnectionsOneStopService.newDeadline(timeout, false));
+        }
+    }
+
+    /**
+     * Map the /interconnections/calendar GET operation
+     * @param departure departure airport IATA code for the calendar
+     * @param arrival arrival airport IATA code for the calendar
+     * @param from first day of the calendar
+     * @param to last day of the calendar
+     * @param timeout optional deadline of the request in milliseconds, instead of the default one
+     * @param clientId optional identifier of the client, to apply its quota of searches in flight
+     * @return the number of direct and one stop itineraries and the earliest departure and arrival of every day
+     */
+    @GetMapping("/calendar")
+    @ResponseBody
+    @Override
+    public List<CalendarDay> handleCalendar(@RequestParam String departure,
+                                            @RequestParam String arrival,
+                                            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+                                            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+                                            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeout,
+                                            @RequestHeader(value = AdmissionControl.CLIENT_ID_HEADER, required = false) String clientId) {
+        try (AdmissionControl.Permit permit = admissionControl.admit(clientId)) {
+            return interconnectionsOneStopService.getCalendar(departure, arrival, from, to, interconnectionsOneStopService.newDeadline(timeout, false));
+        }
+    }
+
+    /**
+     * Map the /interconnections/roundtrip GET operation
+     * @param departure departure airport IATA code of the outbound flights, and arrival of the inbound flights
+     * @param arrival arrival airport IATA code of the outbound flights, and departure of the inbound flights
+     * @param departureDateTime time that starts the outbound flight search
+     * @param arrivalDateTime time that finishes the outbound flight search
+     * @param returnDepartureDateTime time that starts the inbound flight search
+     * @param returnArrivalDateTime time that finishes the inbound flight search
+     * @param paired true to return the pairs of outbound and inbound flights, instead of both lists separately
+     * @param timeout optional deadline of the request in milliseconds, instead of the default one
+     * @param clientId optional identifier of the client, to apply its quota of searches in flight
+     * @return the outbound and the inbound flights, separately or paired
+     */
+    @GetMapping("/roundtrip")
+    @ResponseBody
+    @Override
+    public RoundTripResponse handleRoundTrip(@RequestParam String departure,
+                                             @RequestParam String arrival,
+                                             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime departureDateTime,
+                                             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime arrivalDateTime,
+                                             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime returnDepartureDateTime,
+                                             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime returnArrivalDateTime,
+                                             @RequestParam(defaultValue = "false") boolean paired,
+                                             @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeout,
+                                             @RequestHeader(value = AdmissionControl.CLIENT_ID_HEADER, required = false) String clientId) {
+        try (AdmissionControl.Permit permit = admissionControl.admit(clientId)) {
+            return interconnectionsOneStopService.getRoundTrip(departure, arrival, departureDateTime, arrivalDateTime, returnDepartureDateTime, returnArrivalDateTime, paired,
+                    interconnectionsOneStopService.newDeadline(timeout, false));
+        }
+    }
+
+    /**
+     * Map the /interconnections/explain GET operation
+     * @param departure departure airport IATA code for flight search
+     * @param arrival arrival airport IATA code for flight search
+     * @param departureDateTime time that starts the flight search
+     * @param arrivalDateTime time that finishes the flight search
+     * @param partial true to explain the search with the flights found before the deadline
+     * @param timeout optional deadline of the request in milliseconds, instead of the default one
+     * @param clientId optional identifier of the client, to apply its quota of searches in flight
+     * @return the execution breakdown of the search: if it is stored in the data grid, the time of every stage,
+     * the connecting airports, the source and time of every timetable and the sizes of the one stop join.
+     * The search is always made, even if it is stored, and a failed search is explained with the status of its error
+     */
+    @GetMapping("/explain")
+    @ResponseBody
+    @Override
+    public SearchExplanation handleExplain(@RequestParam String departure,
+                                           @RequestParam String arrival,
+                                           @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime departureDateTime,
+                                           @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime arrivalDateTime,
+                                           @RequestParam(defaultValue = "false") boolean partial,
+                                           @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeout,
+                                           @RequestHeader(value = AdmissionControl.CLIENT_ID_HEADER, required = false) String clientId) {
+        Deadline deadline = interconnectionsOneStopService.newDeadline(timeout, partial);
+        return serializedResponseService.explainInterconnections(departure, arrival, departureDateTime, arrivalDateTime, deadline, clientId);
     }
 
+    /**
+     * Map the /interconnections/earliest GET operation
+     * @param departure departure airport IATA code for flight search
+     * @param arrival arrival airport IATA code for flight search
+     * @param departureDateTime time that starts the flight search
+     * @param arrivalDateTime time that finishes the flight search
+     * @param maxStops optional maximum number of stops, instead of the default one
+     * @param timeout optional deadline of the request in milliseconds, instead of the default one
+     * @param clientId optional identifier of the client, to apply its quota of searches in flight
+     * @return the flight that arrives first, found with the connection scan over the timetables kept in memory.
+     * The search answers 501 if the connection scan is not enabled
+     */
+    @GetMapping("/earliest")
+    @ResponseBody
+    @Override
+    public FlightResponse handleEarliestArrival(@RequestParam String departure,
+                                                @RequestParam String arrival,
+                                                @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime departureDateTime,
+                                                @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm") LocalDateTime arrivalDateTime,
+                                                @RequestParam(required = false) Integer maxStops,
+                                                @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeout,
+                                                @RequestHeader(value = AdmissionControl.CLIENT_ID_HEADER, required = false) String clientId) {
+        try (AdmissionControl.Permit permit = admissionControl.admit(clientId)) {
+            return interconnectionsConnectionScanService.getEarliestArrival(departure, arrival, departureDateTime, arrivalDateTime, maxStops,
+                    interconnectionsOneStopService.newDeadline(timeout, false));
+        }
+    }
 }
@@ -0,0 +1,29 @@
+package com.ryanair.interconnections.api.controller;
+
+import com.ryanair.interconnections.cache.schema.InterconnectionsSchemaBuilderImpl;
+import org.infinispan.protostream.GeneratedSchema;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Publish the protobuf schema of the application/x-protobuf responses, so clients can generate their stubs
+ */
+@RestController
+@RequestMapping("/schema")
+@CrossOrigin(origins = "*")
+public class SchemaController {
+
+    private final GeneratedSchema schema = new InterconnectionsSchemaBuilderImpl();
+
+    /**
+     * Map the /schema/flight.proto GET operation
+     * @return the content of the flight.proto file
+     */
+    @GetMapping(value = "/flight.proto", produces = MediaType.TEXT_PLAIN_VALUE)
+    public String handleFlightSchema() {
+        return schema.getProtoFile();
+    }
+}
@@ -0,0 +1,74 @@
+package com.ryanair.interconnections.api.converter;
+
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Converter that writes the lists of flights of the interconnections response as JSON with a
+ * {@link FlightResponseJsonWriter}, instead of the Jackson converter. Any other type is left to Jackson
+ */
+public class FlightResponseJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final FlightResponseJsonWriter writer;
+
+    public FlightResponseJsonHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+        this.writer = new FlightResponseJsonWriter();
+    }
+
+    /**
+     * Check if a type is a list of flights of the interconnections response
+     * @param type the generic type to check
+     * @return a boolean result that determines if the type is a list of FlightResponse
+     */
+    private boolean isFlightList(Type type) {
+        if (!(type instanceof ParameterizedType)) {
+            return false;
+        }
+        ParameterizedType parameterizedType = (ParameterizedType) type;
+        return parameterizedType.getRawType() instanceof Class
+                && List.class.isAssignableFrom((Class<?>) parameterizedType.getRawType())
+                && parameterizedType.getActualTypeArguments()[0] == FlightResponse.class;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return canWrite(mediaType) && isFlightList(type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        writer.write((List<FlightResponse>) object, outputMessage.getBody());
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reading flights is not supported", inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reading flights is not supported", inputMessage);
+    }
+}
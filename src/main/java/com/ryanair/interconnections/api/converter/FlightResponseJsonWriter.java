@@ -0,0 +1,245 @@
+package com.ryanair.interconnections.api.converter;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.ryanair.interconnections.api.model.response.FlightLegResponse;
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writer of the flights of the interconnections response as JSON, without bean introspection. <br/>
+ * The output is byte by byte the same that Jackson writes for a list of FlightResponse: <br/>
+ * * The fixed parts of the document are encoded once <br/>
+ * * The airport IATA codes are encoded and quoted once, and reused for every leg <br/>
+ * * The date times are written digit by digit with the yyyy-MM-dd'T'HH:mm pattern of FlightLegResponse <br/>
+ * Everything is written to a buffer taken from a small pool, flushed to the output when it is full and given back after
+ * the response. A response written while every buffer of the pool is in use gets a new one, that is kept only if the pool
+ * has room, so the buffers are reused with platform or virtual threads alike
+ */
+public class FlightResponseJsonWriter {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_ENCODED_AIRPORTS = 4096;
+    private static final int MAX_POOLED_BUFFERS = Runtime.getRuntime().availableProcessors() * 2;
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+
+    private static final byte[] STOPS = ascii("{\"stops\":");
+    private static final byte[] LEGS = ascii(",\"legs\":");
+    private static final byte[] DEPARTURE_AIRPORT = ascii("{\"departureAirport\":");
+    private static final byte[] ARRIVAL_AIRPORT = ascii(",\"arrivalAirport\":");
+    private static final byte[] DEPARTURE_DATE_TIME = ascii(",\"departureDateTime\":");
+    private static final byte[] ARRIVAL_DATE_TIME = ascii(",\"arrivalDateTime\":");
+    private static final byte[] NULL = ascii("null");
+
+    private final Map<String, byte[]> encodedAirports = new ConcurrentHashMap<>();
+    private final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Write a list of flights as JSON to an output stream
+     * @param flights the flights of the interconnections response
+     * @param outputStream the stream to write the JSON document
+     * @throws IOException if the output stream fails
+     */
+    public void write(List<FlightResponse> flights, OutputStream outputStream) throws IOException {
+        byte[] buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = new byte[BUFFER_SIZE];
+        }
+        try {
+            new Output(buffer, outputStream).writeFlights(flights).flush();
+        } finally {
+            buffers.offer(buffer);
+        }
+    }
+
+    /**
+     * Write a list of flights as JSON
+     * @param flights the flights of the interconnections response
+     * @return the JSON document
+     */
+    public byte[] write(List<FlightResponse> flights) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(flights.size() * 128 + 2);
+        try {
+            write(flights, outputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Get an airport IATA code encoded and quoted as a JSON string
+     * @param airport the airport IATA code
+     * @return the encoded airport
+     */
+    private byte[] encodeAirport(String airport) {
+        byte[] encodedAirport = encodedAirports.get(airport);
+        if (encodedAirport == null) {
+            byte[] quoted = JsonStringEncoder.getInstance().quoteAsUTF8(airport);
+            encodedAirport = new byte[quoted.length + 2];
+            encodedAirport[0] = '"';
+            System.arraycopy(quoted, 0, encodedAirport, 1, quoted.length);
+            encodedAirport[encodedAirport.length - 1] = '"';
+            if (encodedAirports.size() < MAX_ENCODED_AIRPORTS) {
+                encodedAirports.put(airport, encodedAirport);
+            }
+        }
+        return encodedAirport;
+    }
+
+    /**
+     * Buffered output of one JSON document
+     */
+    private class Output {
+        private final byte[] buffer;
+        private final OutputStream outputStream;
+        private int position;
+
+        private Output(byte[] buffer, OutputStream outputStream) {
+            this.buffer = buffer;
+            this.outputStream = outputStream;
+        }
+
+        private Output writeFlights(List<FlightResponse> flights) throws IOException {
+            writeByte('[');
+            for (int i = 0; i < flights.size(); i++) {
+                if (i > 0) {
+                    writeByte(',');
+                }
+                FlightResponse flight = flights.get(i);
+                if (flight == null) {
+                    writeBytes(NULL);
+                } else {
+                    writeFlight(flight);
+                }
+            }
+            writeByte(']');
+            return this;
+        }
+
+        private void writeFlight(FlightResponse flight) throws IOException {
+            writeBytes(STOPS);
+            writeInt(flight.getStops());
+            writeBytes(LEGS);
+            List<FlightLegResponse> legs = flight.getLegs();
+            if (legs == null) {
+                writeBytes(NULL);
+            } else {
+                writeByte('[');
+                for (int i = 0; i < legs.size(); i++) {
+                    if (i > 0) {
+                        writeByte(',');
+                    }
+                    writeLeg(legs.get(i));
+                }
+                writeByte(']');
+            }
+            writeByte('}');
+        }
+
+        private void writeLeg(FlightLegResponse leg) throws IOException {
+            if (leg == null) {
+                writeBytes(NULL);
+                return;
+            }
+            writeBytes(DEPARTURE_AIRPORT);
+            writeAirport(leg.getDepartureAirport());
+            writeBytes(ARRIVAL_AIRPORT);
+            writeAirport(leg.getArrivalAirport());
+            writeBytes(DEPARTURE_DATE_TIME);
+            writeDateTime(leg.getDepartureDateTime());
+            writeBytes(ARRIVAL_DATE_TIME);
+            writeDateTime(leg.getArrivalDateTime());
+            writeByte('}');
+        }
+
+        private void writeAirport(String airport) throws IOException {
+            writeBytes(airport == null ? NULL : encodeAirport(airport));
+        }
+
+        /**
+         * Write a date time as a quoted yyyy-MM-dd'T'HH:mm string, that always has 18 bytes for years of 4 digits
+         */
+        private void writeDateTime(LocalDateTime dateTime) throws IOException {
+            if (dateTime == null) {
+                writeBytes(NULL);
+                return;
+            }
+            int year = dateTime.getYear();
+            if (year < 0 || year > 9999) {
+                writeBytes(ascii('"' + dateTime.format(DATE_TIME_FORMATTER) + '"'));
+                return;
+            }
+            ensureCapacity(18);
+            buffer[position++] = '"';
+            writeDigits(year, 4);
+            buffer[position++] = '-';
+            writeDigits(dateTime.getMonthValue(), 2);
+            buffer[position++] = '-';
+            writeDigits(dateTime.getDayOfMonth(), 2);
+            buffer[position++] = 'T';
+            writeDigits(dateTime.getHour(), 2);
+            buffer[position++] = ':';
+            writeDigits(dateTime.getMinute(), 2);
+            buffer[position++] = '"';
+        }
+
+        private void writeDigits(int value, int digits) {
+            for (int i = position + digits - 1; i >= position; i--) {
+                buffer[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            position += digits;
+        }
+
+        private void writeInt(int value) throws IOException {
+            if (value >= 0 && value < 10) {
+                writeByte('0' + value);
+            } else {
+                writeBytes(ascii(Integer.toString(value)));
+            }
+        }
+
+        private void writeByte(int value) throws IOException {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeBytes(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.length) {
+                flush();
+                outputStream.write(bytes);
+                return;
+            }
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void ensureCapacity(int length) throws IOException {
+            if (position + length > buffer.length) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            outputStream.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
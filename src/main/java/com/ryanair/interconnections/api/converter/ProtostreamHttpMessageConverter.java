@@ -0,0 +1,86 @@
+package com.ryanair.interconnections.api.converter;
+
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+import com.ryanair.interconnections.api.model.response.InterconnectionResponse;
+import com.ryanair.interconnections.cache.schema.InterconnectionsSchemaBuilderImpl;
+
+import org.infinispan.protostream.GeneratedSchema;
+import org.infinispan.protostream.ProtobufUtil;
+import org.infinispan.protostream.SerializationContext;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Converter that writes the flights of the interconnections response as protobuf, using the same
+ * flight.proto schema that stores the flights in the data grid. <br/>
+ * A list of flights is written as an InterconnectionResponse message
+ */
+public class ProtostreamHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private final SerializationContext serializationContext;
+
+    public ProtostreamHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+        GeneratedSchema schema = new InterconnectionsSchemaBuilderImpl();
+        serializationContext = ProtobufUtil.newSerializationContext();
+        schema.registerSchema(serializationContext);
+        schema.registerMarshallers(serializationContext);
+    }
+
+    /**
+     * Check if a type is a list of flights of the interconnections response
+     * @param type the generic type to check
+     * @return a boolean result that determines if the type is a list of FlightResponse
+     */
+    private boolean isFlightList(Type type) {
+        if (!(type instanceof ParameterizedType)) {
+            return false;
+        }
+        ParameterizedType parameterizedType = (ParameterizedType) type;
+        return parameterizedType.getRawType() instanceof Class
+                && List.class.isAssignableFrom((Class<?>) parameterizedType.getRawType())
+                && parameterizedType.getActualTypeArguments()[0] == FlightResponse.class;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == InterconnectionResponse.class || clazz == FlightResponse.class;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return canWrite(mediaType) && (supports(clazz) || isFlightList(type));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Object message = object instanceof List ? new InterconnectionResponse((List<FlightResponse>) object) : object;
+        outputMessage.getBody().write(ProtobufUtil.toByteArray(serializationContext, message));
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf requests are not supported", inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf requests are not supported", inputMessage);
+    }
+}
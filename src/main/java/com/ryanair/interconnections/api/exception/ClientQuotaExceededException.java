@@ -0,0 +1,26 @@
+package com.ryanair.interconnections.api.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception to throw with too many requests code (429) if a client has too many searches in progress.
+ * The response has a Retry-After header
+ */
+public class ClientQuotaExceededException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public ClientQuotaExceededException(int maxInFlight, long retryAfterSeconds) {
+        super(HttpStatus.TOO_MANY_REQUESTS, "A client can have at most " + maxInFlight + " searches in progress");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getResponseHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return headers;
+    }
+}
@@ -0,0 +1,13 @@
+package com.ryanair.interconnections.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception to throw with not implemented code (501) if an earliest arrival search is made without the connection scan enabled
+ */
+public class ConnectionScanDisabledException extends ResponseStatusException {
+    public ConnectionScanDisabledException() {
+        super(HttpStatus.NOT_IMPLEMENTED, "The earliest arrival search is not enabled");
+    }
+}
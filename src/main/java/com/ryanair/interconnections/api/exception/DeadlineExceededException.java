@@ -0,0 +1,13 @@
+package com.ryanair.interconnections.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception to throw with gateway timeout code (504) if a search does not finish before its deadline
+ */
+public class DeadlineExceededException extends ResponseStatusException {
+    public DeadlineExceededException() {
+        super(HttpStatus.GATEWAY_TIMEOUT, "The search did not finish before its deadline");
+    }
+}
@@ -0,0 +1,13 @@
+package com.ryanair.interconnections.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception to throw with bad request code (400) if a search of a batch request misses a required field
+ */
+public class IncompleteQueryException extends ResponseStatusException {
+    public IncompleteQueryException() {
+        super(HttpStatus.BAD_REQUEST, "Departure, arrival, departureDateTime and arrivalDateTime are required");
+    }
+}
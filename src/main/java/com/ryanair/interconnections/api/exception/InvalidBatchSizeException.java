@@ -0,0 +1,13 @@
+package com.ryanair.interconnections.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception to throw with bad request code (400) if a batch request is empty or has too many searches
+ */
+public class InvalidBatchSizeException extends ResponseStatusException {
+    public InvalidBatchSizeException(int maxQueries) {
+        super(HttpStatus.BAD_REQUEST, "A batch must have between 1 and " + maxQueries + " searches");
+    }
+}
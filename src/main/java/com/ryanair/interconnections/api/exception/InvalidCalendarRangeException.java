@@ -0,0 +1,13 @@
+package com.ryanair.interconnections.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception to throw with bad request code (400) if a calendar request ends before it starts or has too many days
+ */
+public class InvalidCalendarRangeException extends ResponseStatusException {
+    public InvalidCalendarRangeException(int maxDays) {
+        super(HttpStatus.BAD_REQUEST, "A calendar must have between 1 and " + maxDays + " days");
+    }
+}
@@ -0,0 +1,13 @@
+package com.ryanair.interconnections.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception to throw with bad request code (400) if the pagination cursor could not be decoded
+ */
+public class InvalidCursorException extends ResponseStatusException {
+    public InvalidCursorException() {
+        super(HttpStatus.BAD_REQUEST, "The pagination cursor is not valid");
+    }
+}
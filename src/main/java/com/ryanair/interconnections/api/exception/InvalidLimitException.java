@@ -0,0 +1,13 @@
+package com.ryanair.interconnections.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception to throw with bad request code (400) if the page limit is not a positive number
+ */
+public class InvalidLimitException extends ResponseStatusException {
+    public InvalidLimitException() {
+        super(HttpStatus.BAD_REQUEST, "Limit must be greater than zero");
+    }
+}
@@ -0,0 +1,13 @@
+package com.ryanair.interconnections.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception to throw with bad request code (400) if the maximum layover is not a positive number of minutes
+ */
+public class InvalidMaxLayoverException extends ResponseStatusException {
+    public InvalidMaxLayoverException() {
+        super(HttpStatus.BAD_REQUEST, "Max layover must be greater than zero");
+    }
+}
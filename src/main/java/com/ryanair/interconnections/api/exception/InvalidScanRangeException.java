@@ -0,0 +1,14 @@
+package com.ryanair.interconnections.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception to throw with bad request code (400) if an earliest arrival search spans more months than the connection scan keeps,
+ * or it asks for more stops than allowed
+ */
+public class InvalidScanRangeException extends ResponseStatusException {
+    public InvalidScanRangeException(int maxMonths, int maxStops) {
+        super(HttpStatus.BAD_REQUEST, "An earliest arrival search must span at most " + maxMonths + " months and have between 0 and " + maxStops + " stops");
+    }
+}
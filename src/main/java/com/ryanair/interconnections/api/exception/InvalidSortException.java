@@ -0,0 +1,13 @@
+package com.ryanair.interconnections.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception to throw with bad request code (400) if the sort criteria is not supported
+ */
+public class InvalidSortException extends ResponseStatusException {
+    public InvalidSortException() {
+        super(HttpStatus.BAD_REQUEST, "Sort must be one of departure, arrival, duration or layover");
+    }
+}
@@ -0,0 +1,26 @@
+package com.ryanair.interconnections.api.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception to throw with service unavailable code (503) if a search is not admitted because the service is overloaded.
+ * The response has a Retry-After header
+ */
+public class ServiceOverloadedException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(long retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "The service is overloaded, retry later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getResponseHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return headers;
+    }
+}
@@ -0,0 +1,13 @@
+package com.ryanair.interconnections.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception to throw with bad request code (400) if a paired round trip has more pairs of flights than the maximum
+ */
+public class TooManyRoundTripPairsException extends ResponseStatusException {
+    public TooManyRoundTripPairsException(int maxPairs) {
+        super(HttpStatus.BAD_REQUEST, "A paired round trip can have at most " + maxPairs + " pairs of flights, search shorter time ranges or without pairing");
+    }
+}
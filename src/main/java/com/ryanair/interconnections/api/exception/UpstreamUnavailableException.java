@@ -0,0 +1,14 @@
+package com.ryanair.interconnections.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception to throw with service unavailable code (503) if the circuit breaker or the concurrency limit
+ * of an upstream API rejects a request
+ */
+public class UpstreamUnavailableException extends ResponseStatusException {
+    public UpstreamUnavailableException(String api) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "The " + api + " API is not available");
+    }
+}
@@ -0,0 +1,126 @@
+package com.ryanair.interconnections.api.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint to record the Flight Recorder events of the API, with the JVM events of a settings
+ * of the JDK (default or profile), in /actuator/flightrecorder: <br/>
+ * * POST: start a new recording, optionally with settings, maxAgeSeconds and maxSizeMegabytes <br/>
+ * * GET: dump the events recorded until now as a .jfr file, while the recording goes on <br/>
+ * * DELETE: stop the recording and discard its events <br/>
+ * Only one recording is kept, so starting a recording stops the previous one. <br/>
+ * The endpoint is only created with management.endpoint.flightrecorder.enabled, because the recordings include
+ * the environment variables and the system properties of the JVM
+ */
+@Component
+@ConditionalOnAvailableEndpoint(endpoint = FlightRecorderEndpoint.class)
+@Endpoint(id = "flightrecorder")
+public class FlightRecorderEndpoint {
+
+    private static final String RECORDING_NAME = "interconnections";
+
+    @Value("${interconnections.flight-recorder.settings}")
+    private String defaultSettings;
+
+    @Value("${interconnections.flight-recorder.max-age-seconds}")
+    private long defaultMaxAgeSeconds;
+
+    @Value("${interconnections.flight-recorder.max-size-megabytes}")
+    private long defaultMaxSizeMegabytes;
+
+    private Recording recording;
+
+    /**
+     * Start a new recording, stopping the previous one
+     * @param settings optional name of the JDK settings: default (low overhead) or profile
+     * @param maxAgeSeconds optional maximum age of the events kept in the recording
+     * @param maxSizeMegabytes optional maximum size of the events kept in the recording
+     * @return the description of the recording
+     * @throws IllegalArgumentException if the settings do not exist
+     */
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable String settings, @Nullable Long maxAgeSeconds, @Nullable Long maxSizeMegabytes) throws IOException {
+        String settingsName = settings == null ? defaultSettings : settings;
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settingsName);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid settings " + settingsName, e);
+        }
+
+        stop();
+        recording = new Recording(configuration);
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(Duration.ofSeconds(maxAgeSeconds == null ? defaultMaxAgeSeconds : maxAgeSeconds));
+        recording.setMaxSize((maxSizeMegabytes == null ? defaultMaxSizeMegabytes : maxSizeMegabytes) * 1024 * 1024);
+        recording.start();
+        return describe(settingsName);
+    }
+
+    /**
+     * Dump the events recorded until now, without stopping the recording
+     * @return the .jfr file of the events, or null (not found) if there is no recording
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized Resource dump() throws IOException {
+        if (recording == null) {
+            return null;
+        }
+        Path file = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+        try {
+            recording.dump(file);
+            return new ByteArrayResource(Files.readAllBytes(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Stop the recording and discard its events
+     * @return the description of the stopped recording, or null (not found) if there is no recording
+     */
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (recording == null) {
+            return null;
+        }
+        recording.stop();
+        Map<String, Object> description = describe(null);
+        recording.close();
+        recording = null;
+        return description;
+    }
+
+    private Map<String, Object> describe(String settings) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("name", recording.getName());
+        description.put("state", recording.getState().name());
+        if (settings != null) {
+            description.put("settings", settings);
+        }
+        description.put("startTime", recording.getStartTime());
+        description.put("maxAgeSeconds", recording.getMaxAge().getSeconds());
+        description.put("maxSizeBytes", recording.getMaxSize());
+        return description;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ryanair.interconnections.api.jfr;
+
+import com.ryanair.interconnections.api.model.response.InterconnectionResponse;
+import com.ryanair.interconnections.api.model.response.SerializedResponse;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.Map;
+
+/**
+ * Flight Recorder event of every Hot Rod operation of the FlightRepository in the data grid.
+ * An asynchronous operation lasts until the data grid completes it
+ */
+@Name("com.ryanair.interconnections.GridOperation")
+@Label("Data Grid Operation")
+@Category({"Ryanair Interconnections", "Data Grid"})
+@Description("Hot Rod operation in a cache of the data grid")
+public class GridOperationEvent extends Event {
+
+    @Label("Cache")
+    String cache;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Key")
+    @Description("Key of the operation, or first key of a bulk operation")
+    String key;
+
+    @Label("Keys")
+    @Description("Keys of a bulk operation, or 1 for other operations")
+    int keys = 1;
+
+    @Label("Found")
+    @Description("If a get found the key")
+    boolean found;
+
+    @Label("Payload Size")
+    @Description("Size of a serialized response, or -1 for other values")
+    @DataAmount
+    long payloadBytes = -1;
+
+    @Label("Flights")
+    @Description("Flights of an interconnections response, or -1 for other values")
+    int flights = -1;
+
+    public GridOperationEvent(String cache, String operation, String key) {
+        this.cache = cache;
+        this.operation = operation;
+        this.key = key;
+    }
+
+    public GridOperationEvent(String cache, String operation, String key, int keys) {
+        this(cache, operation, key);
+        this.keys = keys;
+    }
+
+    /**
+     * Set the value read or written by the operation, and commit the event
+     * @param value the value of the key, or null if a get did not find it. The values of a bulk operation, as a map
+     */
+    public void commit(Object value) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        found = value instanceof Map ? !((Map<?, ?>) value).isEmpty() : value != null;
+        if (value instanceof SerializedResponse) {
+            payloadBytes = ((SerializedResponse) value).getPayload().length;
+        } else if (value instanceof InterconnectionResponse && ((InterconnectionResponse) value).getFlightList() != null) {
+            flights = ((InterconnectionResponse) value).getFlightList().size();
+        }
+        commit();
+    }
+}
@@ -0,0 +1,51 @@
+package com.ryanair.interconnections.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of the one stop join of the timetables of a search in a month
+ */
+@Name("com.ryanair.interconnections.OneStopJoin")
+@Label("One Stop Join")
+@Category({"Ryanair Interconnections", "Search"})
+@Description("Join of the first and second leg flights of every one stop route of a search in a month")
+public class OneStopJoinEvent extends Event {
+
+    @Label("Departure")
+    String departure;
+
+    @Label("Arrival")
+    String arrival;
+
+    @Label("Month")
+    String month;
+
+    @Label("One Stop Routes")
+    int oneStopRoutes;
+
+    @Label("Combinations")
+    @Description("Pairs of first and second leg flights examined")
+    long combinations;
+
+    @Label("Results")
+    int results;
+
+    public OneStopJoinEvent(String departure, String arrival, String month, int oneStopRoutes) {
+        this.departure = departure;
+        this.arrival = arrival;
+        this.month = month;
+        this.oneStopRoutes = oneStopRoutes;
+    }
+
+    public void setCombinations(long combinations) {
+        this.combinations = combinations;
+    }
+
+    public void setResults(int results) {
+        this.results = results;
+    }
+}
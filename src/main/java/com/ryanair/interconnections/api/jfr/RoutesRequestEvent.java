@@ -0,0 +1,41 @@
+package com.ryanair.interconnections.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of every request to the Routes API
+ */
+@Name("com.ryanair.interconnections.RoutesRequest")
+@Label("Routes API Request")
+@Category({"Ryanair Interconnections", "Upstream"})
+@Description("Request to the Routes API for all the routes")
+public class RoutesRequestEvent extends UpstreamRequestEvent {
+
+    @Label("Payload Size")
+    @Description("Content length of the response, or -1 if it is unknown")
+    @DataAmount
+    long payloadBytes = -1;
+
+    @Label("Routes")
+    int routes;
+
+    @Label("Fallback")
+    @Description("If the routes of the last successful request were returned because the API is not available")
+    boolean fallback;
+
+    public void setPayloadBytes(long payloadBytes) {
+        this.payloadBytes = payloadBytes;
+    }
+
+    public void setRoutes(int routes) {
+        this.routes = routes;
+    }
+
+    public void setFallback(boolean fallback) {
+        this.fallback = fallback;
+    }
+}
@@ -0,0 +1,49 @@
+package com.ryanair.interconnections.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of every request to the Schedules API, hedged or not
+ */
+@Name("com.ryanair.interconnections.SchedulesRequest")
+@Label("Schedules API Request")
+@Category({"Ryanair Interconnections", "Upstream"})
+@Description("Request to the Schedules API for the timetable of a route in a month")
+public class SchedulesRequestEvent extends UpstreamRequestEvent {
+
+    @Label("Route")
+    String route;
+
+    @Label("Month")
+    String month;
+
+    @Label("Hedged")
+    @Description("If it is the duplicate request made after the p95 latency of the API")
+    boolean hedged;
+
+    @Label("Payload Size")
+    @Description("Content length of the response, or -1 if it is unknown")
+    @DataAmount
+    long payloadBytes = -1;
+
+    @Label("Flights")
+    int flights;
+
+    public SchedulesRequestEvent(String route, String month, boolean hedged) {
+        this.route = route;
+        this.month = month;
+        this.hedged = hedged;
+    }
+
+    public void setPayloadBytes(long payloadBytes) {
+        this.payloadBytes = payloadBytes;
+    }
+
+    public void setFlights(int flights) {
+        this.flights = flights;
+    }
+}
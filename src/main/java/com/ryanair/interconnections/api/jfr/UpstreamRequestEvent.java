@@ -0,0 +1,26 @@
+package com.ryanair.interconnections.api.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base of the Flight Recorder events of the requests to the upstream APIs, with the outcome of the request: <br/>
+ * * ok: the response was received <br/>
+ * * cancelled: the request was cancelled, by the deadline or because the other hedged request won <br/>
+ * * the simple name of the exception otherwise
+ */
+public abstract class UpstreamRequestEvent extends Event {
+    public static final String OK_OUTCOME = "ok";
+    public static final String CANCELLED_OUTCOME = "cancelled";
+
+    @Label("Outcome")
+    String outcome = OK_OUTCOME;
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    public void setError(Throwable error) {
+        this.outcome = error.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,184 @@
+package com.ryanair.interconnections.api.metrics;
+
+import com.ryanair.interconnections.api.model.explain.SearchExplanation;
+import com.ryanair.interconnections.api.model.plan.FetchPlan;
+import com.ryanair.interconnections.api.model.route.Route;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Metrics of every stage of the search pipeline, published with histograms in /actuator/prometheus: <br/>
+ * * interconnections.search.stage: time of the stages routes, hubs, fetch, join and grid-put <br/>
+ * * interconnections.search.fetch: time of every timetable fetch, with cache miss if it was fetched from the
+ * Schedules API, or cache hit if another search of the same plan had already fetched it <br/>
+ * * interconnections.search.hubs, legs-per-timetable, combinations and results: sizes of the search <br/>
+ * A search made inside {@link #explain} also records its stages and sizes in a search explanation.
+ * The stages are measured in the thread of the request, and the fetches with the listener of the fetch plan.
+ * The routes, fetch and grid-put stages are recorded once per request, because a batch or a round trip shares them
+ * between its searches, and the hubs and join stages once per search
+ */
+@Component
+public class SearchMetrics {
+
+    public static final String ROUTES_STAGE = "routes";
+    public static final String HUBS_STAGE = "hubs";
+    public static final String FETCH_STAGE = "fetch";
+    public static final String JOIN_STAGE = "join";
+    public static final String GRID_PUT_STAGE = "grid-put";
+
+    private final MeterRegistry meterRegistry;
+    private final Timer fetchHit;
+    private final Timer fetchMiss;
+    private final DistributionSummary hubs;
+    private final DistributionSummary legsPerTimetable;
+    private final DistributionSummary combinations;
+    private final DistributionSummary results;
+    private final ThreadLocal<SearchExplanation> explanation = new ThreadLocal<>();
+
+    public SearchMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.fetchHit = fetchTimer("hit");
+        this.fetchMiss = fetchTimer("miss");
+        this.hubs = summary("interconnections.search.hubs", "Connecting airports of the one stop routes of a search");
+        this.legsPerTimetable = summary("interconnections.search.legs-per-timetable", "Flights of a timetable of the Schedules API");
+        this.combinations = summary("interconnections.search.combinations", "Pairs of flights examined by the one stop join of a search");
+        this.results = summary("interconnections.search.results", "Flights returned by a search");
+    }
+
+    private Timer fetchTimer(String cache) {
+        return Timer.builder("interconnections.search.fetch")
+                .description("Time to get a timetable, from the Schedules API or from another search of the same plan")
+                .tag("cache", cache)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary summary(String name, String description) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("interconnections.search.stage")
+                .description("Time of a stage of the search pipeline")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Measure the time of a stage of the search pipeline
+     * @param stage the name of the stage
+     * @param supplier the work of the stage
+     * @return the result of the stage
+     */
+    public <T> T timeStage(String stage, Supplier<T> supplier) {
+        long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            long nanos = System.nanoTime() - start;
+            stageTimer(stage).record(nanos, TimeUnit.NANOSECONDS);
+            SearchExplanation currentExplanation = explanation.get();
+            if (currentExplanation != null) {
+                currentExplanation.addStage(stage, nanos);
+            }
+        }
+    }
+
+    /**
+     * Measure the time of a stage of the search pipeline without result
+     * @param stage the name of the stage
+     * @param runnable the work of the stage
+     */
+    public void timeStage(String stage, Runnable runnable) {
+        timeStage(stage, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Make a search recording its stages and sizes in an explanation, besides the metrics
+     * @param searchExplanation the explanation of the search
+     * @param search the search, made in the current thread
+     * @return the result of the search
+     */
+    public <T> T explain(SearchExplanation searchExplanation, Supplier<T> search) {
+        SearchExplanation previousExplanation = explanation.get();
+        explanation.set(searchExplanation);
+        try {
+            return search.get();
+        } finally {
+            if (previousExplanation == null) {
+                explanation.remove();
+            } else {
+                explanation.set(previousExplanation);
+            }
+        }
+    }
+
+    /**
+     * Get the listener of a new fetch plan, that records the time to get every timetable. If the plan is made inside
+     * {@link #explain}, the timetables are also added to the explanation, whatever thread fetches them
+     * @return the listener of the fetches
+     */
+    public FetchPlan.Listener fetchListener() {
+        SearchExplanation currentExplanation = explanation.get();
+        return (route, dateTime, cacheHit, nanos) -> {
+            recordFetch(cacheHit, nanos);
+            if (currentExplanation != null) {
+                currentExplanation.addTimetable(route, dateTime, cacheHit, nanos);
+            }
+        };
+    }
+
+    /**
+     * Record the time to get a timetable of a fetch plan
+     * @param cacheHit true if the timetable was already planned by another search
+     * @param nanos the time to get the timetable
+     */
+    public void recordFetch(boolean cacheHit, long nanos) {
+        (cacheHit ? fetchHit : fetchMiss).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the connecting airports of the one stop routes of a search
+     * @param oneStopRoutes a list of one stop routes
+     */
+    public void recordHubs(List<List<Route>> oneStopRoutes) {
+        hubs.record(oneStopRoutes.size());
+        SearchExplanation currentExplanation = explanation.get();
+        if (currentExplanation != null) {
+            currentExplanation.addHubs(oneStopRoutes);
+        }
+    }
+
+    public void recordLegsPerTimetable(int count) {
+        legsPerTimetable.record(count);
+    }
+
+    public void recordCombinations(long count) {
+        combinations.record(count);
+        SearchExplanation currentExplanation = explanation.get();
+        if (currentExplanation != null) {
+            currentExplanation.addCombinations(count);
+        }
+    }
+
+    public void recordResults(int count) {
+        results.record(count);
+        SearchExplanation currentExplanation = explanation.get();
+        if (currentExplanation != null) {
+            currentExplanation.setResults(count);
+        }
+    }
+}
@@ -26,6 +26,22 @@ public class Airport {
         routeMap.put(route.getAirportTo(), route);
     }
 
+    /**
+     * Get the route from this airport to a destination
+     * @param arrival the arrival airport IATA code
+     * @return the route to the destination, or null if the route does not exist
+     */
+    public Route getRoute(String arrival) {
+        return routeMap.get(arrival);
+    }
+
+    /**
+     * @return all the routes that depart from this airport
+     */
+    public Collection<Route> getRoutes() {
+        return routeMap.values();
+    }
+
     /**
      * Search for interconnected routes and store it in the airport
      * @param airportMap the map of all airports found in the Routes API
@@ -0,0 +1,99 @@
+package com.ryanair.interconnections.api.model.airport;
+
+import com.ryanair.interconnections.api.model.route.Route;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Represent the network of airports built from one download of the Routes API,
+ * using the IATA code of the departure airport as a key of the airport map
+ */
+public class RouteNetwork {
+
+    private final Map<String, Airport> airportMap;
+
+    public RouteNetwork(List<Route> routes) {
+        this.airportMap = new HashMap<>();
+        routes.forEach(this::addRoute);
+    }
+
+    /**
+     * Add a route in an airport of the map. If the airport does not exist, it creates a new Airport with the route
+     * @param route the route to add
+     */
+    private void addRoute(Route route) {
+        // if the airport exists in the map, just add a new route
+        if (airportMap.containsKey(route.getAirportFrom())) {
+            airportMap.get(route.getAirportFrom()).addRoute(route);
+        }
+        // create a new airport with the first route
+        else {
+            airportMap.put(route.getAirportFrom(), new Airport(route));
+        }
+    }
+
+    /**
+     * Get an airport of the network
+     * @param airport the airport IATA code
+     * @return the airport, or null if no route departs from it
+     */
+    public Airport getAirport(String airport) {
+        return airportMap.get(airport);
+    }
+
+    /**
+     * Get all the routes of the network
+     * @return the routes of every airport
+     */
+    public List<Route> getRoutes() {
+        List<Route> routes = new ArrayList<>();
+        airportMap.values().forEach(airport -> routes.addAll(airport.getRoutes()));
+        return routes;
+    }
+
+    /**
+     * Get the direct route between a departure and an arrival airport
+     * @param departure the departure airport IATA code
+     * @param arrival the arrival airport IATA code
+     * @return the direct route between the airports, or null if the route does not exist
+     */
+    public Route getDirectRoute(String departure, String arrival) {
+        return airportMap.containsKey(departure) ? airportMap.get(departure).getRoute(arrival) : null;
+    }
+
+    /**
+     * Get all the interconnected routes between a departure and an arrival airport
+     * @param departure the departure airport IATA code
+     * @param arrival the arrival airport IATA code
+     * @return a list of all the interconnected routes
+     */
+    public List<List<Route>> getInterconnectedRoutes(String departure, String arrival) {
+        return airportMap.containsKey(departure) ?
+                airportMap.get(departure).findInterconnectedRoutes(airportMap, arrival) :
+                new ArrayList<>();
+    }
+
+    /**
+     * Get all the airports that can be reached from a departure airport, with a direct route or with one stop
+     * @param departure the departure airport IATA code
+     * @return the IATA codes of the reachable airports, without the departure airport
+     */
+    public Set<String> getReachableAirports(String departure) {
+        Set<String> reachableAirports = new TreeSet<>();
+        if (airportMap.containsKey(departure)) {
+            for (Route route : airportMap.get(departure).getRoutes()) {
+                reachableAirports.add(route.getAirportTo());
+                if (airportMap.containsKey(route.getAirportTo())) {
+                    airportMap.get(route.getAirportTo()).getRoutes().forEach(hubRoute -> reachableAirports.add(hubRoute.getAirportTo()));
+                }
+            }
+            reachableAirports.remove(departure);
+        }
+        return reachableAirports;
+    }
+}
@@ -0,0 +1,55 @@
+package com.ryanair.interconnections.api.model.batch;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+
+import java.util.List;
+
+/**
+ * POJO that represents the result of each search of the interconnections batch response. <br/>
+ * A search that fails has the status code and the message of the error instead of the flights
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class InterconnectionQueryResult {
+    private final InterconnectionQuery query;
+    private final int status;
+    private final List<FlightResponse> flights;
+    private final String nextCursor;
+    private final String message;
+
+    private InterconnectionQueryResult(InterconnectionQuery query, int status, List<FlightResponse> flights, String nextCursor, String message) {
+        this.query = query;
+        this.status = status;
+        this.flights = flights;
+        this.nextCursor = nextCursor;
+        this.message = message;
+    }
+
+    public static InterconnectionQueryResult success(InterconnectionQuery query, List<FlightResponse> flights, String nextCursor) {
+        return new InterconnectionQueryResult(query, 200, flights, nextCursor, null);
+    }
+
+    public static InterconnectionQueryResult error(InterconnectionQuery query, int status, String message) {
+        return new InterconnectionQueryResult(query, status, null, null, message);
+    }
+
+    public InterconnectionQuery getQuery() {
+        return query;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public List<FlightResponse> getFlights() {
+        return flights;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
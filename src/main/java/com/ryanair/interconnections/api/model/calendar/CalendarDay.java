@@ -0,0 +1,75 @@
+package com.ryanair.interconnections.api.model.calendar;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * POJO that represents each day of the availability calendar response. <br/>
+ * A day without flights has no earliest departure and arrival
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CalendarDay {
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate date;
+    private int directItineraries;
+    private int oneStopItineraries;
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime earliestDepartureDateTime;
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime earliestArrivalDateTime;
+
+    public CalendarDay(LocalDate date,
+                       int directItineraries,
+                       int oneStopItineraries,
+                       LocalDateTime earliestDepartureDateTime,
+                       LocalDateTime earliestArrivalDateTime) {
+        this.date = date;
+        this.directItineraries = directItineraries;
+        this.oneStopItineraries = oneStopItineraries;
+        this.earliestDepartureDateTime = earliestDepartureDateTime;
+        this.earliestArrivalDateTime = earliestArrivalDateTime;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public int getDirectItineraries() {
+        return directItineraries;
+    }
+
+    public void setDirectItineraries(int directItineraries) {
+        this.directItineraries = directItineraries;
+    }
+
+    public int getOneStopItineraries() {
+        return oneStopItineraries;
+    }
+
+    public void setOneStopItineraries(int oneStopItineraries) {
+        this.oneStopItineraries = oneStopItineraries;
+    }
+
+    public LocalDateTime getEarliestDepartureDateTime() {
+        return earliestDepartureDateTime;
+    }
+
+    public void setEarliestDepartureDateTime(LocalDateTime earliestDepartureDateTime) {
+        this.earliestDepartureDateTime = earliestDepartureDateTime;
+    }
+
+    public LocalDateTime getEarliestArrivalDateTime() {
+        return earliestArrivalDateTime;
+    }
+
+    public void setEarliestArrivalDateTime(LocalDateTime earliestArrivalDateTime) {
+        this.earliestArrivalDateTime = earliestArrivalDateTime;
+    }
+}
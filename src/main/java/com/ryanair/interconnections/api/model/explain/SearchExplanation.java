@@ -0,0 +1,189 @@
+package com.ryanair.interconnections.api.model.explain;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.ryanair.interconnections.api.model.route.Route;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * POJO that represents the execution breakdown of a search, returned by the explain endpoint: <br/>
+ * * storedInGrid: if the same search was already stored in the data grid <br/>
+ * * stages: milliseconds of every stage of the search pipeline (grid-get, routes, hubs, fetch, join and grid-put) <br/>
+ * * hubs: the connecting airports of the one stop routes <br/>
+ * * timetables: every timetable of the search, with its source and the milliseconds to get it <br/>
+ * * combinations and results: the pairs of flights examined by the one stop join, and the flights returned <br/>
+ * A failed search has the status and the reason of its error. <br/>
+ * The timetables are recorded from the threads of the fetches, so every method that records is synchronized
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchExplanation {
+    public static final String GRID_GET_STAGE = "grid-get";
+
+    private String departure;
+    private String arrival;
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime departureDateTime;
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime arrivalDateTime;
+    private int status = 200;
+    private String reason;
+    private boolean storedInGrid;
+    private boolean incomplete;
+    private double totalMillis;
+    private final Map<String, Double> stages = new LinkedHashMap<>();
+    private final TreeSet<String> hubs = new TreeSet<>();
+    private final List<TimetableFetch> timetables = new ArrayList<>();
+    private long combinations;
+    private int results;
+
+    public SearchExplanation(String departure, String arrival, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime) {
+        this.departure = departure;
+        this.arrival = arrival;
+        this.departureDateTime = departureDateTime;
+        this.arrivalDateTime = arrivalDateTime;
+    }
+
+    /**
+     * Add the time of a stage of the search pipeline. A stage that runs several times adds all its times
+     * @param stage the name of the stage
+     * @param nanos the time of the stage
+     */
+    public synchronized void addStage(String stage, long nanos) {
+        stages.merge(stage, nanos / 1_000_000.0, Double::sum);
+    }
+
+    /**
+     * Add the connecting airports of the one stop routes of the search
+     * @param oneStopRoutes a list of one stop routes
+     */
+    public synchronized void addHubs(List<List<Route>> oneStopRoutes) {
+        oneStopRoutes.forEach(oneStopRoute -> hubs.add(oneStopRoute.get(0).getAirportTo()));
+    }
+
+    /**
+     * Add a timetable got by the search
+     * @param route the route of the timetable
+     * @param month a date time in the month of the timetable
+     * @param cacheHit true if it was already planned by the same request, false if it was fetched from the Schedules API
+     * @param nanos the time to get the timetable
+     */
+    public synchronized void addTimetable(Route route, LocalDateTime month, boolean cacheHit, long nanos) {
+        timetables.add(new TimetableFetch(route.getAirportFrom() + "-" + route.getAirportTo(),
+                month,
+                cacheHit ? TimetableFetch.PLAN_SOURCE : TimetableFetch.UPSTREAM_SOURCE,
+                nanos / 1_000_000.0));
+    }
+
+    public synchronized void addCombinations(long count) {
+        combinations += count;
+    }
+
+    public String getDeparture() {
+        return departure;
+    }
+
+    public void setDeparture(String departure) {
+        this.departure = departure;
+    }
+
+    public String getArrival() {
+        return arrival;
+    }
+
+    public void setArrival(String arrival) {
+        this.arrival = arrival;
+    }
+
+    public LocalDateTime getDepartureDateTime() {
+        return departureDateTime;
+    }
+
+    public void setDepartureDateTime(LocalDateTime departureDateTime) {
+        this.departureDateTime = departureDateTime;
+    }
+
+    public LocalDateTime getArrivalDateTime() {
+        return arrivalDateTime;
+    }
+
+    public void setArrivalDateTime(LocalDateTime arrivalDateTime) {
+        this.arrivalDateTime = arrivalDateTime;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public boolean isStoredInGrid() {
+        return storedInGrid;
+    }
+
+    public void setStoredInGrid(boolean storedInGrid) {
+        this.storedInGrid = storedInGrid;
+    }
+
+    public boolean isIncomplete() {
+        return incomplete;
+    }
+
+    public void setIncomplete(boolean incomplete) {
+        this.incomplete = incomplete;
+    }
+
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    public void setTotalMillis(double totalMillis) {
+        this.totalMillis = totalMillis;
+    }
+
+    public synchronized Map<String, Double> getStages() {
+        return new LinkedHashMap<>(stages);
+    }
+
+    public synchronized List<String> getHubs() {
+        return new ArrayList<>(hubs);
+    }
+
+    /**
+     * @return the timetables of the search, sorted by route and month
+     */
+    public synchronized List<TimetableFetch> getTimetables() {
+        List<TimetableFetch> sortedTimetables = new ArrayList<>(timetables);
+        sortedTimetables.sort((first, second) -> first.getRoute().equals(second.getRoute())
+                ? first.getMonth().compareTo(second.getMonth())
+                : first.getRoute().compareTo(second.getRoute()));
+        return sortedTimetables;
+    }
+
+    public synchronized long getCombinations() {
+        return combinations;
+    }
+
+    public int getResults() {
+        return results;
+    }
+
+    public void setResults(int results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ryanair.interconnections.api.model.explain;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * POJO that represents each timetable fetched by an explained search: <br/>
+ * * upstream: fetched from the Schedules API <br/>
+ * * plan: already planned by the same request, so it was not fetched again
+ */
+public class TimetableFetch {
+    public static final String UPSTREAM_SOURCE = "upstream";
+    public static final String PLAN_SOURCE = "plan";
+
+    private String route;
+    @JsonFormat(pattern = "yyyy-MM")
+    private LocalDateTime month;
+    private String source;
+    private double millis;
+
+    public TimetableFetch(String route, LocalDateTime month, String source, double millis) {
+        this.route = route;
+        this.month = month;
+        this.source = source;
+        this.millis = millis;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public void setRoute(String route) {
+        this.route = route;
+    }
+
+    public LocalDateTime getMonth() {
+        return month;
+    }
+
+    public void setMonth(LocalDateTime month) {
+        this.month = month;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public double getMillis() {
+        return millis;
+    }
+
+    public void setMillis(double millis) {
+        this.millis = millis;
+    }
+}
@@ -0,0 +1,77 @@
+package com.ryanair.interconnections.api.model.explore;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * POJO that represents each reachable destination of the explore response, with a summary of its flights
+ */
+public class DestinationSummary {
+    private String destination;
+    private int directItineraries;
+    private int oneStopItineraries;
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime earliestDepartureDateTime;
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime earliestArrivalDateTime;
+
+    public DestinationSummary(String destination,
+                              int directItineraries,
+                              int oneStopItineraries,
+                              LocalDateTime earliestDepartureDateTime,
+                              LocalDateTime earliestArrivalDateTime) {
+        this.destination = destination;
+        this.directItineraries = directItineraries;
+        this.oneStopItineraries = oneStopItineraries;
+        this.earliestDepartureDateTime = earliestDepartureDateTime;
+        this.earliestArrivalDateTime = earliestArrivalDateTime;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public int getDirectItineraries() {
+        return directItineraries;
+    }
+
+    public void setDirectItineraries(int directItineraries) {
+        this.directItineraries = directItineraries;
+    }
+
+    public int getOneStopItineraries() {
+        return oneStopItineraries;
+    }
+
+    public void setOneStopItineraries(int oneStopItineraries) {
+        this.oneStopItineraries = oneStopItineraries;
+    }
+
+    /**
+     * @return the number of direct and one stop itineraries to the destination
+     */
+    public int getItineraries() {
+        return directItineraries + oneStopItineraries;
+    }
+
+    public LocalDateTime getEarliestDepartureDateTime() {
+        return earliestDepartureDateTime;
+    }
+
+    public void setEarliestDepartureDateTime(LocalDateTime earliestDepartureDateTime) {
+        this.earliestDepartureDateTime = earliestDepartureDateTime;
+    }
+
+    public LocalDateTime getEarliestArrivalDateTime() {
+        return earliestArrivalDateTime;
+    }
+
+    public void setEarliestArrivalDateTime(LocalDateTime earliestArrivalDateTime) {
+        this.earliestArrivalDateTime = earliestArrivalDateTime;
+    }
+}
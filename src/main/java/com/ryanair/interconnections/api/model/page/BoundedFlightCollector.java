@@ -0,0 +1,78 @@
+package com.ryanair.interconnections.api.model.page;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * Collector that keeps only the first K flights of a stream in the order of a comparator. <br/>
+ * It uses a bounded heap with the worst retained flight on top, so the memory used is proportional
+ * to K and not to the number of flights of the stream. <br/>
+ * The flights are either built flights or the itineraries of a search
+ * @param <T> the type of the flights
+ */
+public class BoundedFlightCollector<T> implements Collector<T, PriorityQueue<T>, List<T>> {
+
+    private final Comparator<T> comparator;
+    private final int capacity;
+
+    public BoundedFlightCollector(Comparator<T> comparator, int capacity) {
+        this.comparator = comparator;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Offer a flight to the heap, replacing the worst retained flight if the heap is full
+     * @param heap the heap of retained flights
+     * @param flight the flight to offer
+     */
+    private void offer(PriorityQueue<T> heap, T flight) {
+        if (heap.size() < capacity) {
+            heap.add(flight);
+        } else if (comparator.compare(flight, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(flight);
+        }
+    }
+
+    @Override
+    public Supplier<PriorityQueue<T>> supplier() {
+        return () -> new PriorityQueue<>(capacity + 1, comparator.reversed());
+    }
+
+    @Override
+    public BiConsumer<PriorityQueue<T>, T> accumulator() {
+        return this::offer;
+    }
+
+    @Override
+    public BinaryOperator<PriorityQueue<T>> combiner() {
+        return (left, right) -> {
+            right.forEach(flight -> offer(left, flight));
+            return left;
+        };
+    }
+
+    @Override
+    public Function<PriorityQueue<T>, List<T>> finisher() {
+        return heap -> {
+            List<T> flights = new ArrayList<>(heap);
+            flights.sort(comparator);
+            return flights;
+        };
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Collections.unmodifiableSet(EnumSet.of(Characteristics.UNORDERED));
+    }
+}
@@ -0,0 +1,72 @@
+package com.ryanair.interconnections.api.model.page;
+
+import com.ryanair.interconnections.api.exception.InvalidCursorException;
+import com.ryanair.interconnections.api.model.response.FlightLegResponse;
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque pagination cursor. It encodes the last flight of a page, so the next page starts right after it
+ * in the order of the requested sort criteria
+ */
+public final class FlightCursor {
+
+    private static final String LEG_SEPARATOR = "|";
+    private static final String FIELD_SEPARATOR = ",";
+
+    private FlightCursor() {}
+
+    /**
+     * Encode a flight as a URL safe cursor
+     * @param flight the last flight of a page
+     * @return the cursor that points to the flight
+     */
+    public static String encode(FlightResponse flight) {
+        StringBuilder cursor = new StringBuilder().append(flight.getStops());
+        for (FlightLegResponse leg : flight.getLegs()) {
+            cursor.append(LEG_SEPARATOR)
+                    .append(leg.getDepartureAirport()).append(FIELD_SEPARATOR)
+                    .append(leg.getArrivalAirport()).append(FIELD_SEPARATOR)
+                    .append(leg.getDepartureDateTime()).append(FIELD_SEPARATOR)
+                    .append(leg.getArrivalDateTime());
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor to get the flight it points to
+     * @param cursor the cursor received in the request
+     * @return the last flight of the previous page
+     * @throws InvalidCursorException with bad request code (400) if the cursor is malformed
+     */
+    public static FlightResponse decode(String cursor) throws InvalidCursorException {
+        List<FlightLegResponse> legs = new ArrayList<>();
+        int stops;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + LEG_SEPARATOR);
+            stops = Integer.parseInt(parts[0]);
+            for (int i = 1; i < parts.length; i++) {
+                String[] fields = parts[i].split(FIELD_SEPARATOR);
+                legs.add(new FlightLegResponse(
+                        fields[0],
+                        fields[1],
+                        LocalDateTime.parse(fields[2]),
+                        LocalDateTime.parse(fields[3])));
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException e) {
+            throw new InvalidCursorException();
+        }
+
+        if (legs.isEmpty()) {
+            throw new InvalidCursorException();
+        }
+        return new FlightResponse(stops, legs);
+    }
+}
@@ -0,0 +1,49 @@
+package com.ryanair.interconnections.api.model.page;
+
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+
+import java.util.List;
+
+/**
+ * POJO that represents a page of flights of the interconnections response
+ */
+public class FlightPage {
+    private final List<FlightResponse> flights;
+    private final String nextCursor;
+    private final boolean incomplete;
+
+    public FlightPage(List<FlightResponse> flights, String nextCursor) {
+        this(flights, nextCursor, false);
+    }
+
+    public FlightPage(List<FlightResponse> flights, String nextCursor, boolean incomplete) {
+        this.flights = flights;
+        this.nextCursor = nextCursor;
+        this.incomplete = incomplete;
+    }
+
+    public List<FlightResponse> getFlights() {
+        return flights;
+    }
+
+    /**
+     * @return the cursor to request the next page, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @return true if some timetables were left out of the search by the deadline of the request
+     */
+    public boolean isIncomplete() {
+        return incomplete;
+    }
+
+    /**
+     * @return the same page, marked as incomplete
+     */
+    public FlightPage toIncomplete() {
+        return new FlightPage(flights, nextCursor, true);
+    }
+}
@@ -0,0 +1,189 @@
+package com.ryanair.interconnections.api.model.page;
+
+import com.ryanair.interconnections.api.exception.InvalidCursorException;
+import com.ryanair.interconnections.api.exception.InvalidLimitException;
+import com.ryanair.interconnections.api.exception.InvalidMaxLayoverException;
+import com.ryanair.interconnections.api.exception.InvalidSortException;
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+import com.ryanair.interconnections.api.model.schedule.Itinerary;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Represent the sort, limit and cursor requested for the flights of the interconnections response,
+ * and the maximum layover of its one stop flights
+ */
+public class FlightPageRequest {
+
+    private static final FlightPageRequest UNPAGED = new FlightPageRequest(null, null, null, null, null);
+
+    private final FlightSort sort;
+    private final Integer limit;
+    private final String cursor;
+    private final FlightResponse after;
+    private final Integer maxLayover;
+
+    private FlightPageRequest(FlightSort sort, Integer limit, String cursor, FlightResponse after, Integer maxLayover) {
+        this.sort = sort;
+        this.limit = limit;
+        this.cursor = cursor;
+        this.after = after;
+        this.maxLayover = maxLayover;
+    }
+
+    /**
+     * @return a request that keeps all the flights in the order they are searched
+     */
+    public static FlightPageRequest unpaged() {
+        return UNPAGED;
+    }
+
+    /**
+     * Build a page request from the request parameters. If a limit or a cursor is requested without a sort,
+     * the flights are sorted by departure
+     * @param sort the sort criteria, or null
+     * @param limit the maximum number of flights of the page, or null
+     * @param cursor the cursor returned with the previous page, or null
+     * @return the page request
+     * @throws InvalidSortException with bad request code (400) if the sort criteria is not valid
+     * @throws InvalidLimitException with bad request code (400) if the limit is not positive
+     * @throws InvalidCursorException with bad request code (400) if the cursor is not valid
+     */
+    public static FlightPageRequest of(String sort, Integer limit, String cursor)
+            throws InvalidSortException, InvalidLimitException, InvalidCursorException {
+        return of(sort, limit, cursor, null);
+    }
+
+    /**
+     * Build a page request from the request parameters, with a maximum layover of the one stop flights
+     * @param sort the sort criteria, or null
+     * @param limit the maximum number of flights of the page, or null
+     * @param cursor the cursor returned with the previous page, or null
+     * @param maxLayover the maximum minutes between the legs of a one stop flight, or null
+     * @return the page request
+     * @throws InvalidSortException with bad request code (400) if the sort criteria is not valid
+     * @throws InvalidLimitException with bad request code (400) if the limit is not positive
+     * @throws InvalidCursorException with bad request code (400) if the cursor is not valid
+     * @throws InvalidMaxLayoverException with bad request code (400) if the maximum layover is not positive
+     */
+    public static FlightPageRequest of(String sort, Integer limit, String cursor, Integer maxLayover)
+            throws InvalidSortException, InvalidLimitException, InvalidCursorException, InvalidMaxLayoverException {
+
+        if (maxLayover != null && maxLayover <= 0) {
+            throw new InvalidMaxLayoverException();
+        }
+        if (sort == null && limit == null && cursor == null) {
+            return maxLayover == null ? UNPAGED : new FlightPageRequest(null, null, null, null, maxLayover);
+        }
+        if (limit != null && limit <= 0) {
+            throw new InvalidLimitException();
+        }
+        return new FlightPageRequest(
+                sort != null ? FlightSort.fromValue(sort) : FlightSort.DEPARTURE,
+                limit,
+                cursor,
+                cursor != null ? FlightCursor.decode(cursor) : null,
+                maxLayover);
+    }
+
+    public boolean isPaged() {
+        return sort != null;
+    }
+
+    public boolean hasCursor() {
+        return after != null;
+    }
+
+    public FlightSort getSort() {
+        return sort;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public Integer getMaxLayover() {
+        return maxLayover;
+    }
+
+    public Comparator<FlightResponse> getComparator() {
+        return sort.getComparator();
+    }
+
+    /**
+     * Check if a flight belongs to the requested page, that is, it goes after the cursor
+     * @param flight the flight to check
+     * @return a boolean result that determines if the flight goes after the cursor
+     */
+    public boolean accepts(FlightResponse flight) {
+        return after == null || getComparator().compare(flight, after) > 0;
+    }
+
+    /**
+     * Check if an itinerary belongs to the requested page, that is, it goes after the cursor
+     * @param itinerary the itinerary to check
+     * @return a boolean result that determines if the itinerary goes after the cursor
+     */
+    public boolean accepts(Itinerary itinerary) {
+        return after == null || sort.compare(itinerary, after) > 0;
+    }
+
+    /**
+     * Get the collector to retain the flights of the page. With a limit, only limit + 1 flights are
+     * retained in a bounded heap, the extra one is used to know if there is a next page
+     * @return a collector of the flights of the page
+     */
+    public Collector<FlightResponse, ?, List<FlightResponse>> collector() {
+        return isPaged() ? collector(getComparator()) : Collectors.toList();
+    }
+
+    /**
+     * Get the collector to retain the itineraries of the page, in the same order as the flights
+     * @return a collector of the itineraries of the page
+     */
+    public Collector<Itinerary, ?, List<Itinerary>> itineraryCollector() {
+        return isPaged() ? collector(sort.getItineraryComparator()) : Collectors.toList();
+    }
+
+    private <T> Collector<T, ?, List<T>> collector(Comparator<T> comparator) {
+        if (limit != null) {
+            return new BoundedFlightCollector<>(comparator, limit + 1);
+        }
+        return Collectors.collectingAndThen(Collectors.toCollection(ArrayList::new), flights -> {
+            flights.sort(comparator);
+            return flights;
+        });
+    }
+
+    /**
+     * Build the page from the flights retained by the collector
+     * @param flights the flights retained, in the order of the page
+     * @return the page, with a cursor to the next page if more flights were retained than the limit
+     */
+    public FlightPage toPage(List<FlightResponse> flights) {
+        if (limit == null || flights.size() <= limit) {
+            return new FlightPage(flights, null);
+        }
+        List<FlightResponse> pageFlights = new ArrayList<>(flights.subList(0, limit));
+        return new FlightPage(pageFlights, FlightCursor.encode(pageFlights.get(limit - 1)));
+    }
+
+    /**
+     * @return a suffix to distinguish the cached results of different pages and maximum layovers of the same search
+     */
+    public String getCacheKey() {
+        String layoverKey = maxLayover != null ? "|layover" + maxLayover : "";
+        if (!isPaged()) {
+            return layoverKey;
+        }
+        return "|" + sort.name() + "|" + (limit != null ? limit : "") + "|" + (cursor != null ? cursor : "") + layoverKey;
+    }
+}
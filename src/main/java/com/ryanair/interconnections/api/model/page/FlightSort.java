@@ -0,0 +1,140 @@
+package com.ryanair.interconnections.api.model.page;
+
+import com.ryanair.interconnections.api.exception.InvalidSortException;
+import com.ryanair.interconnections.api.model.response.FlightLegResponse;
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+import com.ryanair.interconnections.api.model.schedule.Itinerary;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Criteria available to sort the flights of the interconnections response. <br/>
+ * Every criteria is completed with the same tie breakers, so two different flights never compare as equal
+ * and a flight can be used as a pagination cursor. <br/>
+ * The itineraries of a search are sorted in the same order with the epoch minutes of their timetables, and they are
+ * built as flights only to break the ties of different itineraries with the same departure, arrival and stops
+ */
+public enum FlightSort {
+    DEPARTURE(Comparator.comparing(FlightSort::getDepartureDateTime),
+            itinerary -> toEpochSecond(itinerary.getDepartureMinute()),
+            flight -> getDepartureDateTime(flight).toEpochSecond(ZoneOffset.UTC)),
+    ARRIVAL(Comparator.comparing(FlightSort::getArrivalDateTime),
+            itinerary -> toEpochSecond(itinerary.getArrivalMinute()),
+            flight -> getArrivalDateTime(flight).toEpochSecond(ZoneOffset.UTC)),
+    DURATION(Comparator.comparingLong(FlightSort::getTotalDuration), Itinerary::getDurationMinutes, FlightSort::getTotalDuration),
+    LAYOVER(Comparator.comparingLong(FlightSort::getTotalLayover), Itinerary::getLayoverMinutes, FlightSort::getTotalLayover);
+
+    private final Comparator<FlightResponse> comparator;
+    private final ToLongFunction<Itinerary> itineraryCriteria;
+    private final ToLongFunction<FlightResponse> flightCriteria;
+    private final Comparator<Itinerary> itineraryComparator;
+
+    FlightSort(Comparator<FlightResponse> criteria, ToLongFunction<Itinerary> itineraryCriteria, ToLongFunction<FlightResponse> flightCriteria) {
+        this.comparator = criteria.thenComparing(TieBreaker.COMPARATOR);
+        this.itineraryCriteria = itineraryCriteria;
+        this.flightCriteria = flightCriteria;
+        this.itineraryComparator = Comparator.comparingLong(itineraryCriteria)
+                .thenComparing(TieBreaker.ITINERARY_COMPARATOR);
+    }
+
+    /**
+     * Get the sort criteria from the value of the request parameter, ignoring case
+     * @param value the request parameter value
+     * @return the sort criteria
+     * @throws InvalidSortException with bad request code (400) if the value is not a valid criteria
+     */
+    public static FlightSort fromValue(String value) throws InvalidSortException {
+        for (FlightSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        throw new InvalidSortException();
+    }
+
+    public Comparator<FlightResponse> getComparator() {
+        return comparator;
+    }
+
+    public Comparator<Itinerary> getItineraryComparator() {
+        return itineraryComparator;
+    }
+
+    /**
+     * Compare an itinerary with a flight in the order of the criteria, as if the itinerary were built as a flight
+     * @param itinerary the itinerary
+     * @param flight the flight, such as the flight of a pagination cursor
+     * @return a negative number, zero or a positive number if the itinerary goes before, at or after the flight
+     */
+    public int compare(Itinerary itinerary, FlightResponse flight) {
+        int compared = Long.compare(itineraryCriteria.applyAsLong(itinerary), flightCriteria.applyAsLong(flight));
+        if (compared == 0) {
+            compared = Long.compare(toEpochSecond(itinerary.getDepartureMinute()), getDepartureDateTime(flight).toEpochSecond(ZoneOffset.UTC));
+        }
+        if (compared == 0) {
+            compared = Long.compare(toEpochSecond(itinerary.getArrivalMinute()), getArrivalDateTime(flight).toEpochSecond(ZoneOffset.UTC));
+        }
+        if (compared == 0) {
+            compared = Integer.compare(itinerary.getStops(), flight.getStops());
+        }
+        return compared != 0 ? compared : TieBreaker.COMPARATOR.compare(itinerary.toFlightResponse(), flight);
+    }
+
+    private static LocalDateTime getDepartureDateTime(FlightResponse flight) {
+        return flight.getLegs().get(0).getDepartureDateTime();
+    }
+
+    private static LocalDateTime getArrivalDateTime(FlightResponse flight) {
+        List<FlightLegResponse> legs = flight.getLegs();
+        return legs.get(legs.size() - 1).getArrivalDateTime();
+    }
+
+    private static long getTotalDuration(FlightResponse flight) {
+        return getDepartureDateTime(flight).until(getArrivalDateTime(flight), ChronoUnit.MINUTES);
+    }
+
+    private static long getTotalLayover(FlightResponse flight) {
+        List<FlightLegResponse> legs = flight.getLegs();
+        long layover = 0;
+        for (int i = 1; i < legs.size(); i++) {
+            layover += legs.get(i - 1).getArrivalDateTime().until(legs.get(i).getDepartureDateTime(), ChronoUnit.MINUTES);
+        }
+        return layover;
+    }
+
+    private static long toEpochSecond(int epochMinute) {
+        return epochMinute * 60L;
+    }
+
+    private static String getItinerary(FlightResponse flight) {
+        StringBuilder itinerary = new StringBuilder();
+        for (FlightLegResponse leg : flight.getLegs()) {
+            itinerary.append(leg.getDepartureAirport())
+                    .append(leg.getArrivalAirport())
+                    .append(leg.getDepartureDateTime())
+                    .append(leg.getArrivalDateTime());
+        }
+        return itinerary.toString();
+    }
+
+    /**
+     * Holder of the tie breakers, since enum constants are built before any static field of the enum
+     */
+    private static final class TieBreaker {
+        private static final Comparator<FlightResponse> COMPARATOR = Comparator
+                .comparing(FlightSort::getDepartureDateTime)
+                .thenComparing(FlightSort::getArrivalDateTime)
+                .thenComparingInt(FlightResponse::getStops)
+                .thenComparing(FlightSort::getItinerary);
+        private static final Comparator<Itinerary> ITINERARY_COMPARATOR = Comparator
+                .comparingInt(Itinerary::getDepartureMinute)
+                .thenComparingInt(Itinerary::getArrivalMinute)
+                .thenComparingInt(Itinerary::getStops)
+                .thenComparing(Itinerary::toFlightResponse, COMPARATOR);
+    }
+}
@@ -0,0 +1,73 @@
+package com.ryanair.interconnections.api.model.plan;
+
+import com.ryanair.interconnections.api.exception.DeadlineExceededException;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Represent the time limit of a request, shared by every upstream call and data grid operation of the request. <br/>
+ * If partial results are allowed, the timetables not fetched before the deadline are left out of the search
+ * instead of failing it
+ */
+public class Deadline {
+
+    private static final Deadline NONE = new Deadline(null, false);
+
+    private final Instant expiry;
+    private final boolean partialResults;
+
+    private Deadline(Instant expiry, boolean partialResults) {
+        this.expiry = expiry;
+        this.partialResults = partialResults;
+    }
+
+    /**
+     * @return a deadline that never expires
+     */
+    public static Deadline none() {
+        return NONE;
+    }
+
+    /**
+     * Build a deadline from now
+     * @param timeout the time until the deadline
+     * @param partialResults true to return partial results when the deadline passes
+     * @return the deadline
+     */
+    public static Deadline after(Duration timeout, boolean partialResults) {
+        return new Deadline(Instant.now().plus(timeout), partialResults);
+    }
+
+    /**
+     * @return a boolean result that determines if the deadline has passed
+     */
+    public boolean isExpired() {
+        return expiry != null && !Instant.now().isBefore(expiry);
+    }
+
+    /**
+     * @return the time until the deadline, zero if it has passed, or null if the deadline never expires
+     */
+    public Duration getRemaining() {
+        if (expiry == null) {
+            return null;
+        }
+        Duration remaining = Duration.between(Instant.now(), expiry);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    public boolean isPartialResults() {
+        return partialResults;
+    }
+
+    /**
+     * Verify if the deadline has not passed
+     * @throws DeadlineExceededException with gateway timeout code (504) if the deadline has passed
+     */
+    public void check() throws DeadlineExceededException {
+        if (isExpired()) {
+            throw new DeadlineExceededException();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.ryanair.interconnections.api.model.plan;
+
+import com.ryanair.interconnections.api.exception.DeadlineExceededException;
+import com.ryanair.interconnections.api.model.route.Route;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+
+/**
+ * Plan of all the timetables needed by one or several searches. <br/>
+ * Every timetable is fetched only once, even if several routes, months or searches need it,
+ * and all the planned timetables are fetched concurrently. <br/>
+ * When the deadline of the plan passes, the timetables not fetched yet are cancelled. With partial results,
+ * the searches read them as empty timetables and the plan is marked as incomplete. <br/>
+ * A listener is told the time of every fetch from the loader (cache miss), and the time that a search waits for a
+ * timetable already planned by another search (cache hit)
+ * @param <T> the representation of each timetable, like the list of its flights
+ */
+public class FetchPlan<T> {
+
+    /**
+     * Listener of the fetches of the timetables of a plan
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void onFetch(Route route, LocalDateTime dateTime, boolean cacheHit, long nanos);
+    }
+
+    private final BiFunction<Route, LocalDateTime, T> loader;
+    private final Executor executor;
+    private final Deadline deadline;
+    private final T emptyTimetable;
+    private final Listener listener;
+    private final Map<TimetableKey, CompletableFuture<T>> timetables;
+    private volatile boolean incomplete;
+
+    public FetchPlan(BiFunction<Route, LocalDateTime, T> loader, Executor executor) {
+        this(loader, executor, Deadline.none(), null);
+    }
+
+    public FetchPlan(BiFunction<Route, LocalDateTime, T> loader, Executor executor, Deadline deadline, T emptyTimetable) {
+        this(loader, executor, deadline, emptyTimetable, (route, dateTime, cacheHit, nanos) -> { });
+    }
+
+    public FetchPlan(BiFunction<Route, LocalDateTime, T> loader, Executor executor, Deadline deadline, T emptyTimetable, Listener listener) {
+        this.loader = loader;
+        this.executor = executor;
+        this.deadline = deadline;
+        this.emptyTimetable = emptyTimetable;
+        this.listener = listener;
+        this.timetables = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Add the timetable of a route in a month to the plan, and start to fetch it if it was not planned before
+     * @param route the route of the timetable
+     * @param dateTime a date time in the month of the timetable
+     * @return the pending timetable
+     */
+    public CompletableFuture<T> add(Route route, LocalDateTime dateTime) {
+        long start = System.nanoTime();
+        boolean[] planned = new boolean[1];
+        CompletableFuture<T> timetable = timetables.computeIfAbsent(new TimetableKey(route, dateTime), key -> {
+            planned[0] = true;
+            return CompletableFuture.supplyAsync(() -> load(route, dateTime), executor);
+        });
+        if (!planned[0]) {
+            timetable.whenComplete((result, e) -> listener.onFetch(route, dateTime, true, System.nanoTime() - start));
+        }
+        return timetable;
+    }
+
+    /**
+     * Get the pending timetable of a route in a month, planning it if it was not planned before
+     * @param route the route of the timetable
+     * @param dateTime a date time in the month of the timetable
+     * @return the pending timetable
+     */
+    private CompletableFuture<T> get(Route route, LocalDateTime dateTime) {
+        CompletableFuture<T> timetable = timetables.get(new TimetableKey(route, dateTime));
+        return timetable == null ? add(route, dateTime) : timetable;
+    }
+
+    /**
+     * Fetch a timetable, unless the deadline has already passed while it was waiting in the executor
+     * @param route the route of the timetable
+     * @param dateTime a date time in the month of the timetable
+     * @return the timetable of the route in the month
+     */
+    private T load(Route route, LocalDateTime dateTime) {
+        deadline.check();
+        long start = System.nanoTime();
+        try {
+            return loader.apply(route, dateTime);
+        } catch (RuntimeException e) {
+            // An upstream call stopped by the deadline fails as a deadline exceeded
+            deadline.check();
+            throw e;
+        } finally {
+            listener.onFetch(route, dateTime, false, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Wait until every planned timetable is fetched, or until the deadline. A failed timetable does not fail the wait,
+     * the error is thrown to the searches that read it. The timetables not fetched before the deadline are cancelled
+     */
+    public void await() {
+        CompletableFuture<Void> allTimetables = CompletableFuture
+                .allOf(timetables.values().toArray(new CompletableFuture[0]))
+                .exceptionally(e -> null);
+        try {
+            Duration remaining = deadline.getRemaining();
+            if (remaining == null) {
+                allTimetables.join();
+            } else {
+                allTimetables.get(remaining.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException | ExecutionException e) {
+            cancel();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+        }
+    }
+
+    /**
+     * Cancel all the timetables not fetched yet. The fetches waiting in the executor are not started
+     */
+    public void cancel() {
+        timetables.values().forEach(timetable -> timetable.cancel(false));
+    }
+
+    /**
+     * Get the timetable of a route in a month, fetching it if it was not planned
+     * @param route the route of the timetable
+     * @param dateTime a date time in the month of the timetable
+     * @return the timetable of the route in the month, or an empty timetable if it was not fetched before the
+     * deadline and partial results are allowed
+     * @throws DeadlineExceededException with gateway timeout code (504) if the timetable was not fetched before the deadline
+     */
+    public T getTimetable(Route route, LocalDateTime dateTime) throws DeadlineExceededException {
+        CompletableFuture<T> timetable = get(route, dateTime);
+        try {
+            Duration remaining = deadline.getRemaining();
+            return remaining == null ? timetable.join() : timetable.get(remaining.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (CancellationException | TimeoutException e) {
+            timetable.cancel(false);
+            return getMissingTimetable(new DeadlineExceededException());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return getMissingTimetable(new DeadlineExceededException());
+        } catch (ExecutionException | CompletionException e) {
+            if (e.getCause() instanceof DeadlineExceededException) {
+                return getMissingTimetable((DeadlineExceededException) e.getCause());
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    /**
+     * Get an empty timetable instead of one not fetched before the deadline, if partial results are allowed
+     * @param deadlineExceeded the error to throw if partial results are not allowed
+     * @return the empty timetable
+     */
+    private T getMissingTimetable(DeadlineExceededException deadlineExceeded) {
+        if (!deadline.isPartialResults() || emptyTimetable == null) {
+            throw deadlineExceeded;
+        }
+        incomplete = true;
+        return emptyTimetable;
+    }
+
+    /**
+     * @return the number of different timetables in the plan
+     */
+    public int getSize() {
+        return timetables.size();
+    }
+
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * @return a boolean result that determines if any timetable was left out of the searches by the deadline
+     */
+    public boolean isIncomplete() {
+        return incomplete;
+    }
+}
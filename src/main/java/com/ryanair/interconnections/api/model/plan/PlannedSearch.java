@@ -0,0 +1,52 @@
+package com.ryanair.interconnections.api.model.plan;
+
+import com.ryanair.interconnections.api.model.route.Route;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Represent a search already checked and added to a fetch plan, with the direct and the one stop routes found
+ * when it was planned, so the join of the search does not look for them again
+ */
+public class PlannedSearch {
+    private final String departure;
+    private final String arrival;
+    private final LocalDateTime departureDateTime;
+    private final LocalDateTime arrivalDateTime;
+    private final Route directRoute;
+    private final List<List<Route>> oneStopRoutes;
+
+    public PlannedSearch(String departure, String arrival, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, Route directRoute, List<List<Route>> oneStopRoutes) {
+        this.departure = departure;
+        this.arrival = arrival;
+        this.departureDateTime = departureDateTime;
+        this.arrivalDateTime = arrivalDateTime;
+        this.directRoute = directRoute;
+        this.oneStopRoutes = oneStopRoutes;
+    }
+
+    public String getDeparture() {
+        return departure;
+    }
+
+    public String getArrival() {
+        return arrival;
+    }
+
+    public LocalDateTime getDepartureDateTime() {
+        return departureDateTime;
+    }
+
+    public LocalDateTime getArrivalDateTime() {
+        return arrivalDateTime;
+    }
+
+    public Route getDirectRoute() {
+        return directRoute;
+    }
+
+    public List<List<Route>> getOneStopRoutes() {
+        return oneStopRoutes;
+    }
+}
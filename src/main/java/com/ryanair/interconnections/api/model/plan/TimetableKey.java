@@ -0,0 +1,60 @@
+package com.ryanair.interconnections.api.model.plan;
+
+import com.ryanair.interconnections.api.model.route.Route;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Objects;
+
+/**
+ * Identify the timetable of one route in one month, as it is returned by the Schedules API
+ */
+public class TimetableKey {
+    private final String airportFrom;
+    private final String airportTo;
+    private final YearMonth yearMonth;
+
+    public TimetableKey(String airportFrom, String airportTo, YearMonth yearMonth) {
+        this.airportFrom = airportFrom;
+        this.airportTo = airportTo;
+        this.yearMonth = yearMonth;
+    }
+
+    public TimetableKey(Route route, LocalDateTime dateTime) {
+        this(route.getAirportFrom(), route.getAirportTo(), YearMonth.from(dateTime));
+    }
+
+    public String getAirportFrom() {
+        return airportFrom;
+    }
+
+    public String getAirportTo() {
+        return airportTo;
+    }
+
+    public YearMonth getYearMonth() {
+        return yearMonth;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        TimetableKey that = (TimetableKey) o;
+        return airportFrom.equals(that.airportFrom) && airportTo.equals(that.airportTo) && yearMonth.equals(that.yearMonth);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(airportFrom, airportTo, yearMonth);
+    }
+
+    @Override
+    public String toString() {
+        return airportFrom + airportTo + yearMonth;
+    }
+}
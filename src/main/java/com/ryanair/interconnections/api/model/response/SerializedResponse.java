@@ -0,0 +1,74 @@
+package com.ryanair.interconnections.api.model.response;
+
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+
+/**
+ * POJO that represents an interconnections response already serialized in one media type,
+ * stored in the data grid to be written as it is on the next requests of the same search
+ */
+public class SerializedResponse {
+    private byte[] payload;
+    private String contentHash;
+    private String mediaType;
+    private String nextCursor;
+    private boolean incomplete;
+
+    @ProtoFactory
+    public SerializedResponse(byte[] payload, String contentHash, String mediaType, String nextCursor, boolean incomplete) {
+        this.payload = payload;
+        this.contentHash = contentHash;
+        this.mediaType = mediaType;
+        this.nextCursor = nextCursor;
+        this.incomplete = incomplete;
+    }
+
+    @ProtoField(number = 1, required = true)
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+
+    @ProtoField(number = 2, required = true)
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    @ProtoField(number = 3, required = true)
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public void setMediaType(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    @ProtoField(number = 4)
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @return true if some timetables were left out of the search by the deadline of the request.
+     * An incomplete response is never stored in the data grid
+     */
+    @ProtoField(number = 5, defaultValue = "false")
+    public boolean isIncomplete() {
+        return incomplete;
+    }
+
+    public void setIncomplete(boolean incomplete) {
+        this.incomplete = incomplete;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ryanair.interconnections.api.model.roundtrip;
+
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+
+/**
+ * POJO that represents each pair of outbound and inbound flights of the round trip response
+ */
+public class RoundTripFlightResponse {
+    private FlightResponse outbound;
+    private FlightResponse inbound;
+
+    public RoundTripFlightResponse(FlightResponse outbound, FlightResponse inbound) {
+        this.outbound = outbound;
+        this.inbound = inbound;
+    }
+
+    public FlightResponse getOutbound() {
+        return outbound;
+    }
+
+    public void setOutbound(FlightResponse outbound) {
+        this.outbound = outbound;
+    }
+
+    public FlightResponse getInbound() {
+        return inbound;
+    }
+
+    public void setInbound(FlightResponse inbound) {
+        this.inbound = inbound;
+    }
+}
@@ -0,0 +1,55 @@
+package com.ryanair.interconnections.api.model.roundtrip;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+
+import java.util.List;
+
+/**
+ * POJO that represents the round trip response. <br/>
+ * It has the outbound and the inbound flights separately, or the pairs of them if they are requested paired
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RoundTripResponse {
+    private List<FlightResponse> outbound;
+    private List<FlightResponse> inbound;
+    private List<RoundTripFlightResponse> pairs;
+
+    private RoundTripResponse(List<FlightResponse> outbound, List<FlightResponse> inbound, List<RoundTripFlightResponse> pairs) {
+        this.outbound = outbound;
+        this.inbound = inbound;
+        this.pairs = pairs;
+    }
+
+    public static RoundTripResponse separate(List<FlightResponse> outbound, List<FlightResponse> inbound) {
+        return new RoundTripResponse(outbound, inbound, null);
+    }
+
+    public static RoundTripResponse paired(List<RoundTripFlightResponse> pairs) {
+        return new RoundTripResponse(null, null, pairs);
+    }
+
+    public List<FlightResponse> getOutbound() {
+        return outbound;
+    }
+
+    public void setOutbound(List<FlightResponse> outbound) {
+        this.outbound = outbound;
+    }
+
+    public List<FlightResponse> getInbound() {
+        return inbound;
+    }
+
+    public void setInbound(List<FlightResponse> inbound) {
+        this.inbound = inbound;
+    }
+
+    public List<RoundTripFlightResponse> getPairs() {
+        return pairs;
+    }
+
+    public void setPairs(List<RoundTripFlightResponse> pairs) {
+        this.pairs = pairs;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ryanair.interconnections.api.model.scan;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Give every airport IATA code a number, so the connection scan keeps the airports in arrays instead of maps.
+ * The numbers are shared by the connections of every month
+ */
+public class AirportIndex {
+
+    private final Map<String, Integer> airportIds = new HashMap<>();
+    private final List<String> airportCodes = new ArrayList<>();
+
+    /**
+     * Get the number of an airport, giving it the next number if it has none
+     * @param airport the airport IATA code
+     * @return the number of the airport
+     */
+    public synchronized int getOrAdd(String airport) {
+        return airportIds.computeIfAbsent(airport, code -> {
+            airportCodes.add(code);
+            return airportCodes.size() - 1;
+        });
+    }
+
+    /**
+     * Get the airport of a number
+     * @param airportId the number of the airport
+     * @return the airport IATA code
+     */
+    public synchronized String getCode(int airportId) {
+        return airportCodes.get(airportId);
+    }
+
+    /**
+     * Get the number of an airport
+     * @param airport the airport IATA code
+     * @return the number of the airport, or -1 if no connection departs from or arrives at it
+     */
+    public synchronized int get(String airport) {
+        return airportIds.getOrDefault(airport, -1);
+    }
+
+    /**
+     * @return the number of airports, that is, one more than the greatest number
+     */
+    public synchronized int size() {
+        return airportIds.size();
+    }
+}
@@ -0,0 +1,201 @@
+package com.ryanair.interconnections.api.model.scan;
+
+import com.ryanair.interconnections.api.model.response.FlightLegResponse;
+import com.ryanair.interconnections.api.model.schedule.LegTimetable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represent every flight of the network in a month as a connection between two airports, sorted by departure,
+ * for the connection scan. <br/>
+ * The connections are arrays of airport numbers and epoch minutes, and every connection references the flight
+ * of its leg timetable, so its FlightLegResponse is the same one of the timetable. <br/>
+ * A flight that arrives before it departs (the arrival is in the same day of its departure) is not a connection
+ */
+public class ConnectionTimetable {
+
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final int[] departureAirports;
+    private final int[] arrivalAirports;
+    private final int[] departureMinutes;
+    private final int[] arrivalMinutes;
+    private final LegTimetable[] legTimetables;
+    private final int[] legFlights;
+
+    private ConnectionTimetable(int size) {
+        this.departureAirports = new int[size];
+        this.arrivalAirports = new int[size];
+        this.departureMinutes = new int[size];
+        this.arrivalMinutes = new int[size];
+        this.legTimetables = new LegTimetable[size];
+        this.legFlights = new int[size];
+    }
+
+    /**
+     * Build the connections of the leg timetables of a month
+     * @param timetables the leg timetables of every route in the month
+     * @param airports the numbers of the airports, that get the airports without number yet
+     * @return the connections sorted by departure
+     */
+    public static ConnectionTimetable of(Collection<LegTimetable> timetables, AirportIndex airports) {
+        LegTimetable[] timetableArray = timetables.toArray(new LegTimetable[0]);
+        int size = 0;
+        for (LegTimetable timetable : timetableArray) {
+            size += timetable.size();
+        }
+
+        // The departure, the timetable and the flight of every connection in one long, to sort them by departure
+        long[] sortedFlights = new long[size];
+        int connection = 0;
+        for (int timetable = 0; timetable < timetableArray.length; timetable++) {
+            for (int flight = 0; flight < timetableArray[timetable].size(); flight++) {
+                if (timetableArray[timetable].getArrivalMinute(flight) >= timetableArray[timetable].getDepartureMinute(flight)) {
+                    sortedFlights[connection++] = (long) timetableArray[timetable].getDepartureMinute(flight) << 32 | (long) timetable << 16 | flight;
+                }
+            }
+        }
+        Arrays.sort(sortedFlights, 0, connection);
+
+        ConnectionTimetable connections = new ConnectionTimetable(connection);
+        for (int i = 0; i < connection; i++) {
+            LegTimetable timetable = timetableArray[(int) (sortedFlights[i] >> 16 & 0xFFFF)];
+            int flight = (int) (sortedFlights[i] & 0xFFFF);
+            connections.departureAirports[i] = airports.getOrAdd(timetable.getDepartureAirport());
+            connections.arrivalAirports[i] = airports.getOrAdd(timetable.getArrivalAirport());
+            connections.departureMinutes[i] = timetable.getDepartureMinute(flight);
+            connections.arrivalMinutes[i] = timetable.getArrivalMinute(flight);
+            connections.legTimetables[i] = timetable;
+            connections.legFlights[i] = flight;
+        }
+        return connections;
+    }
+
+    public int size() {
+        return departureMinutes.length;
+    }
+
+    public int getDepartureAirport(int connection) {
+        return departureAirports[connection];
+    }
+
+    public int getArrivalAirport(int connection) {
+        return arrivalAirports[connection];
+    }
+
+    public int getDepartureMinute(int connection) {
+        return departureMinutes[connection];
+    }
+
+    public int getArrivalMinute(int connection) {
+        return arrivalMinutes[connection];
+    }
+
+    /**
+     * Get the leg of the interconnections response of a connection
+     * @param connection the index of the connection
+     * @return the leg of the flight of the connection, the same instance of its leg timetable
+     */
+    public FlightLegResponse getLeg(int connection) {
+        return legTimetables[connection].getLeg(legFlights[connection]);
+    }
+
+    /**
+     * Find the first connection that departs at a time or later
+     * @param minute the epoch minute of the time
+     * @return the index of the connection, or the number of connections if every connection departs before
+     */
+    public int findFirstDepartureFrom(int minute) {
+        int low = 0;
+        int high = departureMinutes.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (departureMinutes[middle] < minute) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Find the itinerary that arrives first at an airport, with one sweep over the connections of consecutive months. <br/>
+     * For every number of legs up to the maximum, the sweep keeps the earliest arrival at every airport and the connection
+     * that arrives there. A connection is taken if its departure airport is reached with one leg less, and it departs
+     * the minimum connection time of the airport after that arrival, or from the departure time if it departs from
+     * the departure airport.
+     * The sweep stops at the first connection that departs after the earliest arrival found, or after the arrival time
+     * @param months the connections of every month of the search, in order
+     * @param airportCount the number of airports of the connections
+     * @param departureAirport the number of the departure airport
+     * @param arrivalAirport the number of the arrival airport
+     * @param departureMinute the epoch minute of the departure time limit
+     * @param arrivalMinute the epoch minute of the arrival time limit
+     * @param maxLegs the maximum number of legs of the itinerary
+     * @param minConnectionMinutes the minimum minutes between the arrival of a leg and the departure of the next one, by airport number
+     * @return the legs of the itinerary with the earliest arrival and the fewest legs, or an empty list if there is none
+     */
+    public static List<FlightLegResponse> findEarliestArrival(List<ConnectionTimetable> months, int airportCount, int departureAirport, int arrivalAirport,
+                                                              int departureMinute, int arrivalMinute, int maxLegs, int[] minConnectionMinutes) {
+        int[][] arrivals = new int[maxLegs + 1][airportCount];
+        ConnectionTimetable[][] arrivalMonths = new ConnectionTimetable[maxLegs + 1][airportCount];
+        int[][] arrivalConnections = new int[maxLegs + 1][airportCount];
+        for (int[] legArrivals : arrivals) {
+            Arrays.fill(legArrivals, UNREACHED);
+        }
+        arrivals[0][departureAirport] = departureMinute;
+        int earliestArrival = UNREACHED;
+
+        for (ConnectionTimetable month : months) {
+            for (int connection = month.findFirstDepartureFrom(departureMinute); connection < month.size(); connection++) {
+                int connectionDeparture = month.departureMinutes[connection];
+                if (connectionDeparture > arrivalMinute || connectionDeparture >= earliestArrival) {
+                    break;
+                }
+                int connectionArrival = month.arrivalMinutes[connection];
+                if (connectionArrival > arrivalMinute) {
+                    continue;
+                }
+                int from = month.departureAirports[connection];
+                int to = month.arrivalAirports[connection];
+                for (int legs = 1; legs <= maxLegs; legs++) {
+                    int ready = arrivals[legs - 1][from];
+                    if (ready == UNREACHED || connectionDeparture < (legs == 1 ? ready : ready + minConnectionMinutes[from])
+                            || connectionArrival >= arrivals[legs][to]) {
+                        continue;
+                    }
+                    arrivals[legs][to] = connectionArrival;
+                    arrivalMonths[legs][to] = month;
+                    arrivalConnections[legs][to] = connection;
+                    if (to == arrivalAirport) {
+                        earliestArrival = Math.min(earliestArrival, connectionArrival);
+                    }
+                }
+            }
+        }
+
+        if (earliestArrival == UNREACHED) {
+            return Collections.emptyList();
+        }
+        int legs = 1;
+        while (arrivals[legs][arrivalAirport] != earliestArrival) {
+            legs++;
+        }
+
+        // Follow the connections back from the arrival airport
+        List<FlightLegResponse> itinerary = new ArrayList<>();
+        for (int airport = arrivalAirport; legs > 0; legs--) {
+            ConnectionTimetable month = arrivalMonths[legs][airport];
+            int connection = arrivalConnections[legs][airport];
+            itinerary.add(month.getLeg(connection));
+            airport = month.departureAirports[connection];
+        }
+        Collections.reverse(itinerary);
+        return itinerary;
+    }
+}
@@ -0,0 +1,88 @@
+package com.ryanair.interconnections.api.model.schedule;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Represent the time between the arrival of a leg and the departure of the next one in a connecting airport: <br/>
+ * * The minimum connection time, the same in every airport unless the airport has its own one <br/>
+ * * The maximum layover, in every airport, or no maximum. A search can ask for a shorter maximum layover <br/>
+ * The joins use both times as bounds of the binary searches over the timetables, so the second legs
+ * outside them are never examined
+ */
+public class ConnectionRules {
+
+    public static final int NO_MAX_LAYOVER = Integer.MAX_VALUE;
+    private static final ConnectionRules DEFAULTS = new ConnectionRules(120, Collections.emptyMap(), NO_MAX_LAYOVER);
+
+    private final int minConnectionMinutes;
+    private final Map<String, Integer> hubMinConnectionMinutes;
+    private final int maxLayoverMinutes;
+
+    public ConnectionRules(int minConnectionMinutes, Map<String, Integer> hubMinConnectionMinutes, int maxLayoverMinutes) {
+        this.minConnectionMinutes = minConnectionMinutes;
+        this.hubMinConnectionMinutes = hubMinConnectionMinutes;
+        this.maxLayoverMinutes = maxLayoverMinutes;
+    }
+
+    /**
+     * @return the rules of the interconnections response: 2 hours of minimum connection time and no maximum layover
+     */
+    public static ConnectionRules defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Build the rules of the interconnections.connection properties
+     * @param minConnectionMinutes the minimum connection time of every airport
+     * @param hubMinConnectionMinutes the minimum connection time of some airports, as a list of IATA code and minutes,
+     *                                for example STN:90,BGY:60, or an empty text
+     * @param maxLayoverMinutes the maximum layover of every airport, or 0 if there is no maximum
+     * @return the rules
+     * @throws IllegalArgumentException if a minimum connection time of an airport is not valid
+     */
+    public static ConnectionRules of(int minConnectionMinutes, String hubMinConnectionMinutes, int maxLayoverMinutes) throws IllegalArgumentException {
+        Map<String, Integer> hubMinutes = new HashMap<>();
+        for (String hubMinute : hubMinConnectionMinutes.split(",")) {
+            if (hubMinute.isBlank()) {
+                continue;
+            }
+            String[] hubAndMinutes = hubMinute.split(":");
+            if (hubAndMinutes.length != 2) {
+                throw new IllegalArgumentException("Not valid minimum connection time of an airport: " + hubMinute);
+            }
+            hubMinutes.put(hubAndMinutes[0].trim(), Integer.parseInt(hubAndMinutes[1].trim()));
+        }
+        return new ConnectionRules(minConnectionMinutes, hubMinutes, maxLayoverMinutes > 0 ? maxLayoverMinutes : NO_MAX_LAYOVER);
+    }
+
+    /**
+     * Get the minimum connection time of an airport
+     * @param hub the connecting airport IATA code
+     * @return the minimum minutes between the arrival of a leg and the departure of the next one in the airport
+     */
+    public int getMinConnectionMinutes(String hub) {
+        return hubMinConnectionMinutes.getOrDefault(hub, minConnectionMinutes);
+    }
+
+    /**
+     * Get the maximum layover of a search
+     * @param requestedMaxLayoverMinutes the maximum layover requested by the search, or null
+     * @return the shortest of the requested maximum layover and the maximum layover of every airport, or NO_MAX_LAYOVER
+     */
+    public int getMaxLayoverMinutes(Integer requestedMaxLayoverMinutes) {
+        return requestedMaxLayoverMinutes == null ? maxLayoverMinutes : Math.min(requestedMaxLayoverMinutes, maxLayoverMinutes);
+    }
+
+    /**
+     * Get the last minute a second leg can depart after the arrival of the first leg
+     * @param arrivalMinute the epoch minute of the arrival of the first leg
+     * @param maxLayoverMinutes the maximum layover of the search
+     * @return the epoch minute of the arrival plus the maximum layover, or Integer.MAX_VALUE if there is no maximum.
+     * A maximum layover so long that the sum does not fit in an int is Integer.MAX_VALUE - 1, so the next minute still fits
+     */
+    public static int getLatestConnectionMinute(int arrivalMinute, int maxLayoverMinutes) {
+        return maxLayoverMinutes == NO_MAX_LAYOVER ? Integer.MAX_VALUE : (int) Math.min((long) arrivalMinute + maxLayoverMinutes, Integer.MAX_VALUE - 1);
+    }
+}
@@ -0,0 +1,78 @@
+package com.ryanair.interconnections.api.model.schedule;
+
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+
+/**
+ * Represent a direct or one stop flight of a search with the indexes of its legs in their timetables,
+ * instead of a FlightResponse with a list of legs. <br/>
+ * The flights of a search are filtered, sorted and paged with the epoch minutes of the timetables,
+ * and a flight is built as a FlightResponse only when the response is written
+ */
+public class Itinerary {
+
+    private final LegTimetable firstLegTimetable;
+    private final int firstLegFlight;
+    private final LegTimetable secondLegTimetable;
+    private final int secondLegFlight;
+
+    private Itinerary(LegTimetable firstLegTimetable, int firstLegFlight, LegTimetable secondLegTimetable, int secondLegFlight) {
+        this.firstLegTimetable = firstLegTimetable;
+        this.firstLegFlight = firstLegFlight;
+        this.secondLegTimetable = secondLegTimetable;
+        this.secondLegFlight = secondLegFlight;
+    }
+
+    /**
+     * @param timetable the timetable of the leg
+     * @param flight the index of the flight in the timetable
+     * @return the direct flight of a flight of a timetable
+     */
+    public static Itinerary direct(LegTimetable timetable, int flight) {
+        return new Itinerary(timetable, flight, null, 0);
+    }
+
+    /**
+     * @param firstLegTimetable the timetable of the first leg
+     * @param firstLegFlight the index of the flight of the first leg
+     * @param secondLegTimetable the timetable of the second leg
+     * @param secondLegFlight the index of the flight of the second leg
+     * @return the one stop flight of two flights of two timetables
+     */
+    public static Itinerary oneStop(LegTimetable firstLegTimetable, int firstLegFlight, LegTimetable secondLegTimetable, int secondLegFlight) {
+        return new Itinerary(firstLegTimetable, firstLegFlight, secondLegTimetable, secondLegFlight);
+    }
+
+    public int getStops() {
+        return secondLegTimetable == null ? 0 : 1;
+    }
+
+    public int getDepartureMinute() {
+        return firstLegTimetable.getDepartureMinute(firstLegFlight);
+    }
+
+    public int getArrivalMinute() {
+        return secondLegTimetable == null
+                ? firstLegTimetable.getArrivalMinute(firstLegFlight)
+                : secondLegTimetable.getArrivalMinute(secondLegFlight);
+    }
+
+    public long getDurationMinutes() {
+        return (long) getArrivalMinute() - getDepartureMinute();
+    }
+
+    public long getLayoverMinutes() {
+        return secondLegTimetable == null
+                ? 0
+                : (long) secondLegTimetable.getDepartureMinute(secondLegFlight) - firstLegTimetable.getArrivalMinute(firstLegFlight);
+    }
+
+    /**
+     * Build the flight of the interconnections response, with the legs shared by every flight of the timetables
+     * @return the flight
+     */
+    public FlightResponse toFlightResponse() {
+        return secondLegTimetable == null
+                ? firstLegTimetable.toDirectFlight(firstLegFlight)
+                : firstLegTimetable.toOneStopFlight(firstLegFlight, secondLegTimetable, secondLegFlight);
+    }
+}
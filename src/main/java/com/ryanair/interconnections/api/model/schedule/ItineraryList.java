@@ -0,0 +1,31 @@
+package com.ryanair.interconnections.api.model.schedule;
+
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Unmodifiable list of the flights of the interconnections response over the itineraries of a search. <br/>
+ * A flight is built every time it is read, so the flights are not kept in memory: they are built when the response
+ * is written or the flights are stored in the data grid, and they are discarded right after
+ */
+public class ItineraryList extends AbstractList<FlightResponse> implements RandomAccess {
+
+    private final List<Itinerary> itineraries;
+
+    public ItineraryList(List<Itinerary> itineraries) {
+        this.itineraries = itineraries;
+    }
+
+    @Override
+    public FlightResponse get(int index) {
+        return itineraries.get(index).toFlightResponse();
+    }
+
+    @Override
+    public int size() {
+        return itineraries.size();
+    }
+}
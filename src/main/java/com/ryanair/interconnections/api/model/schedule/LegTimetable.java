@@ -0,0 +1,315 @@
+package com.ryanair.interconnections.api.model.schedule;
+
+import com.ryanair.interconnections.api.model.response.FlightLegResponse;
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+import com.ryanair.interconnections.api.model.route.Route;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Represent the flights of a route in a month with arrays of epoch minutes, instead of a FlightLegResponse
+ * for every flight. <br/>
+ * The flights are sorted by departure, so the flights that depart from a time on are found with a binary search.
+ * A flight is referenced by its index, and its FlightLegResponse is built only when a flight of the response needs it:
+ * then it is shared by every flight of the response with the same leg. The airport codes are interned, so every
+ * timetable of the same airport shares the same instance. <br/>
+ * As in the flights of the interconnections response, the arrival of a flight is in the same day of its departure,
+ * so the flights of a day are the indexes between the first departures from the start of the day and of the next day
+ */
+public class LegTimetable {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final LegTimetable EMPTY = new LegTimetable(null, null, new int[0], new int[0]);
+
+    private final String departureAirport;
+    private final String arrivalAirport;
+    private final int[] departureMinutes;
+    private final int[] arrivalMinutes;
+    private final AtomicReferenceArray<FlightLegResponse> legs;
+    // Built the first time an availability calendar needs it
+    private volatile int[] earliestArrivalMinutes;
+
+    private LegTimetable(String departureAirport, String arrivalAirport, int[] departureMinutes, int[] arrivalMinutes) {
+        this.departureAirport = departureAirport;
+        this.arrivalAirport = arrivalAirport;
+        this.departureMinutes = departureMinutes;
+        this.arrivalMinutes = arrivalMinutes;
+        this.legs = new AtomicReferenceArray<>(departureMinutes.length);
+    }
+
+    /**
+     * @return a timetable without flights
+     */
+    public static LegTimetable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build the timetable of a Schedules API response
+     * @param route the route of the schedule
+     * @param month a date time in the month of the schedule
+     * @param schedule the schedule of the route in the month
+     * @return the timetable of the schedule
+     */
+    public static LegTimetable of(Route route, LocalDateTime month, Schedule schedule) {
+        if (schedule == null || schedule.getDays() == null) {
+            return EMPTY;
+        }
+
+        LocalDate monthDate = month.toLocalDate();
+        int flightCount = 0;
+        for (Day day : schedule.getDays()) {
+            flightCount += isValidDay(monthDate, day) ? day.getFlights().size() : 0;
+        }
+
+        // The departure and the position of every flight in one long, so the sort keeps the order of the flights that depart at once
+        long[] sortedFlights = new long[flightCount];
+        int[] unsortedArrivals = new int[flightCount];
+        int flight = 0;
+        for (Day day : schedule.getDays()) {
+            if (!isValidDay(monthDate, day)) {
+                continue;
+            }
+            int dayMinute = toEpochMinute(monthDate.withDayOfMonth(day.getDay()));
+            for (Flight dayFlight : day.getFlights()) {
+                int departureMinute = dayMinute + dayFlight.getDepartureTime().getHour() * 60 + dayFlight.getDepartureTime().getMinute();
+                unsortedArrivals[flight] = dayMinute + dayFlight.getArrivalTime().getHour() * 60 + dayFlight.getArrivalTime().getMinute();
+                sortedFlights[flight] = (long) departureMinute << 32 | flight;
+                flight++;
+            }
+        }
+        Arrays.sort(sortedFlights);
+
+        int[] departureMinutes = new int[flightCount];
+        int[] arrivalMinutes = new int[flightCount];
+        for (int i = 0; i < flightCount; i++) {
+            departureMinutes[i] = (int) (sortedFlights[i] >> 32);
+            arrivalMinutes[i] = unsortedArrivals[(int) sortedFlights[i]];
+        }
+        return new LegTimetable(route.getAirportFrom().intern(), route.getAirportTo().intern(), departureMinutes, arrivalMinutes);
+    }
+
+    public int size() {
+        return departureMinutes.length;
+    }
+
+    public String getDepartureAirport() {
+        return departureAirport;
+    }
+
+    public String getArrivalAirport() {
+        return arrivalAirport;
+    }
+
+    public int getDepartureMinute(int flight) {
+        return departureMinutes[flight];
+    }
+
+    public int getArrivalMinute(int flight) {
+        return arrivalMinutes[flight];
+    }
+
+    /**
+     * Check if another timetable has the same flights, so the timetable did not change when it is fetched again
+     * @param other the other timetable
+     * @return a boolean result that determines if both timetables have the same airports, departures and arrivals
+     */
+    public boolean hasSameFlights(LegTimetable other) {
+        return Objects.equals(departureAirport, other.departureAirport)
+                && Objects.equals(arrivalAirport, other.arrivalAirport)
+                && Arrays.equals(departureMinutes, other.departureMinutes)
+                && Arrays.equals(arrivalMinutes, other.arrivalMinutes);
+    }
+
+    /**
+     * Find the first flight that departs at a time or later
+     * @param minute the epoch minute of the time
+     * @return the index of the flight, or the size of the timetable if every flight departs before
+     */
+    public int findFirstDepartureFrom(int minute) {
+        int low = 0;
+        int high = departureMinutes.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (departureMinutes[middle] < minute) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the earliest arrival of the flights of the same day that depart at the same time as a flight or later.
+     * The flights of the next days arrive later than every flight of the day
+     * @param flight the index of the flight
+     * @return the epoch minute of the earliest arrival
+     */
+    public int getEarliestArrivalMinuteFrom(int flight) {
+        int[] earliestArrivals = earliestArrivalMinutes;
+        if (earliestArrivals == null) {
+            earliestArrivals = new int[arrivalMinutes.length];
+            int earliestArrival = Integer.MAX_VALUE;
+            for (int i = arrivalMinutes.length - 1; i >= 0; i--) {
+                earliestArrival = Math.min(earliestArrival, arrivalMinutes[i]);
+                earliestArrivals[i] = earliestArrival;
+            }
+            earliestArrivalMinutes = earliestArrivals;
+        }
+        return earliestArrivals[flight];
+    }
+
+    /**
+     * Find the first flight between two indexes that arrives at a time or earlier. A flight that departs in a day
+     * that ends before the time arrives in time, so only the flights that depart in the last day are checked
+     * @param from the index of the first flight
+     * @param to the index after the last flight
+     * @param minute the epoch minute of the time
+     * @return the index of the flight, or the index after the last flight if no flight arrives in time
+     */
+    public int findFirstArrivalUntil(int from, int to, int minute) {
+        int inTime = findFirstDepartureFrom(toDayStartMinute(minute + 1));
+        if (from < Math.min(to, inTime)) {
+            return from;
+        }
+        for (int flight = Math.max(from, inTime); flight < to; flight++) {
+            if (arrivalMinutes[flight] <= minute) {
+                return flight;
+            }
+        }
+        return Math.max(from, to);
+    }
+
+    /**
+     * Count the flights between two indexes that arrive at a time or earlier, checking one by one only the flights
+     * that depart in the last day
+     * @param from the index of the first flight
+     * @param to the index after the last flight
+     * @param minute the epoch minute of the time
+     * @return the number of flights that arrive in time
+     */
+    public int countArrivalsUntil(int from, int to, int minute) {
+        int inTime = Math.max(from, Math.min(to, findFirstDepartureFrom(toDayStartMinute(minute + 1))));
+        int count = inTime - from;
+        for (int flight = inTime; flight < to; flight++) {
+            if (arrivalMinutes[flight] <= minute) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the earliest arrival of the flights between two indexes that arrive at a time or earlier. If the flights
+     * reach the last day, the flights before the last day arrive before any later flight, so the earliest arrival
+     * is the earliest arrival from the first flight
+     * @param from the index of the first flight
+     * @param to the index after the last flight
+     * @param minute the epoch minute of the time
+     * @return the epoch minute of the earliest arrival, or Integer.MAX_VALUE if no flight arrives in time
+     */
+    public int getEarliestArrivalUntil(int from, int to, int minute) {
+        int inTime = findFirstDepartureFrom(toDayStartMinute(minute + 1));
+        if (from < inTime && inTime <= to) {
+            return getEarliestArrivalMinuteFrom(from);
+        }
+        int earliestArrival = Integer.MAX_VALUE;
+        for (int flight = from; flight < to; flight++) {
+            if (arrivalMinutes[flight] <= minute) {
+                earliestArrival = Math.min(earliestArrival, arrivalMinutes[flight]);
+            }
+        }
+        return earliestArrival;
+    }
+
+    /**
+     * Get the leg of the interconnections response of a flight, building it the first time
+     * @param flight the index of the flight
+     * @return the leg of the flight, the same instance for every call
+     */
+    public FlightLegResponse getLeg(int flight) {
+        FlightLegResponse leg = legs.get(flight);
+        if (leg == null) {
+            legs.compareAndSet(flight, null, new FlightLegResponse(departureAirport,
+                    arrivalAirport,
+                    toDateTime(departureMinutes[flight]),
+                    toDateTime(arrivalMinutes[flight])));
+            leg = legs.get(flight);
+        }
+        return leg;
+    }
+
+    /**
+     * Build the direct flight of the interconnections response of a flight
+     * @param flight the index of the flight
+     * @return the direct flight
+     */
+    public FlightResponse toDirectFlight(int flight) {
+        return new FlightResponse(0, Collections.singletonList(getLeg(flight)));
+    }
+
+    /**
+     * Build the one stop flight of the interconnections response of two flights
+     * @param firstLegFlight the index of the flight of the first leg in this timetable
+     * @param secondLegTimetable the timetable of the second leg
+     * @param secondLegFlight the index of the flight of the second leg
+     * @return the one stop flight
+     */
+    public FlightResponse toOneStopFlight(int firstLegFlight, LegTimetable secondLegTimetable, int secondLegFlight) {
+        return new FlightResponse(1, Arrays.asList(getLeg(firstLegFlight), secondLegTimetable.getLeg(secondLegFlight)));
+    }
+
+    /**
+     * Get the first epoch minute that is not before a time
+     * @param dateTime the time
+     * @return the epoch minute of the time, rounded up
+     */
+    public static int toEpochMinuteCeiling(LocalDateTime dateTime) {
+        return (int) Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC) + 59 + (dateTime.getNano() > 0 ? 1 : 0), 60L);
+    }
+
+    /**
+     * Get the last epoch minute that is not after a time
+     * @param dateTime the time
+     * @return the epoch minute of the time, rounded down
+     */
+    public static int toEpochMinuteFloor(LocalDateTime dateTime) {
+        return (int) Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60L);
+    }
+
+    /**
+     * Get the first epoch minute of a day
+     * @param date the day
+     * @return the epoch minute of the start of the day
+     */
+    public static int toEpochMinute(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay() * MINUTES_PER_DAY);
+    }
+
+    /**
+     * Get the first epoch minute of the day of an epoch minute
+     * @param epochMinute the epoch minute
+     * @return the epoch minute of the start of its day
+     */
+    public static int toDayStartMinute(int epochMinute) {
+        return Math.floorDiv(epochMinute, MINUTES_PER_DAY) * MINUTES_PER_DAY;
+    }
+
+    /**
+     * Check if a day of a Schedules API response has flights and is a day of the month of the schedule
+     */
+    private static boolean isValidDay(LocalDate month, Day day) {
+        return day.getFlights() != null && day.getDay() >= 1 && day.getDay() <= month.lengthOfMonth();
+    }
+
+    private static LocalDateTime toDateTime(int epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60L, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,295 @@
+package com.ryanair.interconnections.api.service;
+
+import com.ryanair.interconnections.api.client.SchedulesClient;
+import com.ryanair.interconnections.api.config.InterconnectionsApiConfig;
+import com.ryanair.interconnections.api.exception.DeadlineExceededException;
+import com.ryanair.interconnections.api.model.plan.Deadline;
+import com.ryanair.interconnections.api.model.plan.FetchPlan;
+import com.ryanair.interconnections.api.model.response.FlightLegResponse;
+import com.ryanair.interconnections.api.model.route.Route;
+import com.ryanair.interconnections.api.model.scan.AirportIndex;
+import com.ryanair.interconnections.api.model.scan.ConnectionTimetable;
+import com.ryanair.interconnections.api.model.schedule.ConnectionRules;
+import com.ryanair.interconnections.api.model.schedule.LegTimetable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service that keeps the timetables of every route of the network in memory, month by month, to answer
+ * earliest arrival searches with a connection scan instead of requesting the timetables of every search. <br/>
+ * A month is loaded from the Schedules API the first time a search needs it, and at most
+ * interconnections.scan.max-months are kept: the month searched least recently is dropped first. <br/>
+ * Every interconnections.scan.refresh-millis the timetables of the kept months are requested again, one by one,
+ * and the connections of a month are built again, in the next search, only if one of its timetables changed
+ */
+@Service
+public class ConnectionScanService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionScanService.class);
+    private static final Duration REFRESH_TIMEOUT = Duration.ofSeconds(5);
+
+    private final RoutesOneStopService routesOneStopService;
+    private final SchedulesClient schedulesClient;
+    private final Executor schedulesExecutor;
+    private final ConnectionRules connectionRules;
+    private final boolean enabled;
+    private final int maxMonths;
+    private final long refreshMillis;
+    private final AirportIndex airports = new AirportIndex();
+    private final Map<YearMonth, MonthConnections> months = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scanExecutor;
+
+    @Autowired
+    public ConnectionScanService(RoutesOneStopService routesOneStopService,
+                                 SchedulesClient schedulesClient,
+                                 @Qualifier(InterconnectionsApiConfig.SCHEDULES_EXECUTOR) Executor schedulesExecutor,
+                                 ConnectionRules connectionRules,
+                                 @Value("${interconnections.scan.enabled}") boolean enabled,
+                                 @Value("${interconnections.scan.max-months}") int maxMonths,
+                                 @Value("${interconnections.scan.refresh-millis}") long refreshMillis) {
+        this.routesOneStopService = routesOneStopService;
+        this.schedulesClient = schedulesClient;
+        this.schedulesExecutor = schedulesExecutor;
+        this.connectionRules = connectionRules;
+        this.enabled = enabled;
+        this.maxMonths = maxMonths;
+        this.refreshMillis = refreshMillis;
+        // One thread loads the months searched for the first time while the other one refreshes the kept months
+        this.scanExecutor = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "connection-scan");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            scanExecutor.scheduleWithFixedDelay(this::refresh, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scanExecutor.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxMonths() {
+        return maxMonths;
+    }
+
+    /**
+     * Find the itinerary that arrives first at an airport, with any number of legs up to a maximum.
+     * Every connection respects the minimum connection time of its airport. The maximum layover does not apply:
+     * the scan keeps only the earliest arrival at every airport, and a later arrival within the maximum layover
+     * of a later flight would be lost
+     * @param departure the departure airport IATA code
+     * @param arrival the arrival airport IATA code
+     * @param departureDateTime the departure time limit
+     * @param arrivalDateTime the arrival time limit
+     * @param maxLegs the maximum number of legs of the itinerary
+     * @param deadline the deadline of the request
+     * @return the legs of the itinerary with the earliest arrival and the fewest legs, or an empty list if there is none
+     * @throws DeadlineExceededException with gateway timeout code (504) if the months of the search are not loaded before the deadline
+     */
+    public List<FlightLegResponse> findEarliestArrival(String departure, String arrival, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime,
+                                                       int maxLegs, Deadline deadline) throws DeadlineExceededException {
+        List<ConnectionTimetable> monthConnections = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(departureDateTime); !month.isAfter(YearMonth.from(arrivalDateTime)); month = month.plusMonths(1)) {
+            monthConnections.add(getConnections(month, deadline));
+        }
+        int departureAirport = airports.get(departure);
+        int arrivalAirport = airports.get(arrival);
+        if (departureAirport < 0 || arrivalAirport < 0 || departureAirport == arrivalAirport) {
+            return Collections.emptyList();
+        }
+        int[] minConnectionMinutes = new int[airports.size()];
+        for (int airport = 0; airport < minConnectionMinutes.length; airport++) {
+            minConnectionMinutes[airport] = connectionRules.getMinConnectionMinutes(airports.getCode(airport));
+        }
+        return ConnectionTimetable.findEarliestArrival(monthConnections,
+                minConnectionMinutes.length,
+                departureAirport,
+                arrivalAirport,
+                LegTimetable.toEpochMinuteCeiling(departureDateTime),
+                LegTimetable.toEpochMinuteFloor(arrivalDateTime),
+                maxLegs,
+                minConnectionMinutes);
+    }
+
+    /**
+     * Get the connections of a month, waiting for the month to be loaded if it is searched for the first time
+     * @param month the month
+     * @param deadline the deadline of the request
+     * @return the connections of the month
+     * @throws DeadlineExceededException with gateway timeout code (504) if the month is not loaded before the deadline
+     */
+    private ConnectionTimetable getConnections(YearMonth month, Deadline deadline) throws DeadlineExceededException {
+        MonthConnections monthConnections = months.computeIfAbsent(month, this::load);
+        monthConnections.lastAccessMillis = System.currentTimeMillis();
+        evict();
+        try {
+            Duration remaining = deadline.getRemaining();
+            if (remaining == null) {
+                monthConnections.loaded.join();
+            } else {
+                monthConnections.loaded.get(remaining.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeadlineExceededException();
+        } catch (ExecutionException | CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new CompletionException(e.getCause());
+        }
+        return monthConnections.getConnections(airports);
+    }
+
+    /**
+     * Start to load the timetables of every route of the network in a month. If the load fails, the month is dropped,
+     * so the next search loads it again
+     * @param month the month
+     * @return the month, loaded in the background
+     */
+    private MonthConnections load(YearMonth month) {
+        MonthConnections monthConnections = new MonthConnections(month);
+        monthConnections.loaded = CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+            List<Route> routes = routesOneStopService.getRouteNetwork().getRoutes();
+            FetchPlan<LegTimetable> fetchPlan = new FetchPlan<>((route, dateTime) ->
+                    LegTimetable.of(route, dateTime, schedulesClient.getSchedule(route, dateTime)), schedulesExecutor);
+            routes.forEach(route -> fetchPlan.add(route, monthConnections.dateTime));
+            fetchPlan.await();
+
+            int failures = 0;
+            for (Route route : routes) {
+                LegTimetable timetable;
+                try {
+                    timetable = fetchPlan.getTimetable(route, monthConnections.dateTime);
+                } catch (RuntimeException e) {
+                    // A route without timetable in the month has no connections
+                    timetable = LegTimetable.empty();
+                    failures++;
+                }
+                monthConnections.routes.put(getRouteKey(route), route);
+                monthConnections.update(getRouteKey(route), timetable);
+            }
+            LOGGER.info("Connection scan loaded {} in {} ms: {} routes, {} without timetable",
+                    month, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), routes.size(), failures);
+        }, scanExecutor);
+        monthConnections.loaded.whenComplete((result, error) -> {
+            if (error != null) {
+                LOGGER.warn("Connection scan could not load {}: {}", month, error.getMessage());
+                months.remove(month, monthConnections);
+            }
+        });
+        return monthConnections;
+    }
+
+    /**
+     * Drop the months searched least recently while there are more than interconnections.scan.max-months
+     */
+    private void evict() {
+        while (months.size() > maxMonths) {
+            months.values()
+                    .stream()
+                    .min((first, second) -> Long.compare(first.lastAccessMillis, second.lastAccessMillis))
+                    .ifPresent(monthConnections -> months.remove(monthConnections.month, monthConnections));
+        }
+    }
+
+    /**
+     * Request again the timetables of the loaded months, one by one. A timetable that cannot be requested keeps its value
+     */
+    private void refresh() {
+        for (MonthConnections monthConnections : months.values()) {
+            if (!monthConnections.loaded.isDone() || monthConnections.loaded.isCompletedExceptionally()) {
+                continue;
+            }
+            int changes = 0;
+            for (Map.Entry<String, Route> entry : monthConnections.routes.entrySet()) {
+                try {
+                    LegTimetable timetable = LegTimetable.of(entry.getValue(), monthConnections.dateTime,
+                            schedulesClient.refreshSchedule(entry.getValue(), monthConnections.dateTime, REFRESH_TIMEOUT));
+                    if (monthConnections.update(entry.getKey(), timetable)) {
+                        changes++;
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.debug("Connection scan could not refresh {} in {}: {}", entry.getKey(), monthConnections.month, e.getMessage());
+                }
+            }
+            LOGGER.info("Connection scan refreshed {}: {} timetables changed", monthConnections.month, changes);
+        }
+    }
+
+    private static String getRouteKey(Route route) {
+        return route.getAirportFrom() + route.getAirportTo();
+    }
+
+    /**
+     * The timetables of every route of the network in a month, and their connections,
+     * built again only after a timetable changes
+     */
+    private static final class MonthConnections {
+        private final YearMonth month;
+        private final LocalDateTime dateTime;
+        private final Map<String, Route> routes = new ConcurrentHashMap<>();
+        private final Map<String, LegTimetable> timetables = new ConcurrentHashMap<>();
+        private CompletableFuture<Void> loaded;
+        private volatile ConnectionTimetable connections;
+        private volatile long lastAccessMillis;
+
+        private MonthConnections(YearMonth month) {
+            this.month = month;
+            this.dateTime = month.atDay(1).atStartOfDay();
+        }
+
+        private synchronized ConnectionTimetable getConnections(AirportIndex airports) {
+            if (connections == null) {
+                connections = ConnectionTimetable.of(timetables.values(), airports);
+            }
+            return connections;
+        }
+
+        /**
+         * Replace the timetable of a route
+         * @return a boolean result that determines if the flights of the route changed
+         */
+        private synchronized boolean update(String routeKey, LegTimetable timetable) {
+            LegTimetable previous = timetables.put(routeKey, timetable);
+            if (previous != null && previous.hasSameFlights(timetable)) {
+                return false;
+            }
+            connections = null;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.ryanair.interconnections.api.service;
+
+import com.ryanair.interconnections.api.exception.ConnectionScanDisabledException;
+import com.ryanair.interconnections.api.exception.InvalidScanRangeException;
+import com.ryanair.interconnections.api.exception.NoFlightsFoundException;
+import com.ryanair.interconnections.api.model.page.FlightPage;
+import com.ryanair.interconnections.api.model.page.FlightPageRequest;
+import com.ryanair.interconnections.api.model.plan.Deadline;
+import com.ryanair.interconnections.api.model.response.FlightLegResponse;
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A Service class to search the flight that arrives first, with a connection scan over the timetables kept in memory
+ * instead of requesting the timetables of every search. It is not limited to one stop, but it only finds one itinerary
+ */
+@Service
+public class InterconnectionsConnectionScanService extends InterconnectionsService {
+    private final ConnectionScanService connectionScanService;
+
+    @Value("${interconnections.scan.max-stops}")
+    private int maxStops;
+
+    @Autowired
+    public InterconnectionsConnectionScanService(ConnectionScanService connectionScanService) {
+        super();
+        this.connectionScanService = connectionScanService;
+    }
+
+    /**
+     * Get the flight that arrives first, with the default maximum number of stops
+     * @param departure the departure airport IATA code
+     * @param arrival the arrival airport IATA code
+     * @param departureDateTime the departure time limit
+     * @param arrivalDateTime the arrival time limit
+     * @return a list with the flight that arrives first
+     * @throws ResponseStatusException with a client error code (4XX) if there is a problem with the search
+     */
+    @Override
+    public List<FlightResponse> getInterconnections(String departure, String arrival, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime) throws ResponseStatusException {
+        return Collections.singletonList(getEarliestArrival(departure, arrival, departureDateTime, arrivalDateTime, null, Deadline.none()));
+    }
+
+    /**
+     * Get a page with the flight that arrives first, with the default maximum number of stops
+     * @param departure the departure airport IATA code
+     * @param arrival the arrival airport IATA code
+     * @param departureDateTime the departure time limit
+     * @param arrivalDateTime the arrival time limit
+     * @param pageRequest the sort, limit and cursor of the requested page
+     * @return the page with the flight that arrives first
+     * @throws ResponseStatusException with a client error code (4XX) if there is a problem with the search
+     */
+    @Override
+    public FlightPage getInterconnections(String departure, String arrival, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, FlightPageRequest pageRequest) throws ResponseStatusException {
+        return pageRequest.toPage(getInterconnections(departure, arrival, departureDateTime, arrivalDateTime));
+    }
+
+    /**
+     * Get the flight that arrives first before a deadline
+     * @param departure the departure airport IATA code
+     * @param arrival the arrival airport IATA code
+     * @param departureDateTime the departure time limit
+     * @param arrivalDateTime the arrival time limit
+     * @param maxStops optional maximum number of stops, instead of interconnections.scan.max-stops
+     * @param deadline the deadline of the request
+     * @return the flight with the earliest arrival, and the fewest stops among the ones that arrive at once
+     * @throws ResponseStatusException with a client error code (4XX) if there is a problem with the search,
+     * with not implemented code (501) if the connection scan is not enabled,
+     * or with gateway timeout code (504) if the timetables of the search are not loaded before the deadline
+     */
+    public FlightResponse getEarliestArrival(String departure, String arrival, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime,
+                                             Integer maxStops, Deadline deadline) throws ResponseStatusException {
+        if (!connectionScanService.isEnabled()) {
+            throw new ConnectionScanDisabledException();
+        }
+        checkDepartureArrivalTime(departureDateTime, arrivalDateTime);
+        int stops = maxStops == null ? this.maxStops : maxStops;
+        long months = ChronoUnit.MONTHS.between(YearMonth.from(departureDateTime), YearMonth.from(arrivalDateTime)) + 1;
+        if (stops < 0 || stops > this.maxStops || months > connectionScanService.getMaxMonths()) {
+            throw new InvalidScanRangeException(connectionScanService.getMaxMonths(), this.maxStops);
+        }
+
+        List<FlightLegResponse> legs = connectionScanService.findEarliestArrival(departure, arrival, departureDateTime, arrivalDateTime, stops + 1, deadline);
+        if (legs.isEmpty()) {
+            throw new NoFlightsFoundException();
+        }
+        return new FlightResponse(legs.size() - 1, legs);
+    }
+}
@@ -1,13 +1,46 @@
 package com.ryanair.interconnections.api.service;
 
+import com.ryanair.interconnections.api.config.InterconnectionsApiConfig;
+import com.ryanair.interconnections.api.exception.DeadlineExceededException;
+import com.ryanair.interconnections.api.exception.IncompleteQueryException;
+import com.ryanair.interconnections.api.exception.InvalidBatchSizeException;
+import com.ryanair.interconnections.api.exception.InvalidCalendarRangeException;
+import com.ryanair.interconnections.api.exception.NoFlightsFoundException;
+import com.ryanair.interconnections.api.exception.NoRoutesFoundException;
+import com.ryanair.interconnections.api.exception.TooManyRoundTripPairsException;
+import com.ryanair.interconnections.api.metrics.SearchMetrics;
+import com.ryanair.interconnections.api.model.airport.RouteNetwork;
+import com.ryanair.interconnections.api.model.batch.InterconnectionQuery;
+import com.ryanair.interconnections.api.model.batch.InterconnectionQueryResult;
+import com.ryanair.interconnections.api.model.calendar.CalendarDay;
+import com.ryanair.interconnections.api.model.explain.SearchExplanation;
+import com.ryanair.interconnections.api.model.explore.DestinationSummary;
+import com.ryanair.interconnections.api.model.page.FlightPage;
+import com.ryanair.interconnections.api.model.page.FlightPageRequest;
+import com.ryanair.interconnections.api.model.plan.Deadline;
+import com.ryanair.interconnections.api.model.plan.FetchPlan;
+import com.ryanair.interconnections.api.model.plan.PlannedSearch;
 import com.ryanair.interconnections.api.model.response.FlightResponse;
+import com.ryanair.interconnections.api.model.roundtrip.RoundTripFlightResponse;
+import com.ryanair.interconnections.api.model.roundtrip.RoundTripResponse;
 import com.ryanair.interconnections.api.model.route.Route;
+import com.ryanair.interconnections.api.model.schedule.LegTimetable;
+import com.ryanair.interconnections.cache.repo.FlightBatch;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 /**
  * A Service class to do all the operations necessary to search the direct and interconnected flights
@@ -16,17 +49,39 @@ import java.util.*;
 public class InterconnectionsOneStopService extends InterconnectionsService{
     private final RoutesOneStopService routesOneStopService;
     private final SchedulesOneStopService schedulesOneStopService;
+    private final SearchMetrics searchMetrics;
+    private final Executor searchExecutor;
 
+    @Value("${interconnections.batch.max-queries}")
+    private int maxBatchQueries;
+
+    @Value("${interconnections.calendar.max-days}")
+    private int maxCalendarDays;
+
+    @Value("${interconnections.roundtrip.max-pairs}")
+    private int maxRoundTripPairs;
+
+    @Value("${interconnections.deadline.default-millis}")
+    private long defaultTimeoutMillis;
+
+    @Value("${interconnections.deadline.max-millis}")
+    private long maxTimeoutMillis;
 
     @Autowired
-    public InterconnectionsOneStopService(RoutesOneStopService routesOneStopService, SchedulesOneStopService schedulesOneStopService) {
+    public InterconnectionsOneStopService(RoutesOneStopService routesOneStopService,
+                                          SchedulesOneStopService schedulesOneStopService,
+                                          SearchMetrics searchMetrics,
+                                          @Qualifier(InterconnectionsApiConfig.SEARCH_EXECUTOR) Executor searchExecutor) {
         super();
         this.routesOneStopService = routesOneStopService;
         this.schedulesOneStopService = schedulesOneStopService;
+        this.searchMetrics = searchMetrics;
+        this.searchExecutor = searchExecutor;
     }
 
     /**
-     * Primary method of doing all things to get all available flights
+     * Primary method of doing all things to get all available flights, without deadline. The requests to the API
+     * have the deadline of their X-Request-Timeout header instead
      * @param departure the departure airport IATA code
      * @param arrival the arrival airport IATA code
      * @param departureDateTime the departure time limit
@@ -36,29 +91,402 @@ public class InterconnectionsOneStopService extends InterconnectionsService{
      */
     @Override
     public List<FlightResponse> getInterconnections(String departure, String arrival, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime) throws ResponseStatusException {
+        return getInterconnections(departure, arrival, departureDateTime, arrivalDateTime, FlightPageRequest.unpaged()).getFlights();
+    }
+
+    /**
+     * Get one page of the available flights, sorted and limited as requested, without deadline
+     * @param departure the departure airport IATA code
+     * @param arrival the arrival airport IATA code
+     * @param departureDateTime the departure time limit
+     * @param arrivalDateTime the arrival time limit
+     * @param pageRequest the sort, limit and cursor of the requested page
+     * @return the page of flights as a result of the search
+     * @throws ResponseStatusException with a client error code (4XX) if there is a problem with the search
+     */
+    @Override
+    public FlightPage getInterconnections(String departure, String arrival, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, FlightPageRequest pageRequest) throws ResponseStatusException {
+        return getInterconnections(departure, arrival, departureDateTime, arrivalDateTime, pageRequest, Deadline.none());
+    }
+
+    /**
+     * Get one page of the available flights before a deadline. Every upstream call is cancelled when the deadline passes
+     * @param departure the departure airport IATA code
+     * @param arrival the arrival airport IATA code
+     * @param departureDateTime the departure time limit
+     * @param arrivalDateTime the arrival time limit
+     * @param pageRequest the sort, limit and cursor of the requested page
+     * @param deadline the deadline of the request
+     * @return the page of flights as a result of the search, marked as incomplete if the deadline left out some timetables
+     * @throws ResponseStatusException with a client error code (4XX) if there is a problem with the search,
+     * or with gateway timeout code (504) if the search does not finish before the deadline
+     */
+    public FlightPage getInterconnections(String departure, String arrival, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, FlightPageRequest pageRequest, Deadline deadline) throws ResponseStatusException {
+        RouteNetwork routeNetwork = routesOneStopService.getRouteNetwork(deadline);
+        FetchPlan<LegTimetable> fetchPlan = schedulesOneStopService.newFetchPlan(deadline);
+        FlightBatch flightBatch = schedulesOneStopService.newFlightBatch();
+        PlannedSearch plannedSearch = planSearch(departure, arrival, departureDateTime, arrivalDateTime, routeNetwork, fetchPlan);
+        searchMetrics.timeStage(SearchMetrics.FETCH_STAGE, fetchPlan::await);
+        FlightPage page = search(plannedSearch, pageRequest, fetchPlan, flightBatch);
+        schedulesOneStopService.storeFlights(flightBatch, deadline);
+        return page;
+    }
 
-        // First of all, check if the departure time is later than the arrival time
+    /**
+     * Make a search recording its execution breakdown: the time of every stage, the connecting airports,
+     * the source and time of every timetable, and the sizes of the one stop join
+     * @param explanation the explanation of the search, with the airports and the time limits to search
+     * @param deadline the deadline of the request
+     * @return the explanation of the search, with the status and the reason of the error if the search fails
+     */
+    public SearchExplanation explain(SearchExplanation explanation, Deadline deadline) {
+        try {
+            FlightPage page = searchMetrics.explain(explanation, () -> getInterconnections(explanation.getDeparture(),
+                    explanation.getArrival(),
+                    explanation.getDepartureDateTime(),
+                    explanation.getArrivalDateTime(),
+                    FlightPageRequest.unpaged(),
+                    deadline));
+            explanation.setIncomplete(page.isIncomplete());
+        } catch (ResponseStatusException e) {
+            explanation.setStatus(e.getStatus().value());
+            explanation.setReason(e.getReason());
+        }
+        return explanation;
+    }
+
+    /**
+     * Build the deadline of a request from now
+     * @param timeoutMillis the timeout requested by the client in milliseconds, or null to use the default timeout.
+     *                      It can not be longer than the maximum timeout
+     * @param partialResults true to return partial results when the deadline passes
+     * @return the deadline of the request
+     */
+    public Deadline newDeadline(Long timeoutMillis, boolean partialResults) {
+        long timeout = timeoutMillis == null ? defaultTimeoutMillis : Math.min(Math.max(timeoutMillis, 0), maxTimeoutMillis);
+        return Deadline.after(Duration.ofMillis(timeout), partialResults);
+    }
+
+    /**
+     * Make several searches at once. The routes are downloaded only once, and the timetables of all the searches
+     * are fetched together, so a timetable needed by several searches is fetched only once. The flights of all
+     * the searches are stored in the data grid together, and if the Schedules API is not available, the stored
+     * flights of all the searches are read together
+     * @param queries the searches to make
+     * @param deadline the deadline of the whole batch
+     * @return the result of every search, in the same order of the queries
+     * @throws InvalidBatchSizeException with bad request code (400) if there are no queries or too many of them
+     */
+    public List<InterconnectionQueryResult> getBatchInterconnections(List<InterconnectionQuery> queries, Deadline deadline) throws InvalidBatchSizeException {
+        if (queries == null || queries.isEmpty() || queries.size() > maxBatchQueries) {
+            throw new InvalidBatchSizeException(maxBatchQueries);
+        }
+
+        RouteNetwork routeNetwork = routesOneStopService.getRouteNetwork(deadline);
+        FetchPlan<LegTimetable> fetchPlan = schedulesOneStopService.newFetchPlan(deadline);
+        FlightBatch flightBatch = schedulesOneStopService.newFlightBatch();
+
+        // Start to fetch the timetables of every search before joining any of them. Every search is planned only once
+        PlannedSearch[] plannedSearches = new PlannedSearch[queries.size()];
+        FlightPageRequest[] pageRequests = new FlightPageRequest[queries.size()];
+        ResponseStatusException[] errors = new ResponseStatusException[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            InterconnectionQuery query = queries.get(i);
+            try {
+                pageRequests[i] = FlightPageRequest.of(query.getSort(), query.getLimit(), query.getCursor(), query.getMaxLayover());
+                plannedSearches[i] = planSearch(query.getDeparture(), query.getArrival(), query.getDepartureDateTime(), query.getArrivalDateTime(), routeNetwork, fetchPlan);
+                flightBatch.addKey(schedulesOneStopService.getFlightKey(query.getDeparture(), query.getArrival(), query.getDepartureDateTime(), query.getArrivalDateTime(), pageRequests[i]));
+            } catch (ResponseStatusException e) {
+                // The error is reported with the result of the search
+                errors[i] = e;
+            }
+        }
+        searchMetrics.timeStage(SearchMetrics.FETCH_STAGE, fetchPlan::await);
+
+        List<InterconnectionQueryResult> results = new ArrayList<>();
+        for (int i = 0; i < queries.size(); i++) {
+            InterconnectionQuery query = queries.get(i);
+            try {
+                if (errors[i] != null) {
+                    throw errors[i];
+                }
+                FlightPage page = search(plannedSearches[i], pageRequests[i], fetchPlan, flightBatch);
+                results.add(InterconnectionQueryResult.success(query, page.getFlights(), page.getNextCursor()));
+            } catch (ResponseStatusException e) {
+                results.add(InterconnectionQueryResult.error(query, e.getStatus().value(), e.getReason()));
+            }
+        }
+        schedulesOneStopService.storeFlights(flightBatch, deadline);
+        return results;
+    }
+
+    /**
+     * Explore all the destinations that can be reached from a departure airport, direct or with one stop.
+     * The routes are downloaded only once, every timetable is fetched only once for all the destinations,
+     * and the flights of every destination are counted in parallel without building them
+     * @param departure the departure airport IATA code
+     * @param departureDateTime the departure time limit
+     * @param arrivalDateTime the arrival time limit
+     * @param deadline the deadline of the request
+     * @return a summary of the flights of every reachable destination, sorted by the earliest arrival
+     * @throws ResponseStatusException with a client error code (4XX) if there is a problem with the search,
+     * or with gateway timeout code (504) if the search does not finish before the deadline
+     */
+    public List<DestinationSummary> getDestinations(String departure, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, Deadline deadline) throws ResponseStatusException {
+        checkDepartureArrivalTime(departureDateTime, arrivalDateTime);
+
+        RouteNetwork routeNetwork = routesOneStopService.getRouteNetwork(deadline);
+        FetchPlan<LegTimetable> fetchPlan = schedulesOneStopService.newFetchPlan(deadline);
+
+        // Check if there are no destinations available
+        Set<String> destinations = routeNetwork.getReachableAirports(departure);
+        if (destinations.isEmpty()) {
+            throw new NoRoutesFoundException();
+        }
+
+        // Start to fetch the timetables of every destination before counting any of them
+        Map<String, List<List<Route>>> oneStopRoutes = new HashMap<>();
+        for (String destination : destinations) {
+            oneStopRoutes.put(destination, routeNetwork.getInterconnectedRoutes(departure, destination));
+            schedulesOneStopService.planFlights(fetchPlan,
+                    oneStopRoutes.get(destination),
+                    routeNetwork.getDirectRoute(departure, destination),
+                    departureDateTime,
+                    arrivalDateTime);
+        }
+        fetchPlan.await();
+
+        List<DestinationSummary> destinationSummaries = destinations.parallelStream()
+                .map(destination -> schedulesOneStopService.getDestinationSummary(
+                        oneStopRoutes.get(destination),
+                        routeNetwork.getDirectRoute(departure, destination),
+                        destination,
+                        departureDateTime,
+                        arrivalDateTime,
+                        fetchPlan))
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(DestinationSummary::getEarliestArrivalDateTime)
+                        .thenComparing(DestinationSummary::getDestination))
+                .collect(Collectors.toList());
+
+        // Check if there are no flights to any destination
+        if (destinationSummaries.isEmpty()) {
+            throw new NoFlightsFoundException();
+        }
+        return destinationSummaries;
+    }
+
+    /**
+     * Get the availability calendar between a departure and an arrival airport. Every monthly timetable is fetched
+     * only once as a timetable of epoch minutes, and the flights of each day are counted without building them
+     * @param departure the departure airport IATA code
+     * @param arrival the arrival airport IATA code
+     * @param from the first day of the calendar
+     * @param to the last day of the calendar
+     * @param deadline the deadline of the request
+     * @return the number of direct and one stop itineraries and the earliest departure and arrival of every day
+     * @throws ResponseStatusException with a client error code (4XX) if there is a problem with the search,
+     * or with gateway timeout code (504) if the search does not finish before the deadline
+     */
+    public List<CalendarDay> getCalendar(String departure, String arrival, LocalDate from, LocalDate to, Deadline deadline) throws ResponseStatusException {
+        if (from.isAfter(to) || from.until(to, ChronoUnit.DAYS) >= maxCalendarDays) {
+            throw new InvalidCalendarRangeException(maxCalendarDays);
+        }
+
+        RouteNetwork routeNetwork = routesOneStopService.getRouteNetwork(deadline);
+        Route directRoute = routeNetwork.getDirectRoute(departure, arrival);
+        List<List<Route>> oneStopRoutes = routeNetwork.getInterconnectedRoutes(departure, arrival);
+
+        // Check if there are no routes available
+        checkEmptyRoutes(directRoute, oneStopRoutes);
+
+        FetchPlan<LegTimetable> fetchPlan = schedulesOneStopService.newFetchPlan(deadline);
+        schedulesOneStopService.planCalendar(fetchPlan, oneStopRoutes, directRoute, from, to);
+        fetchPlan.await();
+
+        return schedulesOneStopService.getCalendar(oneStopRoutes, directRoute, from, to, fetchPlan);
+    }
+
+    /**
+     * Search the outbound and the inbound flights of a round trip. The routes are downloaded only once, the timetables
+     * of both directions are fetched together, so a timetable needed by both is fetched only once, and both
+     * directions are joined concurrently. If one direction fails, the search of the other one is cancelled. <br/>
+     * The pairs are counted before they are built, and a paired round trip with more than
+     * interconnections.roundtrip.max-pairs pairs is rejected
+     * @param departure the departure airport IATA code of the outbound flights
+     * @param arrival the arrival airport IATA code of the outbound flights
+     * @param departureDateTime the departure time limit of the outbound flights
+     * @param arrivalDateTime the arrival time limit of the outbound flights
+     * @param returnDepartureDateTime the departure time limit of the inbound flights
+     * @param returnArrivalDateTime the arrival time limit of the inbound flights
+     * @param paired true to pair every outbound flight with the inbound flights that depart after its arrival
+     * @param deadline the deadline of the request
+     * @return the outbound and the inbound flights, separately or paired
+     * @throws ResponseStatusException with a client error code (4XX) if there is a problem with any direction,
+     * with bad request code (400) if the round trip is paired and it has too many pairs,
+     * or with gateway timeout code (504) if any direction does not finish before the deadline
+     */
+    public RoundTripResponse getRoundTrip(String departure, String arrival, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, LocalDateTime returnDepartureDateTime, LocalDateTime returnArrivalDateTime, boolean paired, Deadline deadline) throws ResponseStatusException {
+        RouteNetwork routeNetwork = routesOneStopService.getRouteNetwork(deadline);
+        FetchPlan<LegTimetable> fetchPlan = schedulesOneStopService.newFetchPlan(deadline);
+        FlightBatch flightBatch = schedulesOneStopService.newFlightBatch();
+
+        // Start to fetch the timetables of both directions before joining any of them
+        PlannedSearch outboundSearch = planSearch(departure, arrival, departureDateTime, arrivalDateTime, routeNetwork, fetchPlan);
+        PlannedSearch inboundSearch = planSearch(arrival, departure, returnDepartureDateTime, returnArrivalDateTime, routeNetwork, fetchPlan);
+        flightBatch.addKey(schedulesOneStopService.getFlightKey(departure, arrival, departureDateTime, arrivalDateTime, FlightPageRequest.unpaged()));
+        flightBatch.addKey(schedulesOneStopService.getFlightKey(arrival, departure, returnDepartureDateTime, returnArrivalDateTime, FlightPageRequest.unpaged()));
+        searchMetrics.timeStage(SearchMetrics.FETCH_STAGE, fetchPlan::await);
+
+        CompletableFuture<FlightPage> outbound = CompletableFuture.supplyAsync(() ->
+                search(outboundSearch, FlightPageRequest.unpaged(), fetchPlan, flightBatch), searchExecutor);
+        FlightPage inbound;
+        try {
+            inbound = search(inboundSearch, FlightPageRequest.unpaged(), fetchPlan, flightBatch);
+        } catch (RuntimeException e) {
+            // The outbound search is not needed anymore
+            outbound.cancel(true);
+            fetchPlan.cancel();
+            throw e;
+        }
+        List<FlightResponse> outboundFlights;
+        try {
+            // Build every outbound flight once, since it is paired with several inbound flights
+            outboundFlights = new ArrayList<>(outbound.join().getFlights());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        schedulesOneStopService.storeFlights(flightBatch, deadline);
+
+        if (!paired) {
+            return RoundTripResponse.separate(outboundFlights, inbound.getFlights());
+        }
+
+        // Sort the inbound flights by departure, so the inbound flights that depart after an arrival are found with a binary search
+        List<FlightResponse> inboundFlights = new ArrayList<>(inbound.getFlights());
+        inboundFlights.sort(Comparator.comparing(inboundFlight -> inboundFlight.getLegs().get(0).getDepartureDateTime()));
+        LocalDateTime[] inboundDepartures = inboundFlights.stream()
+                .map(inboundFlight -> inboundFlight.getLegs().get(0).getDepartureDateTime())
+                .toArray(LocalDateTime[]::new);
+
+        // Count the pairs before building any of them
+        int[] firstInbound = new int[outboundFlights.size()];
+        long pairCount = 0;
+        for (int i = 0; i < outboundFlights.size(); i++) {
+            FlightResponse outboundFlight = outboundFlights.get(i);
+            firstInbound[i] = findFirstDepartureFrom(inboundDepartures, outboundFlight.getLegs().get(outboundFlight.getLegs().size() - 1).getArrivalDateTime());
+            pairCount += inboundFlights.size() - firstInbound[i];
+        }
+        if (pairCount > maxRoundTripPairs) {
+            throw new TooManyRoundTripPairsException(maxRoundTripPairs);
+        }
+
+        // Pair every outbound flight with the inbound flights that depart after it arrives
+        List<RoundTripFlightResponse> pairs = new ArrayList<>((int) pairCount);
+        for (int i = 0; i < outboundFlights.size(); i++) {
+            for (FlightResponse inboundFlight : inboundFlights.subList(firstInbound[i], inboundFlights.size())) {
+                pairs.add(new RoundTripFlightResponse(outboundFlights.get(i), inboundFlight));
+            }
+        }
+
+        // Check if no inbound flight departs after any outbound flight
+        if (pairs.isEmpty()) {
+            throw new NoFlightsFoundException();
+        }
+        return RoundTripResponse.paired(pairs);
+    }
+
+    /**
+     * Find the first departure that is not before a time
+     * @param departures the departures, sorted
+     * @param dateTime the time
+     * @return the index of the departure, or the number of departures if every one is before
+     */
+    private static int findFirstDepartureFrom(LocalDateTime[] departures, LocalDateTime dateTime) {
+        int low = 0;
+        int high = departures.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (departures[middle].isBefore(dateTime)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Check a search and add all the timetables it needs to a fetch plan
+     * @param departure the departure airport IATA code
+     * @param arrival the arrival airport IATA code
+     * @param departureDateTime the departure time limit
+     * @param arrivalDateTime the arrival time limit
+     * @param routeNetwork the network of the valid routes
+     * @param fetchPlan the plan that fetches the timetables
+     * @return the planned search, with its direct and one stop routes
+     * @throws ResponseStatusException with a client error code (4XX) if there is a problem with the search
+     */
+    private PlannedSearch planSearch(String departure, String arrival, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, RouteNetwork routeNetwork, FetchPlan<LegTimetable> fetchPlan) throws ResponseStatusException {
+
+        // First of all, check if the search is complete and the departure time is not later than the arrival time
+        if (departure == null || arrival == null || departureDateTime == null || arrivalDateTime == null) {
+            throw new IncompleteQueryException();
+        }
         checkDepartureArrivalTime(departureDateTime, arrivalDateTime);
 
         // Get a direct route if available
-        Route directRoute = routesOneStopService.getDirectRoute(departure, arrival);
-        List<List<Route>> oneStopRoutes = routesOneStopService.getInterconnectedRoutes(departure, arrival);
+        Route directRoute = routeNetwork.getDirectRoute(departure, arrival);
+        List<List<Route>> oneStopRoutes = searchMetrics.timeStage(SearchMetrics.HUBS_STAGE,
+                () -> routeNetwork.getInterconnectedRoutes(departure, arrival));
+        searchMetrics.recordHubs(oneStopRoutes);
 
         // Check if there are no routes available
         checkEmptyRoutes(directRoute, oneStopRoutes);
 
+        schedulesOneStopService.planFlights(fetchPlan, oneStopRoutes, directRoute, departureDateTime, arrivalDateTime);
+        return new PlannedSearch(departure, arrival, departureDateTime, arrivalDateTime, directRoute, oneStopRoutes);
+    }
+
+    /**
+     * Search one page of the available flights of a planned search with the timetables of its fetch plan,
+     * after the fetch plan has been awaited
+     * @param plannedSearch the search, with the routes found when it was planned
+     * @param pageRequest the sort, limit and cursor of the requested page
+     * @param fetchPlan the plan that fetches the timetables
+     * @param flightBatch the batch that reads and stores the flights of the searches of the request
+     * @return the page of flights as a result of the search
+     * @throws ResponseStatusException with a client error code (4XX) if there is a problem with the search
+     */
+    private FlightPage search(PlannedSearch plannedSearch, FlightPageRequest pageRequest, FetchPlan<LegTimetable> fetchPlan, FlightBatch flightBatch) throws ResponseStatusException {
+
         // Get all the flights
         List<FlightResponse> allFlights = schedulesOneStopService.getAllFlights(
-                oneStopRoutes,
-                directRoute,
-                departure,
-                arrival,
-                departureDateTime,
-                arrivalDateTime);
+                plannedSearch.getOneStopRoutes(),
+                plannedSearch.getDirectRoute(),
+                plannedSearch.getDeparture(),
+                plannedSearch.getArrival(),
+                plannedSearch.getDepartureDateTime(),
+                plannedSearch.getArrivalDateTime(),
+                pageRequest,
+                fetchPlan,
+                flightBatch);
+
+        // A search without flights because of the deadline is not a search without flights
+        if (fetchPlan.isIncomplete() && allFlights.isEmpty()) {
+            throw new DeadlineExceededException();
+        }
 
-        // Check if there are no flights
-        checkEmptyFlightList(allFlights);
+        // Check if there are no flights, unless the cursor is already past the last one
+        if (!pageRequest.hasCursor()) {
+            checkEmptyFlightList(allFlights);
+        }
 
-        return allFlights;
+        FlightPage page = pageRequest.toPage(allFlights);
+        searchMetrics.recordResults(page.getFlights().size());
+        return fetchPlan.isIncomplete() ? page.toIncomplete() : page;
     }
-}
\ No newline at end of file
+}
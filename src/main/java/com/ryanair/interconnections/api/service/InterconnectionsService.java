@@ -3,6 +3,8 @@ package com.ryanair.interconnections.api.service;
 import com.ryanair.interconnections.api.exception.DepartureAfterArrivalException;
 import com.ryanair.interconnections.api.exception.NoFlightsFoundException;
 import com.ryanair.interconnections.api.exception.NoRoutesFoundException;
+import com.ryanair.interconnections.api.model.page.FlightPage;
+import com.ryanair.interconnections.api.model.page.FlightPageRequest;
 import com.ryanair.interconnections.api.model.response.FlightResponse;
 import com.ryanair.interconnections.api.model.route.Route;
 import org.springframework.web.server.ResponseStatusException;
@@ -16,6 +18,8 @@ import java.util.List;
 public abstract class InterconnectionsService {
     abstract List<FlightResponse> getInterconnections(String departure, String arrival, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime) throws ResponseStatusException;
 
+    abstract FlightPage getInterconnections(String departure, String arrival, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, FlightPageRequest pageRequest) throws ResponseStatusException;
+
     /**
      * Verify if the departure time is not later than the arrival time
      * @param departureDateTime the departure time
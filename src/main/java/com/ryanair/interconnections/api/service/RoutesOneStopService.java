@@ -1,6 +1,7 @@
 package com.ryanair.interconnections.api.service;
 
 import com.ryanair.interconnections.api.client.RoutesClient;
+import com.ryanair.interconnections.api.metrics.SearchMetrics;
 import com.ryanair.interconnections.api.model.route.Route;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -15,8 +16,8 @@ import java.util.*;
 public class RoutesOneStopService extends RoutesService{
 
     @Autowired
-    public RoutesOneStopService(RoutesClient routesClient) {
-        super(routesClient, new HashMap<>());
+    public RoutesOneStopService(RoutesClient routesClient, SearchMetrics searchMetrics) {
+        super(routesClient, searchMetrics);
     }
 
     /**
@@ -27,15 +28,6 @@ public class RoutesOneStopService extends RoutesService{
      */
     @Override
     public List<List<Route>> getInterconnectedRoutes(String departure, String arrival) {
-        // Search all the routes to store each route to the airports map
-        routesClient
-                .getRoutes()
-                .stream()
-                .filter(route -> filterValidRoutes(route.getConnectingAirport(), route.getOperator()))
-                .forEach(this::addRouteToAirportMap);
-
-        return airportMap.containsKey(departure) ?
-                airportMap.get(departure).findInterconnectedRoutes(airportMap, arrival) :
-                new ArrayList<>();
+        return getRouteNetwork().getInterconnectedRoutes(departure, arrival);
     }
 }
@@ -1,19 +1,22 @@
 package com.ryanair.interconnections.api.service;
 
 import com.ryanair.interconnections.api.client.RoutesClient;
-import com.ryanair.interconnections.api.model.airport.Airport;
+import com.ryanair.interconnections.api.exception.DeadlineExceededException;
+import com.ryanair.interconnections.api.metrics.SearchMetrics;
+import com.ryanair.interconnections.api.model.airport.RouteNetwork;
+import com.ryanair.interconnections.api.model.plan.Deadline;
 import com.ryanair.interconnections.api.model.route.Route;
 import org.springframework.beans.factory.annotation.Value;
 
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Interface to build a routes service
  */
 public abstract class RoutesService {
     protected final RoutesClient routesClient;
-    protected final Map<String, Airport> airportMap;
+    protected final SearchMetrics searchMetrics;
 
     @Value("${ryanair.literal}")
     protected String ryanairLiteral;
@@ -39,24 +42,40 @@ public abstract class RoutesService {
         return route.getAirportFrom().equals(departure) && route.getAirportTo().equals(arrival);
     }
 
+    public RoutesService(RoutesClient routesClient, SearchMetrics searchMetrics) {
+        this.routesClient = routesClient;
+        this.searchMetrics = searchMetrics;
+    }
+
     /**
-     * Add a route in an airport of the map. If the airport does not exist, it creates a new Airport with the route
-     * @param route the route to add
+     * Download all the routes from the Routes API and build the network with the valid ones. <br/>
+     * The network can be shared by several searches to download the routes only once
+     * @return the network of the valid routes
      */
-    protected void addRouteToAirportMap(Route route) {
-        // if the airport exists in the map, just add a new route
-        if (airportMap.containsKey(route.getAirportFrom())) {
-            airportMap.get(route.getAirportFrom()).addRoute(route);
-        }
-        // create a new airport with the first route
-        else {
-            airportMap.put(route.getAirportFrom(), new Airport(route));
-        }
+    public RouteNetwork getRouteNetwork() {
+        return getRouteNetwork(Deadline.none());
     }
 
-    public RoutesService(RoutesClient routesClient, Map<String, Airport> airportMap) {
-        this.routesClient = routesClient;
-        this.airportMap = airportMap;
+    /**
+     * Download all the routes from the Routes API before a deadline and build the network with the valid ones
+     * @param deadline the deadline of the request
+     * @return the network of the valid routes
+     * @throws DeadlineExceededException with gateway timeout code (504) if the routes are not downloaded before the deadline
+     */
+    public RouteNetwork getRouteNetwork(Deadline deadline) throws DeadlineExceededException {
+        return searchMetrics.timeStage(SearchMetrics.ROUTES_STAGE, () -> {
+            List<Route> routes;
+            try {
+                routes = routesClient.getRoutes(deadline.getRemaining());
+            } catch (RuntimeException e) {
+                deadline.check();
+                throw e;
+            }
+            return new RouteNetwork(routes
+                    .stream()
+                    .filter(route -> filterValidRoutes(route.getConnectingAirport(), route.getOperator()))
+                    .collect(Collectors.toList()));
+        });
     }
 
     /**
@@ -1,22 +1,37 @@
 package com.ryanair.interconnections.api.service;
 
 import com.ryanair.interconnections.api.client.SchedulesClient;
+import com.ryanair.interconnections.api.config.InterconnectionsApiConfig;
+import com.ryanair.interconnections.api.exception.UpstreamUnavailableException;
+import com.ryanair.interconnections.api.jfr.OneStopJoinEvent;
+import com.ryanair.interconnections.api.metrics.SearchMetrics;
+import com.ryanair.interconnections.api.model.calendar.CalendarDay;
+import com.ryanair.interconnections.api.model.explore.DestinationSummary;
+import com.ryanair.interconnections.api.model.page.FlightPageRequest;
+import com.ryanair.interconnections.api.model.plan.Deadline;
+import com.ryanair.interconnections.api.model.plan.FetchPlan;
 import com.ryanair.interconnections.api.model.response.FlightResponse;
 import com.ryanair.interconnections.api.model.response.InterconnectionResponse;
-import com.ryanair.interconnections.api.model.response.FlightLegResponse;
 import com.ryanair.interconnections.api.model.route.Route;
+import com.ryanair.interconnections.api.model.schedule.ConnectionRules;
+import com.ryanair.interconnections.api.model.schedule.Itinerary;
+import com.ryanair.interconnections.api.model.schedule.ItineraryList;
+import com.ryanair.interconnections.api.model.schedule.LegTimetable;
+import com.ryanair.interconnections.cache.repo.FlightBatch;
 import com.ryanair.interconnections.cache.repo.FlightRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.Period;
-import java.time.temporal.ChronoUnit;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Service that makes all the schedule logic in the interconnections service
@@ -24,77 +39,151 @@ import java.util.stream.Collectors;
 @Service
 public class SchedulesOneStopService extends SchedulesService{
 
+    private final ConnectionRules connectionRules;
+
     @Autowired
     private FlightRepository repository;
 
     @Autowired
-    public SchedulesOneStopService(SchedulesClient schedulesClient) {
-        super(schedulesClient);
+    public SchedulesOneStopService(SchedulesClient schedulesClient,
+                                   @Qualifier(InterconnectionsApiConfig.SCHEDULES_EXECUTOR) Executor schedulesExecutor,
+                                   SearchMetrics searchMetrics,
+                                   ConnectionRules connectionRules) {
+        super(schedulesClient, schedulesExecutor, searchMetrics);
+        this.connectionRules = connectionRules;
     }
 
     /**
-     * Check if the one stop flights checks the following requirements: <br/>
+     * Make a List of all the one stop flights to store in the interconnections response. The one stop flights meet
+     * the following requirements: <br/>
      * * The one stop flights are not earlier than the departure time and not later than the arrival time <br/>
-     * * The difference between the arrival of the first leg flight and the departure of the second leg flight is 2 hours or greater
+     * * The difference between the arrival of the first leg flight and the departure of the second leg flight is
+     * the minimum connection time of the connecting airport or greater, and the maximum layover of the search or lower <br/>
+     * For every first leg flight, the first and the last second leg flights in those times are found with binary searches
+     * over the timetable, so the second leg flights outside them are not examined, and only the flights that meet
+     * the requirements are kept, as itineraries that are built when the response is written.
+     * The join is recorded as a Flight Recorder event with its combinations and results
      *
+     * @param oneStopRoutes a list of one stop routes
      * @param departureDateTime the departure time limit
      * @param arrivalDateTime the arrival time limit
-     * @param firstLegDepartureDateTime the departure time of the first leg flight
-     * @param firstLegArrivalDateTime the arrival time of the first leg flight
-     * @param secondLegDepartureDateTime the departure time of the second leg flight
-     * @param secondLegArrivalDateTime the arrival time of the second leg flight
-     * @return a boolean result that determines if the one stop flights meet with the requirements above
+     * @param departureDateTimeAux the departure time of the one stop flights
+     * @param pageRequest the sort, limit and cursor of the requested page
+     * @param fetchPlan the plan that fetches the timetables
+     * @return a List of the itineraries of all the one stop flights of the requested page
      */
-    private boolean isValidOneStopFlight(LocalDateTime departureDateTime,
-                                                        LocalDateTime arrivalDateTime,
-                                                        LocalDateTime firstLegDepartureDateTime,
-                                                        LocalDateTime firstLegArrivalDateTime,
-                                                        LocalDateTime secondLegDepartureDateTime,
-                                                        LocalDateTime secondLegArrivalDateTime) {
+    private List<Itinerary> getOneStopFlights(List<List<Route>> oneStopRoutes, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, LocalDateTime departureDateTimeAux, FlightPageRequest pageRequest, FetchPlan<LegTimetable> fetchPlan) {
+        OneStopJoinEvent event = new OneStopJoinEvent(
+                oneStopRoutes.isEmpty() ? null : oneStopRoutes.get(0).get(0).getAirportFrom(),
+                oneStopRoutes.isEmpty() ? null : oneStopRoutes.get(0).get(1).getAirportTo(),
+                YearMonth.from(departureDateTimeAux).toString(),
+                oneStopRoutes.size());
+        event.begin();
+        int departureMinute = LegTimetable.toEpochMinuteCeiling(departureDateTime);
+        int arrivalMinute = LegTimetable.toEpochMinuteFloor(arrivalDateTime);
+        int maxLayoverMinutes = connectionRules.getMaxLayoverMinutes(pageRequest.getMaxLayover());
+        LongAdder combinations = new LongAdder();
+        List<Itinerary> oneStopFlights = oneStopRoutes.parallelStream()
+                .flatMap(oneStopRoute -> {
+                    LegTimetable firstLegTimetable = fetchPlan.getTimetable(oneStopRoute.get(0), departureDateTimeAux);
+                    LegTimetable secondLegTimetable = fetchPlan.getTimetable(oneStopRoute.get(1), departureDateTimeAux);
+                    int minConnectionMinutes = connectionRules.getMinConnectionMinutes(oneStopRoute.get(0).getAirportTo());
 
-        return !firstLegDepartureDateTime.isBefore(departureDateTime)
-                && !firstLegArrivalDateTime.isAfter(arrivalDateTime)
-                && firstLegArrivalDateTime.until(secondLegDepartureDateTime, ChronoUnit.HOURS) >= 2
-                && !secondLegArrivalDateTime.isAfter(arrivalDateTime);
+                    List<Itinerary> routeFlights = new ArrayList<>();
+                    long routeCombinations = 0;
+                    for (int firstLeg = firstLegTimetable.findFirstDepartureFrom(departureMinute); firstLeg < firstLegTimetable.size(); firstLeg++) {
+                        if (firstLegTimetable.getArrivalMinute(firstLeg) > arrivalMinute) {
+                            continue;
+                        }
+                        int firstLegArrival = firstLegTimetable.getArrivalMinute(firstLeg);
+                        int secondLeg = secondLegTimetable.findFirstDepartureFrom(firstLegArrival + minConnectionMinutes);
+                        int lastSecondLeg = maxLayoverMinutes == ConnectionRules.NO_MAX_LAYOVER
+                                ? secondLegTimetable.size()
+                                : secondLegTimetable.findFirstDepartureFrom(ConnectionRules.getLatestConnectionMinute(firstLegArrival, maxLayoverMinutes) + 1);
+                        routeCombinations += Math.max(0, lastSecondLeg - secondLeg);
+                        for (; secondLeg < lastSecondLeg; secondLeg++) {
+                            if (secondLegTimetable.getArrivalMinute(secondLeg) <= arrivalMinute) {
+                                routeFlights.add(Itinerary.oneStop(firstLegTimetable, firstLeg, secondLegTimetable, secondLeg));
+                            }
+                        }
+                    }
+                    combinations.add(routeCombinations);
+                    return routeFlights.stream();
+                })
+                .filter(pageRequest::accepts)
+                .collect(pageRequest.itineraryCollector());
+        searchMetrics.recordCombinations(combinations.sum());
+        event.setCombinations(combinations.sum());
+        event.setResults(oneStopFlights.size());
+        event.commit();
+        return oneStopFlights;
     }
 
     /**
-     * Make a List of all the one stop flights to store in the interconnections response
+     * Add to a fetch plan all the timetables that a search needs
      *
+     * @param fetchPlan the plan to add the timetables
      * @param oneStopRoutes a list of one stop routes
+     * @param directRoute the only direct route
      * @param departureDateTime the departure time limit
      * @param arrivalDateTime the arrival time limit
-     * @param departureDateTimeAux the departure time of the one stop flights
-     * @return a List of all the one stop flights
      */
-    private List<FlightResponse> getOneStopFlights(List<List<Route>> oneStopRoutes, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, LocalDateTime departureDateTimeAux) {
-        return oneStopRoutes.parallelStream()
-                .flatMap(oneStopRoute -> {
-                    Route firstLegRoute = oneStopRoute.get(0);
-                    Route secondLegRoute = oneStopRoute.get(1);
+    public void planFlights(FetchPlan<LegTimetable> fetchPlan, List<List<Route>> oneStopRoutes, Route directRoute, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime) {
+        for (LocalDateTime searchMonth : getSearchMonths(departureDateTime, arrivalDateTime)) {
+            if (directRoute != null) {
+                fetchPlan.add(directRoute, searchMonth);
+            }
+            oneStopRoutes.forEach(oneStopRoute -> oneStopRoute.forEach(route -> fetchPlan.add(route, searchMonth)));
+        }
+    }
 
-                    List<FlightLegResponse> firstLegList = getFlightsForARoute(firstLegRoute, departureDateTimeAux);
-                    List<FlightLegResponse> secondLegList = getFlightsForARoute(secondLegRoute, departureDateTimeAux);
+    /**
+     * Search for all the flights
+     *
+     * @param oneStopRoutes a list of one stop routes
+     * @param directRoute the only direct route
+     * @param departureAirport the departure airport IATA code
+     * @param arrivalAirport the arrival airport IATA code
+     * @param departureDateTime the departure time limit
+     * @param arrivalDateTime the arrival time limit
+     * @param pageRequest the sort, limit and cursor of the requested page
+     * @return a list of all the flights searched, with one more flight than the limit if there is a next page
+     */
+    @Override
+    public List<FlightResponse> getAllFlights(List<List<Route>> oneStopRoutes, Route directRoute, String departureAirport, String arrivalAirport, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, FlightPageRequest pageRequest) {
+        FetchPlan<LegTimetable> fetchPlan = newFetchPlan();
+        planFlights(fetchPlan, oneStopRoutes, directRoute, departureDateTime, arrivalDateTime);
+        fetchPlan.await();
 
-                    return firstLegList
-                            .stream()
-                            .flatMap(firstLeg -> secondLegList
-                            .stream()
-                            .map(secondLeg -> new FlightResponse(1, Arrays.asList(firstLeg, secondLeg))));
+        return getAllFlights(oneStopRoutes, directRoute, departureAirport, arrivalAirport, departureDateTime, arrivalDateTime, pageRequest, fetchPlan);
+    }
 
-                })
-                .filter(flightResponse -> isValidOneStopFlight(
-                        departureDateTime,
-                        arrivalDateTime,
-                        flightResponse.getLegs().get(0).getDepartureDateTime(),
-                        flightResponse.getLegs().get(0).getArrivalDateTime(),
-                        flightResponse.getLegs().get(1).getDepartureDateTime(),
-                        flightResponse.getLegs().get(1).getArrivalDateTime()))
-                .collect(Collectors.toList());
+    /**
+     * Search for all the flights, reading the timetables from a fetch plan shared with other searches.
+     * If the Schedules API is not available, the flights of the same search stored in the data grid are returned
+     *
+     * @param oneStopRoutes a list of one stop routes
+     * @param directRoute the only direct route
+     * @param departureAirport the departure airport IATA code
+     * @param arrivalAirport the arrival airport IATA code
+     * @param departureDateTime the departure time limit
+     * @param arrivalDateTime the arrival time limit
+     * @param pageRequest the sort, limit and cursor of the requested page
+     * @param fetchPlan the plan that fetches the timetables
+     * @return a list of all the flights searched, with one more flight than the limit if there is a next page
+     */
+    public List<FlightResponse> getAllFlights(List<List<Route>> oneStopRoutes, Route directRoute, String departureAirport, String arrivalAirport, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, FlightPageRequest pageRequest, FetchPlan<LegTimetable> fetchPlan) {
+        FlightBatch flightBatch = newFlightBatch();
+        List<FlightResponse> allFlightResponseList = getAllFlights(oneStopRoutes, directRoute, departureAirport, arrivalAirport, departureDateTime, arrivalDateTime, pageRequest, fetchPlan, flightBatch);
+        storeFlights(flightBatch, fetchPlan.getDeadline());
+        return allFlightResponseList;
     }
 
     /**
-     * Search for all the flights
+     * Search for all the flights, reading the timetables from a fetch plan shared with other searches.
+     * If the Schedules API is not available, the flights of the same search stored in the data grid are returned,
+     * read together with the stored flights of every search of the batch. The flights found are kept in the batch
+     * until it is stored
      *
      * @param oneStopRoutes a list of one stop routes
      * @param directRoute the only direct route
@@ -102,33 +191,256 @@ public class SchedulesOneStopService extends SchedulesService{
      * @param arrivalAirport the arrival airport IATA code
      * @param departureDateTime the departure time limit
      * @param arrivalDateTime the arrival time limit
-     * @return a list of all the flights searched
+     * @param pageRequest the sort, limit and cursor of the requested page
+     * @param fetchPlan the plan that fetches the timetables
+     * @param flightBatch the batch that reads and stores the flights of the searches of the request
+     * @return a list of all the flights searched, with one more flight than the limit if there is a next page
      */
-    @Override
-    public List<FlightResponse> getAllFlights(List<List<Route>> oneStopRoutes, Route directRoute, String departureAirport, String arrivalAirport, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime) {
-        Period dateInterval = departureDateTime.toLocalDate().until(arrivalDateTime.toLocalDate());
-        LocalDateTime departureDateTimeAux = departureDateTime;
-
-        List<FlightResponse> directFlightResponseList = new ArrayList<>();
-        List<FlightResponse> oneStopFlightResponseList = new ArrayList<>();
-        List<FlightResponse> allFlightResponseList = new ArrayList<>();
-
-        // If there is difference of years or months between each time, iterate over every year and month
-        for (int i = 0; i <= dateInterval.getYears(); i++) {
-            for (int j = 0; j <= dateInterval.getMonths(); j++) {
-                if (directRoute != null) {
-                    directFlightResponseList.addAll(getDirectRouteFlights(directRoute, departureDateTime, arrivalDateTime, departureDateTimeAux));
-                }
-                oneStopFlightResponseList.addAll(getOneStopFlights(oneStopRoutes, departureDateTime, arrivalDateTime, departureDateTimeAux));
+    public List<FlightResponse> getAllFlights(List<List<Route>> oneStopRoutes, Route directRoute, String departureAirport, String arrivalAirport, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, FlightPageRequest pageRequest, FetchPlan<LegTimetable> fetchPlan, FlightBatch flightBatch) {
+        String key = getFlightKey(departureAirport, arrivalAirport, departureDateTime, arrivalDateTime, pageRequest);
+        flightBatch.addKey(key);
+        try {
+            List<FlightResponse> allFlightResponseList = searchMetrics.timeStage(SearchMetrics.JOIN_STAGE,
+                    () -> joinAllFlights(oneStopRoutes, directRoute, departureDateTime, arrivalDateTime, pageRequest, fetchPlan));
 
-                departureDateTimeAux = departureDateTimeAux.plusMonths(1);
+            // Store only complete results
+            if (!fetchPlan.isIncomplete()) {
+                flightBatch.insert(key, new InterconnectionResponse(allFlightResponseList));
+            }
+            return allFlightResponseList;
+        } catch (UpstreamUnavailableException e) {
+            InterconnectionResponse cachedResponse = flightBatch.findById(key);
+            if (cachedResponse == null) {
+                throw e;
             }
-            departureDateTimeAux = departureDateTimeAux.plusYears(1);
+            return cachedResponse.getFlightList();
         }
+    }
 
-        allFlightResponseList.addAll(directFlightResponseList);
-        allFlightResponseList.addAll(oneStopFlightResponseList);
-        repository.insert(departureAirport + arrivalAirport + departureDateTime.toString() + arrivalDateTime.toString(), new InterconnectionResponse(allFlightResponseList));
-        return allFlightResponseList;
+    /**
+     * Get the key of the flights of a search in the data grid
+     *
+     * @param departureAirport the departure airport IATA code
+     * @param arrivalAirport the arrival airport IATA code
+     * @param departureDateTime the departure time limit
+     * @param arrivalDateTime the arrival time limit
+     * @param pageRequest the sort, limit and cursor of the requested page
+     * @return the key of the search, grouped by departure airport
+     */
+    public String getFlightKey(String departureAirport, String arrivalAirport, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, FlightPageRequest pageRequest) {
+        return repository.getFlightKey(departureAirport,
+                departureAirport + arrivalAirport + departureDateTime.toString() + arrivalDateTime.toString() + pageRequest.getCacheKey());
+    }
+
+    /**
+     * @return a new batch to read and store the flights of the searches of a request
+     */
+    public FlightBatch newFlightBatch() {
+        return new FlightBatch(repository);
+    }
+
+    /**
+     * Store the flights of every search of a batch in the data grid, waiting for the data grid until the deadline of the request
+     *
+     * @param flightBatch the batch of the searches of the request
+     * @param deadline the deadline of the request
+     */
+    public void storeFlights(FlightBatch flightBatch, Deadline deadline) {
+        searchMetrics.timeStage(SearchMetrics.GRID_PUT_STAGE, () -> flightBatch.flush(deadline));
+    }
+
+    /**
+     * Join the timetables of a fetch plan into the direct and one stop flights of every month of a search
+     *
+     * @param oneStopRoutes a list of one stop routes
+     * @param directRoute the only direct route
+     * @param departureDateTime the departure time limit
+     * @param arrivalDateTime the arrival time limit
+     * @param pageRequest the sort, limit and cursor of the requested page
+     * @param fetchPlan the plan that fetches the timetables
+     * @return a list of all the flights searched, with one more flight than the limit if there is a next page.
+     * The flights are built from their itineraries every time they are read
+     */
+    private List<FlightResponse> joinAllFlights(List<List<Route>> oneStopRoutes, Route directRoute, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, FlightPageRequest pageRequest, FetchPlan<LegTimetable> fetchPlan) {
+        List<Itinerary> directFlights = new ArrayList<>();
+        List<Itinerary> oneStopFlights = new ArrayList<>();
+        List<Itinerary> allFlights = new ArrayList<>();
+
+        for (LocalDateTime searchMonth : getSearchMonths(departureDateTime, arrivalDateTime)) {
+            if (directRoute != null) {
+                directFlights.addAll(getDirectRouteFlights(directRoute, departureDateTime, arrivalDateTime, searchMonth, pageRequest, fetchPlan));
+            }
+            oneStopFlights.addAll(getOneStopFlights(oneStopRoutes, departureDateTime, arrivalDateTime, searchMonth, pageRequest, fetchPlan));
+        }
+
+        allFlights.addAll(directFlights);
+        allFlights.addAll(oneStopFlights);
+
+        // Merge the partial pages of every month and kind of flight into the requested page
+        if (pageRequest.isPaged()) {
+            allFlights = allFlights.stream().collect(pageRequest.itineraryCollector());
+        }
+        return new ItineraryList(allFlights);
+    }
+
+    /**
+     * Summarize all the flights to one destination, reading the timetables from a fetch plan shared with
+     * the other destinations. The flights are counted with the same sweep as the calendar, without building them,
+     * and they are not stored in the data grid
+     *
+     * @param oneStopRoutes a list of one stop routes
+     * @param directRoute the only direct route
+     * @param arrivalAirport the destination IATA code
+     * @param departureDateTime the departure time limit
+     * @param arrivalDateTime the arrival time limit
+     * @param fetchPlan the plan that fetches the timetables
+     * @return the summary of the flights to the destination, or null if there are no flights
+     */
+    public DestinationSummary getDestinationSummary(List<List<Route>> oneStopRoutes, Route directRoute, String arrivalAirport, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, FetchPlan<LegTimetable> fetchPlan) {
+        ItinerarySummary summary = new ItinerarySummary();
+        for (LocalDateTime searchMonth : getSearchMonths(departureDateTime, arrivalDateTime)) {
+            summarizeFlights(summary,
+                    oneStopRoutes,
+                    directRoute,
+                    LegTimetable.toEpochMinuteCeiling(departureDateTime),
+                    LegTimetable.toEpochMinuteFloor(arrivalDateTime),
+                    searchMonth,
+                    fetchPlan);
+        }
+
+        if (summary.isEmpty()) {
+            return null;
+        }
+        return new DestinationSummary(arrivalAirport,
+                summary.directItineraries,
+                summary.oneStopItineraries,
+                toDateTime(summary.earliestDepartureMinute),
+                toDateTime(summary.earliestArrivalMinute));
+    }
+
+    /**
+     * Add to a fetch plan all the timetables that a calendar needs
+     *
+     * @param fetchPlan the plan to add the timetables
+     * @param oneStopRoutes a list of one stop routes
+     * @param directRoute the only direct route
+     * @param from the first day of the calendar
+     * @param to the last day of the calendar
+     */
+    public void planCalendar(FetchPlan<LegTimetable> fetchPlan, List<List<Route>> oneStopRoutes, Route directRoute, LocalDate from, LocalDate to) {
+        for (LocalDate month = from.withDayOfMonth(1); !month.isAfter(to); month = month.plusMonths(1)) {
+            LocalDateTime searchMonth = month.atStartOfDay();
+            if (directRoute != null) {
+                fetchPlan.add(directRoute, searchMonth);
+            }
+            oneStopRoutes.forEach(oneStopRoute -> oneStopRoute.forEach(route -> fetchPlan.add(route, searchMonth)));
+        }
+    }
+
+    /**
+     * Make the availability calendar of every day with one sweep over the timetables. <br/>
+     * Each day has the same flights than a search from 00:00 to 23:59 of the day, but they are only counted
+     *
+     * @param oneStopRoutes a list of one stop routes
+     * @param directRoute the only direct route
+     * @param from the first day of the calendar
+     * @param to the last day of the calendar
+     * @param fetchPlan the plan that fetches the timetables
+     * @return a calendar day for every day between the first and the last day
+     */
+    public List<CalendarDay> getCalendar(List<List<Route>> oneStopRoutes, Route directRoute, LocalDate from, LocalDate to, FetchPlan<LegTimetable> fetchPlan) {
+        List<CalendarDay> calendar = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            ItinerarySummary summary = new ItinerarySummary();
+            summarizeFlights(summary,
+                    oneStopRoutes,
+                    directRoute,
+                    LegTimetable.toEpochMinute(date),
+                    LegTimetable.toEpochMinute(date.plusDays(1)) - 1,
+                    date.withDayOfMonth(1).atStartOfDay(),
+                    fetchPlan);
+            calendar.add(new CalendarDay(date,
+                    summary.directItineraries,
+                    summary.oneStopItineraries,
+                    summary.isEmpty() ? null : toDateTime(summary.earliestDepartureMinute),
+                    summary.isEmpty() ? null : toDateTime(summary.earliestArrivalMinute)));
+        }
+        return calendar;
+    }
+
+    /**
+     * Count the direct and one stop flights of a month between two times, and find their earliest departure
+     * and arrival, without building them. For every first leg flight, the second leg flights that depart the minimum
+     * connection time of the connecting airport later or more, and not later than the maximum layover, are found
+     * with binary searches, and only the flights that depart in the day of the arrival time limit are checked one by one
+     *
+     * @param summary the summary to add the flights
+     * @param oneStopRoutes a list of one stop routes
+     * @param directRoute the only direct route
+     * @param departureMinute the epoch minute of the departure time limit
+     * @param arrivalMinute the epoch minute of the arrival time limit
+     * @param searchMonth the month of the timetables
+     * @param fetchPlan the plan that fetches the timetables
+     */
+    private void summarizeFlights(ItinerarySummary summary, List<List<Route>> oneStopRoutes, Route directRoute, int departureMinute, int arrivalMinute, LocalDateTime searchMonth, FetchPlan<LegTimetable> fetchPlan) {
+        int maxLayoverMinutes = connectionRules.getMaxLayoverMinutes(null);
+
+        if (directRoute != null) {
+            LegTimetable timetable = fetchPlan.getTimetable(directRoute, searchMonth);
+            int lastFlight = timetable.findFirstDepartureFrom(arrivalMinute + 1);
+            int firstFlight = timetable.findFirstArrivalUntil(timetable.findFirstDepartureFrom(departureMinute), lastFlight, arrivalMinute);
+            if (firstFlight < lastFlight) {
+                summary.directItineraries += timetable.countArrivalsUntil(firstFlight, lastFlight, arrivalMinute);
+                summary.addEarliest(timetable.getDepartureMinute(firstFlight), timetable.getEarliestArrivalUntil(firstFlight, lastFlight, arrivalMinute));
+            }
+        }
+
+        for (List<Route> oneStopRoute : oneStopRoutes) {
+            LegTimetable firstLegTimetable = fetchPlan.getTimetable(oneStopRoute.get(0), searchMonth);
+            LegTimetable secondLegTimetable = fetchPlan.getTimetable(oneStopRoute.get(1), searchMonth);
+            int minConnectionMinutes = connectionRules.getMinConnectionMinutes(oneStopRoute.get(0).getAirportTo());
+            int lastFirstLeg = firstLegTimetable.findFirstDepartureFrom(arrivalMinute + 1);
+            int lastSecondLeg = secondLegTimetable.findFirstDepartureFrom(arrivalMinute + 1);
+
+            for (int firstLeg = firstLegTimetable.findFirstDepartureFrom(departureMinute); firstLeg < lastFirstLeg; firstLeg++) {
+                int firstLegArrival = firstLegTimetable.getArrivalMinute(firstLeg);
+                if (firstLegArrival > arrivalMinute) {
+                    continue;
+                }
+                int secondLeg = secondLegTimetable.findFirstDepartureFrom(firstLegArrival + minConnectionMinutes);
+                int lastConnection = maxLayoverMinutes == ConnectionRules.NO_MAX_LAYOVER
+                        ? lastSecondLeg
+                        : Math.min(lastSecondLeg, secondLegTimetable.findFirstDepartureFrom(ConnectionRules.getLatestConnectionMinute(firstLegArrival, maxLayoverMinutes) + 1));
+                int connections = secondLegTimetable.countArrivalsUntil(secondLeg, lastConnection, arrivalMinute);
+                if (connections > 0) {
+                    summary.oneStopItineraries += connections;
+                    summary.addEarliest(firstLegTimetable.getDepartureMinute(firstLeg),
+                            secondLegTimetable.getEarliestArrivalUntil(secondLeg, lastConnection, arrivalMinute));
+                }
+            }
+        }
+    }
+
+    private static LocalDateTime toDateTime(int epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60L, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Count of the direct and one stop itineraries of a summary, with their earliest departure and arrival
+     */
+    private static final class ItinerarySummary {
+        private int directItineraries;
+        private int oneStopItineraries;
+        private int earliestDepartureMinute = Integer.MAX_VALUE;
+        private int earliestArrivalMinute = Integer.MAX_VALUE;
+
+        private void addEarliest(int departureMinute, int arrivalMinute) {
+            earliestDepartureMinute = Math.min(earliestDepartureMinute, departureMinute);
+            earliestArrivalMinute = Math.min(earliestArrivalMinute, arrivalMinute);
+        }
+
+        private boolean isEmpty() {
+            return directItineraries + oneStopItineraries == 0;
+        }
     }
 }
@@ -1,82 +1,130 @@
 package com.ryanair.interconnections.api.service;
 
 import com.ryanair.interconnections.api.client.SchedulesClient;
-import com.ryanair.interconnections.api.model.response.FlightLegResponse;
+import com.ryanair.interconnections.api.metrics.SearchMetrics;
+import com.ryanair.interconnections.api.model.page.FlightPageRequest;
+import com.ryanair.interconnections.api.model.plan.Deadline;
+import com.ryanair.interconnections.api.model.plan.FetchPlan;
 import com.ryanair.interconnections.api.model.response.FlightResponse;
 import com.ryanair.interconnections.api.model.route.Route;
+import com.ryanair.interconnections.api.model.schedule.Itinerary;
+import com.ryanair.interconnections.api.model.schedule.LegTimetable;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.time.Period;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
 
 /**
  * Interface to build a schedules service
  */
 public abstract class SchedulesService {
     protected final SchedulesClient schedulesClient;
+    protected final Executor schedulesExecutor;
+    protected final SearchMetrics searchMetrics;
 
     /**
-     * Check if the direct flight is not earlier that the departure time and not later that the arrival time
+     * Given one route and one date time, get all the flights that matches the parameters
+     * @param route the route to search all the schedules
+     * @param dateTime the date time to search all the schedules
+     * @return the timetable of all the flights for a route and date time
+     */
+    protected LegTimetable getFlightsForARoute(Route route, LocalDateTime dateTime) {
+        return getFlightsForARoute(route, dateTime, null);
+    }
+
+    /**
+     * Given one route and one date time, get all the flights that matches the parameters,
+     * cancelling the request to the Schedules API if it does not finish in time
+     * @param route the route to search all the schedules
+     * @param dateTime the date time to search all the schedules
+     * @param timeout the maximum time to wait for the Schedules API, or null to wait without limit
+     * @return the timetable of all the flights for a route and date time, without a FlightLegResponse for every flight
+     */
+    protected LegTimetable getFlightsForARoute(Route route, LocalDateTime dateTime, Duration timeout) {
+        return LegTimetable.of(route, dateTime, schedulesClient.getSchedule(route, dateTime, timeout));
+    }
+
+    /**
+     * Get the months to search between the departure and the arrival time. If there is difference of years or months
+     * between each time, there is a date time for every year and month
      * @param departureDateTime the departure time limit
      * @param arrivalDateTime the arrival time limit
-     * @param flightDepartureDateTime the departure time of the flight
-     * @param flightArrivalDateTime the arrival time of the flight
-     * @return a boolean result that determines if the direct flight meets with the departure and arrival time
+     * @return a date time in every month to search
      */
-    protected boolean isValidDirectFlight(LocalDateTime departureDateTime,
-                                               LocalDateTime arrivalDateTime,
-                                               LocalDateTime flightDepartureDateTime,
-                                               LocalDateTime flightArrivalDateTime) {
+    protected List<LocalDateTime> getSearchMonths(LocalDateTime departureDateTime, LocalDateTime arrivalDateTime) {
+        Period dateInterval = departureDateTime.toLocalDate().until(arrivalDateTime.toLocalDate());
+        LocalDateTime departureDateTimeAux = departureDateTime;
+        List<LocalDateTime> searchMonths = new ArrayList<>();
 
-        return !flightDepartureDateTime.isBefore(departureDateTime) && !flightArrivalDateTime.isAfter(arrivalDateTime);
+        for (int i = 0; i <= dateInterval.getYears(); i++) {
+            for (int j = 0; j <= dateInterval.getMonths(); j++) {
+                searchMonths.add(departureDateTimeAux);
+                departureDateTimeAux = departureDateTimeAux.plusMonths(1);
+            }
+            departureDateTimeAux = departureDateTimeAux.plusYears(1);
+        }
+        return searchMonths;
     }
 
     /**
-     * Given one route and one date time, get all the flights that matches the parameters
-     * @param route the route to search all the schedules
-     * @param dateTime the date time to search all the schedules
-     * @return a list of all the flights for a route and date time
+     * Start a new plan to fetch each timetable from the Schedules API only once
+     * @return an empty fetch plan
      */
-    protected List<FlightLegResponse> getFlightsForARoute(Route route, LocalDateTime dateTime) {
-        return schedulesClient
-                .getSchedule(route, dateTime).getDays()
-                .stream()
-                .flatMap(day -> day.getFlights()
-                .stream()
-                .map(flight -> new FlightLegResponse(
-                        route.getAirportFrom(),
-                        route.getAirportTo(),
-                        dateTime.withDayOfMonth(day.getDay()).with(flight.getDepartureTime()),
-                        dateTime.withDayOfMonth(day.getDay()).with(flight.getArrivalTime()))))
-                .collect(Collectors.toList());
+    public FetchPlan<LegTimetable> newFetchPlan() {
+        return newFetchPlan(Deadline.none());
     }
 
     /**
-     * Make a List of all the direct flights to store in the interconnections response
+     * Start a new plan to fetch each timetable from the Schedules API only once, before a deadline
+     * @param deadline the deadline of the request
+     * @return an empty fetch plan
+     */
+    public FetchPlan<LegTimetable> newFetchPlan(Deadline deadline) {
+        return new FetchPlan<>((route, dateTime) -> {
+                    LegTimetable legs = getFlightsForARoute(route, dateTime, deadline.getRemaining());
+                    searchMetrics.recordLegsPerTimetable(legs.size());
+                    return legs;
+                },
+                schedulesExecutor,
+                deadline,
+                LegTimetable.empty(),
+                searchMetrics.fetchListener());
+    }
+
+    /**
+     * Make a List of the itineraries of all the direct flights to store in the interconnections response.
+     * Only the flights between the time limits are kept, and none of them is built
      * @param route the direct route
      * @param departureDateTime the departure time limit
      * @param arrivalDateTime the arrival time limit
      * @param departureDateTimeAux the departure time of the direct flight
-     * @return a List of all the direct flights
+     * @param pageRequest the sort, limit and cursor of the requested page
+     * @param fetchPlan the plan that fetches the timetables
+     * @return a List of the itineraries of all the direct flights of the requested page
      */
-    protected List<FlightResponse> getDirectRouteFlights(Route route, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, LocalDateTime departureDateTimeAux) {
-
-        return getFlightsForARoute(route, departureDateTimeAux)
-                .stream()
-                .map(directFlight -> new FlightResponse(0, Collections.singletonList(directFlight)))
-                .filter(flightResponse -> isValidDirectFlight(
-                        departureDateTime,
-                        arrivalDateTime,
-                        flightResponse.getLegs().get(0).getDepartureDateTime(),
-                        flightResponse.getLegs().get(0).getArrivalDateTime()))
-                .collect(Collectors.toList());
+    protected List<Itinerary> getDirectRouteFlights(Route route, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, LocalDateTime departureDateTimeAux, FlightPageRequest pageRequest, FetchPlan<LegTimetable> fetchPlan) {
+        LegTimetable timetable = fetchPlan.getTimetable(route, departureDateTimeAux);
+        int arrivalMinute = LegTimetable.toEpochMinuteFloor(arrivalDateTime);
 
+        List<Itinerary> directFlights = new ArrayList<>();
+        for (int flight = timetable.findFirstDepartureFrom(LegTimetable.toEpochMinuteCeiling(departureDateTime)); flight < timetable.size(); flight++) {
+            if (timetable.getArrivalMinute(flight) <= arrivalMinute) {
+                directFlights.add(Itinerary.direct(timetable, flight));
+            }
+        }
+        return directFlights.stream()
+                .filter(pageRequest::accepts)
+                .collect(pageRequest.itineraryCollector());
     }
 
-    protected SchedulesService(SchedulesClient schedulesClient) {
+    protected SchedulesService(SchedulesClient schedulesClient, Executor schedulesExecutor, SearchMetrics searchMetrics) {
         this.schedulesClient = schedulesClient;
+        this.schedulesExecutor = schedulesExecutor;
+        this.searchMetrics = searchMetrics;
     }
 
-    abstract List<FlightResponse> getAllFlights(List<List<Route>> routes, Route directRoute, String departureAirport, String arrivalAirport, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime);
+    abstract List<FlightResponse> getAllFlights(List<List<Route>> routes, Route directRoute, String departureAirport, String arrivalAirport, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, FlightPageRequest pageRequest);
 }
@@ -0,0 +1,190 @@
+package com.ryanair.interconnections.api.service;
+
+import com.ryanair.interconnections.api.admission.AdmissionControl;
+import com.ryanair.interconnections.api.converter.ProtostreamHttpMessageConverter;
+import com.ryanair.interconnections.api.model.explain.SearchExplanation;
+import com.ryanair.interconnections.api.model.page.FlightPage;
+import com.ryanair.interconnections.api.model.page.FlightPageRequest;
+import com.ryanair.interconnections.api.model.plan.Deadline;
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+import com.ryanair.interconnections.api.model.response.SerializedResponse;
+import com.ryanair.interconnections.cache.repo.FlightRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Service that keeps the interconnections responses already serialized in the data grid. <br/>
+ * A repeated search writes the stored bytes as they are, and the hash of the bytes is used as the ETag. <br/>
+ * Only the searches that are not stored have to be admitted by the admission control
+ */
+@Service
+public class SerializedResponseService {
+
+    private static final Type FLIGHT_LIST_TYPE = ResolvableType.forClassWithGenerics(List.class, FlightResponse.class).getType();
+    private static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    private static final List<MediaType> PRODUCIBLE_MEDIA_TYPES = Arrays.asList(
+            MediaType.APPLICATION_JSON,
+            ProtostreamHttpMessageConverter.APPLICATION_PROTOBUF,
+            APPLICATION_SMILE,
+            MediaType.APPLICATION_CBOR);
+
+    private final InterconnectionsOneStopService interconnectionsOneStopService;
+    private final FlightRepository repository;
+    private final HttpMessageConverters messageConverters;
+    private final AdmissionControl admissionControl;
+
+    @Autowired
+    public SerializedResponseService(InterconnectionsOneStopService interconnectionsOneStopService,
+                                     FlightRepository repository,
+                                     HttpMessageConverters messageConverters,
+                                     AdmissionControl admissionControl) {
+        this.interconnectionsOneStopService = interconnectionsOneStopService;
+        this.repository = repository;
+        this.messageConverters = messageConverters;
+        this.admissionControl = admissionControl;
+    }
+
+    /**
+     * Choose the media type of the response from the Accept header of the request
+     * @param accept the Accept header, or null if the request does not have it
+     * @return the first producible media type accepted by the client, in order of quality
+     * @throws HttpMediaTypeNotAcceptableException with not acceptable code (406) if no media type is producible
+     */
+    public MediaType negotiate(String accept) throws HttpMediaTypeNotAcceptableException {
+        if (accept == null || accept.isEmpty()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> acceptedMediaTypes = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(acceptedMediaTypes);
+        for (MediaType acceptedMediaType : acceptedMediaTypes) {
+            for (MediaType producibleMediaType : PRODUCIBLE_MEDIA_TYPES) {
+                if (acceptedMediaType.includes(producibleMediaType)) {
+                    return producibleMediaType;
+                }
+            }
+        }
+        throw new HttpMediaTypeNotAcceptableException(PRODUCIBLE_MEDIA_TYPES);
+    }
+
+    /**
+     * Get one page of the available flights serialized in a media type, from the data grid if the same
+     * search was already serialized, or making the search and storing the result otherwise
+     * @param departure the departure airport IATA code
+     * @param arrival the arrival airport IATA code
+     * @param departureDateTime the departure time limit
+     * @param arrivalDateTime the arrival time limit
+     * @param pageRequest the sort, limit and cursor of the requested page
+     * @param mediaType the media type of the response
+     * @param deadline the deadline of the request
+     * @param clientId the client that makes the search, or null if it is not identified
+     * @return the serialized page of flights, with its content hash
+     * @throws ResponseStatusException with a client error code (4XX) if there is a problem with the search,
+     * with service unavailable code (503) if the search is not stored and it is not admitted,
+     * or with gateway timeout code (504) if the search does not finish before the deadline
+     */
+    public SerializedResponse getInterconnections(String departure, String arrival, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, FlightPageRequest pageRequest, MediaType mediaType, Deadline deadline, String clientId) throws ResponseStatusException {
+        String key = getKey(departure, arrival, departureDateTime, arrivalDateTime, pageRequest, mediaType);
+
+        SerializedResponse serializedResponse = repository.findSerializedResponseById(key);
+        if (serializedResponse == null) {
+            try (AdmissionControl.Permit permit = admissionControl.admit(clientId)) {
+                FlightPage page = interconnectionsOneStopService.getInterconnections(departure, arrival, departureDateTime, arrivalDateTime, pageRequest, deadline);
+                serializedResponse = serialize(page, mediaType);
+
+                // A partial result is not stored, the next request makes the search again
+                if (!page.isIncomplete()) {
+                    repository.insertSerializedResponseAsync(key, serializedResponse);
+                }
+            }
+        }
+        return serializedResponse;
+    }
+
+    /**
+     * Explain a search: check if its JSON response without paging is stored in the data grid, and make the search
+     * anyway recording its execution breakdown. The search is admitted like a search that is not stored
+     * @param departure the departure airport IATA code
+     * @param arrival the arrival airport IATA code
+     * @param departureDateTime the departure time limit
+     * @param arrivalDateTime the arrival time limit
+     * @param deadline the deadline of the request
+     * @param clientId the client that makes the search, or null if it is not identified
+     * @return the explanation of the search
+     * @throws ResponseStatusException with service unavailable code (503) if the search is not admitted
+     */
+    public SearchExplanation explainInterconnections(String departure, String arrival, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, Deadline deadline, String clientId) throws ResponseStatusException {
+        long start = System.nanoTime();
+        SearchExplanation explanation = new SearchExplanation(departure, arrival, departureDateTime, arrivalDateTime);
+        String key = getKey(departure, arrival, departureDateTime, arrivalDateTime, FlightPageRequest.unpaged(), MediaType.APPLICATION_JSON);
+        explanation.setStoredInGrid(repository.findSerializedResponseById(key) != null);
+        explanation.addStage(SearchExplanation.GRID_GET_STAGE, System.nanoTime() - start);
+
+        try (AdmissionControl.Permit permit = admissionControl.admit(clientId)) {
+            interconnectionsOneStopService.explain(explanation, deadline);
+        }
+        explanation.setTotalMillis((System.nanoTime() - start) / 1_000_000.0);
+        return explanation;
+    }
+
+    private String getKey(String departure, String arrival, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime, FlightPageRequest pageRequest, MediaType mediaType) {
+        return repository.getResponseKey(departure,
+                departure + arrival + departureDateTime.toString() + arrivalDateTime.toString() + pageRequest.getCacheKey() + "|" + mediaType);
+    }
+
+    /**
+     * Serialize a page of flights with the same message converter that Spring MVC would choose for the media type
+     * @param page the page of flights
+     * @param mediaType the media type of the response
+     * @return the serialized page of flights, with its content hash
+     */
+    @SuppressWarnings("unchecked")
+    private SerializedResponse serialize(FlightPage page, MediaType mediaType) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        HttpOutputMessage outputMessage = new HttpOutputMessage() {
+            private final HttpHeaders headers = new HttpHeaders();
+
+            @Override
+            public ByteArrayOutputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+
+        try {
+            for (HttpMessageConverter<?> converter : messageConverters.getConverters()) {
+                if (converter instanceof GenericHttpMessageConverter
+                        && ((GenericHttpMessageConverter<Object>) converter).canWrite(FLIGHT_LIST_TYPE, List.class, mediaType)) {
+                    ((GenericHttpMessageConverter<Object>) converter).write(page.getFlights(), FLIGHT_LIST_TYPE, mediaType, outputMessage);
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        byte[] payload = body.toByteArray();
+        return new SerializedResponse(payload, DigestUtils.md5DigestAsHex(payload), mediaType.toString(), page.getNextCursor(), page.isIncomplete());
+    }
+}
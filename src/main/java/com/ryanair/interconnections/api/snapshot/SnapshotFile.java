@@ -0,0 +1,257 @@
+package com.ryanair.interconnections.api.snapshot;
+
+import com.ryanair.interconnections.api.model.route.Route;
+import com.ryanair.interconnections.api.model.schedule.Day;
+import com.ryanair.interconnections.api.model.schedule.Flight;
+import com.ryanair.interconnections.api.model.schedule.Schedule;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Represent the snapshot of the warm cache in a binary file: the routes and the timetables of the Schedules API. <br/>
+ * The file starts with a header of the magic number, the format version, the creation time, the length and the CRC32
+ * of the payload, and a file with another version or a wrong checksum is rejected. <br/>
+ * The routes and every timetable keep the time they were received, so they are restored with their age. <br/>
+ * The file is written in a temporary file that replaces the previous snapshot, and it is read through a memory map
+ */
+public class SnapshotFile {
+
+    public static final int MAGIC = 0x52594943;
+    public static final int FORMAT_VERSION = 2;
+    private static final int HEADER_BYTES = Integer.BYTES * 3 + Long.BYTES * 2;
+    private static final int NULL_LENGTH = -1;
+    private static final short NO_TIME = -1;
+
+    private final long createdMillis;
+    private final List<Route> routes;
+    private final long routesStoredMillis;
+    private final List<SnapshotTimetable> timetables;
+
+    public SnapshotFile(long createdMillis, List<Route> routes, long routesStoredMillis, List<SnapshotTimetable> timetables) {
+        this.createdMillis = createdMillis;
+        this.routes = routes;
+        this.routesStoredMillis = routesStoredMillis;
+        this.timetables = timetables;
+    }
+
+    public long getCreatedMillis() {
+        return createdMillis;
+    }
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public long getRoutesStoredMillis() {
+        return routesStoredMillis;
+    }
+
+    public List<SnapshotTimetable> getTimetables() {
+        return timetables;
+    }
+
+    /**
+     * Write the snapshot in a file, replacing the previous one only when the new one is complete
+     * @param path the path of the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeLong(routesStoredMillis);
+        payload.writeInt(routes.size());
+        for (Route route : routes) {
+            writeString(payload, route.getAirportFrom());
+            writeString(payload, route.getAirportTo());
+            writeString(payload, route.getConnectingAirport());
+            payload.writeBoolean(route.isNewRoute());
+            payload.writeBoolean(route.isSeasonalRoute());
+            writeString(payload, route.getOperator());
+            writeString(payload, route.getGroup());
+        }
+        payload.writeInt(timetables.size());
+        for (SnapshotTimetable timetable : timetables) {
+            writeString(payload, timetable.getAirportFrom());
+            writeString(payload, timetable.getAirportTo());
+            payload.writeInt(timetable.getMonth().getYear());
+            payload.writeByte(timetable.getMonth().getMonthValue());
+            payload.writeLong(timetable.getStoredMillis());
+            writeSchedule(payload, timetable.getSchedule());
+        }
+        payload.flush();
+        byte[] body = payloadBytes.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putLong(createdMillis)
+                .putInt(body.length)
+                .putLong(crc.getValue());
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            header.flip();
+            writeFully(channel, header);
+            writeFully(channel, ByteBuffer.wrap(body));
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a snapshot file through a memory map
+     * @param path the path of the snapshot file
+     * @return the snapshot
+     * @throws IOException if the file cannot be read, it is not a snapshot, it has another format version
+     * or its checksum is wrong
+     */
+    public static SnapshotFile read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Snapshot " + path + " is truncated");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("File " + path + " is not a snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Snapshot " + path + " has format version " + version + " instead of " + FORMAT_VERSION);
+            }
+            long createdMillis = buffer.getLong();
+            int length = buffer.getInt();
+            long checksum = buffer.getLong();
+            if (length < 0 || length != size - HEADER_BYTES) {
+                throw new IOException("Snapshot " + path + " is truncated");
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice());
+            if (crc.getValue() != checksum) {
+                throw new IOException("Snapshot " + path + " has a wrong checksum");
+            }
+
+            try {
+                return readPayload(createdMillis, buffer);
+            } catch (RuntimeException e) {
+                throw new IOException("Snapshot " + path + " is malformed", e);
+            }
+        }
+    }
+
+    private static SnapshotFile readPayload(long createdMillis, ByteBuffer payload) {
+        long routesStoredMillis = payload.getLong();
+        int routeCount = payload.getInt();
+        List<Route> routes = new ArrayList<>(routeCount);
+        for (int i = 0; i < routeCount; i++) {
+            routes.add(new Route(readString(payload), readString(payload), readString(payload),
+                    payload.get() != 0, payload.get() != 0, readString(payload), readString(payload)));
+        }
+        int timetableCount = payload.getInt();
+        List<SnapshotTimetable> timetables = new ArrayList<>(timetableCount);
+        for (int i = 0; i < timetableCount; i++) {
+            String airportFrom = readString(payload);
+            String airportTo = readString(payload);
+            YearMonth month = YearMonth.of(payload.getInt(), payload.get());
+            long storedMillis = payload.getLong();
+            timetables.add(new SnapshotTimetable(airportFrom, airportTo, month, readSchedule(payload), storedMillis));
+        }
+        return new SnapshotFile(createdMillis, routes, routesStoredMillis, timetables);
+    }
+
+    private static void writeSchedule(DataOutputStream payload, Schedule schedule) throws IOException {
+        payload.writeByte(schedule.getMonth());
+        List<Day> days = schedule.getDays() == null ? List.of() : schedule.getDays();
+        payload.writeShort(days.size());
+        for (Day day : days) {
+            List<Flight> flights = day.getFlights() == null ? List.of() : day.getFlights();
+            payload.writeByte(day.getDay());
+            payload.writeShort(flights.size());
+            for (Flight flight : flights) {
+                writeString(payload, flight.getNumber());
+                payload.writeShort(toMinutes(flight.getDepartureTime()));
+                payload.writeShort(toMinutes(flight.getArrivalTime()));
+            }
+        }
+    }
+
+    private static Schedule readSchedule(ByteBuffer payload) {
+        Schedule schedule = new Schedule();
+        schedule.setMonth(payload.get());
+        int dayCount = payload.getShort();
+        List<Day> days = new ArrayList<>(dayCount);
+        for (int i = 0; i < dayCount; i++) {
+            Day day = new Day();
+            day.setDay(payload.get());
+            int flightCount = payload.getShort();
+            List<Flight> flights = new ArrayList<>(flightCount);
+            for (int j = 0; j < flightCount; j++) {
+                Flight flight = new Flight();
+                flight.setNumber(readString(payload));
+                flight.setDepartureTime(toTime(payload.getShort()));
+                flight.setArrivalTime(toTime(payload.getShort()));
+                flights.add(flight);
+            }
+            day.setFlights(flights);
+            days.add(day);
+        }
+        schedule.setDays(days);
+        return schedule;
+    }
+
+    private static short toMinutes(LocalTime time) {
+        return time == null ? NO_TIME : (short) (time.getHour() * 60 + time.getMinute());
+    }
+
+    private static LocalTime toTime(short minutes) {
+        return minutes == NO_TIME ? null : LocalTime.of(minutes / 60, minutes % 60);
+    }
+
+    private static void writeString(DataOutputStream payload, String value) throws IOException {
+        if (value == null) {
+            payload.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        payload.writeInt(bytes.length);
+        payload.write(bytes);
+    }
+
+    private static String readString(ByteBuffer payload) {
+        int length = payload.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
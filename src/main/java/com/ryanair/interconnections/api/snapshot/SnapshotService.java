@@ -0,0 +1,161 @@
+package com.ryanair.interconnections.api.snapshot;
+
+import com.ryanair.interconnections.api.client.RoutesClient;
+import com.ryanair.interconnections.api.client.SchedulesClient;
+import com.ryanair.interconnections.api.model.route.Route;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service that writes the warm cache to the snapshot file every interconnections.snapshot.write-interval-millis,
+ * and when the API stops. <br/>
+ * When the API starts, the snapshot is read before the API receives requests, so the first searches are made
+ * with the restored routes and timetables instead of requesting them all to the APIs at the same time.
+ * A snapshot older than interconnections.snapshot.max-snapshot-age-millis is ignored. <br/>
+ * The restored routes and timetables are revalidated in the background, requesting them one by one to the APIs
+ */
+@Service
+public class SnapshotService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotService.class);
+    private static final Duration REVALIDATION_TIMEOUT = Duration.ofSeconds(5);
+
+    private final WarmCache warmCache;
+    private final RoutesClient routesClient;
+    private final SchedulesClient schedulesClient;
+    private final Path path;
+    private final long writeIntervalMillis;
+    private final long maxSnapshotAgeMillis;
+    private final ScheduledExecutorService snapshotExecutor;
+
+    @Autowired
+    public SnapshotService(WarmCache warmCache,
+                           RoutesClient routesClient,
+                           SchedulesClient schedulesClient,
+                           @Value("${interconnections.snapshot.path}") String path,
+                           @Value("${interconnections.snapshot.write-interval-millis}") long writeIntervalMillis,
+                           @Value("${interconnections.snapshot.max-snapshot-age-millis}") long maxSnapshotAgeMillis) {
+        this.warmCache = warmCache;
+        this.routesClient = routesClient;
+        this.schedulesClient = schedulesClient;
+        this.path = Paths.get(path);
+        this.writeIntervalMillis = writeIntervalMillis;
+        this.maxSnapshotAgeMillis = maxSnapshotAgeMillis;
+        this.snapshotExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "warm-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Restore the snapshot, and start to revalidate it and to write the next ones in the background
+     */
+    @PostConstruct
+    public void start() {
+        if (!warmCache.isEnabled()) {
+            return;
+        }
+        SnapshotFile snapshot = restore();
+        if (snapshot != null) {
+            snapshotExecutor.execute(() -> revalidate(snapshot));
+        }
+        snapshotExecutor.scheduleWithFixedDelay(this::write, writeIntervalMillis, writeIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshotExecutor.shutdownNow();
+        if (warmCache.isEnabled()) {
+            write();
+        }
+    }
+
+    /**
+     * Read the snapshot file and restore it in the warm cache
+     * @return the restored snapshot, or null if there is no valid snapshot
+     */
+    SnapshotFile restore() {
+        if (!Files.exists(path)) {
+            LOGGER.info("No snapshot in {}, the API starts cold", path);
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            SnapshotFile snapshot = SnapshotFile.read(path);
+            long ageMillis = System.currentTimeMillis() - snapshot.getCreatedMillis();
+            if (ageMillis > maxSnapshotAgeMillis) {
+                LOGGER.info("Snapshot in {} is {} ms old, the API starts cold", path, ageMillis);
+                return null;
+            }
+            warmCache.restore(snapshot);
+            LOGGER.info("Snapshot restored from {} in {} ms: {} routes and {} timetables, {} ms old",
+                    path, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    snapshot.getRoutes().size(), snapshot.getTimetables().size(), ageMillis);
+            return snapshot;
+        } catch (IOException e) {
+            LOGGER.warn("Snapshot in {} is not valid, the API starts cold: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Request again the routes and the timetables of a restored snapshot, one by one.
+     * A timetable that cannot be requested keeps its restored value until it gets too old
+     * @param snapshot the restored snapshot
+     */
+    void revalidate(SnapshotFile snapshot) {
+        long start = System.nanoTime();
+        int failures = 0;
+        try {
+            routesClient.refreshRoutes(REVALIDATION_TIMEOUT);
+        } catch (RuntimeException e) {
+            failures++;
+        }
+        for (SnapshotTimetable timetable : snapshot.getTimetables()) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            Route route = new Route(timetable.getAirportFrom(), timetable.getAirportTo(), null, false, false, null, null);
+            try {
+                schedulesClient.refreshSchedule(route, timetable.getMonth().atDay(1).atStartOfDay(), REVALIDATION_TIMEOUT);
+            } catch (RuntimeException e) {
+                failures++;
+            }
+        }
+        LOGGER.info("Snapshot revalidated in {} ms: {} timetables, {} failed requests",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), snapshot.getTimetables().size(), failures);
+    }
+
+    /**
+     * Write the warm cache to the snapshot file
+     */
+    void write() {
+        SnapshotFile snapshot = warmCache.toSnapshot();
+        List<Route> routes = snapshot.getRoutes();
+        if (routes.isEmpty() && snapshot.getTimetables().isEmpty()) {
+            return;
+        }
+        try {
+            snapshot.write(path);
+            LOGGER.debug("Snapshot written to {}: {} routes and {} timetables", path, routes.size(), snapshot.getTimetables().size());
+        } catch (IOException e) {
+            LOGGER.warn("Snapshot cannot be written to {}: {}", path, e.toString());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.ryanair.interconnections.api.snapshot;
+
+import com.ryanair.interconnections.api.model.schedule.Schedule;
+
+import java.time.YearMonth;
+
+/**
+ * POJO that represents the Schedules API response of a route in a month, as it is kept in the warm cache
+ * and written in the snapshot, with the time it was received from which its age counts
+ */
+public class SnapshotTimetable {
+    private String airportFrom;
+    private String airportTo;
+    private YearMonth month;
+    private Schedule schedule;
+    private long storedMillis;
+
+    public SnapshotTimetable(String airportFrom, String airportTo, YearMonth month, Schedule schedule, long storedMillis) {
+        this.airportFrom = airportFrom;
+        this.airportTo = airportTo;
+        this.month = month;
+        this.schedule = schedule;
+        this.storedMillis = storedMillis;
+    }
+
+    public SnapshotTimetable() {}
+
+    public String getAirportFrom() {
+        return airportFrom;
+    }
+
+    public void setAirportFrom(String airportFrom) {
+        this.airportFrom = airportFrom;
+    }
+
+    public String getAirportTo() {
+        return airportTo;
+    }
+
+    public void setAirportTo(String airportTo) {
+        this.airportTo = airportTo;
+    }
+
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    public void setMonth(YearMonth month) {
+        this.month = month;
+    }
+
+    public Schedule getSchedule() {
+        return schedule;
+    }
+
+    public void setSchedule(Schedule schedule) {
+        this.schedule = schedule;
+    }
+
+    public long getStoredMillis() {
+        return storedMillis;
+    }
+
+    public void setStoredMillis(long storedMillis) {
+        this.storedMillis = storedMillis;
+    }
+}
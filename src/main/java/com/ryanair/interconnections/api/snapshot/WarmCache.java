@@ -0,0 +1,156 @@
+package com.ryanair.interconnections.api.snapshot;
+
+import com.ryanair.interconnections.api.model.route.Route;
+import com.ryanair.interconnections.api.model.schedule.Schedule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keep in memory the last responses of the Routes API and the Schedules API, so the same route graph and
+ * timetables are not requested again while they are younger than interconnections.snapshot.max-age-millis. <br/>
+ * The cache is written to the snapshot file and restored from it when the API starts. <br/>
+ * When interconnections.snapshot.enabled is false nothing is kept, and every request goes to the APIs
+ */
+@Component
+public class WarmCache {
+
+    private final boolean enabled;
+    private final long maxAgeMillis;
+    private final int maxTimetables;
+    private final Map<String, Entry<SnapshotTimetable>> timetables = new ConcurrentHashMap<>();
+    private volatile Entry<List<Route>> routes;
+
+    @Autowired
+    public WarmCache(@Value("${interconnections.snapshot.enabled}") boolean enabled,
+                     @Value("${interconnections.snapshot.max-age-millis}") long maxAgeMillis,
+                     @Value("${interconnections.snapshot.max-timetables}") int maxTimetables) {
+        this.enabled = enabled;
+        this.maxAgeMillis = maxAgeMillis;
+        this.maxTimetables = maxTimetables;
+    }
+
+    /**
+     * @return a warm cache that keeps nothing
+     */
+    public static WarmCache disabled() {
+        return new WarmCache(false, 0, 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the routes of the last response of the Routes API
+     * @return the routes, or null if they are not kept or they are too old
+     */
+    public List<Route> getRoutes() {
+        Entry<List<Route>> entry = routes;
+        return entry != null && isFresh(entry) ? entry.value : null;
+    }
+
+    public void putRoutes(List<Route> routes) {
+        if (enabled && routes != null) {
+            this.routes = new Entry<>(routes, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Get the last response of the Schedules API for a route in a month
+     * @param route the route that contains departure and arrival airport
+     * @param dateTime a time of the month
+     * @return the schedule, or null if it is not kept or it is too old
+     */
+    public Schedule getSchedule(Route route, LocalDateTime dateTime) {
+        if (!enabled) {
+            return null;
+        }
+        Entry<SnapshotTimetable> entry = timetables.get(getKey(route.getAirportFrom(), route.getAirportTo(), YearMonth.from(dateTime)));
+        return entry != null && isFresh(entry) ? entry.value.getSchedule() : null;
+    }
+
+    public void putSchedule(Route route, LocalDateTime dateTime, Schedule schedule) {
+        if (enabled && schedule != null) {
+            put(new SnapshotTimetable(route.getAirportFrom(), route.getAirportTo(), YearMonth.from(dateTime), schedule, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Keep a timetable, removing the old ones first if the cache is full. If it is still full, the timetable is not kept
+     * @param timetable the timetable, with the time from which its age counts
+     */
+    private void put(SnapshotTimetable timetable) {
+        String key = getKey(timetable.getAirportFrom(), timetable.getAirportTo(), timetable.getMonth());
+        if (timetables.size() >= maxTimetables && !timetables.containsKey(key)) {
+            timetables.values().removeIf(entry -> !isFresh(entry));
+            if (timetables.size() >= maxTimetables) {
+                return;
+            }
+        }
+        timetables.put(key, new Entry<>(timetable, timetable.getStoredMillis()));
+    }
+
+    /**
+     * Get the content of the cache to write a snapshot, without the routes and timetables that are too old
+     * @return the snapshot of the cache
+     */
+    public SnapshotFile toSnapshot() {
+        Entry<List<Route>> routesEntry = routes;
+        boolean freshRoutes = routesEntry != null && isFresh(routesEntry);
+        List<SnapshotTimetable> snapshotTimetables = new ArrayList<>(timetables.size());
+        timetables.values().stream()
+                .filter(this::isFresh)
+                .forEach(entry -> snapshotTimetables.add(entry.value));
+        return new SnapshotFile(System.currentTimeMillis(),
+                freshRoutes ? routesEntry.value : List.of(),
+                freshRoutes ? routesEntry.storedMillis : 0,
+                snapshotTimetables);
+    }
+
+    /**
+     * Restore the routes and timetables of a snapshot with the age they had when it was written,
+     * so they are served until they are revalidated or they get too old. The ones already too old are skipped
+     * @param snapshot the snapshot read when the API starts
+     */
+    public void restore(SnapshotFile snapshot) {
+        if (!enabled) {
+            return;
+        }
+        if (!snapshot.getRoutes().isEmpty() && isFresh(snapshot.getRoutesStoredMillis())) {
+            routes = new Entry<>(snapshot.getRoutes(), snapshot.getRoutesStoredMillis());
+        }
+        snapshot.getTimetables().stream()
+                .filter(timetable -> isFresh(timetable.getStoredMillis()))
+                .forEach(this::put);
+    }
+
+    private boolean isFresh(Entry<?> entry) {
+        return isFresh(entry.storedMillis);
+    }
+
+    private boolean isFresh(long storedMillis) {
+        return System.currentTimeMillis() - storedMillis < maxAgeMillis;
+    }
+
+    private static String getKey(String airportFrom, String airportTo, YearMonth month) {
+        return airportFrom + airportTo + month;
+    }
+
+    private static final class Entry<T> {
+        private final T value;
+        private final long storedMillis;
+
+        private Entry(T value, long storedMillis) {
+            this.value = value;
+            this.storedMillis = storedMillis;
+        }
+    }
+}
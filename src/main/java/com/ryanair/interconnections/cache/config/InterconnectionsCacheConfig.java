@@ -18,9 +18,13 @@ import org.infinispan.commons.marshall.ProtoStreamMarshaller;
 public class InterconnectionsCacheConfig {
 
    public static final String FLIGHT_CACHE = "flight";
+   public static final String RESPONSE_CACHE = "response";
 
    @Value("classpath:cache/flight.xml")
    private Resource flightResource;
+
+   @Value("classpath:cache/response.xml")
+   private Resource responseResource;
    
    @Bean
    @Order(Ordered.HIGHEST_PRECEDENCE)
@@ -34,6 +38,10 @@ public class InterconnectionsCacheConfig {
             b.remoteCache(FLIGHT_CACHE)
             .configurationURI(flightResource.getURI())
             .marshaller(ProtoStreamMarshaller.class);
+
+            b.remoteCache(RESPONSE_CACHE)
+            .configurationURI(responseResource.getURI())
+            .marshaller(ProtoStreamMarshaller.class);
                         
          } catch (IOException e) {
                e.printStackTrace();
@@ -0,0 +1,45 @@
+package com.ryanair.interconnections.cache.health;
+
+import com.ryanair.interconnections.cache.manager.InterconnectionsCacheManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health of the data grid, included in the readiness group of /actuator/health: <br/>
+ * * UP: the caches are attached <br/>
+ * * DEGRADED: the caches are not attached yet, and the API serves the searches without data grid <br/>
+ * * OUT_OF_SERVICE: the caches are not attached yet, and interconnections.grid.required-for-readiness is true
+ */
+@Component
+public class DataGridHealthIndicator implements HealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "The searches are served without data grid");
+
+    private final InterconnectionsCacheManager cacheManager;
+    private final boolean requiredForReadiness;
+
+    @Autowired
+    public DataGridHealthIndicator(InterconnectionsCacheManager cacheManager,
+                                   @Value("${interconnections.grid.required-for-readiness}") boolean requiredForReadiness) {
+        this.cacheManager = cacheManager;
+        this.requiredForReadiness = requiredForReadiness;
+    }
+
+    @Override
+    public Health health() {
+        if (cacheManager.isAttached()) {
+            return Health.up().withDetail("attempts", cacheManager.getAttempts()).build();
+        }
+        Health.Builder health = Health.status(requiredForReadiness ? Status.OUT_OF_SERVICE : DEGRADED)
+                .withDetail("attempts", cacheManager.getAttempts());
+        if (cacheManager.getLastError() != null) {
+            health.withDetail("error", cacheManager.getLastError());
+        }
+        return health.build();
+    }
+}
@@ -1,51 +1,137 @@
 package com.ryanair.interconnections.cache.manager;
 
-import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
-import com.ryanair.interconnections.api.model.response.FlightResponse;
-import com.ryanair.interconnections.api.model.response.InterconnectionResponse;
-import com.ryanair.interconnections.api.model.route.Route;
 import com.ryanair.interconnections.cache.config.InterconnectionsCacheConfig;
 import com.ryanair.interconnections.cache.schema.InterconnectionsSchemaBuilderImpl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import org.infinispan.client.hotrod.RemoteCache;
 import org.infinispan.client.hotrod.RemoteCacheManager;
 import org.infinispan.protostream.GeneratedSchema;
 import org.infinispan.query.remote.client.ProtobufMetadataManagerConstants;
+import org.infinispan.spring.starter.remote.actuator.RemoteInfinispanCacheMeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Bean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Attach the API to the caches of the data grid. <br/>
+ * The protobuf schema is registered and the caches are got in the background, off the startup path,
+ * retrying every interconnections.grid.retry-millis until the data grid is available. <br/>
+ * Until then the API runs without data grid: the caches are null, and the searches are made and not stored. <br/>
+ * The cache metrics are bound when the caches are attached, instead of by Spring Boot at startup
+ */
 @Component
 public class InterconnectionsCacheManager {
-    
-    private RemoteCacheManager manager;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InterconnectionsCacheManager.class);
+
+    private final RemoteCacheManager manager;
+    private final MeterRegistry meterRegistry;
+    private final long retryMillis;
+    private final ScheduledExecutorService attachExecutor;
+    private final AtomicInteger attempts = new AtomicInteger();
+    private volatile RemoteCache<String, ?> flightCache;
+    private volatile RemoteCache<String, ?> responseCache;
+    private volatile String lastError;
 
     @Autowired
-    public InterconnectionsCacheManager(RemoteCacheManager manager) {
+    public InterconnectionsCacheManager(RemoteCacheManager manager,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${interconnections.grid.retry-millis}") long retryMillis) {
         this.manager = manager;
-        RemoteCache<String, String> metadataCache = manager.getCache(ProtobufMetadataManagerConstants.PROTOBUF_METADATA_CACHE_NAME);
-        GeneratedSchema flightSchema = new InterconnectionsSchemaBuilderImpl();
-        metadataCache.put(flightSchema.getProtoFileName(), flightSchema.getProtoFile());
+        this.meterRegistry = meterRegistry;
+        this.retryMillis = retryMillis;
+        this.attachExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "grid-attach");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start to attach the caches in the background
+     */
+    @PostConstruct
+    public void attachAsync() {
+        attachExecutor.execute(this::attach);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        attachExecutor.shutdownNow();
+    }
+
+    /**
+     * Register the protobuf schema and get the caches, or try again later if the data grid is not available
+     */
+    private void attach() {
+        int attempt = attempts.incrementAndGet();
+        try {
+            RemoteCache<String, String> metadataCache = manager.getCache(ProtobufMetadataManagerConstants.PROTOBUF_METADATA_CACHE_NAME);
+            GeneratedSchema flightSchema = new InterconnectionsSchemaBuilderImpl();
+            metadataCache.put(flightSchema.getProtoFileName(), flightSchema.getProtoFile());
+
+            responseCache = bindMetrics(manager.getCache(InterconnectionsCacheConfig.RESPONSE_CACHE));
+            flightCache = bindMetrics(manager.getCache(InterconnectionsCacheConfig.FLIGHT_CACHE));
+            lastError = null;
+            LOGGER.info("Data grid attached after {} attempts", attempt);
+        } catch (RuntimeException e) {
+            lastError = e.toString();
+            LOGGER.warn("Data grid not available (attempt {}), retrying in {} ms: {}", attempt, retryMillis, lastError);
+            attachExecutor.schedule(this::attach, retryMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private <V> RemoteCache<String, V> bindMetrics(RemoteCache<String, V> cache) {
+        new RemoteInfinispanCacheMeterBinder(cache, Tags.of("cache", cache.getName(), "cache.manager", "cacheManager"))
+                .bindTo(meterRegistry);
+        return cache;
+    }
+
+    /**
+     * @return a boolean result that determines if the caches of the data grid are attached
+     */
+    public boolean isAttached() {
+        return flightCache != null;
     }
 
-    @Bean
-    RemoteCache<String, InterconnectionResponse> flightProtoCache() {
-        return manager.getCache(InterconnectionsCacheConfig.FLIGHT_CACHE);
+    /**
+     * Get the cache of the flights, with the type of its values
+     * @return the flight cache, or null if the data grid is not attached yet
+     */
+    @SuppressWarnings("unchecked")
+    public <V> RemoteCache<String, V> getFlightCache() {
+        return (RemoteCache<String, V>) flightCache;
     }
 
-    @Bean
-    RemoteCache<String, FlightResponse> singleFlightProtoCache() {
-        return manager.getCache(InterconnectionsCacheConfig.FLIGHT_CACHE);
+    /**
+     * Get the cache of the serialized responses, with the type of its values
+     * @return the response cache, or null if the data grid is not attached yet
+     */
+    @SuppressWarnings("unchecked")
+    public <V> RemoteCache<String, V> getResponseCache() {
+        return (RemoteCache<String, V>) responseCache;
     }
 
-    @Bean
-    RemoteCache<String, LocalDateTime> dateProtoCache() {
-        return manager.getCache(InterconnectionsCacheConfig.FLIGHT_CACHE);
+    public int getAttempts() {
+        return attempts.get();
     }
 
-    @Bean
-    RemoteCache<String, Route> routeProtoCache() {
-        return manager.getCache(InterconnectionsCacheConfig.FLIGHT_CACHE);
+    /**
+     * @return the error of the last attempt to attach the data grid, or null if it is attached
+     */
+    public String getLastError() {
+        return lastError;
     }
 }
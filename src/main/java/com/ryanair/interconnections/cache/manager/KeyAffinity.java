@@ -0,0 +1,133 @@
+package com.ryanair.interconnections.cache.manager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.commons.util.Util;
+
+/**
+ * Group the keys of a cache of the data grid, for example by departure airport, so every key of a group is in the
+ * same segment and it is owned by the same nodes. <br/>
+ * With HASH_DISTRIBUTION_AWARE client intelligence the client sends a key to the owner of its segment, and the segment
+ * of a key is the MurmurHash3 of the marshalled key divided by the size of a segment. The Hot Rod client cannot declare
+ * groups, so the grouped key of a key is the key, the group and the first suffix that puts it in the segment of the group: <br/>
+ * * The same key of the same group is always the same grouped key, while the number of segments of the cache does not change <br/>
+ * * Every key of a group is sent to the owners of the segment of the group <br/>
+ * Finding the suffix marshals and hashes about as many candidates as there are segments, so the grouped keys are
+ * memoized by a GroupedKeyCache
+ */
+public final class KeyAffinity {
+
+    private static final char GROUP_SEPARATOR = '@';
+    private static final char SUFFIX_SEPARATOR = '#';
+    // Every segment is found in about as many attempts as there are segments
+    private static final int MAX_ATTEMPTS_PER_SEGMENT = 16;
+
+    private KeyAffinity() {
+    }
+
+    /**
+     * Get the grouped key of a key in a cache
+     * @param cache the cache of the key
+     * @param group the group of the key, as the departure airport IATA code
+     * @param key the key
+     * @return the grouped key, or the key if the cache does not know its segments yet
+     */
+    public static String toGroupedKey(RemoteCache<String, ?> cache, String group, String key) {
+        Integer numSegments = cache.getCacheTopologyInfo().getNumSegments();
+        if (numSegments == null) {
+            return key;
+        }
+        return toGroupedKey(cache.getDataFormat()::keyToBytes, numSegments, group, key);
+    }
+
+    /**
+     * Get the grouped key of a key
+     * @param keyToBytes the marshaller of the keys of the cache
+     * @param numSegments the number of segments of the cache
+     * @param group the group of the key, as the departure airport IATA code
+     * @param key the key
+     * @return the grouped key, with the same segment as the group
+     */
+    public static String toGroupedKey(Function<Object, byte[]> keyToBytes, int numSegments, String group, String key) {
+        String groupedKey = key + GROUP_SEPARATOR + group + SUFFIX_SEPARATOR;
+        int groupSegment = getSegment(keyToBytes, numSegments, group);
+        for (int suffix = 0; suffix < numSegments * MAX_ATTEMPTS_PER_SEGMENT; suffix++) {
+            String candidate = groupedKey + Integer.toString(suffix, Character.MAX_RADIX);
+            if (getSegment(keyToBytes, numSegments, candidate) == groupSegment) {
+                return candidate;
+            }
+        }
+        // Practically never: the key is still found again, in any segment
+        return groupedKey;
+    }
+
+    /**
+     * Get the segment of a key, as the Hot Rod client does to choose its owner
+     * @param keyToBytes the marshaller of the keys of the cache
+     * @param numSegments the number of segments of the cache
+     * @param key the key
+     * @return the segment of the key
+     */
+    public static int getSegment(Function<Object, byte[]> keyToBytes, int numSegments, Object key) {
+        return (MurmurHash3.getInstance().hash(keyToBytes.apply(key)) & Integer.MAX_VALUE) / Util.getSegmentSize(numSegments);
+    }
+
+    /**
+     * Memoize the grouped keys of the caches, so the suffix of a key is only searched the first time it is needed. <br/>
+     * A grouped key depends on the number of segments, the group and the key. When the cache is full it is emptied,
+     * instead of keeping the least recently used keys with a lock on every get
+     */
+    public static final class GroupedKeyCache {
+
+        private final int maxKeys;
+        private final Map<String, String> groupedKeys = new ConcurrentHashMap<>();
+
+        public GroupedKeyCache(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        /**
+         * Get the grouped key of a key in a cache
+         * @param cache the cache of the key
+         * @param group the group of the key, as the departure airport IATA code
+         * @param key the key
+         * @return the grouped key, or the key if the cache does not know its segments yet
+         */
+        public String toGroupedKey(RemoteCache<String, ?> cache, String group, String key) {
+            Integer numSegments = cache.getCacheTopologyInfo().getNumSegments();
+            if (numSegments == null) {
+                return key;
+            }
+            return toGroupedKey(cache.getDataFormat()::keyToBytes, numSegments, group, key);
+        }
+
+        /**
+         * Get the grouped key of a key
+         * @param keyToBytes the marshaller of the keys of the cache
+         * @param numSegments the number of segments of the cache
+         * @param group the group of the key, as the departure airport IATA code
+         * @param key the key
+         * @return the grouped key, with the same segment as the group
+         */
+        public String toGroupedKey(Function<Object, byte[]> keyToBytes, int numSegments, String group, String key) {
+            String memoKey = numSegments + ":" + key + GROUP_SEPARATOR + group;
+            String groupedKey = groupedKeys.get(memoKey);
+            if (groupedKey == null) {
+                if (groupedKeys.size() >= maxKeys) {
+                    groupedKeys.clear();
+                }
+                groupedKey = KeyAffinity.toGroupedKey(keyToBytes, numSegments, group, key);
+                groupedKeys.put(memoKey, groupedKey);
+            }
+            return groupedKey;
+        }
+
+        public int size() {
+            return groupedKeys.size();
+        }
+    }
+}
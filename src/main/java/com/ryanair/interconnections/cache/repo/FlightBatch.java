@@ -0,0 +1,149 @@
+package com.ryanair.interconnections.cache.repo;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.ryanair.interconnections.api.model.plan.Deadline;
+import com.ryanair.interconnections.api.model.response.InterconnectionResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read and write the flights of the searches of a request in the flight cache with bulk operations,
+ * instead of one operation for every search: <br/>
+ * * The first time the stored flights of a search are needed, the stored flights of every search added to the batch
+ * are read with one getAll <br/>
+ * * The flights of every search are kept until the batch is flushed, and stored with one putAll <br/>
+ * The searches of a request can be made concurrently: the lock is only held to start a getAll, and every search
+ * of the getAll waits for it without the lock, so the searches on virtual threads do not pin their carriers
+ */
+public class FlightBatch {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlightBatch.class);
+
+    private final FlightRepository repository;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<String> unreadKeys = new LinkedHashSet<>();
+    private final Map<String, CompletableFuture<Map<String, InterconnectionResponse>>> reads = new HashMap<>();
+    private final Map<String, InterconnectionResponse> pendingFlights = new LinkedHashMap<>();
+
+    public FlightBatch(FlightRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Add a search to the batch, so its stored flights are read with the stored flights of the other searches
+     * @param key the key of the search
+     */
+    public void addKey(String key) {
+        lock.lock();
+        try {
+            if (!reads.containsKey(key)) {
+                unreadKeys.add(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the stored flights of a search, reading the stored flights of every search of the batch not read yet
+     * @param key the key of the search
+     * @return the stored flights, or null if they are not stored
+     */
+    public InterconnectionResponse findById(String key) {
+        CompletableFuture<Map<String, InterconnectionResponse>> read;
+        lock.lock();
+        try {
+            read = reads.get(key);
+            if (read == null) {
+                unreadKeys.add(key);
+                read = repository.findAllByIdAsync(new LinkedHashSet<>(unreadKeys));
+                for (String unreadKey : unreadKeys) {
+                    reads.put(unreadKey, read);
+                }
+                unreadKeys.clear();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            return read.join().get(key);
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Keep the flights of a search to store them when the batch is flushed
+     * @param key the key of the search
+     * @param flights the flights of the search
+     */
+    public void insert(String key, InterconnectionResponse flights) {
+        lock.lock();
+        try {
+            pendingFlights.put(key, flights);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Store the flights of every search kept since the last flush. The flights are always sent to the data grid,
+     * and the request waits for it only until its deadline: if the deadline passes, the flights are stored later anyway.
+     * The data grid errors are logged instead of failing the request, because its flights are already found
+     * @param deadline the deadline of the request
+     */
+    public void flush(Deadline deadline) {
+        Map<String, InterconnectionResponse> flights;
+        lock.lock();
+        try {
+            if (pendingFlights.isEmpty()) {
+                return;
+            }
+            flights = new LinkedHashMap<>(pendingFlights);
+            pendingFlights.clear();
+        } finally {
+            lock.unlock();
+        }
+
+        CompletableFuture<Void> stored;
+        try {
+            stored = repository.insertAllAsync(flights);
+        } catch (RuntimeException e) {
+            LOGGER.warn("The flights of {} searches were not stored in the data grid: {}", flights.size(), e.toString());
+            return;
+        }
+        stored.whenComplete((ignored, e) -> {
+            if (e != null) {
+                LOGGER.warn("The flights of {} searches were not stored in the data grid: {}", flights.size(), e.toString());
+            }
+        });
+
+        Duration remaining = deadline.getRemaining();
+        try {
+            if (remaining == null) {
+                stored.join();
+            } else if (!remaining.isZero()) {
+                stored.get(remaining.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            // The flights are returned anyway, and the data grid stores them later
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CompletionException e) {
+            // Already logged
+        }
+    }
+}
@@ -1,104 +1,231 @@
 package com.ryanair.interconnections.cache.repo;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
+import com.ryanair.interconnections.api.jfr.GridOperationEvent;
 import com.ryanair.interconnections.api.model.response.FlightResponse;
 import com.ryanair.interconnections.api.model.response.InterconnectionResponse;
+import com.ryanair.interconnections.api.model.response.SerializedResponse;
 import com.ryanair.interconnections.api.model.route.Route;
 import com.ryanair.interconnections.cache.config.InterconnectionsCacheConfig;
+import com.ryanair.interconnections.cache.manager.InterconnectionsCacheManager;
+import com.ryanair.interconnections.cache.manager.KeyAffinity;
 
 import org.infinispan.client.hotrod.RemoteCache;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.stereotype.Repository;
 
+/**
+ * Repository of the caches of the data grid. Every get, put and remove is recorded as a Flight Recorder event. <br/>
+ * While the data grid is not attached, every get misses and every put is skipped. <br/>
+ * If interconnections.grid.key-affinity is enabled, the keys of the searches are grouped by departure airport,
+ * so the results of the searches from an airport are owned by the same nodes. The grouped keys are memoized. <br/>
+ * The bulk operations read or write many keys with one Hot Rod operation for every
+ * interconnections.grid.bulk-batch-size keys, and every batch is sent at once
+ */
 @Repository
 @CacheConfig(cacheNames = {InterconnectionsCacheConfig.FLIGHT_CACHE})
 public class FlightRepository {
+
+    // About 10 MB of memoized keys
+    private static final int MAX_GROUPED_KEYS = 50_000;
+
+    private final KeyAffinity.GroupedKeyCache groupedKeys = new KeyAffinity.GroupedKeyCache(MAX_GROUPED_KEYS);
     
     @Autowired
-    @Qualifier("flightProtoCache")
-    private RemoteCache<String, InterconnectionResponse> flightCache;
+    private InterconnectionsCacheManager cacheManager;
 
+    @Value("${interconnections.grid.key-affinity}")
+    private boolean keyAffinity;
 
-    @Autowired
-    @Qualifier("singleFlightProtoCache")
-    private RemoteCache<String, FlightResponse> singleFlightCache;
+    @Value("${interconnections.grid.bulk-batch-size}")
+    private int bulkBatchSize;
 
-    @Autowired
-    @Qualifier("dateProtoCache")
-    private RemoteCache<String, LocalDateTime> dateCache;
+    private RemoteCache<String, InterconnectionResponse> flightCache() {
+        return cacheManager.getFlightCache();
+    }
 
-    @Autowired
-    @Qualifier("routeProtoCache")
-    private RemoteCache<String, Route> routeCache;
+    private RemoteCache<String, FlightResponse> singleFlightCache() {
+        return cacheManager.getFlightCache();
+    }
+
+    private RemoteCache<String, LocalDateTime> dateCache() {
+        return cacheManager.getFlightCache();
+    }
+
+    private RemoteCache<String, Route> routeCache() {
+        return cacheManager.getFlightCache();
+    }
+
+    private RemoteCache<String, SerializedResponse> serializedResponseCache() {
+        return cacheManager.getResponseCache();
+    }
+
+    /**
+     * Get the key of the flights of a search in the flight cache
+     * @param departure the departure airport IATA code of the search
+     * @param key the key of the search
+     * @return the key grouped by departure airport, or the key if the key affinity is disabled or the data grid is not attached
+     */
+    public String getFlightKey(String departure, String key) {
+        return getGroupedKey(flightCache(), departure, key);
+    }
+
+    /**
+     * Get the key of the serialized response of a search in the response cache
+     * @param departure the departure airport IATA code of the search
+     * @param key the key of the search
+     * @return the key grouped by departure airport, or the key if the key affinity is disabled or the data grid is not attached
+     */
+    public String getResponseKey(String departure, String key) {
+        return getGroupedKey(serializedResponseCache(), departure, key);
+    }
+
+    private String getGroupedKey(RemoteCache<String, ?> cache, String departure, String key) {
+        return keyAffinity && cache != null ? groupedKeys.toGroupedKey(cache, departure, key) : key;
+    }
 
     public InterconnectionResponse findById(String id){
-        return flightCache.get(id);
+        return get(flightCache(), id);
     }
 
     public FlightResponse findSingleFlightById(String id){
-        return singleFlightCache.get(id);
+        return get(singleFlightCache(), id);
     }
 
     public Route findRouteById(String id){
-        return routeCache.get(id);
+        return get(routeCache(), id);
+    }
+
+    public SerializedResponse findSerializedResponseById(String id){
+        return get(serializedResponseCache(), id);
     }
 
     public CompletableFuture<InterconnectionResponse> findByIdAsync(String id) {
-        return flightCache.getAsync(id);
+        RemoteCache<String, InterconnectionResponse> flightCache = flightCache();
+        if (flightCache == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        GridOperationEvent event = new GridOperationEvent(flightCache.getName(), "getAsync", id);
+        event.begin();
+        CompletableFuture<InterconnectionResponse> flight = flightCache.getAsync(id);
+        flight.whenComplete((value, e) -> event.commit(value));
+        return flight;
+    }
+
+    public Map<String, InterconnectionResponse> findAllById(Set<String> ids) {
+        return join(getAllAsync(flightCache(), ids));
+    }
+
+    public CompletableFuture<Map<String, InterconnectionResponse>> findAllByIdAsync(Set<String> ids) {
+        return getAllAsync(flightCache(), ids);
+    }
+
+    public Map<String, FlightResponse> findAllSingleFlightsById(Set<String> ids) {
+        return join(getAllAsync(singleFlightCache(), ids));
+    }
+
+    public Map<String, Route> findAllRoutesById(Set<String> ids) {
+        return join(getAllAsync(routeCache(), ids));
     }
 
     public void insert(String id, InterconnectionResponse flight){
-        flightCache.put(id, flight);
+        put(flightCache(), id, flight);
     }
 
     public void insertSingleFlight(String id, FlightResponse sFlight){
-        singleFlightCache.put(id, sFlight);
+        put(singleFlightCache(), id, sFlight);
     }
 
     public void insertDateTime(String id, LocalDateTime date){
-        dateCache.put(id, date);
+        put(dateCache(), id, date);
     }
 
     public void insertRoute(String id, Route route){
-        routeCache.put(id, route);
+        put(routeCache(), id, route);
+    }
+
+    public CompletableFuture<InterconnectionResponse> insertAsync(String id, InterconnectionResponse flight){
+        return putAsync(flightCache(), id, flight);
     }
 
-    public void insertAsync(String id, InterconnectionResponse flight){
-        flightCache.putAsync(id, flight);
+    public void insertAll(Map<String, InterconnectionResponse> flights) {
+        join(putAllAsync(flightCache(), flights));
+    }
+
+    public CompletableFuture<Void> insertAllAsync(Map<String, InterconnectionResponse> flights) {
+        return putAllAsync(flightCache(), flights);
+    }
+
+    public void insertAllSingleFlights(Map<String, FlightResponse> sFlights) {
+        join(putAllAsync(singleFlightCache(), sFlights));
+    }
+
+    public void insertAllRoutes(Map<String, Route> routes) {
+        join(putAllAsync(routeCache(), routes));
+    }
+
+    public void insertSerializedResponseAsync(String id, SerializedResponse response){
+        putAsync(serializedResponseCache(), id, response);
     }
 
     public void delete(String id){
+        RemoteCache<String, InterconnectionResponse> flightCache = flightCache();
+        if (flightCache == null) {
+            return;
+        }
+        GridOperationEvent event = new GridOperationEvent(flightCache.getName(), "remove", id);
+        event.begin();
         flightCache.remove(id);
+        event.commit(null);
     }
 
     public boolean bulkRemove(Set<String> keys){
-        return flightCache.keySet().removeAll(keys);
+        RemoteCache<String, InterconnectionResponse> flightCache = flightCache();
+        return flightCache != null && flightCache.keySet().removeAll(keys);
     }
 
     public void deleteAll(){
-        flightCache.clear();
+        RemoteCache<String, InterconnectionResponse> flightCache = flightCache();
+        if (flightCache != null) {
+            flightCache.clear();
+        }
     }
 
     public int getSize(){
-        return flightCache.size();
+        RemoteCache<String, InterconnectionResponse> flightCache = flightCache();
+        return flightCache == null ? 0 : flightCache.size();
     }
 
     public String getKeys(){
-        return flightCache.keySet().toString();
+        RemoteCache<String, InterconnectionResponse> flightCache = flightCache();
+        return flightCache == null ? Collections.emptySet().toString() : flightCache.keySet().toString();
     }
 
     public String getValues(){
-        return flightCache.values().toString();
+        RemoteCache<String, InterconnectionResponse> flightCache = flightCache();
+        return flightCache == null ? Collections.emptyList().toString() : flightCache.values().toString();
     }
 
     public List<InterconnectionResponse> findByDeparture(String departure) {
+        RemoteCache<String, InterconnectionResponse> flightCache = flightCache();
+        if (flightCache == null) {
+            return Collections.emptyList();
+        }
         return flightCache.values().parallelStream()
         .filter(i -> i
         .getFlightList().parallelStream()
@@ -108,4 +235,113 @@ public class FlightRepository {
         .count() > 0)
         .collect(Collectors.toList());
     }
+
+    private <T> T get(RemoteCache<String, T> cache, String id) {
+        if (cache == null) {
+            return null;
+        }
+        GridOperationEvent event = new GridOperationEvent(cache.getName(), "get", id);
+        event.begin();
+        T value = cache.get(id);
+        event.commit(value);
+        return value;
+    }
+
+    private <T> void put(RemoteCache<String, T> cache, String id, T value) {
+        if (cache == null) {
+            return;
+        }
+        GridOperationEvent event = new GridOperationEvent(cache.getName(), "put", id);
+        event.begin();
+        cache.put(id, value);
+        event.commit(value);
+    }
+
+    private <T> CompletableFuture<T> putAsync(RemoteCache<String, T> cache, String id, T value) {
+        if (cache == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        GridOperationEvent event = new GridOperationEvent(cache.getName(), "putAsync", id);
+        event.begin();
+        CompletableFuture<T> previousValue = cache.putAsync(id, value);
+        previousValue.whenComplete((previous, e) -> event.commit(value));
+        return previousValue;
+    }
+
+    /**
+     * Get the values of many keys, with one getAll for every interconnections.grid.bulk-batch-size keys, all of them at once
+     * @param cache the cache of the keys
+     * @param ids the keys
+     * @return the values of the keys that are found
+     */
+    private <T> CompletableFuture<Map<String, T>> getAllAsync(RemoteCache<String, T> cache, Set<String> ids) {
+        if (cache == null || ids.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        }
+        List<CompletableFuture<Map<String, T>>> batches = new ArrayList<>();
+        for (List<String> batch : toBatches(ids)) {
+            GridOperationEvent event = new GridOperationEvent(cache.getName(), "getAllAsync", batch.get(0), batch.size());
+            event.begin();
+            CompletableFuture<Map<String, T>> values = cache.getAllAsync(new LinkedHashSet<>(batch));
+            values.whenComplete((value, e) -> event.commit(value));
+            batches.add(values);
+        }
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Map<String, T> values = new HashMap<>();
+            batches.forEach(batch -> values.putAll(batch.join()));
+            return values;
+        });
+    }
+
+    /**
+     * Put many values, with one putAll for every interconnections.grid.bulk-batch-size keys, all of them at once
+     * @param cache the cache of the keys
+     * @param values the values of every key
+     * @return a future completed when every batch is stored
+     */
+    private <T> CompletableFuture<Void> putAllAsync(RemoteCache<String, T> cache, Map<String, T> values) {
+        if (cache == null || values.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (List<String> batch : toBatches(values.keySet())) {
+            Map<String, T> batchValues = new LinkedHashMap<>();
+            batch.forEach(id -> batchValues.put(id, values.get(id)));
+            GridOperationEvent event = new GridOperationEvent(cache.getName(), "putAllAsync", batch.get(0), batch.size());
+            event.begin();
+            CompletableFuture<Void> stored = cache.putAllAsync(batchValues);
+            stored.whenComplete((ignored, e) -> event.commit(batchValues));
+            batches.add(stored);
+        }
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Split keys into batches of interconnections.grid.bulk-batch-size keys, or into one batch if it is not positive
+     */
+    private List<List<String>> toBatches(Collection<String> ids) {
+        int batchSize = bulkBatchSize > 0 ? bulkBatchSize : ids.size();
+        List<List<String>> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>(Math.min(batchSize, ids.size()));
+        for (String id : ids) {
+            if (batch.size() == batchSize) {
+                batches.add(batch);
+                batch = new ArrayList<>(Math.min(batchSize, ids.size()));
+            }
+            batch.add(id);
+        }
+        batches.add(batch);
+        return batches;
+    }
+
+    /**
+     * Wait for a bulk operation, throwing the error of the data grid as the single key operations do
+     */
+    private static <T> T join(CompletableFuture<T> operation) {
+        try {
+            return operation.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
 }
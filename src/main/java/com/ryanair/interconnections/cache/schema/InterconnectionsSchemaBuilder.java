@@ -4,6 +4,7 @@ import com.ryanair.interconnections.api.model.adapter.LocalDateTimeAdapter;
 import com.ryanair.interconnections.api.model.response.FlightLegResponse;
 import com.ryanair.interconnections.api.model.response.FlightResponse;
 import com.ryanair.interconnections.api.model.response.InterconnectionResponse;
+import com.ryanair.interconnections.api.model.response.SerializedResponse;
 
 import org.infinispan.protostream.GeneratedSchema;
 import org.infinispan.protostream.annotations.AutoProtoSchemaBuilder;
@@ -11,5 +12,5 @@ import org.infinispan.protostream.annotations.AutoProtoSchemaBuilder;
 @AutoProtoSchemaBuilder(schemaPackageName = "flight", 
 schemaFileName = "flight.proto", 
 schemaFilePath = "proto/", 
-includeClasses = {LocalDateTimeAdapter.class, FlightLegResponse.class, FlightResponse.class, InterconnectionResponse.class})
+includeClasses = {LocalDateTimeAdapter.class, FlightLegResponse.class, FlightResponse.class, InterconnectionResponse.class, SerializedResponse.class})
 public interface InterconnectionsSchemaBuilder extends GeneratedSchema {}
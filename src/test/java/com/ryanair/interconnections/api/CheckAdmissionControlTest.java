@@ -0,0 +1,43 @@
+package com.ryanair.interconnections.api;
+
+import com.ryanair.interconnections.api.admission.AdmissionControl;
+import com.ryanair.interconnections.api.exception.ClientQuotaExceededException;
+import com.ryanair.interconnections.api.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+public class CheckAdmissionControlTest {
+
+    @Test
+    public void checkSearchesOverTheLimitAreShedWithRetryAfter() {
+        AdmissionControl admissionControl = new AdmissionControl(2, 20, 8, 3, new SimpleMeterRegistry());
+        AdmissionControl.Permit first = admissionControl.admit(null);
+        AdmissionControl.Permit second = admissionControl.admit("client");
+
+        ServiceOverloadedException e = Assertions.assertThrows(ServiceOverloadedException.class, () -> admissionControl.admit(null));
+        Assertions.assertEquals("3", e.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        // A closed permit can be used by the next search, and closing it twice does not free another one
+        first.close();
+        first.close();
+        AdmissionControl.Permit third = admissionControl.admit(null);
+        Assertions.assertThrows(ServiceOverloadedException.class, () -> admissionControl.admit(null));
+        second.close();
+        third.close();
+    }
+
+    @Test
+    public void checkClientsHaveAQuotaOfSearchesInFlight() {
+        AdmissionControl admissionControl = new AdmissionControl(10, 20, 1, 1, new SimpleMeterRegistry());
+        AdmissionControl.Permit permit = admissionControl.admit("client");
+
+        Assertions.assertThrows(ClientQuotaExceededException.class, () -> admissionControl.admit("client"));
+        admissionControl.admit("other client").close();
+        admissionControl.admit(null).close();
+
+        permit.close();
+        admissionControl.admit("client").close();
+    }
+}
@@ -0,0 +1,129 @@
+package com.ryanair.interconnections.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ryanair.interconnections.api.client.RoutesClient;
+import com.ryanair.interconnections.api.client.SchedulesClient;
+import com.ryanair.interconnections.api.metrics.SearchMetrics;
+import com.ryanair.interconnections.api.model.route.Route;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.Invocation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@SpringBootTest(properties = "logging.config=classpath:logback-spring.xml")
+@AutoConfigureMockMvc
+public class CheckBatchControllerTest {
+
+    private static final String BATCH = "["
+            + "{\"departure\": \"MAD\", \"arrival\": \"DUB\", \"departureDateTime\": \"2020-09-10T07:00\", \"arrivalDateTime\": \"2020-09-12T21:00\"},"
+            + "{\"departure\": \"MAD\", \"arrival\": \"DUB\", \"departureDateTime\": \"2020-09-10T07:00\", \"arrivalDateTime\": \"2020-09-12T21:00\", \"sort\": \"duration\", \"limit\": 5},"
+            + "{\"departure\": \"DUB\", \"arrival\": \"MAD\", \"departureDateTime\": \"2020-09-11T07:00\", \"arrivalDateTime\": \"2020-09-11T21:00\"},"
+            + "{\"departure\": \"MAD\", \"arrival\": \"DUB\", \"departureDateTime\": \"2020-09-12T07:00\", \"arrivalDateTime\": \"2020-09-10T21:00\"}"
+            + "]";
+
+    @MockBean
+    private RoutesClient routesClient;
+
+    @MockBean
+    private SchedulesClient schedulesClient;
+
+    private final MockMvc mockMvc;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    public CheckBatchControllerTest(MockMvc mockMvc, MeterRegistry meterRegistry) {
+        this.mockMvc = mockMvc;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @BeforeEach
+    public void setup() {
+        StubbedUpstream.stub(routesClient, schedulesClient);
+    }
+
+    @Test
+    public void checkBatchMatchesEverySearch() throws Exception {
+        JsonNode results = objectMapper.readTree(mockMvc.perform(MockMvcRequestBuilders.post("/interconnections/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BATCH))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        Assertions.assertEquals(4, results.size());
+        Assertions.assertEquals(200, results.get(0).get("status").asInt());
+        Assertions.assertEquals(200, results.get(1).get("status").asInt());
+        Assertions.assertEquals(200, results.get(2).get("status").asInt());
+        Assertions.assertEquals(400, results.get(3).get("status").asInt());
+        Assertions.assertNull(results.get(3).get("flights"));
+        Assertions.assertNotNull(results.get(3).get("message"));
+        Assertions.assertEquals("DUB", results.get(2).get("query").get("departure").asText());
+
+        // Every result has the flights of the same search made alone
+        Assertions.assertFalse(results.get(0).get("flights").isEmpty());
+        Assertions.assertEquals(search("departure=MAD&arrival=DUB&departureDateTime=2020-09-10T07:00&arrivalDateTime=2020-09-12T21:00"),
+                results.get(0).get("flights"));
+        Assertions.assertEquals(5, results.get(1).get("flights").size());
+        Assertions.assertEquals(search("departure=MAD&arrival=DUB&departureDateTime=2020-09-10T07:00&arrivalDateTime=2020-09-12T21:00&sort=duration&limit=5"),
+                results.get(1).get("flights"));
+        Assertions.assertEquals(results.get(1).get("nextCursor").asText(), mockMvc.perform(MockMvcRequestBuilders.get("/interconnections"
+                        + "?departure=MAD&arrival=DUB&departureDateTime=2020-09-10T07:00&arrivalDateTime=2020-09-12T21:00&sort=duration&limit=5"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor"));
+        Assertions.assertEquals(search("departure=DUB&arrival=MAD&departureDateTime=2020-09-11T07:00&arrivalDateTime=2020-09-11T21:00"),
+                results.get(2).get("flights"));
+    }
+
+    @Test
+    public void checkBatchSharesRoutesAndTimetables() throws Exception {
+        long hubs = meterRegistry.get("interconnections.search.hubs").summary().count();
+        long fetches = meterRegistry.get("interconnections.search.stage").tag("stage", SearchMetrics.FETCH_STAGE).timer().count();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/interconnections/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BATCH));
+
+        // The routes are downloaded and the timetables are awaited once, and the hubs are found once per valid search
+        Mockito.verify(routesClient, Mockito.times(1)).getRoutes(Mockito.any());
+        Assertions.assertEquals(hubs + 3, meterRegistry.get("interconnections.search.hubs").summary().count());
+        Assertions.assertEquals(fetches + 1, meterRegistry.get("interconnections.search.stage").tag("stage", SearchMetrics.FETCH_STAGE).timer().count());
+
+        // Every timetable is fetched once, although the first two searches need the same ones
+        List<String> timetables = Mockito.mockingDetails(schedulesClient).getInvocations()
+                .stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("getSchedule"))
+                .map(CheckBatchControllerTest::timetable)
+                .collect(Collectors.toList());
+        Set<String> distinctTimetables = new HashSet<>(timetables);
+        Assertions.assertFalse(timetables.isEmpty());
+        Assertions.assertEquals(distinctTimetables.size(), timetables.size());
+    }
+
+    private static String timetable(Invocation invocation) {
+        Route route = invocation.getArgument(0);
+        LocalDateTime dateTime = invocation.getArgument(1);
+        return route.getAirportFrom() + route.getAirportTo() + YearMonth.from(dateTime);
+    }
+
+    private JsonNode search(String query) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(MockMvcRequestBuilders.get("/interconnections?" + query))
+                .andReturn().getResponse().getContentAsString());
+    }
+}
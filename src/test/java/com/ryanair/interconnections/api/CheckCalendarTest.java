@@ -0,0 +1,105 @@
+package com.ryanair.interconnections.api;
+
+import com.ryanair.interconnections.api.client.SchedulesClient;
+import com.ryanair.interconnections.api.metrics.SearchMetrics;
+import com.ryanair.interconnections.api.model.calendar.CalendarDay;
+import com.ryanair.interconnections.api.model.plan.FetchPlan;
+import com.ryanair.interconnections.api.model.route.Route;
+import com.ryanair.interconnections.api.model.schedule.LegTimetable;
+import com.ryanair.interconnections.api.model.schedule.ConnectionRules;
+import com.ryanair.interconnections.api.model.schedule.Day;
+import com.ryanair.interconnections.api.model.schedule.Schedule;
+import com.ryanair.interconnections.api.service.SchedulesOneStopService;
+import com.ryanair.interconnections.api.snapshot.WarmCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class CheckCalendarTest {
+
+    private final Route directRoute = RandomSchedules.route("MAD", "DUB");
+    private final List<List<Route>> oneStopRoutes = Arrays.asList(
+            Arrays.asList(RandomSchedules.route("MAD", "STN"), RandomSchedules.route("STN", "DUB")),
+            Arrays.asList(RandomSchedules.route("MAD", "BGY"), RandomSchedules.route("BGY", "DUB")));
+
+    private final SchedulesClient schedulesClient = new SchedulesClient(new SimpleMeterRegistry(), 0.1, null, WarmCache.disabled()) {
+        @Override
+        public Schedule getSchedule(Route route, LocalDateTime dateTime, Duration timeout) {
+            return schedule(route, dateTime);
+        }
+    };
+
+    private static Schedule schedule(Route route, LocalDateTime dateTime) {
+        return RandomSchedules.schedule(route, dateTime, 4);
+    }
+
+    private static List<LocalDateTime[]> flightsOfDay(Route route, LocalDate date) {
+        List<LocalDateTime[]> flights = new ArrayList<>();
+        for (Day day : schedule(route, date.atStartOfDay()).getDays()) {
+            if (day.getDay() == date.getDayOfMonth()) {
+                day.getFlights().forEach(flight -> flights.add(new LocalDateTime[]{
+                        date.atTime(flight.getDepartureTime()), date.atTime(flight.getArrivalTime())}));
+            }
+        }
+        return flights;
+    }
+
+    /**
+     * Compare every day of the calendar with every pair of legs of the day that meets the connection rules
+     */
+    private void checkCalendar(ConnectionRules connectionRules) {
+        SchedulesOneStopService schedulesOneStopService = new SchedulesOneStopService(schedulesClient, Runnable::run, new SearchMetrics(new SimpleMeterRegistry()), connectionRules);
+        LocalDate from = LocalDate.parse("2021-01-20");
+        LocalDate to = LocalDate.parse("2021-03-10");
+
+        FetchPlan<LegTimetable> fetchPlan = schedulesOneStopService.newFetchPlan();
+        schedulesOneStopService.planCalendar(fetchPlan, oneStopRoutes, directRoute, from, to);
+        List<CalendarDay> calendar = schedulesOneStopService.getCalendar(oneStopRoutes, directRoute, from, to, fetchPlan);
+
+        Assertions.assertTrue(RandomSchedules.hasOvernightFlights(schedule(directRoute, from.atStartOfDay())));
+        Assertions.assertEquals(from.until(to, ChronoUnit.DAYS) + 1, calendar.size());
+        for (CalendarDay calendarDay : calendar) {
+            List<LocalDateTime> departures = new ArrayList<>();
+            List<LocalDateTime> arrivals = new ArrayList<>();
+            List<LocalDateTime[]> directFlights = flightsOfDay(directRoute, calendarDay.getDate());
+            directFlights.forEach(flight -> {
+                departures.add(flight[0]);
+                arrivals.add(flight[1]);
+            });
+            int oneStopItineraries = 0;
+            for (List<Route> oneStopRoute : oneStopRoutes) {
+                for (LocalDateTime[] firstLeg : flightsOfDay(oneStopRoute.get(0), calendarDay.getDate())) {
+                    for (LocalDateTime[] secondLeg : flightsOfDay(oneStopRoute.get(1), calendarDay.getDate())) {
+                        long layover = firstLeg[1].until(secondLeg[0], ChronoUnit.MINUTES);
+                        if (layover >= connectionRules.getMinConnectionMinutes(oneStopRoute.get(0).getAirportTo())
+                                && layover <= connectionRules.getMaxLayoverMinutes(null)) {
+                            oneStopItineraries++;
+                            departures.add(firstLeg[0]);
+                            arrivals.add(secondLeg[1]);
+                        }
+                    }
+                }
+            }
+
+            Assertions.assertEquals(directFlights.size(), calendarDay.getDirectItineraries());
+            Assertions.assertEquals(oneStopItineraries, calendarDay.getOneStopItineraries());
+            Assertions.assertEquals(departures.isEmpty() ? null : Collections.min(departures), calendarDay.getEarliestDepartureDateTime());
+            Assertions.assertEquals(arrivals.isEmpty() ? null : Collections.min(arrivals), calendarDay.getEarliestArrivalDateTime());
+        }
+    }
+
+    @Test
+    public void checkCalendarMatchesDailySearches() {
+        checkCalendar(ConnectionRules.defaults());
+        checkCalendar(ConnectionRules.of(120, "STN:45", 300));
+    }
+}
@@ -0,0 +1,162 @@
+package com.ryanair.interconnections.api;
+
+import com.ryanair.interconnections.api.client.SchedulesClient;
+import com.ryanair.interconnections.api.metrics.SearchMetrics;
+import com.ryanair.interconnections.api.model.airport.RouteNetwork;
+import com.ryanair.interconnections.api.model.plan.Deadline;
+import com.ryanair.interconnections.api.model.response.FlightLegResponse;
+import com.ryanair.interconnections.api.model.route.Route;
+import com.ryanair.interconnections.api.model.scan.AirportIndex;
+import com.ryanair.interconnections.api.model.scan.ConnectionTimetable;
+import com.ryanair.interconnections.api.model.schedule.ConnectionRules;
+import com.ryanair.interconnections.api.model.schedule.LegTimetable;
+import com.ryanair.interconnections.api.model.schedule.Schedule;
+import com.ryanair.interconnections.api.service.ConnectionScanService;
+import com.ryanair.interconnections.api.service.RoutesOneStopService;
+import com.ryanair.interconnections.api.snapshot.WarmCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class CheckConnectionScanTest {
+
+    private static final List<String> AIRPORTS = List.of("MAD", "DUB", "STN", "BGY", "CIA");
+    private static final List<Route> ROUTES = routes();
+    private static final ConnectionRules CONNECTION_RULES = ConnectionRules.of(120, "STN:45,BGY:180", 0);
+
+    private static List<Route> routes() {
+        List<Route> routes = new ArrayList<>();
+        for (String from : AIRPORTS) {
+            for (String to : AIRPORTS) {
+                if (!from.equals(to)) {
+                    routes.add(new Route(from, to, null, false, false, "RYANAIR", "GENERIC"));
+                }
+            }
+        }
+        return routes;
+    }
+
+    private static Schedule schedule(Route route, LocalDateTime dateTime) {
+        return RandomSchedules.schedule(route, dateTime, 2);
+    }
+
+    /**
+     * The earliest arrival of every itinerary up to a number of legs, trying every flight of every route.
+     * As in the scan, a flight that crosses midnight arrives in the same day of its departure, so it is not a connection
+     */
+    private static int bruteForceEarliestArrival(List<LegTimetable> timetables, String airport, int readyMinute, boolean firstLeg,
+                                                 String arrival, int arrivalMinute, int legs) {
+        int earliestArrival = Integer.MAX_VALUE;
+        if (legs == 0) {
+            return earliestArrival;
+        }
+        for (LegTimetable timetable : timetables) {
+            if (!timetable.getDepartureAirport().equals(airport)) {
+                continue;
+            }
+            for (int flight = 0; flight < timetable.size(); flight++) {
+                if (timetable.getDepartureMinute(flight) < (firstLeg ? readyMinute : readyMinute + CONNECTION_RULES.getMinConnectionMinutes(airport))
+                        || timetable.getArrivalMinute(flight) > arrivalMinute
+                        || timetable.getArrivalMinute(flight) < timetable.getDepartureMinute(flight)) {
+                    continue;
+                }
+                if (timetable.getArrivalAirport().equals(arrival)) {
+                    earliestArrival = Math.min(earliestArrival, timetable.getArrivalMinute(flight));
+                } else {
+                    earliestArrival = Math.min(earliestArrival, bruteForceEarliestArrival(timetables, timetable.getArrivalAirport(),
+                            timetable.getArrivalMinute(flight), false, arrival, arrivalMinute, legs - 1));
+                }
+            }
+        }
+        return earliestArrival;
+    }
+
+    private static void checkItinerary(List<FlightLegResponse> itinerary, String departure, String arrival,
+                                       LocalDateTime departureDateTime, LocalDateTime arrivalDateTime) {
+        Assertions.assertEquals(departure, itinerary.get(0).getDepartureAirport());
+        Assertions.assertEquals(arrival, itinerary.get(itinerary.size() - 1).getArrivalAirport());
+        Assertions.assertFalse(itinerary.get(0).getDepartureDateTime().isBefore(departureDateTime));
+        Assertions.assertFalse(itinerary.get(itinerary.size() - 1).getArrivalDateTime().isAfter(arrivalDateTime));
+        for (int leg = 1; leg < itinerary.size(); leg++) {
+            Assertions.assertEquals(itinerary.get(leg - 1).getArrivalAirport(), itinerary.get(leg).getDepartureAirport());
+            Assertions.assertFalse(itinerary.get(leg - 1).getArrivalDateTime()
+                    .plusMinutes(CONNECTION_RULES.getMinConnectionMinutes(itinerary.get(leg).getDepartureAirport())).isAfter(itinerary.get(leg).getDepartureDateTime()));
+        }
+    }
+
+    @Test
+    public void checkScanMatchesEveryItinerary() {
+        LocalDateTime month = LocalDateTime.parse("2021-03-01T00:00");
+        List<LegTimetable> timetables = new ArrayList<>();
+        ROUTES.forEach(route -> timetables.add(LegTimetable.of(route, month, schedule(route, month))));
+        Assertions.assertTrue(ROUTES.stream().anyMatch(route -> RandomSchedules.hasOvernightFlights(schedule(route, month))));
+        AirportIndex airports = new AirportIndex();
+        List<ConnectionTimetable> months = List.of(ConnectionTimetable.of(timetables, airports));
+        int[] minConnectionMinutes = new int[airports.size()];
+        for (int airport = 0; airport < minConnectionMinutes.length; airport++) {
+            minConnectionMinutes[airport] = CONNECTION_RULES.getMinConnectionMinutes(airports.getCode(airport));
+        }
+
+        Random random = new Random(47);
+        int found = 0;
+        for (int query = 0; query < 200; query++) {
+            String departure = AIRPORTS.get(random.nextInt(AIRPORTS.size()));
+            String arrival = AIRPORTS.get(random.nextInt(AIRPORTS.size()));
+            if (departure.equals(arrival)) {
+                continue;
+            }
+            LocalDateTime departureDateTime = month.plusDays(random.nextInt(25)).plusMinutes(random.nextInt(24 * 60));
+            LocalDateTime arrivalDateTime = departureDateTime.plusHours(4 + random.nextInt(44));
+            int maxLegs = 1 + random.nextInt(3);
+
+            List<FlightLegResponse> itinerary = ConnectionTimetable.findEarliestArrival(months, airports.size(),
+                    airports.get(departure), airports.get(arrival),
+                    LegTimetable.toEpochMinuteCeiling(departureDateTime), LegTimetable.toEpochMinuteFloor(arrivalDateTime),
+                    maxLegs, minConnectionMinutes);
+            int expectedArrival = bruteForceEarliestArrival(timetables, departure, LegTimetable.toEpochMinuteCeiling(departureDateTime), true,
+                    arrival, LegTimetable.toEpochMinuteFloor(arrivalDateTime), maxLegs);
+
+            if (expectedArrival == Integer.MAX_VALUE) {
+                Assertions.assertTrue(itinerary.isEmpty());
+                continue;
+            }
+            found++;
+            Assertions.assertTrue(itinerary.size() <= maxLegs);
+            Assertions.assertEquals(expectedArrival, LegTimetable.toEpochMinuteFloor(itinerary.get(itinerary.size() - 1).getArrivalDateTime()));
+            checkItinerary(itinerary, departure, arrival, departureDateTime, arrivalDateTime);
+        }
+        Assertions.assertTrue(found > 0);
+    }
+
+    @Test
+    public void checkServiceScansConsecutiveMonths() {
+        SchedulesClient schedulesClient = new SchedulesClient(new SimpleMeterRegistry(), 0.1, null, WarmCache.disabled()) {
+            @Override
+            public Schedule getSchedule(Route route, LocalDateTime dateTime, Duration timeout) {
+                return schedule(route, dateTime);
+            }
+        };
+        RoutesOneStopService routesOneStopService = new RoutesOneStopService(null, new SearchMetrics(new SimpleMeterRegistry())) {
+            @Override
+            public RouteNetwork getRouteNetwork(Deadline deadline) {
+                return new RouteNetwork(ROUTES);
+            }
+        };
+        ConnectionScanService connectionScanService = new ConnectionScanService(routesOneStopService, schedulesClient, Runnable::run, CONNECTION_RULES, true, 2, 600_000);
+        LocalDateTime departureDateTime = LocalDateTime.parse("2021-03-31T20:00");
+        LocalDateTime arrivalDateTime = LocalDateTime.parse("2021-04-02T20:00");
+
+        List<FlightLegResponse> itinerary = connectionScanService.findEarliestArrival("MAD", "DUB", departureDateTime, arrivalDateTime, 3, Deadline.none());
+
+        Assertions.assertFalse(itinerary.isEmpty());
+        checkItinerary(itinerary, "MAD", "DUB", departureDateTime, arrivalDateTime);
+        Assertions.assertTrue(connectionScanService.findEarliestArrival("MAD", "XXX", departureDateTime, arrivalDateTime, 3, Deadline.none()).isEmpty());
+        connectionScanService.shutdown();
+    }
+}
@@ -0,0 +1,107 @@
+package com.ryanair.interconnections.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.ryanair.interconnections.api.client.RoutesClient;
+import com.ryanair.interconnections.api.client.SchedulesClient;
+import com.ryanair.interconnections.api.model.response.InterconnectionResponse;
+import com.ryanair.interconnections.cache.schema.InterconnectionsSchemaBuilderImpl;
+import org.infinispan.protostream.GeneratedSchema;
+import org.infinispan.protostream.ProtobufUtil;
+import org.infinispan.protostream.SerializationContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+@SpringBootTest(properties = "logging.config=classpath:logback-spring.xml")
+@AutoConfigureMockMvc
+public class CheckContentNegotiationTest {
+
+    private static final String SEARCH = "/interconnections?departure=MAD&arrival=DUB&departureDateTime=2020-09-10T07:00&arrivalDateTime=2020-09-12T21:00";
+
+    @MockBean
+    private RoutesClient routesClient;
+
+    @MockBean
+    private SchedulesClient schedulesClient;
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public CheckContentNegotiationTest(MockMvc mockMvc, ObjectMapper objectMapper) {
+        this.mockMvc = mockMvc;
+        this.objectMapper = objectMapper;
+    }
+
+    @BeforeEach
+    public void setup() {
+        StubbedUpstream.stub(routesClient, schedulesClient);
+    }
+
+    @Test
+    public void checkEveryMediaTypeHasTheSameFlights() throws Exception {
+        JsonNode flights = objectMapper.readTree(search(null, MediaType.APPLICATION_JSON).getContentAsByteArray());
+        Assertions.assertFalse(flights.isEmpty());
+        Assertions.assertEquals(flights, objectMapper.readTree(search(MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_JSON).getContentAsByteArray()));
+
+        Assertions.assertEquals(flights, new ObjectMapper(new SmileFactory())
+                .readTree(search("application/x-jackson-smile", new MediaType("application", "x-jackson-smile")).getContentAsByteArray()));
+        Assertions.assertEquals(flights, new ObjectMapper(new CBORFactory())
+                .readTree(search(MediaType.APPLICATION_CBOR_VALUE, MediaType.APPLICATION_CBOR).getContentAsByteArray()));
+
+        // The protobuf response is an InterconnectionResponse message of the schema published in /schema/flight.proto
+        GeneratedSchema schema = new InterconnectionsSchemaBuilderImpl();
+        SerializationContext serializationContext = ProtobufUtil.newSerializationContext();
+        schema.registerSchema(serializationContext);
+        schema.registerMarshallers(serializationContext);
+        InterconnectionResponse response = ProtobufUtil.fromByteArray(serializationContext,
+                search("application/x-protobuf", new MediaType("application", "x-protobuf")).getContentAsByteArray(), InterconnectionResponse.class);
+        Assertions.assertEquals(flights, objectMapper.valueToTree(response.getFlightList()));
+    }
+
+    @Test
+    public void checkAcceptHeaderIsNegotiated() throws Exception {
+        // The most specific and preferred media type wins, and a wildcard gets JSON
+        search("application/cbor;q=0.5, application/x-jackson-smile", new MediaType("application", "x-jackson-smile"));
+        search("application/*;q=0.9, application/x-protobuf", new MediaType("application", "x-protobuf"));
+        search("*/*", MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(SEARCH).header(HttpHeaders.ACCEPT, "text/csv"))
+                .andExpect(MockMvcResultMatchers.status().isNotAcceptable());
+    }
+
+    @Test
+    public void checkFlightSchemaIsPublished() throws Exception {
+        String proto = mockMvc.perform(MockMvcRequestBuilders.get("/schema/flight.proto"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+                .andReturn().getResponse().getContentAsString();
+        Assertions.assertEquals(new InterconnectionsSchemaBuilderImpl().getProtoFile(), proto);
+        Assertions.assertTrue(proto.contains("message InterconnectionResponse"));
+        Assertions.assertTrue(proto.contains("message FlightResponse"));
+    }
+
+    private MockHttpServletResponse search(String accept, MediaType expectedMediaType) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(accept == null
+                        ? MockMvcRequestBuilders.get(SEARCH)
+                        : MockMvcRequestBuilders.get(SEARCH).header(HttpHeaders.ACCEPT, accept))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(expectedMediaType))
+                .andReturn().getResponse();
+        Assertions.assertTrue(response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+        return response;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ryanair.interconnections.api;
+
+import com.ryanair.interconnections.cache.health.DataGridHealthIndicator;
+import com.ryanair.interconnections.cache.manager.InterconnectionsCacheManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.infinispan.client.hotrod.RemoteCacheManager;
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+public class CheckDataGridDegradedTest {
+
+    private final RemoteCacheManager remoteCacheManager = new RemoteCacheManager(new ConfigurationBuilder()
+            .addServer().host("127.0.0.1").port(1)
+            .connectionTimeout(100)
+            .maxRetries(0)
+            .build());
+    private final InterconnectionsCacheManager cacheManager = new InterconnectionsCacheManager(remoteCacheManager, new SimpleMeterRegistry(), 100);
+
+    @AfterEach
+    public void shutdown() {
+        cacheManager.shutdown();
+        remoteCacheManager.stop();
+    }
+
+    @Test
+    public void checkUnreachableGridIsDegraded() throws InterruptedException {
+        // Attaching does not block the caller, and it keeps retrying
+        long start = System.nanoTime();
+        cacheManager.attachAsync();
+        Assertions.assertTrue(System.nanoTime() - start < 100_000_000L);
+        Thread.sleep(500);
+
+        Assertions.assertFalse(cacheManager.isAttached());
+        Assertions.assertNull(cacheManager.getFlightCache());
+        Assertions.assertTrue(cacheManager.getAttempts() > 1);
+        Assertions.assertNotNull(cacheManager.getLastError());
+
+        Health health = new DataGridHealthIndicator(cacheManager, false).health();
+        Assertions.assertEquals(DataGridHealthIndicator.DEGRADED, health.getStatus());
+        Assertions.assertEquals(Status.OUT_OF_SERVICE, new DataGridHealthIndicator(cacheManager, true).health().getStatus());
+    }
+}
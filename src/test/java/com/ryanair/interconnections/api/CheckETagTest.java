@@ -0,0 +1,78 @@
+package com.ryanair.interconnections.api;
+
+import com.ryanair.interconnections.api.client.RoutesClient;
+import com.ryanair.interconnections.api.client.SchedulesClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.util.DigestUtils;
+
+@SpringBootTest(properties = "logging.config=classpath:logback-spring.xml")
+@AutoConfigureMockMvc
+public class CheckETagTest {
+
+    private static final String SEARCH = "/interconnections?departure=DUB&arrival=MAD&departureDateTime=2020-09-20T07:00&arrivalDateTime=2020-09-22T21:00";
+
+    @MockBean
+    private RoutesClient routesClient;
+
+    @MockBean
+    private SchedulesClient schedulesClient;
+
+    private final MockMvc mockMvc;
+
+    @Autowired
+    public CheckETagTest(MockMvc mockMvc) {
+        this.mockMvc = mockMvc;
+    }
+
+    @BeforeEach
+    public void setup() {
+        StubbedUpstream.stub(routesClient, schedulesClient);
+    }
+
+    @Test
+    public void checkETagIsTheHashOfTheBody() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get(SEARCH))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse();
+        String eTag = response.getHeader(HttpHeaders.ETAG);
+        Assertions.assertEquals("\"" + DigestUtils.md5DigestAsHex(response.getContentAsByteArray()) + "\"", eTag);
+
+        // The same search keeps its ETag, and another page or media type has its own
+        mockMvc.perform(MockMvcRequestBuilders.get(SEARCH))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, eTag));
+        Assertions.assertNotEquals(eTag, mockMvc.perform(MockMvcRequestBuilders.get(SEARCH + "&limit=3"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+        Assertions.assertNotEquals(eTag, mockMvc.perform(MockMvcRequestBuilders.get(SEARCH).header(HttpHeaders.ACCEPT, "application/cbor"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void checkMatchingETagIsNotModified() throws Exception {
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get(SEARCH))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Assertions.assertNotNull(eTag);
+
+        MockHttpServletResponse notModified = mockMvc.perform(MockMvcRequestBuilders.get(SEARCH).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, eTag))
+                .andReturn().getResponse();
+        Assertions.assertEquals(0, notModified.getContentAsByteArray().length);
+
+        // An outdated ETag, or the ETag of another media type, gets the whole body
+        mockMvc.perform(MockMvcRequestBuilders.get(SEARCH).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get(SEARCH).header(HttpHeaders.ACCEPT, "application/x-protobuf").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+}
@@ -0,0 +1,93 @@
+package com.ryanair.interconnections.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ryanair.interconnections.api.client.RoutesClient;
+import com.ryanair.interconnections.api.client.SchedulesClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@SpringBootTest(properties = "logging.config=classpath:logback-spring.xml")
+@AutoConfigureMockMvc
+public class CheckExploreControllerTest {
+
+    private static final String RANGE = "departureDateTime=2020-09-10T07:00&arrivalDateTime=2020-09-13T21:00";
+
+    @MockBean
+    private RoutesClient routesClient;
+
+    @MockBean
+    private SchedulesClient schedulesClient;
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    public CheckExploreControllerTest(MockMvc mockMvc) {
+        this.mockMvc = mockMvc;
+    }
+
+    @BeforeEach
+    public void setup() {
+        StubbedUpstream.stub(routesClient, schedulesClient);
+    }
+
+    @Test
+    public void checkExploreSummarizesEverySearch() throws Exception {
+        JsonNode destinations = get("/interconnections/explore?departure=MAD&" + RANGE);
+
+        Set<String> codes = new HashSet<>();
+        String previousArrival = null;
+        for (JsonNode destination : destinations) {
+            codes.add(destination.get("destination").asText());
+
+            // The summary has the same itineraries of the search to the destination
+            JsonNode flights = get("/interconnections?departure=MAD&arrival=" + destination.get("destination").asText() + "&" + RANGE);
+            int directItineraries = 0;
+            String earliestDeparture = null;
+            String earliestArrival = null;
+            for (JsonNode flight : flights) {
+                if (flight.get("stops").asInt() == 0) {
+                    directItineraries++;
+                }
+                JsonNode legs = flight.get("legs");
+                String departure = legs.get(0).get("departureDateTime").asText();
+                String arrival = legs.get(legs.size() - 1).get("arrivalDateTime").asText();
+                earliestDeparture = earliestDeparture == null || departure.compareTo(earliestDeparture) < 0 ? departure : earliestDeparture;
+                earliestArrival = earliestArrival == null || arrival.compareTo(earliestArrival) < 0 ? arrival : earliestArrival;
+            }
+            Assertions.assertEquals(directItineraries, destination.get("directItineraries").asInt());
+            Assertions.assertEquals(flights.size() - directItineraries, destination.get("oneStopItineraries").asInt());
+            Assertions.assertEquals(earliestDeparture, destination.get("earliestDepartureDateTime").asText());
+            Assertions.assertEquals(earliestArrival, destination.get("earliestArrivalDateTime").asText());
+
+            // The destinations are sorted by the earliest arrival
+            Assertions.assertTrue(previousArrival == null || previousArrival.compareTo(earliestArrival) <= 0);
+            previousArrival = earliestArrival;
+        }
+        Assertions.assertEquals(Set.of("DUB", "STN", "BCN"), codes);
+    }
+
+    @Test
+    public void checkInvalidExploreIsRejected() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/interconnections/explore?departure=MAD&departureDateTime=2020-09-13T07:00&arrivalDateTime=2020-09-10T21:00"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    private JsonNode get(String uri) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(MockMvcRequestBuilders.get(uri))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+}
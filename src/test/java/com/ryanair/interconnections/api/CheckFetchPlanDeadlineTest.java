@@ -0,0 +1,79 @@
+package com.ryanair.interconnections.api;
+
+import com.ryanair.interconnections.api.exception.DeadlineExceededException;
+import com.ryanair.interconnections.api.model.plan.Deadline;
+import com.ryanair.interconnections.api.model.plan.FetchPlan;
+import com.ryanair.interconnections.api.model.response.FlightLegResponse;
+import com.ryanair.interconnections.api.model.route.Route;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CheckFetchPlanDeadlineTest {
+
+    private static final LocalDateTime MONTH = LocalDateTime.parse("2021-01-01T00:00");
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AtomicInteger loadedTimetables = new AtomicInteger();
+    private final Route fastRoute = new Route("MAD", "DUB", null, false, false, "RYANAIR", null);
+    private final Route slowRoute = new Route("MAD", "STN", null, false, false, "RYANAIR", null);
+    private final Route queuedRoute = new Route("STN", "DUB", null, false, false, "RYANAIR", null);
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private List<FlightLegResponse> load(Route route, LocalDateTime dateTime) {
+        loadedTimetables.incrementAndGet();
+        if (route == slowRoute) {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return Collections.singletonList(new FlightLegResponse(route.getAirportFrom(), route.getAirportTo(), dateTime, dateTime.plusHours(2)));
+    }
+
+    private FetchPlan<List<FlightLegResponse>> newPlan(boolean partialResults) {
+        FetchPlan<List<FlightLegResponse>> fetchPlan = new FetchPlan<>(this::load, executor,
+                Deadline.after(Duration.ofMillis(200), partialResults), Collections.emptyList());
+        fetchPlan.add(fastRoute, MONTH);
+        fetchPlan.add(slowRoute, MONTH);
+        fetchPlan.add(queuedRoute, MONTH);
+        fetchPlan.await();
+        return fetchPlan;
+    }
+
+    @Test
+    public void checkPartialResults() {
+        FetchPlan<List<FlightLegResponse>> fetchPlan = newPlan(true);
+
+        Assertions.assertEquals(1, fetchPlan.getTimetable(fastRoute, MONTH).size());
+        Assertions.assertTrue(fetchPlan.getTimetable(slowRoute, MONTH).isEmpty());
+        Assertions.assertTrue(fetchPlan.getTimetable(queuedRoute, MONTH).isEmpty());
+        Assertions.assertTrue(fetchPlan.isIncomplete());
+    }
+
+    @Test
+    public void checkDeadlineExceeded() throws InterruptedException {
+        FetchPlan<List<FlightLegResponse>> fetchPlan = newPlan(false);
+
+        Assertions.assertEquals(1, fetchPlan.getTimetable(fastRoute, MONTH).size());
+        Assertions.assertThrows(DeadlineExceededException.class, () -> fetchPlan.getTimetable(slowRoute, MONTH));
+        Assertions.assertThrows(DeadlineExceededException.class, () -> fetchPlan.getTimetable(queuedRoute, MONTH));
+
+        // The timetable waiting in the executor when the deadline passed is never fetched
+        Thread.sleep(1200);
+        Assertions.assertEquals(2, loadedTimetables.get());
+    }
+}
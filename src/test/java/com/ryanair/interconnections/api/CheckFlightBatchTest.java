@@ -0,0 +1,142 @@
+package com.ryanair.interconnections.api;
+
+import com.ryanair.interconnections.api.model.plan.Deadline;
+import com.ryanair.interconnections.api.model.response.InterconnectionResponse;
+import com.ryanair.interconnections.cache.repo.FlightBatch;
+import com.ryanair.interconnections.cache.repo.FlightRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class CheckFlightBatchTest {
+
+    /**
+     * Repository over a map, that records every bulk operation
+     */
+    private static class RecordingRepository extends FlightRepository {
+        private final Map<String, InterconnectionResponse> flights = new HashMap<>();
+        private final List<Set<String>> reads = new ArrayList<>();
+        private final List<Set<String>> writes = new ArrayList<>();
+
+        @Override
+        public CompletableFuture<Map<String, InterconnectionResponse>> findAllByIdAsync(Set<String> ids) {
+            reads.add(new HashSet<>(ids));
+            Map<String, InterconnectionResponse> found = new HashMap<>();
+            ids.stream().filter(flights::containsKey).forEach(id -> found.put(id, flights.get(id)));
+            return CompletableFuture.completedFuture(found);
+        }
+
+        @Override
+        public CompletableFuture<Void> insertAllAsync(Map<String, InterconnectionResponse> flights) {
+            writes.add(new HashSet<>(flights.keySet()));
+            this.flights.putAll(flights);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    @Test
+    public void checkSearchesAreReadAndStoredTogether() {
+        RecordingRepository repository = new RecordingRepository();
+        repository.flights.put("MADDUB", new InterconnectionResponse(Collections.emptyList()));
+        repository.flights.put("DUBMAD", new InterconnectionResponse(Collections.emptyList()));
+        FlightBatch flightBatch = new FlightBatch(repository);
+        flightBatch.addKey("MADDUB");
+        flightBatch.addKey("DUBMAD");
+        flightBatch.addKey("MADSTN");
+
+        // The first stored search needed reads every search of the batch
+        Assertions.assertNotNull(flightBatch.findById("DUBMAD"));
+        Assertions.assertNotNull(flightBatch.findById("MADDUB"));
+        Assertions.assertNull(flightBatch.findById("MADSTN"));
+        Assertions.assertEquals(List.of(Set.of("MADDUB", "DUBMAD", "MADSTN")), repository.reads);
+
+        // A search added later is read on its own
+        Assertions.assertNull(flightBatch.findById("STNBGY"));
+        Assertions.assertEquals(Set.of("STNBGY"), repository.reads.get(1));
+
+        flightBatch.insert("MADSTN", new InterconnectionResponse(Collections.emptyList()));
+        flightBatch.insert("STNBGY", new InterconnectionResponse(Collections.emptyList()));
+        Assertions.assertTrue(repository.writes.isEmpty());
+        flightBatch.flush(Deadline.none());
+        flightBatch.flush(Deadline.none());
+        Assertions.assertEquals(List.of(Set.of("MADSTN", "STNBGY")), repository.writes);
+    }
+
+    @Test
+    public void checkSearchesWaitForTheReadWithoutTheLock() throws Exception {
+        CompletableFuture<Map<String, InterconnectionResponse>> read = new CompletableFuture<>();
+        List<Set<String>> reads = Collections.synchronizedList(new ArrayList<>());
+        FlightBatch flightBatch = new FlightBatch(new FlightRepository() {
+            @Override
+            public CompletableFuture<Map<String, InterconnectionResponse>> findAllByIdAsync(Set<String> ids) {
+                reads.add(new HashSet<>(ids));
+                return read;
+            }
+        });
+        flightBatch.addKey("MADDUB");
+        flightBatch.addKey("DUBMAD");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<InterconnectionResponse> first = executor.submit(() -> flightBatch.findById("MADDUB"));
+            Future<InterconnectionResponse> second = executor.submit(() -> flightBatch.findById("DUBMAD"));
+            while (reads.isEmpty()) {
+                Thread.sleep(1);
+            }
+
+            // The batch is not locked while the searches wait for the data grid
+            flightBatch.insert("MADSTN", new InterconnectionResponse(Collections.emptyList()));
+            read.complete(Map.of("MADDUB", new InterconnectionResponse(Collections.emptyList())));
+            Assertions.assertNotNull(first.get(5, TimeUnit.SECONDS));
+            Assertions.assertNull(second.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(List.of(Set.of("MADDUB", "DUBMAD")), reads);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void checkFlightsAreStoredAfterTheDeadline() {
+        RecordingRepository repository = new RecordingRepository();
+        FlightBatch flightBatch = new FlightBatch(repository);
+        flightBatch.insert("MADDUB", new InterconnectionResponse(Collections.emptyList()));
+        flightBatch.flush(Deadline.after(Duration.ZERO, false));
+        Assertions.assertEquals(List.of(Set.of("MADDUB")), repository.writes);
+    }
+
+    @Test
+    public void checkDataGridErrorsDoNotFailTheRequest() {
+        FlightBatch failedBatch = new FlightBatch(new FlightRepository() {
+            @Override
+            public CompletableFuture<Void> insertAllAsync(Map<String, InterconnectionResponse> flights) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Data grid unavailable"));
+            }
+        });
+        failedBatch.insert("MADDUB", new InterconnectionResponse(Collections.emptyList()));
+        Assertions.assertDoesNotThrow(() -> failedBatch.flush(Deadline.none()));
+        failedBatch.insert("MADDUB", new InterconnectionResponse(Collections.emptyList()));
+        Assertions.assertDoesNotThrow(() -> failedBatch.flush(Deadline.after(Duration.ofSeconds(5), false)));
+
+        FlightBatch rejectedBatch = new FlightBatch(new FlightRepository() {
+            @Override
+            public CompletableFuture<Void> insertAllAsync(Map<String, InterconnectionResponse> flights) {
+                throw new IllegalStateException("Data grid unavailable");
+            }
+        });
+        rejectedBatch.insert("MADDUB", new InterconnectionResponse(Collections.emptyList()));
+        Assertions.assertDoesNotThrow(() -> rejectedBatch.flush(Deadline.none()));
+    }
+}
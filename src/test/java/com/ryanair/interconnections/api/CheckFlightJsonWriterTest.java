@@ -0,0 +1,50 @@
+package com.ryanair.interconnections.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ryanair.interconnections.api.converter.FlightResponseJsonWriter;
+import com.ryanair.interconnections.api.model.response.FlightLegResponse;
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class CheckFlightJsonWriterTest {
+
+    private final ObjectWriter jacksonWriter = Jackson2ObjectMapperBuilder.json().build()
+            .writerFor(new TypeReference<List<FlightResponse>>() {});
+    private final FlightResponseJsonWriter flightResponseJsonWriter = new FlightResponseJsonWriter();
+
+    @Test
+    public void checkSameBytesAsJackson() throws Exception {
+        List<FlightResponse> flights = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.parse("2020-09-25T06:05");
+        for (int i = 0; i < 500; i++) {
+            LocalDateTime departure = start.plusMinutes(97L * i);
+            flights.add(new FlightResponse(0, Collections.singletonList(
+                    new FlightLegResponse("MAD", "DUB", departure, departure.plusMinutes(150)))));
+            flights.add(new FlightResponse(1, Arrays.asList(
+                    new FlightLegResponse("MAD", "STN", departure, departure.plusMinutes(140)),
+                    new FlightLegResponse("STN", "DUB", departure.plusMinutes(260), departure.plusMinutes(330)))));
+        }
+
+        Assertions.assertArrayEquals(jacksonWriter.writeValueAsBytes(flights), flightResponseJsonWriter.write(flights));
+        Assertions.assertArrayEquals(jacksonWriter.writeValueAsBytes(Collections.emptyList()), flightResponseJsonWriter.write(Collections.emptyList()));
+    }
+
+    @Test
+    public void checkSameBytesAsJacksonWithEscapesAndNulls() throws Exception {
+        List<FlightResponse> flights = Arrays.asList(
+                new FlightResponse(0, Collections.singletonList(
+                        new FlightLegResponse("M\"D", null, LocalDateTime.parse("0999-01-02T03:04"), null))),
+                new FlightResponse(2, null));
+
+        Assertions.assertArrayEquals(jacksonWriter.writeValueAsBytes(flights), flightResponseJsonWriter.write(flights));
+    }
+}
@@ -0,0 +1,71 @@
+package com.ryanair.interconnections.api;
+
+import com.ryanair.interconnections.api.exception.InvalidCursorException;
+import com.ryanair.interconnections.api.exception.InvalidLimitException;
+import com.ryanair.interconnections.api.exception.InvalidMaxLayoverException;
+import com.ryanair.interconnections.api.exception.InvalidSortException;
+import com.ryanair.interconnections.api.model.page.FlightPage;
+import com.ryanair.interconnections.api.model.page.FlightPageRequest;
+import com.ryanair.interconnections.api.model.page.FlightSort;
+import com.ryanair.interconnections.api.model.response.FlightLegResponse;
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class CheckFlightPageTest {
+
+    private List<FlightResponse> flights;
+
+    @BeforeEach
+    public void setup() {
+        flights = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.parse("2020-09-25T06:00");
+        for (int i = 0; i < 40; i++) {
+            LocalDateTime departure = start.plusMinutes(37L * (i % 13));
+            flights.add(new FlightResponse(0, Collections.singletonList(
+                    new FlightLegResponse("MAD", "DUB", departure, departure.plusMinutes(150 + i)))));
+            flights.add(new FlightResponse(1, Arrays.asList(
+                    new FlightLegResponse("MAD", "STN", departure, departure.plusMinutes(140)),
+                    new FlightLegResponse("STN", "DUB", departure.plusMinutes(260 + 5L * i), departure.plusMinutes(330 + 5L * i)))));
+        }
+    }
+
+    @Test
+    public void checkPagesMatchFullSort() {
+        for (FlightSort sort : FlightSort.values()) {
+            List<FlightResponse> expected = flights.stream()
+                    .sorted(sort.getComparator())
+                    .collect(Collectors.toList());
+
+            List<FlightResponse> actual = new ArrayList<>();
+            String cursor = null;
+            do {
+                FlightPageRequest pageRequest = FlightPageRequest.of(sort.name().toLowerCase(), 7, cursor);
+                FlightPage page = pageRequest.toPage(flights.parallelStream()
+                        .filter(pageRequest::accepts)
+                        .collect(pageRequest.collector()));
+                actual.addAll(page.getFlights());
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            Assertions.assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void checkInvalidPageRequests() {
+        Assertions.assertThrows(InvalidSortException.class, () -> FlightPageRequest.of("price", 10, null));
+        Assertions.assertThrows(InvalidLimitException.class, () -> FlightPageRequest.of("arrival", 0, null));
+        Assertions.assertThrows(InvalidCursorException.class, () -> FlightPageRequest.of("arrival", 10, "not-a-cursor"));
+        Assertions.assertThrows(InvalidMaxLayoverException.class, () -> FlightPageRequest.of(null, null, null, 0));
+        Assertions.assertNotEquals(FlightPageRequest.unpaged().getCacheKey(), FlightPageRequest.of(null, null, null, 240).getCacheKey());
+    }
+}
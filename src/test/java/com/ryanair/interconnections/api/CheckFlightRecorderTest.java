@@ -0,0 +1,70 @@
+package com.ryanair.interconnections.api;
+
+import com.ryanair.interconnections.api.jfr.FlightRecorderEndpoint;
+import com.ryanair.interconnections.api.jfr.GridOperationEvent;
+import com.ryanair.interconnections.api.jfr.OneStopJoinEvent;
+import com.ryanair.interconnections.api.model.response.SerializedResponse;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class CheckFlightRecorderTest {
+
+    private final FlightRecorderEndpoint endpoint = new FlightRecorderEndpoint();
+
+    @AfterEach
+    public void stop() {
+        endpoint.stop();
+    }
+
+    @Test
+    public void checkEventsAreDumped() throws IOException {
+        Assertions.assertNull(endpoint.dump());
+        Assertions.assertEquals("RUNNING", endpoint.start("default", 60L, 10L).get("state"));
+
+        OneStopJoinEvent joinEvent = new OneStopJoinEvent("MAD", "DUB", "2021-01", 3);
+        joinEvent.begin();
+        joinEvent.setCombinations(12);
+        joinEvent.setResults(4);
+        joinEvent.commit();
+
+        GridOperationEvent gridEvent = new GridOperationEvent("serializedResponseCache", "get", "MADDUB");
+        gridEvent.begin();
+        gridEvent.commit(new SerializedResponse(new byte[42], "hash", "application/json", null, false));
+
+        List<RecordedEvent> events = readEvents(endpoint.dump());
+        RecordedEvent recordedJoin = findEvent(events, "com.ryanair.interconnections.OneStopJoin");
+        Assertions.assertEquals("MAD", recordedJoin.getString("departure"));
+        Assertions.assertEquals(12, recordedJoin.getLong("combinations"));
+        Assertions.assertEquals(4, recordedJoin.getInt("results"));
+
+        RecordedEvent recordedGet = findEvent(events, "com.ryanair.interconnections.GridOperation");
+        Assertions.assertTrue(recordedGet.getBoolean("found"));
+        Assertions.assertEquals(42, recordedGet.getLong("payloadBytes"));
+    }
+
+    private static List<RecordedEvent> readEvents(Resource dump) throws IOException {
+        Path file = Files.createTempFile("check-", ".jfr");
+        try {
+            Files.write(file, dump.getInputStream().readAllBytes());
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static RecordedEvent findEvent(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Missing event " + name));
+    }
+}
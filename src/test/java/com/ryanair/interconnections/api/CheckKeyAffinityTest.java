@@ -0,0 +1,76 @@
+package com.ryanair.interconnections.api;
+
+import com.ryanair.interconnections.cache.manager.KeyAffinity;
+import org.infinispan.commons.marshall.ProtoStreamMarshaller;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class CheckKeyAffinityTest {
+
+    private static final int NUM_SEGMENTS = 256;
+    private static final ProtoStreamMarshaller MARSHALLER = new ProtoStreamMarshaller();
+    private static final Function<Object, byte[]> KEY_TO_BYTES = key -> {
+        try {
+            return MARSHALLER.objectToByteBuffer(key);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    };
+
+    @Test
+    public void checkKeysOfADepartureShareItsSegment() {
+        for (String departure : List.of("MAD", "DUB", "STN")) {
+            int groupSegment = KeyAffinity.getSegment(KEY_TO_BYTES, NUM_SEGMENTS, departure);
+            Set<Integer> plainSegments = new HashSet<>();
+            Set<String> groupedKeys = new HashSet<>();
+            for (String arrival : List.of("DUB", "STN", "BGY", "CIA", "WRO", "BCN", "AGP", "LIS")) {
+                for (int day = 10; day < 20; day++) {
+                    String key = departure + arrival + "2020-09-" + day + "T06:00" + "2020-09-" + day + "T23:00";
+                    String groupedKey = KeyAffinity.toGroupedKey(KEY_TO_BYTES, NUM_SEGMENTS, departure, key);
+
+                    Assertions.assertTrue(groupedKey.startsWith(key));
+                    Assertions.assertEquals(groupedKey, KeyAffinity.toGroupedKey(KEY_TO_BYTES, NUM_SEGMENTS, departure, key));
+                    Assertions.assertEquals(groupSegment, KeyAffinity.getSegment(KEY_TO_BYTES, NUM_SEGMENTS, groupedKey));
+                    plainSegments.add(KeyAffinity.getSegment(KEY_TO_BYTES, NUM_SEGMENTS, key));
+                    groupedKeys.add(groupedKey);
+                }
+            }
+            // Without grouping the keys of a departure are spread over many segments
+            Assertions.assertTrue(plainSegments.size() > 10);
+            Assertions.assertEquals(80, groupedKeys.size());
+        }
+    }
+
+    @Test
+    public void checkGroupedKeysAreMemoized() {
+        AtomicInteger marshalledKeys = new AtomicInteger();
+        Function<Object, byte[]> countingKeyToBytes = key -> {
+            marshalledKeys.incrementAndGet();
+            return KEY_TO_BYTES.apply(key);
+        };
+        KeyAffinity.GroupedKeyCache groupedKeys = new KeyAffinity.GroupedKeyCache(2);
+        String key = "MADDUB2020-09-10T06:002020-09-10T23:00";
+
+        String groupedKey = groupedKeys.toGroupedKey(countingKeyToBytes, NUM_SEGMENTS, "MAD", key);
+        int firstMarshalledKeys = marshalledKeys.get();
+        Assertions.assertEquals(KeyAffinity.toGroupedKey(KEY_TO_BYTES, NUM_SEGMENTS, "MAD", key), groupedKey);
+        Assertions.assertSame(groupedKey, groupedKeys.toGroupedKey(countingKeyToBytes, NUM_SEGMENTS, "MAD", key));
+        Assertions.assertEquals(firstMarshalledKeys, marshalledKeys.get());
+
+        // The same key of another group, or with another number of segments, is another grouped key
+        Assertions.assertNotEquals(groupedKey, groupedKeys.toGroupedKey(countingKeyToBytes, NUM_SEGMENTS, "DUB", key));
+        Assertions.assertEquals(2, groupedKeys.size());
+        groupedKeys.toGroupedKey(countingKeyToBytes, NUM_SEGMENTS * 2, "MAD", key);
+        Assertions.assertEquals(1, groupedKeys.size());
+    }
+}
@@ -0,0 +1,233 @@
+package com.ryanair.interconnections.api;
+
+import com.ryanair.interconnections.api.client.SchedulesClient;
+import com.ryanair.interconnections.api.metrics.SearchMetrics;
+import com.ryanair.interconnections.api.model.explore.DestinationSummary;
+import com.ryanair.interconnections.api.model.page.FlightPage;
+import com.ryanair.interconnections.api.model.page.FlightPageRequest;
+import com.ryanair.interconnections.api.model.page.FlightSort;
+import com.ryanair.interconnections.api.model.plan.FetchPlan;
+import com.ryanair.interconnections.api.model.response.FlightLegResponse;
+import com.ryanair.interconnections.api.model.response.FlightResponse;
+import com.ryanair.interconnections.api.model.route.Route;
+import com.ryanair.interconnections.api.model.schedule.ConnectionRules;
+import com.ryanair.interconnections.api.model.schedule.Day;
+import com.ryanair.interconnections.api.model.schedule.LegTimetable;
+import com.ryanair.interconnections.api.model.schedule.Schedule;
+import com.ryanair.interconnections.api.service.SchedulesOneStopService;
+import com.ryanair.interconnections.api.snapshot.WarmCache;
+import com.ryanair.interconnections.cache.manager.InterconnectionsCacheManager;
+import com.ryanair.interconnections.cache.repo.FlightRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.infinispan.client.hotrod.RemoteCacheManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class CheckLegTimetableTest {
+
+    private final Route directRoute = RandomSchedules.route("MAD", "DUB");
+    private final List<List<Route>> oneStopRoutes = Arrays.asList(
+            Arrays.asList(RandomSchedules.route("MAD", "STN"), RandomSchedules.route("STN", "DUB")),
+            Arrays.asList(RandomSchedules.route("MAD", "BGY"), RandomSchedules.route("BGY", "DUB")));
+
+    private final SchedulesClient schedulesClient = new SchedulesClient(new SimpleMeterRegistry(), 0.1, null, WarmCache.disabled()) {
+        @Override
+        public Schedule getSchedule(Route route, LocalDateTime dateTime, Duration timeout) {
+            return schedule(route, dateTime);
+        }
+    };
+
+    private static Schedule schedule(Route route, LocalDateTime dateTime) {
+        return RandomSchedules.schedule(route, dateTime, 5);
+    }
+
+    /**
+     * The legs of a route in a month, built one by one as the search did before the leg timetables
+     */
+    private static List<FlightLegResponse> legs(Route route, LocalDateTime dateTime) {
+        List<FlightLegResponse> legs = new ArrayList<>();
+        for (Day day : schedule(route, dateTime).getDays()) {
+            day.getFlights().forEach(flight -> legs.add(new FlightLegResponse(route.getAirportFrom(),
+                    route.getAirportTo(),
+                    dateTime.withDayOfMonth(day.getDay()).with(flight.getDepartureTime()),
+                    dateTime.withDayOfMonth(day.getDay()).with(flight.getArrivalTime()))));
+        }
+        return legs;
+    }
+
+    private static String describe(FlightResponse flight) {
+        return flight.getStops() + flight.getLegs().stream()
+                .map(leg -> leg.getDepartureAirport() + leg.getDepartureDateTime() + leg.getArrivalAirport() + leg.getArrivalDateTime())
+                .collect(Collectors.joining("|"));
+    }
+
+    /**
+     * Compare the join with every pair of legs of the one stop routes that meets the connection rules
+     */
+    private void checkJoin(ConnectionRules connectionRules, FlightPageRequest pageRequest) {
+        SchedulesOneStopService schedulesOneStopService = new SchedulesOneStopService(schedulesClient, Runnable::run, new SearchMetrics(new SimpleMeterRegistry()), connectionRules);
+        FlightRepository repository = new FlightRepository();
+        ReflectionTestUtils.setField(repository, "cacheManager", new InterconnectionsCacheManager(new RemoteCacheManager(false), new SimpleMeterRegistry(), 1000));
+        ReflectionTestUtils.setField(schedulesOneStopService, "repository", repository);
+        LocalDateTime departureDateTime = LocalDateTime.parse("2021-01-05T07:30:30");
+        LocalDateTime arrivalDateTime = LocalDateTime.parse("2021-01-12T18:00");
+
+        FetchPlan<LegTimetable> fetchPlan = schedulesOneStopService.newFetchPlan();
+        schedulesOneStopService.planFlights(fetchPlan, oneStopRoutes, directRoute, departureDateTime, arrivalDateTime);
+        fetchPlan.await();
+        List<FlightResponse> flights = schedulesOneStopService.getAllFlights(oneStopRoutes, directRoute, "MAD", "DUB",
+                departureDateTime, arrivalDateTime, pageRequest, fetchPlan);
+        int maxLayoverMinutes = connectionRules.getMaxLayoverMinutes(pageRequest.getMaxLayover());
+
+        List<String> expectedFlights = new ArrayList<>();
+        for (FlightLegResponse leg : legs(directRoute, departureDateTime)) {
+            if (!leg.getDepartureDateTime().isBefore(departureDateTime) && !leg.getArrivalDateTime().isAfter(arrivalDateTime)) {
+                expectedFlights.add(describe(new FlightResponse(0, List.of(leg))));
+            }
+        }
+        for (List<Route> oneStopRoute : oneStopRoutes) {
+            for (FlightLegResponse firstLeg : legs(oneStopRoute.get(0), departureDateTime)) {
+                for (FlightLegResponse secondLeg : legs(oneStopRoute.get(1), departureDateTime)) {
+                    long layover = firstLeg.getArrivalDateTime().until(secondLeg.getDepartureDateTime(), ChronoUnit.MINUTES);
+                    if (!firstLeg.getDepartureDateTime().isBefore(departureDateTime)
+                            && !firstLeg.getArrivalDateTime().isAfter(arrivalDateTime)
+                            && layover >= connectionRules.getMinConnectionMinutes(firstLeg.getArrivalAirport())
+                            && layover <= maxLayoverMinutes
+                            && !secondLeg.getArrivalDateTime().isAfter(arrivalDateTime)) {
+                        expectedFlights.add(describe(new FlightResponse(1, List.of(firstLeg, secondLeg))));
+                    }
+                }
+            }
+        }
+
+        Assertions.assertTrue(RandomSchedules.hasOvernightFlights(schedule(directRoute, departureDateTime)));
+        Assertions.assertFalse(expectedFlights.isEmpty());
+        Assertions.assertEquals(expectedFlights.stream().sorted().collect(Collectors.toList()),
+                flights.stream().map(CheckLegTimetableTest::describe).sorted().collect(Collectors.toList()));
+    }
+
+    /**
+     * Compare the summary of a destination with the flights of the join
+     */
+    private void checkDestinationSummary(ConnectionRules connectionRules, LocalDateTime departureDateTime, LocalDateTime arrivalDateTime) {
+        SchedulesOneStopService schedulesOneStopService = new SchedulesOneStopService(schedulesClient, Runnable::run, new SearchMetrics(new SimpleMeterRegistry()), connectionRules);
+        FlightRepository repository = new FlightRepository();
+        ReflectionTestUtils.setField(repository, "cacheManager", new InterconnectionsCacheManager(new RemoteCacheManager(false), new SimpleMeterRegistry(), 1000));
+        ReflectionTestUtils.setField(schedulesOneStopService, "repository", repository);
+
+        FetchPlan<LegTimetable> fetchPlan = schedulesOneStopService.newFetchPlan();
+        schedulesOneStopService.planFlights(fetchPlan, oneStopRoutes, directRoute, departureDateTime, arrivalDateTime);
+        List<FlightResponse> flights = schedulesOneStopService.getAllFlights(oneStopRoutes, directRoute, "MAD", "DUB",
+                departureDateTime, arrivalDateTime, FlightPageRequest.unpaged(), fetchPlan);
+        DestinationSummary summary = schedulesOneStopService.getDestinationSummary(oneStopRoutes, directRoute, "DUB",
+                departureDateTime, arrivalDateTime, fetchPlan);
+
+        Assertions.assertFalse(flights.isEmpty());
+        Assertions.assertEquals(flights.stream().filter(flight -> flight.getStops() == 0).count(), summary.getDirectItineraries());
+        Assertions.assertEquals(flights.stream().filter(flight -> flight.getStops() == 1).count(), summary.getOneStopItineraries());
+        Assertions.assertEquals(flights.stream().map(flight -> flight.getLegs().get(0).getDepartureDateTime()).min(Comparator.naturalOrder()).get(),
+                summary.getEarliestDepartureDateTime());
+        Assertions.assertEquals(flights.stream().map(flight -> flight.getLegs().get(flight.getLegs().size() - 1).getArrivalDateTime()).min(Comparator.naturalOrder()).get(),
+                summary.getEarliestArrivalDateTime());
+    }
+
+    @Test
+    public void checkDestinationSummaryCountsTheJoin() {
+        checkDestinationSummary(ConnectionRules.defaults(), LocalDateTime.parse("2021-01-05T07:30:30"), LocalDateTime.parse("2021-01-12T18:00"));
+        checkDestinationSummary(ConnectionRules.of(120, "STN:45", 300), LocalDateTime.parse("2021-01-05T07:30:30"), LocalDateTime.parse("2021-01-12T18:00"));
+        checkDestinationSummary(ConnectionRules.of(60, "", 0), LocalDateTime.parse("2021-01-05T00:00"), LocalDateTime.parse("2021-01-05T23:59"));
+        checkDestinationSummary(ConnectionRules.of(60, "", 240), LocalDateTime.parse("2021-01-20T13:00"), LocalDateTime.parse("2021-01-21T10:10"));
+    }
+
+    @Test
+    public void checkJoinMatchesFlightByFlightJoin() {
+        checkJoin(ConnectionRules.defaults(), FlightPageRequest.unpaged());
+    }
+
+    @Test
+    public void checkJoinAppliesConnectionRules() {
+        checkJoin(ConnectionRules.of(120, "STN:45, BGY:180", 0), FlightPageRequest.unpaged());
+        checkJoin(ConnectionRules.of(120, "STN:45", 600), FlightPageRequest.of(null, null, null, 240));
+        checkJoin(ConnectionRules.of(60, "", 300), FlightPageRequest.unpaged());
+        // A requested maximum layover too long to add to an epoch minute is no shorter than any layover
+        checkJoin(ConnectionRules.defaults(), FlightPageRequest.of(null, null, null, 2147483000));
+    }
+
+    @Test
+    public void checkLegsAndAirportsAreShared() {
+        LocalDateTime month = LocalDateTime.parse("2021-01-01T00:00");
+        LegTimetable firstLegTimetable = LegTimetable.of(RandomSchedules.route("MAD", "STN"), month, schedule(RandomSchedules.route("MAD", "STN"), month));
+        LegTimetable secondLegTimetable = LegTimetable.of(RandomSchedules.route("STN", "DUB"), month, schedule(RandomSchedules.route("STN", "DUB"), month));
+
+        Assertions.assertSame(firstLegTimetable.getArrivalAirport(), secondLegTimetable.getDepartureAirport());
+        Assertions.assertSame(firstLegTimetable.getLeg(0), firstLegTimetable.getLeg(0));
+        Assertions.assertSame(firstLegTimetable.getLeg(0), firstLegTimetable.toOneStopFlight(0, secondLegTimetable, 0).getLegs().get(0));
+        for (int flight = 1; flight < firstLegTimetable.size(); flight++) {
+            Assertions.assertTrue(firstLegTimetable.getDepartureMinute(flight - 1) <= firstLegTimetable.getDepartureMinute(flight));
+        }
+        Assertions.assertEquals(firstLegTimetable.size(), firstLegTimetable.findFirstDepartureFrom(Integer.MAX_VALUE));
+        Assertions.assertEquals(LegTimetable.toEpochMinuteFloor(month) + 1, LegTimetable.toEpochMinuteCeiling(month.plusSeconds(1)));
+    }
+
+    @Test
+    public void checkDaysOutOfTheMonthAreSkipped() {
+        LocalDateTime month = LocalDateTime.parse("2021-02-01T00:00");
+        Schedule schedule = schedule(RandomSchedules.route("MAD", "STN"), month);
+        int flights = LegTimetable.of(RandomSchedules.route("MAD", "STN"), month, schedule).size();
+        for (int dayOfMonth : new int[]{0, 29, 31}) {
+            Day day = new Day();
+            day.setDay(dayOfMonth);
+            day.setFlights(schedule.getDays().get(1).getFlights());
+            schedule.getDays().add(day);
+        }
+
+        Assertions.assertEquals(flights, LegTimetable.of(RandomSchedules.route("MAD", "STN"), month, schedule).size());
+    }
+
+    @Test
+    public void checkItineraryPagesMatchFullSort() {
+        SchedulesOneStopService schedulesOneStopService = new SchedulesOneStopService(schedulesClient, Runnable::run, new SearchMetrics(new SimpleMeterRegistry()), ConnectionRules.of(60, "", 600));
+        FlightRepository repository = new FlightRepository();
+        ReflectionTestUtils.setField(repository, "cacheManager", new InterconnectionsCacheManager(new RemoteCacheManager(false), new SimpleMeterRegistry(), 1000));
+        ReflectionTestUtils.setField(schedulesOneStopService, "repository", repository);
+        LocalDateTime departureDateTime = LocalDateTime.parse("2021-01-05T07:30:30");
+        LocalDateTime arrivalDateTime = LocalDateTime.parse("2021-01-08T18:00");
+
+        FetchPlan<LegTimetable> fetchPlan = schedulesOneStopService.newFetchPlan();
+        schedulesOneStopService.planFlights(fetchPlan, oneStopRoutes, directRoute, departureDateTime, arrivalDateTime);
+        fetchPlan.await();
+        List<FlightResponse> flights = schedulesOneStopService.getAllFlights(oneStopRoutes, directRoute, "MAD", "DUB",
+                departureDateTime, arrivalDateTime, FlightPageRequest.unpaged(), fetchPlan);
+
+        // The itineraries are sorted and paged in the same order as the flights built from them
+        for (FlightSort sort : FlightSort.values()) {
+            List<String> expected = flights.stream()
+                    .sorted(sort.getComparator())
+                    .map(CheckLegTimetableTest::describe)
+                    .collect(Collectors.toList());
+
+            List<String> actual = new ArrayList<>();
+            String cursor = null;
+            do {
+                FlightPageRequest pageRequest = FlightPageRequest.of(sort.name(), 7, cursor);
+                FlightPage page = pageRequest.toPage(schedulesOneStopService.getAllFlights(oneStopRoutes, directRoute, "MAD", "DUB",
+                        departureDateTime, arrivalDateTime, pageRequest, fetchPlan));
+                page.getFlights().forEach(flight -> actual.add(describe(flight)));
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            Assertions.assertTrue(expected.size() > 7);
+            Assertions.assertEquals(expected, actual);
+        }
+    }
+}
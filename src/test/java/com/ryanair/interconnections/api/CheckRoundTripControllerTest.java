@@ -0,0 +1,130 @@
+package com.ryanair.interconnections.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ryanair.interconnections.api.client.RoutesClient;
+import com.ryanair.interconnections.api.client.SchedulesClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+@SpringBootTest(properties = "logging.config=classpath:logback-spring.xml")
+@AutoConfigureMockMvc
+public class CheckRoundTripControllerTest {
+
+    private static final String OUTBOUND = "departureDateTime=2020-09-10T07:00&arrivalDateTime=2020-09-12T21:00";
+    private static final String INBOUND = "departureDateTime=2020-09-12T07:00&arrivalDateTime=2020-09-14T21:00";
+    private static final String ROUND_TRIP = "/interconnections/roundtrip?departure=MAD&arrival=DUB&" + OUTBOUND
+            + "&returnDepartureDateTime=2020-09-12T07:00&returnArrivalDateTime=2020-09-14T21:00";
+
+    @MockBean
+    private RoutesClient routesClient;
+
+    @MockBean
+    private SchedulesClient schedulesClient;
+
+    @Value("${interconnections.roundtrip.max-pairs}")
+    private int maxRoundTripPairs;
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    public CheckRoundTripControllerTest(MockMvc mockMvc) {
+        this.mockMvc = mockMvc;
+    }
+
+    @BeforeEach
+    public void setup() {
+        StubbedUpstream.stub(routesClient, schedulesClient);
+    }
+
+    @Test
+    public void checkRoundTripMatchesBothSearches() throws Exception {
+        JsonNode outbound = get("/interconnections?departure=MAD&arrival=DUB&" + OUTBOUND);
+        JsonNode inbound = get("/interconnections?departure=DUB&arrival=MAD&" + INBOUND);
+        Assertions.assertFalse(outbound.isEmpty());
+        Assertions.assertFalse(inbound.isEmpty());
+
+        JsonNode roundTrip = get(ROUND_TRIP);
+        Assertions.assertEquals(outbound, roundTrip.get("outbound"));
+        Assertions.assertEquals(inbound, roundTrip.get("inbound"));
+        Assertions.assertNull(roundTrip.get("pairs"));
+    }
+
+    @Test
+    public void checkPairsDepartAfterTheOutboundArrival() throws Exception {
+        JsonNode outbound = get("/interconnections?departure=MAD&arrival=DUB&" + OUTBOUND);
+        JsonNode inbound = get("/interconnections?departure=DUB&arrival=MAD&" + INBOUND);
+        List<JsonNode> expectedPairs = pairs(outbound, inbound);
+        Assertions.assertFalse(expectedPairs.isEmpty());
+
+        JsonNode roundTrip = get(ROUND_TRIP + "&paired=true");
+        Assertions.assertNull(roundTrip.get("outbound"));
+        Assertions.assertNull(roundTrip.get("inbound"));
+        List<JsonNode> pairs = new ArrayList<>();
+        roundTrip.get("pairs").forEach(pairs::add);
+        Assertions.assertEquals(expectedPairs.size(), pairs.size());
+        Assertions.assertEquals(new HashSet<>(expectedPairs), new HashSet<>(pairs));
+    }
+
+    @Test
+    public void checkTooManyPairsAreRejected() throws Exception {
+        // A whole month both ways has more pairs than the maximum, although both searches are small enough
+        String outboundMonth = "departureDateTime=2020-09-01T00:00&arrivalDateTime=2020-09-30T23:59";
+        JsonNode outbound = get("/interconnections?departure=MAD&arrival=DUB&" + outboundMonth);
+        JsonNode inbound = get("/interconnections?departure=DUB&arrival=MAD&" + outboundMonth);
+        Assertions.assertTrue(pairs(outbound, inbound).size() > maxRoundTripPairs);
+
+        String roundTrip = "/interconnections/roundtrip?departure=MAD&arrival=DUB&" + outboundMonth
+                + "&returnDepartureDateTime=2020-09-01T00:00&returnArrivalDateTime=2020-09-30T23:59";
+        String message = mockMvc.perform(MockMvcRequestBuilders.get(roundTrip + "&paired=true"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andReturn().getResponse().getErrorMessage();
+        Assertions.assertNotNull(message);
+        Assertions.assertTrue(message.contains(String.valueOf(maxRoundTripPairs)));
+
+        // The same round trip without pairing is not bounded
+        mockMvc.perform(MockMvcRequestBuilders.get(roundTrip))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    /**
+     * Pair every outbound flight with every inbound flight that departs after it arrives, trying every pair
+     */
+    private List<JsonNode> pairs(JsonNode outbound, JsonNode inbound) {
+        List<JsonNode> pairs = new ArrayList<>();
+        for (JsonNode outboundFlight : outbound) {
+            JsonNode outboundLegs = outboundFlight.get("legs");
+            String arrival = outboundLegs.get(outboundLegs.size() - 1).get("arrivalDateTime").asText();
+            for (JsonNode inboundFlight : inbound) {
+                if (inboundFlight.get("legs").get(0).get("departureDateTime").asText().compareTo(arrival) >= 0) {
+                    ObjectNode pair = objectMapper.createObjectNode();
+                    pair.set("outbound", outboundFlight);
+                    pair.set("inbound", inboundFlight);
+                    pairs.add(pair);
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private JsonNode get(String uri) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(MockMvcRequestBuilders.get(uri))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,109 @@
+package com.ryanair.interconnections.api;
+
+import com.ryanair.interconnections.api.client.SchedulesClient;
+import com.ryanair.interconnections.api.client.guard.AdaptiveConcurrencyLimiter;
+import com.ryanair.interconnections.api.client.guard.CircuitBreaker;
+import com.ryanair.interconnections.api.client.guard.UpstreamGuard;
+import com.ryanair.interconnections.api.model.route.Route;
+import com.ryanair.interconnections.api.model.schedule.Schedule;
+import com.ryanair.interconnections.api.snapshot.WarmCache;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CheckSchedulesHedgingTest {
+
+    private static final byte[] SCHEDULE = "{\"month\":1,\"days\":[]}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SCHEDULE_WITHOUT_FLIGHTS = "{\"month\":3,\"days\":[{\"day\":1}]}".getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpServer schedulesApi;
+    private SchedulesClient schedulesClient;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        // The first request of January is stalled, the next ones answer at once
+        schedulesApi = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        schedulesApi.setExecutor(Executors.newCachedThreadPool());
+        schedulesApi.createContext("/", exchange -> {
+            if (exchange.getRequestURI().getPath().endsWith("/months/1") && requests.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] schedule = exchange.getRequestURI().getPath().endsWith("/months/3") ? SCHEDULE_WITHOUT_FLIGHTS : SCHEDULE;
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, schedule.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(schedule);
+            }
+        });
+        schedulesApi.start();
+
+        UpstreamGuard guard = new UpstreamGuard("schedules",
+                new AdaptiveConcurrencyLimiter(64, 64, 64, Duration.ofSeconds(10), 0.9),
+                new CircuitBreaker(0.5, 20, Duration.ofSeconds(30)),
+                Duration.ofSeconds(1), meterRegistry);
+        schedulesClient = new SchedulesClient(meterRegistry, 1.0, guard, WarmCache.disabled());
+        ReflectionTestUtils.setField(schedulesClient, "scheduleUrl",
+                "http://127.0.0.1:" + schedulesApi.getAddress().getPort() + "/%s/%s/years/%s/months/%s");
+        ReflectionTestUtils.setField(schedulesClient, "minHedgeDelayMillis", 50L);
+        ReflectionTestUtils.setField(schedulesClient, "minHedgeSamples", 0L);
+    }
+
+    @AfterEach
+    public void shutdown() {
+        schedulesApi.stop(0);
+    }
+
+    @Test
+    public void checkHedgedRequestWins() {
+        Route route = new Route("MAD", "DUB", null, false, false, "RYANAIR", null);
+
+        // Warm up the client without hedging, so the first request of January is sent before the hedged one
+        schedulesClient.getSchedule(route, LocalDateTime.parse("2021-02-01T00:00"));
+
+        // The first request of the client is slow, so the p95 latency is set by fast requests instead
+        Timer latency = meterRegistry.get("ryanair.api.schedules.requests").timer();
+        for (int i = 0; i < 100; i++) {
+            latency.record(Duration.ofMillis(10));
+        }
+        ReflectionTestUtils.setField(schedulesClient, "hedgingEnabled", true);
+
+        long start = System.nanoTime();
+        Schedule schedule = schedulesClient.getSchedule(route, LocalDateTime.parse("2021-01-01T00:00"));
+
+        Assertions.assertEquals(1, schedule.getMonth());
+        Assertions.assertTrue(System.nanoTime() - start < 3_000_000_000L);
+        Assertions.assertEquals(2, requests.get());
+        Assertions.assertEquals(1, meterRegistry.get("ryanair.api.schedules.hedges").tag("outcome", "fired").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get("ryanair.api.schedules.hedges").tag("outcome", "won").counter().count());
+    }
+
+    @Test
+    public void checkDayWithoutFlightsIsValid() {
+        Route route = new Route("MAD", "DUB", null, false, false, "RYANAIR", null);
+
+        Schedule schedule = schedulesClient.getSchedule(route, LocalDateTime.parse("2021-03-01T00:00"));
+
+        Assertions.assertEquals(3, schedule.getMonth());
+        Assertions.assertNull(schedule.getDays().get(0).getFlights());
+    }
+}
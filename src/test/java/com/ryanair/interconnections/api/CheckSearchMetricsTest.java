@@ -0,0 +1,92 @@
+package com.ryanair.interconnections.api;
+
+import com.ryanair.interconnections.api.metrics.SearchMetrics;
+import com.ryanair.interconnections.api.model.explain.SearchExplanation;
+import com.ryanair.interconnections.api.model.explain.TimetableFetch;
+import com.ryanair.interconnections.api.model.plan.Deadline;
+import com.ryanair.interconnections.api.model.plan.FetchPlan;
+import com.ryanair.interconnections.api.model.route.Route;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class CheckSearchMetricsTest {
+
+    private static final LocalDateTime MONTH = LocalDateTime.parse("2021-01-01T00:00");
+
+    @Test
+    public void checkFetchesAreTaggedByCacheHitOrMiss() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SearchMetrics searchMetrics = new SearchMetrics(meterRegistry);
+        FetchPlan<String> fetchPlan = new FetchPlan<>((route, dateTime) -> route.getAirportTo(), Runnable::run,
+                Deadline.none(), "", searchMetrics.fetchListener());
+        Route route = new Route("MAD", "DUB", null, false, false, "RYANAIR", null);
+        Route otherRoute = new Route("MAD", "STN", null, false, false, "RYANAIR", null);
+
+        // The second search of the same timetable is a hit, and reading the planned timetables is not a fetch
+        fetchPlan.add(route, MONTH);
+        fetchPlan.add(route, MONTH);
+        fetchPlan.add(otherRoute, MONTH);
+        Assertions.assertEquals("DUB", fetchPlan.getTimetable(route, MONTH));
+        Assertions.assertEquals("STN", fetchPlan.getTimetable(otherRoute, MONTH));
+
+        Assertions.assertEquals(2, meterRegistry.get("interconnections.search.fetch").tag("cache", "miss").timer().count());
+        Assertions.assertEquals(1, meterRegistry.get("interconnections.search.fetch").tag("cache", "hit").timer().count());
+    }
+
+    @Test
+    public void checkStagesAreTimed() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SearchMetrics searchMetrics = new SearchMetrics(meterRegistry);
+
+        Assertions.assertEquals(3, searchMetrics.timeStage(SearchMetrics.JOIN_STAGE, () -> 1 + 2));
+        Assertions.assertThrows(IllegalStateException.class, () -> searchMetrics.timeStage(SearchMetrics.GRID_PUT_STAGE, () -> {
+            throw new IllegalStateException();
+        }));
+
+        Assertions.assertEquals(1, meterRegistry.get("interconnections.search.stage").tag("stage", "join").timer().count());
+        Assertions.assertEquals(1, meterRegistry.get("interconnections.search.stage").tag("stage", "grid-put").timer().count());
+    }
+
+    @Test
+    public void checkExplainedSearchIsRecorded() {
+        SearchMetrics searchMetrics = new SearchMetrics(new SimpleMeterRegistry());
+        SearchExplanation explanation = new SearchExplanation("MAD", "DUB", MONTH, MONTH.plusDays(1));
+        Route firstLeg = new Route("MAD", "STN", null, false, false, "RYANAIR", null);
+        Route secondLeg = new Route("STN", "DUB", null, false, false, "RYANAIR", null);
+        List<List<Route>> oneStopRoutes = Collections.singletonList(Arrays.asList(firstLeg, secondLeg));
+
+        searchMetrics.explain(explanation, () -> {
+            FetchPlan<String> fetchPlan = new FetchPlan<>((route, dateTime) -> route.getAirportTo(), Runnable::run,
+                    Deadline.none(), "", searchMetrics.fetchListener());
+            searchMetrics.recordHubs(oneStopRoutes);
+            fetchPlan.add(firstLeg, MONTH);
+            fetchPlan.add(secondLeg, MONTH);
+            fetchPlan.add(secondLeg, MONTH);
+            searchMetrics.timeStage(SearchMetrics.JOIN_STAGE, () -> fetchPlan.getTimetable(firstLeg, MONTH));
+            searchMetrics.recordCombinations(6);
+            searchMetrics.recordResults(2);
+            return null;
+        });
+
+        // A search out of the explanation is not recorded in it
+        searchMetrics.recordCombinations(100);
+
+        Assertions.assertEquals(Collections.singletonList("STN"), explanation.getHubs());
+        Assertions.assertTrue(explanation.getStages().containsKey(SearchMetrics.JOIN_STAGE));
+        Assertions.assertEquals(6, explanation.getCombinations());
+        Assertions.assertEquals(2, explanation.getResults());
+
+        List<TimetableFetch> timetables = explanation.getTimetables();
+        Assertions.assertEquals(3, timetables.size());
+        Assertions.assertEquals("MAD-STN", timetables.get(0).getRoute());
+        Assertions.assertEquals(TimetableFetch.UPSTREAM_SOURCE, timetables.get(0).getSource());
+        Assertions.assertEquals(2, timetables.stream().filter(timetable -> timetable.getRoute().equals("STN-DUB")).count());
+        Assertions.assertEquals(1, timetables.stream().filter(timetable -> timetable.getSource().equals(TimetableFetch.PLAN_SOURCE)).count());
+    }
+}
@@ -0,0 +1,82 @@
+package com.ryanair.interconnections.api;
+
+import com.ryanair.interconnections.api.client.guard.AdaptiveConcurrencyLimiter;
+import com.ryanair.interconnections.api.client.guard.CircuitBreaker;
+import com.ryanair.interconnections.api.client.guard.UpstreamGuard;
+import com.ryanair.interconnections.api.exception.UpstreamUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+public class CheckUpstreamGuardTest {
+
+    @Test
+    public void checkLimitIncreasesWithFastRequestsAndDecreasesWithSlowRequests() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 10, 2, Duration.ofMillis(100), 0.5);
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertTrue(limiter.acquire(Duration.ZERO));
+            Assertions.assertTrue(limiter.acquire(Duration.ZERO));
+            limiter.onSuccess(Duration.ofMillis(10).toNanos());
+            limiter.onSuccess(Duration.ofMillis(10).toNanos());
+        }
+        int increasedLimit = limiter.getLimit();
+        Assertions.assertTrue(increasedLimit > 2);
+
+        Assertions.assertTrue(limiter.acquire(Duration.ZERO));
+        limiter.onSuccess(Duration.ofMillis(500).toNanos());
+        Assertions.assertTrue(limiter.getLimit() < increasedLimit);
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void checkRequestsOverTheLimitAreRejected() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, Duration.ofSeconds(1), 0.5);
+        Assertions.assertTrue(limiter.acquire(Duration.ZERO));
+        Assertions.assertFalse(limiter.acquire(Duration.ofMillis(20)));
+        limiter.onIgnored();
+        Assertions.assertTrue(limiter.acquire(Duration.ZERO));
+    }
+
+    @Test
+    public void checkCircuitOpensAndClosesAfterATrialRequest() throws InterruptedException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(0.5, 4, Duration.ofMillis(50));
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(circuitBreaker.tryAcquire());
+            circuitBreaker.onResult(i % 2 == 0);
+        }
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assertions.assertFalse(circuitBreaker.tryAcquire());
+
+        Thread.sleep(100);
+        Assertions.assertTrue(circuitBreaker.tryAcquire());
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        Assertions.assertFalse(circuitBreaker.tryAcquire());
+        circuitBreaker.onResult(false);
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void checkGuardFailsFastWhenTheCircuitIsOpen() {
+        UpstreamGuard guard = new UpstreamGuard("schedules",
+                new AdaptiveConcurrencyLimiter(1, 10, 10, Duration.ofSeconds(1), 0.5),
+                new CircuitBreaker(1.0, 2, Duration.ofMinutes(1)),
+                Duration.ZERO, new SimpleMeterRegistry());
+
+        // A client error does not count as a failure of the API
+        WebClientResponseException notFound = WebClientResponseException.create(HttpStatus.NOT_FOUND.value(), "Not Found", null, null, null);
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertThrows(WebClientResponseException.class, () -> guard.guard(Mono.error(notFound), true).block());
+        }
+        Assertions.assertEquals("ok", guard.guard(Mono.just("ok"), true).block());
+
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertThrows(IllegalStateException.class, () -> guard.guard(Mono.error(new IllegalStateException()), true).block());
+        }
+        Assertions.assertThrows(UpstreamUnavailableException.class, () -> guard.guard(Mono.just("ok"), true).block());
+    }
+}
@@ -0,0 +1,132 @@
+package com.ryanair.interconnections.api;
+
+import com.ryanair.interconnections.api.model.route.Route;
+import com.ryanair.interconnections.api.model.schedule.Day;
+import com.ryanair.interconnections.api.model.schedule.Flight;
+import com.ryanair.interconnections.api.model.schedule.Schedule;
+import com.ryanair.interconnections.api.snapshot.SnapshotFile;
+import com.ryanair.interconnections.api.snapshot.SnapshotTimetable;
+import com.ryanair.interconnections.api.snapshot.WarmCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+
+public class CheckWarmSnapshotTest {
+
+    private static final Route ROUTE = new Route("MAD", "DUB", null, false, false, "RYANAIR", "GENERIC");
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2026, 10, 19, 7, 0);
+
+    @TempDir
+    Path directory;
+
+    private static Schedule schedule() {
+        Flight flight = new Flight();
+        flight.setNumber("7172");
+        flight.setDepartureTime(LocalTime.of(7, 10));
+        flight.setArrivalTime(LocalTime.of(8, 55));
+        Day day = new Day();
+        day.setDay(19);
+        day.setFlights(List.of(flight));
+        Schedule schedule = new Schedule();
+        schedule.setMonth(10);
+        schedule.setDays(List.of(day));
+        return schedule;
+    }
+
+    private Path writeSnapshot() throws IOException {
+        WarmCache warmCache = new WarmCache(true, 60_000, 10);
+        warmCache.putRoutes(List.of(ROUTE));
+        warmCache.putSchedule(ROUTE, DATE_TIME, schedule());
+        Path path = directory.resolve("interconnections.snapshot");
+        warmCache.toSnapshot().write(path);
+        return path;
+    }
+
+    @Test
+    public void checkSnapshotIsRestored() throws IOException {
+        WarmCache restoredCache = new WarmCache(true, 60_000, 10);
+        restoredCache.restore(SnapshotFile.read(writeSnapshot()));
+
+        Route route = restoredCache.getRoutes().get(0);
+        Assertions.assertEquals("MAD", route.getAirportFrom());
+        Assertions.assertNull(route.getConnectingAirport());
+        Assertions.assertEquals("RYANAIR", route.getOperator());
+
+        Flight flight = restoredCache.getSchedule(ROUTE, DATE_TIME).getDays().get(0).getFlights().get(0);
+        Assertions.assertEquals("7172", flight.getNumber());
+        Assertions.assertEquals(LocalTime.of(7, 10), flight.getDepartureTime());
+        Assertions.assertEquals(LocalTime.of(8, 55), flight.getArrivalTime());
+        Assertions.assertNull(restoredCache.getSchedule(ROUTE, DATE_TIME.plusMonths(1)));
+    }
+
+    @Test
+    public void checkCorruptedSnapshotIsRejected() throws IOException {
+        Path path = writeSnapshot();
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(path, bytes);
+        Assertions.assertThrows(IOException.class, () -> SnapshotFile.read(path));
+    }
+
+    @Test
+    public void checkOtherFormatVersionIsRejected() throws IOException {
+        Path path = writeSnapshot();
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer.wrap(bytes).putInt(Integer.BYTES, SnapshotFile.FORMAT_VERSION + 1);
+        Files.write(path, bytes);
+        Assertions.assertThrows(IOException.class, () -> SnapshotFile.read(path));
+    }
+
+    @Test
+    public void checkOldOrDisabledEntriesAreNotServed() {
+        WarmCache expiredCache = new WarmCache(true, 0, 10);
+        expiredCache.putRoutes(List.of(ROUTE));
+        expiredCache.putSchedule(ROUTE, DATE_TIME, schedule());
+        Assertions.assertNull(expiredCache.getRoutes());
+        Assertions.assertNull(expiredCache.getSchedule(ROUTE, DATE_TIME));
+
+        SnapshotFile expiredSnapshot = expiredCache.toSnapshot();
+        Assertions.assertTrue(expiredSnapshot.getRoutes().isEmpty());
+        Assertions.assertTrue(expiredSnapshot.getTimetables().isEmpty());
+
+        WarmCache disabledCache = WarmCache.disabled();
+        disabledCache.putRoutes(List.of(ROUTE));
+        Assertions.assertNull(disabledCache.getRoutes());
+        Assertions.assertTrue(disabledCache.toSnapshot().getTimetables().isEmpty());
+    }
+
+    @Test
+    public void checkSnapshotKeepsTheAgeOfItsEntries() throws IOException {
+        long now = System.currentTimeMillis();
+        SnapshotTimetable oldTimetable = new SnapshotTimetable("MAD", "DUB", YearMonth.from(DATE_TIME), schedule(), now - 50_000);
+        SnapshotTimetable expiredTimetable = new SnapshotTimetable("MAD", "DUB", YearMonth.from(DATE_TIME).plusMonths(1), schedule(), now - 70_000);
+        Path path = directory.resolve("interconnections.snapshot");
+        new SnapshotFile(now, List.of(ROUTE), now - 70_000, List.of(oldTimetable, expiredTimetable)).write(path);
+
+        SnapshotFile snapshot = SnapshotFile.read(path);
+        Assertions.assertEquals(now - 70_000, snapshot.getRoutesStoredMillis());
+        Assertions.assertEquals(now - 50_000, snapshot.getTimetables().get(0).getStoredMillis());
+
+        // The entries are restored with their age, not as if they were received now
+        WarmCache restoredCache = new WarmCache(true, 60_000, 10);
+        restoredCache.restore(snapshot);
+        Assertions.assertNull(restoredCache.getRoutes());
+        Assertions.assertNotNull(restoredCache.getSchedule(ROUTE, DATE_TIME));
+        Assertions.assertNull(restoredCache.getSchedule(ROUTE, DATE_TIME.plusMonths(1)));
+
+        // The next snapshot keeps the age of the restored entries
+        SnapshotFile nextSnapshot = restoredCache.toSnapshot();
+        Assertions.assertTrue(nextSnapshot.getRoutes().isEmpty());
+        Assertions.assertEquals(1, nextSnapshot.getTimetables().size());
+        Assertions.assertEquals(now - 50_000, nextSnapshot.getTimetables().get(0).getStoredMillis());
+    }
+}
@@ -0,0 +1,71 @@
+package com.ryanair.interconnections.api;
+
+import com.ryanair.interconnections.api.model.route.Route;
+import com.ryanair.interconnections.api.model.schedule.Day;
+import com.ryanair.interconnections.api.model.schedule.Flight;
+import com.ryanair.interconnections.api.model.schedule.Schedule;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Random Schedules API responses for the checks of the joins, the same for every call with the same route and month. <br/>
+ * The flights of every day are in any order, and the flights that depart late cross midnight: as in the Schedules API,
+ * their arrival time is earlier than their departure time
+ */
+final class RandomSchedules {
+
+    private RandomSchedules() {}
+
+    /**
+     * Build a route with new airport code instances, so the timetables have to intern them
+     */
+    static Route route(String from, String to) {
+        Route route = new Route();
+        route.setAirportFrom(new String(from));
+        route.setAirportTo(new String(to));
+        return route;
+    }
+
+    /**
+     * Random timetable of a route in a month
+     * @param route the route
+     * @param dateTime a time of the month
+     * @param maxDailyFlights the maximum number of flights of a day
+     * @return the timetable
+     */
+    static Schedule schedule(Route route, LocalDateTime dateTime, int maxDailyFlights) {
+        Random random = new Random((route.getAirportFrom() + route.getAirportTo() + dateTime.getMonthValue()).hashCode());
+        List<Day> days = new ArrayList<>();
+        for (int dayOfMonth = 1; dayOfMonth <= dateTime.toLocalDate().lengthOfMonth(); dayOfMonth++) {
+            List<Flight> flights = new ArrayList<>();
+            for (int i = random.nextInt(maxDailyFlights + 1); i > 0; i--) {
+                Flight flight = new Flight();
+                flight.setDepartureTime(LocalTime.of(random.nextInt(24), random.nextInt(60)));
+                flight.setArrivalTime(flight.getDepartureTime().plusMinutes(60 + random.nextInt(180)));
+                flights.add(flight);
+            }
+            Day day = new Day();
+            day.setDay(dayOfMonth);
+            day.setFlights(flights);
+            days.add(day);
+        }
+        Schedule schedule = new Schedule();
+        schedule.setMonth(dateTime.getMonthValue());
+        schedule.setDays(days);
+        return schedule;
+    }
+
+    /**
+     * @param schedule a timetable
+     * @return a boolean result that determines if a flight of the timetable crosses midnight
+     */
+    static boolean hasOvernightFlights(Schedule schedule) {
+        return schedule.getDays().stream()
+                .flatMap(day -> day.getFlights().stream())
+                .anyMatch(flight -> flight.getArrivalTime().isBefore(flight.getDepartureTime()));
+    }
+}
@@ -0,0 +1,61 @@
+package com.ryanair.interconnections.api;
+
+import com.ryanair.interconnections.api.client.RoutesClient;
+import com.ryanair.interconnections.api.client.SchedulesClient;
+import com.ryanair.interconnections.api.model.route.Route;
+import com.ryanair.interconnections.api.model.schedule.Schedule;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Stub of the Routes and Schedules APIs for the checks of the controllers, so the application answers without network. <br/>
+ * MAD and DUB are connected direct and through STN and BCN in both directions, and every route has random schedules
+ */
+final class StubbedUpstream {
+
+    static final int MAX_DAILY_FLIGHTS = 4;
+
+    private StubbedUpstream() {}
+
+    /**
+     * @return the routes of the Routes API
+     */
+    static List<Route> routes() {
+        return List.of(
+                route("MAD", "DUB"), route("DUB", "MAD"),
+                route("MAD", "STN"), route("STN", "DUB"), route("DUB", "STN"), route("STN", "MAD"),
+                route("MAD", "BCN"), route("BCN", "DUB"), route("DUB", "BCN"), route("BCN", "MAD"));
+    }
+
+    private static Route route(String from, String to) {
+        Route route = RandomSchedules.route(from, to);
+        route.setOperator("RYANAIR");
+        return route;
+    }
+
+    /**
+     * @param route a route of the Routes API
+     * @param dateTime a time of the month
+     * @return the schedule of the route in the month returned by the Schedules API
+     */
+    static Schedule schedule(Route route, LocalDateTime dateTime) {
+        return RandomSchedules.schedule(route, dateTime, MAX_DAILY_FLIGHTS);
+    }
+
+    /**
+     * Answer the requests of the mocked clients with the stubbed routes and schedules
+     * @param routesClient the mock of the Routes API client
+     * @param schedulesClient the mock of the Schedules API client
+     */
+    static void stub(RoutesClient routesClient, SchedulesClient schedulesClient) {
+        Mockito.when(routesClient.getRoutes()).thenAnswer(invocation -> routes());
+        Mockito.when(routesClient.getRoutes(ArgumentMatchers.any())).thenAnswer(invocation -> routes());
+        Mockito.when(schedulesClient.getSchedule(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> schedule(invocation.getArgument(0), invocation.getArgument(1)));
+        Mockito.when(schedulesClient.getSchedule(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> schedule(invocation.getArgument(0), invocation.getArgument(1)));
+    }
+}